@@ -0,0 +1,379 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Annotation processor which generates a serializer for each class annotated
+ * with <code>@Loggable</code>. The generated serializer extends
+ * <code>GeneratedStenoSerializer</code> and is named after the binary name of
+ * the class with each <code>$</code> replaced by <code>_</code> and the suffix
+ * <code>_StenoSerializer</code>; <code>StenoBeanSerializerModifier</code> uses
+ * it in place of the serializer Jackson creates by introspection whenever it
+ * is present on the class path.
+ *
+ * The generated serializer writes the same properties Jackson discovers with
+ * its default configuration: public getters (including <code>is</code>
+ * getters returning <code>boolean</code> or <code>Boolean</code>) and public
+ * non-transient fields. Properties whose getter, field or overridden getter is
+ * annotated with <code>@LogRedact</code> are redacted according to the
+ * <code>StenoEncoder</code> configuration, and bean identifiers are injected
+ * when it is configured to do so.
+ *
+ * No serializer is generated for abstract, generic, inaccessible or
+ * <code>Throwable</code> classes or for classes whose hierarchy uses Jackson
+ * annotations or <code>@LogValue</code>; these continue to be serialized by
+ * Jackson and a note is emitted for each. Similarly, Jackson mix-ins and
+ * property naming strategies are not applied to generated serializers.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+@SupportedAnnotationTypes(StenoSerializerProcessor.LOGGABLE_ANNOTATION)
+public final class StenoSerializerProcessor extends AbstractProcessor {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+        for (final TypeElement annotation : annotations) {
+            for (final TypeElement type : ElementFilter.typesIn(roundEnvironment.getElementsAnnotatedWith(annotation))) {
+                generate(type);
+            }
+        }
+        // Other processors may also act on @Loggable
+        return false;
+    }
+
+    private void generate(final TypeElement type) {
+        final Optional<String> unsupportedReason = findUnsupportedReason(type);
+        if (unsupportedReason.isPresent()) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.NOTE,
+                    "Not generating a serializer for " + type.getQualifiedName() + " because " + unsupportedReason.get(),
+                    type);
+            return;
+        }
+        final String serializerName = processingEnv.getElementUtils().getBinaryName(type).toString().replace('$', '_')
+                + SERIALIZER_CLASS_NAME_SUFFIX;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(serializerName, type).openWriter()) {
+            writer.write(createSource(type, serializerName, findProperties(type)));
+        } catch (final IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Unable to write serializer " + serializerName + ": " + e.getMessage(),
+                    type);
+        }
+    }
+
+    private Optional<String> findUnsupportedReason(final TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            return Optional.of("it is not a class");
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return Optional.of("it is abstract");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return Optional.of("it is generic");
+        }
+        if (!isAccessible(type)) {
+            return Optional.of("it is not accessible from its package");
+        }
+        if (processingEnv.getTypeUtils().isAssignable(type.asType(), getType(Throwable.class.getName()))) {
+            return Optional.of("it is a Throwable");
+        }
+        for (final TypeElement supertype : getHierarchy(type)) {
+            if (hasUnsupportedAnnotation(supertype)) {
+                return Optional.of(supertype.getQualifiedName() + " uses Jackson or @LogValue annotations");
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isAccessible(final TypeElement type) {
+        Element element = type;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static boolean hasUnsupportedAnnotation(final TypeElement type) {
+        final List<Element> elements = new ArrayList<>(type.getEnclosedElements());
+        elements.add(type);
+        for (final Element element : elements) {
+            for (final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+                final String annotationName = getAnnotationName(annotation);
+                if (annotationName.startsWith(JACKSON_PACKAGE_PREFIX) || annotationName.equals(LOG_VALUE_ANNOTATION)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<Property> findProperties(final TypeElement type) {
+        final Map<String, Property> properties = new LinkedHashMap<>();
+        final Set<TypeElement> hierarchy = getHierarchy(type);
+
+        // Jackson orders properties named after fields first in field declaration order starting from the root class
+        final Deque<TypeElement> classes = new ArrayDeque<>();
+        for (TypeElement clazz = type; clazz != null; clazz = getSuperclass(clazz)) {
+            classes.push(clazz);
+        }
+        final List<VariableElement> fields = new ArrayList<>();
+        for (final TypeElement clazz : classes) {
+            for (final VariableElement field : ElementFilter.fieldsIn(clazz.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC)) {
+                    fields.add(field);
+                    properties.computeIfAbsent(field.getSimpleName().toString(), Property::new);
+                }
+            }
+        }
+
+        // Jackson prefers public getters to fields
+        for (final ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            final Optional<String> name = getPropertyName(method);
+            if (name.isPresent()) {
+                final Property property = properties.computeIfAbsent(name.get(), Property::new);
+                if (property._accessor == null) {
+                    property._accessor = method.getSimpleName() + "()";
+                    property._type = method.getReturnType();
+                    property._redacted |= isRedacted(method, hierarchy);
+                }
+            }
+        }
+        for (final VariableElement field : fields) {
+            final Property property = properties.get(field.getSimpleName().toString());
+            if (property._accessor == null
+                    && field.getModifiers().contains(Modifier.PUBLIC)
+                    && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+                property._accessor = field.getSimpleName().toString();
+                property._type = field.asType();
+            }
+            property._redacted |= hasAnnotation(field, LOG_REDACT_ANNOTATION);
+        }
+
+        final List<Property> result = new ArrayList<>();
+        for (final Property property : properties.values()) {
+            if (property._accessor != null) {
+                result.add(property);
+            }
+        }
+        return result;
+    }
+
+    private Optional<String> getPropertyName(final ExecutableElement method) {
+        final String methodName = method.getSimpleName().toString();
+        final TypeMirror returnType = method.getReturnType();
+        if (!method.getModifiers().contains(Modifier.PUBLIC)
+                || method.getModifiers().contains(Modifier.STATIC)
+                || !method.getParameters().isEmpty()
+                || returnType.getKind() == TypeKind.VOID
+                || ((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals(Object.class.getName())) {
+            return Optional.empty();
+        }
+        if (methodName.startsWith("get")) {
+            return mangle(methodName, 3);
+        }
+        if (methodName.startsWith("is")
+                && (returnType.getKind() == TypeKind.BOOLEAN
+                        || processingEnv.getTypeUtils().isSameType(returnType, getType(Boolean.class.getName())))) {
+            return mangle(methodName, 2);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isRedacted(final ExecutableElement method, final Set<TypeElement> hierarchy) {
+        // Jackson merges the annotations of overridden getters
+        for (final TypeElement type : hierarchy) {
+            for (final ExecutableElement other : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (other.getSimpleName().contentEquals(method.getSimpleName())
+                        && other.getParameters().isEmpty()
+                        && hasAnnotation(other, LOG_REDACT_ANNOTATION)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAnnotation(final Element element, final String annotationName) {
+        for (final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (getAnnotationName(annotation).equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getAnnotationName(final AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private String createSource(final TypeElement type, final String serializerName, final List<Property> properties) {
+        final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String typeName = type.getQualifiedName().toString();
+        final StringBuilder source = new StringBuilder();
+        source.append("// Generated by ").append(StenoSerializerProcessor.class.getName()).append("; do not edit.\n");
+        String simpleName = serializerName;
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n");
+            simpleName = serializerName.substring(packageName.length() + 1);
+        }
+        source.append("\n")
+                .append("/**\n")
+                .append(" * Serializer for <code>").append(typeName).append("</code>.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append("\n")
+                .append("        extends com.arpnetworking.logback.jackson.GeneratedStenoSerializer<")
+                .append(typeName)
+                .append("> {\n")
+                .append("\n")
+                .append("    public ")
+                .append(simpleName)
+                .append("(final com.arpnetworking.logback.StenoEncoder stenoEncoder) {\n")
+                .append("        super(").append(typeName).append(".class, stenoEncoder);\n")
+                .append("    }\n")
+                .append("\n")
+                .append("    @Override\n")
+                .append("    protected void serializeProperties(\n")
+                .append("            final ").append(typeName).append(" bean,\n")
+                .append("            final com.fasterxml.jackson.core.JsonGenerator jsonGenerator,\n")
+                .append("            final com.fasterxml.jackson.databind.SerializerProvider provider)\n")
+                .append("            throws java.io.IOException {\n");
+        for (final Property property : properties) {
+            source.append("        ")
+                    .append(property._redacted ? "writeRedactedProperty" : "writeProperty")
+                    .append("(\"").append(property._name).append("\", ")
+                    .append(isWrittenDirectly(property._type) ? "" : "(Object) ")
+                    .append("bean.").append(property._accessor)
+                    .append(", jsonGenerator, provider);\n");
+        }
+        source.append("    }\n")
+                .append("\n")
+                .append("    private static final long serialVersionUID = 1L;\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private Set<TypeElement> getHierarchy(final TypeElement type) {
+        final Set<TypeElement> hierarchy = new LinkedHashSet<>();
+        final Deque<TypeElement> pending = new ArrayDeque<>();
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            final TypeElement next = pending.remove();
+            if (!next.getQualifiedName().contentEquals(Object.class.getName()) && hierarchy.add(next)) {
+                for (final TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(next.asType())) {
+                    pending.add((TypeElement) ((DeclaredType) supertype).asElement());
+                }
+            }
+        }
+        return hierarchy;
+    }
+
+    private TypeElement getSuperclass(final TypeElement type) {
+        // Only invoked for classes so there is always a superclass up to Object
+        final TypeElement superclass = (TypeElement) processingEnv.getTypeUtils().asElement(type.getSuperclass());
+        return superclass.getQualifiedName().contentEquals(Object.class.getName()) ? null : superclass;
+    }
+
+    private TypeMirror getType(final String name) {
+        return processingEnv.getElementUtils().getTypeElement(name).asType();
+    }
+
+    private static boolean isWrittenDirectly(final TypeMirror type) {
+        // Other primitives are boxed so that Jackson serializes them (e.g. char as a string)
+        final TypeKind kind = type.getKind();
+        return !kind.isPrimitive()
+                || kind == TypeKind.INT
+                || kind == TypeKind.LONG
+                || kind == TypeKind.DOUBLE
+                || kind == TypeKind.BOOLEAN;
+    }
+
+    private static Optional<String> mangle(final String methodName, final int offset) {
+        // Property names are derived as by Jackson's default (legacy) bean naming
+        if (methodName.length() == offset) {
+            return Optional.empty();
+        }
+        final StringBuilder name = new StringBuilder(methodName.length() - offset);
+        int i = offset;
+        while (i < methodName.length() && Character.toLowerCase(methodName.charAt(i)) != methodName.charAt(i)) {
+            name.append(Character.toLowerCase(methodName.charAt(i)));
+            ++i;
+        }
+        name.append(methodName, i, methodName.length());
+        return Optional.of(name.toString());
+    }
+
+    /* package private */ static final String LOGGABLE_ANNOTATION = "com.arpnetworking.logback.annotations.Loggable";
+    /* package private */ static final String SERIALIZER_CLASS_NAME_SUFFIX = "_StenoSerializer";
+    private static final String LOG_REDACT_ANNOTATION = "com.arpnetworking.logback.annotations.LogRedact";
+    private static final String LOG_VALUE_ANNOTATION = "com.arpnetworking.logback.annotations.LogValue";
+    private static final String JACKSON_PACKAGE_PREFIX = "com.fasterxml.jackson.";
+
+    private static final class Property {
+
+        private Property(final String name) {
+            _name = name;
+        }
+
+        private final String _name;
+        private String _accessor;
+        private TypeMirror _type;
+        private boolean _redacted;
+    }
+}
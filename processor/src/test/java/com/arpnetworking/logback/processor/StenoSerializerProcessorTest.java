@@ -0,0 +1,269 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.processor;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.arpnetworking.logback.StenoEncoder;
+import com.arpnetworking.logback.StenoMarker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Tests for <code>StenoSerializerProcessor</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class StenoSerializerProcessorTest {
+
+    @Test
+    public void testGeneratesSerializers() throws Exception {
+        final File output = _temporaryFolder.newFolder();
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(output, new StenoSerializerProcessor());
+        assertNoErrors(diagnostics);
+
+        final String source = readGenerated(output, WIDGET_PATH + "Widget_StenoSerializer.java");
+        Assert.assertTrue(source.contains("public final class Widget_StenoSerializer\n"));
+        Assert.assertTrue(source.contains(
+                "extends com.arpnetworking.logback.jackson.GeneratedStenoSerializer<"
+                        + "com.arpnetworking.logback.processor.widgets.Widget>"));
+        Assert.assertTrue(source.contains("writeProperty(\"baseField\", bean.baseField, jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeProperty(\"publicField\", bean.publicField, jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeProperty(\"name\", bean.getName(), jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeRedactedProperty(\"secret\", bean.getSecret(), jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains(
+                "writeRedactedProperty(\"overridden\", bean.getOverridden(), jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeProperty(\"letter\", (Object) bean.getLetter(), jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeProperty(\"count\", bean.getCount(), jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeProperty(\"enabled\", bean.isEnabled(), jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeProperty(\"wrapped\", bean.isWrapped(), jsonGenerator, provider);"));
+        Assert.assertTrue(source.contains("writeProperty(\"urlvalue\", bean.getURLValue(), jsonGenerator, provider);"));
+        Assert.assertFalse(source.contains("transientField"));
+        Assert.assertFalse(source.contains("staticField"));
+        Assert.assertFalse(source.contains("hidden"));
+        Assert.assertFalse(source.contains("notBoolean"));
+        Assert.assertFalse(source.contains("getNothing"));
+        Assert.assertFalse(source.contains("getStatic"));
+        Assert.assertFalse(source.contains("getClass"));
+
+        Assert.assertTrue(readGenerated(output, WIDGET_PATH + "Widget_Nested_StenoSerializer.java")
+                .contains("super(com.arpnetworking.logback.processor.widgets.Widget.Nested.class, stenoEncoder);"));
+        Assert.assertTrue(readGenerated(output, WIDGET_PATH + "Widget_Holder_InInterface_StenoSerializer.java")
+                .contains("writeProperty(\"value\", bean.getValue(), jsonGenerator, provider);"));
+        Assert.assertTrue(readGenerated(output, "DefaultPackageWidget_StenoSerializer.java")
+                .startsWith("// Generated by com.arpnetworking.logback.processor.StenoSerializerProcessor; do not edit.\n\n"));
+
+        final List<String> notes = diagnostics.stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.NOTE)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.toList());
+        assertNote(notes, "Widget.Private because it is not accessible from its package");
+        assertNote(notes, "Widget.Interface because it is not a class");
+        assertNote(notes, "Widget.Abstract because it is abstract");
+        assertNote(notes, "Widget.Generic because it is generic");
+        assertNote(notes, "Widget.Problem because it is a Throwable");
+        assertNote(notes, "Widget.Annotated because " + WIDGET + ".Annotated uses Jackson");
+        assertNote(notes, "Widget.WithLogValue because " + WIDGET + ".WithLogValue uses Jackson");
+    }
+
+    @Test
+    public void testMatchesJackson() throws Exception {
+        final File generated = _temporaryFolder.newFolder();
+        assertNoErrors(compile(generated, new StenoSerializerProcessor()));
+        final File introspected = _temporaryFolder.newFolder();
+        assertNoErrors(compile(introspected, null));
+
+        final JsonNode expected = encode(introspected, "com.arpnetworking.logback.processor.widgets.Widget");
+        final JsonNode actual = encode(generated, "com.arpnetworking.logback.processor.widgets.Widget");
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals("<REDACTED>", actual.get("secret").asText());
+        Assert.assertEquals("<REDACTED>", actual.get("overridden").asText());
+        Assert.assertEquals("c", actual.get("letter").asText());
+        Assert.assertEquals(
+                encode(introspected, "com.arpnetworking.logback.processor.widgets.Widget$Nested"),
+                encode(generated, "com.arpnetworking.logback.processor.widgets.Widget$Nested"));
+    }
+
+    @Test
+    public void testWriteFailure() throws Exception {
+        final File output = _temporaryFolder.newFolder();
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(output, new FailingFilerProcessor());
+        Assert.assertTrue(diagnostics.stream().anyMatch(
+                d -> d.getKind() == Diagnostic.Kind.ERROR
+                        && d.getMessage(null).contains("Unable to write serializer")
+                        && d.getMessage(null).contains("Mock Failure")));
+    }
+
+    private static List<Diagnostic<? extends JavaFileObject>> compile(final File output, final Processor processor)
+            throws IOException, URISyntaxException {
+        final File classes = new File(output, "classes");
+        final File sources = new File(output, "sources");
+        Files.createDirectories(classes.toPath());
+        Files.createDirectories(sources.toPath());
+        final Path root = Paths.get(StenoSerializerProcessorTest.class.getResource("/sources").toURI());
+        final List<File> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(p -> p.toString().endsWith(".java")).map(Path::toFile).collect(Collectors.toList());
+        }
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            final List<String> options = new ArrayList<>(Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", classes.getAbsolutePath(),
+                    "-s", sources.getAbsolutePath()));
+            if (processor == null) {
+                options.add("-proc:none");
+            }
+            final JavaCompiler.CompilationTask task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    options,
+                    null,
+                    fileManager.getJavaFileObjectsFromFiles(files));
+            if (processor != null) {
+                task.setProcessors(Collections.singletonList(processor));
+            }
+            task.call();
+        }
+        return diagnostics.getDiagnostics();
+    }
+
+    private static JsonNode encode(final File output, final String className) throws Exception {
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[] {new File(output, "classes").toURI().toURL()},
+                StenoSerializerProcessorTest.class.getClassLoader())) {
+            final Object bean = classLoader.loadClass(className).newInstance();
+            final LoggerContext context = new LoggerContext();
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final StenoEncoder encoder = new StenoEncoder();
+            encoder.setContext(context);
+            encoder.init(outputStream);
+            final LoggingEvent event = new LoggingEvent();
+            event.setLevel(Level.INFO);
+            event.setMarker(StenoMarker.OBJECT_MARKER);
+            event.setMessage("logEvent");
+            event.setTimeStamp(0);
+            event.setLoggerContextRemoteView(context.getLoggerContextRemoteView());
+            event.setArgumentArray(new Object[] {bean});
+            encoder.doEncode(event);
+            return OBJECT_MAPPER.readTree(outputStream.toString(StandardCharsets.UTF_8.name())).get("data");
+        }
+    }
+
+    private static String readGenerated(final File output, final String path) throws IOException {
+        return new String(Files.readAllBytes(new File(new File(output, "sources"), path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static void assertNoErrors(final List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            Assert.assertNotEquals(diagnostic.toString(), Diagnostic.Kind.ERROR, diagnostic.getKind());
+        }
+    }
+
+    private static void assertNote(final List<String> notes, final String expected) {
+        Assert.assertTrue(
+                "Missing note: " + expected,
+                notes.stream().anyMatch(note -> note.contains(expected)));
+    }
+
+    @Rule
+    public final TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String WIDGET_PATH = "com/arpnetworking/logback/processor/widgets/";
+    private static final String WIDGET = "com.arpnetworking.logback.processor.widgets.Widget";
+
+    /**
+     * Runs <code>StenoSerializerProcessor</code> with a <code>Filer</code>
+     * which fails to create source files.
+     */
+    private static final class FailingFilerProcessor extends AbstractProcessor {
+
+        @Override
+        public synchronized void init(final ProcessingEnvironment processingEnvironment) {
+            super.init(processingEnvironment);
+            final Filer filer = (Filer) Proxy.newProxyInstance(
+                    Filer.class.getClassLoader(),
+                    new Class<?>[] {Filer.class},
+                    (proxy, method, args) -> {
+                        throw new IOException("Mock Failure");
+                    });
+            _processor.init((ProcessingEnvironment) Proxy.newProxyInstance(
+                    ProcessingEnvironment.class.getClassLoader(),
+                    new Class<?>[] {ProcessingEnvironment.class},
+                    (proxy, method, args) -> "getFiler".equals(method.getName())
+                            ? filer
+                            : method.invoke(processingEnvironment, args)));
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return _processor.getSupportedAnnotationTypes();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return _processor.getSupportedSourceVersion();
+        }
+
+        @Override
+        public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+            return _processor.process(annotations, roundEnvironment);
+        }
+
+        private final StenoSerializerProcessor _processor = new StenoSerializerProcessor();
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.processor.widgets;
+
+import com.arpnetworking.logback.annotations.LogRedact;
+
+import java.io.Serializable;
+
+/**
+ * Superclass of <code>Widget</code> which is not itself loggable.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class BaseWidget implements Serializable {
+
+    public String getInherited() {
+        return "inherited";
+    }
+
+    @LogRedact
+    public String getOverridden() {
+        return "base";
+    }
+
+    public String baseField = "baseField";
+
+    private static final long serialVersionUID = 1L;
+}
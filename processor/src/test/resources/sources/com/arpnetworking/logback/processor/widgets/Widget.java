@@ -0,0 +1,206 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.processor.widgets;
+
+import com.arpnetworking.logback.annotations.LogRedact;
+import com.arpnetworking.logback.annotations.LogValue;
+import com.arpnetworking.logback.annotations.Loggable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.Serializable;
+
+/**
+ * Loggable class covering the properties Jackson discovers and the classes
+ * for which no serializer is generated.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@Loggable
+public class Widget extends BaseWidget implements Serializable {
+
+    public String getName() {
+        return _name;
+    }
+
+    public String getName(final int index) {
+        return _name + index;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public char getLetter() {
+        return 'c';
+    }
+
+    public float getRatio() {
+        return 0.1f;
+    }
+
+    public int getCount() {
+        return 1;
+    }
+
+    public long getSize() {
+        return 2L;
+    }
+
+    public double getAverage() {
+        return 0.5;
+    }
+
+    public boolean isEnabled() {
+        return true;
+    }
+
+    public Boolean isWrapped() {
+        return Boolean.TRUE;
+    }
+
+    public String isNotBoolean() {
+        return "notBoolean";
+    }
+
+    public String getURLValue() {
+        return "urlValue";
+    }
+
+    public <T> T getGeneric() {
+        return null;
+    }
+
+    @Override
+    public String getOverridden() {
+        return "widget";
+    }
+
+    public String get() {
+        return "get";
+    }
+
+    public boolean is() {
+        return false;
+    }
+
+    public static String getStatic() {
+        return "static";
+    }
+
+    public void getNothing() {
+    }
+
+    public String publicField = "publicField";
+    public transient String transientField = "transientField";
+    public static String staticField = "staticField";
+    @LogRedact
+    private String secret = "secret";
+    private String _name = "name";
+    private String hidden = "hidden";
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Loggable member class.
+     */
+    @Loggable
+    public static final class Nested {
+
+        public String getValue() {
+            return "nested";
+        }
+    }
+
+    /**
+     * Interface containing a loggable member class.
+     */
+    public interface Holder {
+
+        /**
+         * Loggable member class of an interface.
+         */
+        @Loggable
+        final class InInterface {
+
+            public String getValue() {
+                return "inInterface";
+            }
+        }
+    }
+
+    /**
+     * Loggable private member class.
+     */
+    @Loggable
+    private static final class Private {
+    }
+
+    /**
+     * Loggable interface.
+     */
+    @Loggable
+    public interface Interface {
+    }
+
+    /**
+     * Loggable abstract class.
+     */
+    @Loggable
+    public abstract static class Abstract {
+    }
+
+    /**
+     * Loggable generic class.
+     *
+     * @param <T> The type parameter.
+     */
+    @Loggable
+    public static final class Generic<T> {
+    }
+
+    /**
+     * Loggable exception.
+     */
+    @Loggable
+    public static final class Problem extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Loggable class with a Jackson annotation.
+     */
+    @Loggable
+    public static final class Annotated {
+
+        @JsonIgnore
+        public String getIgnored() {
+            return "ignored";
+        }
+    }
+
+    /**
+     * Loggable class with a LogValue method.
+     */
+    @Loggable
+    public static final class WithLogValue {
+
+        @LogValue
+        public Object toLogValue() {
+            return "logValue";
+        }
+    }
+}
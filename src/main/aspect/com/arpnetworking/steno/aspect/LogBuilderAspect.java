@@ -15,32 +15,146 @@
  */
 package com.arpnetworking.steno.aspect;
 
+import com.arpnetworking.logback.CallSite;
 import com.arpnetworking.steno.LogBuilder;
 import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.SourceLocation;
 
+import java.util.Arrays;
+
 /**
  * Aspect for <code>LogBuilder</code> weaving line, file and class into the
- * context block of each <code>LogBuilder</code> message.
+ * context block of each <code>LogBuilder</code> message. The aspect also
+ * captures the file, class, method and line of each call to the Steno
+ * <code>Logger</code> and <code>LogBuilder</code> at compile time. One aspect
+ * instance is created per woven type and it holds a single
+ * <code>CallSite</code> per woven statement, indexed by the id of the
+ * statement's join point, which is passed with the events it logs;
+ * <code>StenoEncoder</code> uses it for the injected file, class, method and
+ * line context instead of capturing the stack.
  *
  * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
  */
-@Aspect
+@Aspect("pertypewithin(*)")
 public class LogBuilderAspect {
 
+    /**
+     * Calls to <code>LogBuilder.log()</code> and to the level methods of
+     * <code>Logger</code>.
+     */
+    @Pointcut("call(* com.arpnetworking.steno.LogBuilder.log())"
+            + " || call(* com.arpnetworking.steno.Logger.trace(..))"
+            + " || call(* com.arpnetworking.steno.Logger.debug(..))"
+            + " || call(* com.arpnetworking.steno.Logger.info(..))"
+            + " || call(* com.arpnetworking.steno.Logger.warn(..))"
+            + " || call(* com.arpnetworking.steno.Logger.error(..))")
+    public void logCall() {
+        // Pointcut definition
+    }
+
     /**
      * Before outputting the message inject additional context.
      *
-     * @param joinPoint The <code>JoinPoint</code>.
+     * @param logBuilder The target <code>LogBuilder</code>.
+     * @param staticPart The <code>JoinPoint.StaticPart</code> of the call.
+     * @param enclosingStaticPart The <code>JoinPoint.EnclosingStaticPart</code> of the call.
+     */
+    @Before("call(* com.arpnetworking.steno.LogBuilder.log()) && target(logBuilder)")
+    public void addToContextLineAndMethod(
+            final LogBuilder logBuilder,
+            final JoinPoint.StaticPart staticPart,
+            final JoinPoint.EnclosingStaticPart enclosingStaticPart) {
+        final WovenCallSite wovenCallSite = getCallSite(staticPart, enclosingStaticPart);
+        logBuilder.addContext("line", wovenCallSite.getLine());
+        logBuilder.addContext("file", wovenCallSite.getCallSite().getFileName());
+        logBuilder.addContext("class", wovenCallSite.getWithinType());
+    }
+
+    /**
+     * Before logging publish the call site.
+     *
+     * @param staticPart The <code>JoinPoint.StaticPart</code> of the call.
+     * @param enclosingStaticPart The <code>JoinPoint.EnclosingStaticPart</code> of the call.
+     */
+    @Before("logCall()")
+    public void enterCallSite(
+            final JoinPoint.StaticPart staticPart,
+            final JoinPoint.EnclosingStaticPart enclosingStaticPart) {
+        CallSite.enter(getCallSite(staticPart, enclosingStaticPart).getCallSite());
+    }
+
+    /**
+     * After logging restore the call site of any enclosing logging call.
      */
-    @Before("call(* com.arpnetworking.steno.LogBuilder.log())")
-    public void addToContextLineAndMethod(final JoinPoint joinPoint) {
-        final SourceLocation sourceLocation = joinPoint.getSourceLocation();
-        final LogBuilder targetLogBuilder = (LogBuilder) joinPoint.getTarget();
-        targetLogBuilder.addContext("line", String.valueOf(sourceLocation.getLine()));
-        targetLogBuilder.addContext("file", sourceLocation.getFileName());
-        targetLogBuilder.addContext("class", sourceLocation.getWithinType());
+    @After("logCall()")
+    public void exitCallSite() {
+        CallSite.exit();
+    }
+
+    private WovenCallSite getCallSite(
+            final JoinPoint.StaticPart staticPart,
+            final JoinPoint.EnclosingStaticPart enclosingStaticPart) {
+        final int id = staticPart.getId();
+        final WovenCallSite[] callSites = _callSites;
+        if (id < callSites.length) {
+            final WovenCallSite callSite = callSites[id];
+            if (callSite != null) {
+                return callSite;
+            }
+        }
+        return createCallSite(staticPart, enclosingStaticPart);
+    }
+
+    private synchronized WovenCallSite createCallSite(
+            final JoinPoint.StaticPart staticPart,
+            final JoinPoint.EnclosingStaticPart enclosingStaticPart) {
+        final int id = staticPart.getId();
+        WovenCallSite[] callSites = _callSites;
+        if (id >= callSites.length) {
+            callSites = Arrays.copyOf(callSites, id + 1);
+        }
+        if (callSites[id] == null) {
+            callSites[id] = new WovenCallSite(staticPart, enclosingStaticPart);
+        }
+        _callSites = callSites;
+        return callSites[id];
+    }
+
+    private volatile WovenCallSite[] _callSites = new WovenCallSite[0];
+
+    private static final class WovenCallSite {
+
+        /* package private */ WovenCallSite(
+                final JoinPoint.StaticPart staticPart,
+                final JoinPoint.EnclosingStaticPart enclosingStaticPart) {
+            final SourceLocation sourceLocation = staticPart.getSourceLocation();
+            _withinType = sourceLocation.getWithinType();
+            _line = String.valueOf(sourceLocation.getLine());
+            _callSite = new CallSite(
+                    _withinType.getName(),
+                    enclosingStaticPart.getSignature().getName(),
+                    sourceLocation.getFileName(),
+                    sourceLocation.getLine());
+        }
+
+        public CallSite getCallSite() {
+            return _callSite;
+        }
+
+        public Class<?> getWithinType() {
+            return _withinType;
+        }
+
+        public String getLine() {
+            return _line;
+        }
+
+        private final CallSite _callSite;
+        private final Class<?> _withinType;
+        private final String _line;
     }
 }
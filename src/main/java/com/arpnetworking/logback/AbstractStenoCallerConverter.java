@@ -28,11 +28,17 @@ public abstract class AbstractStenoCallerConverter extends ClassicConverter {
 
     /**
      * Retrieve the relevant caller data adjusted for Steno logger wrapping.
+     * If the event carries a <code>CallSite</code> captured by the Steno
+     * aspect it is used instead of capturing the caller data from the stack.
      *
      * @param loggingEvent The <code>ILoggingEvent</code> instance.
      * @return The relevant caller data adjusted for Steno logger wrapping.
      */
     protected StackTraceElement getCallerData(final ILoggingEvent loggingEvent) {
+        final CallSite callSite = CallSite.fromEvent(loggingEvent);
+        if (callSite != null) {
+            return callSite.getStackTraceElement();
+        }
         final StackTraceElement[] callerData = loggingEvent.getCallerData();
         if (callerData != null) {
             for (int i = 0; i < callerData.length; ++i) {
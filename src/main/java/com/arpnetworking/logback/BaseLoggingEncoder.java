@@ -17,11 +17,20 @@ package com.arpnetworking.logback;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import com.arpnetworking.logback.metrics.EncoderMetrics;
 import org.slf4j.Marker;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * Base encoder class containing methods to determine if a Steno marker is present.
@@ -31,6 +40,13 @@ import java.util.Map;
  */
 public abstract class BaseLoggingEncoder extends LayoutWrappingEncoder<ILoggingEvent> {
 
+    /**
+     * Protected constructor.
+     */
+    protected BaseLoggingEncoder() {
+        registerBuiltInStrategies();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -39,21 +55,155 @@ public abstract class BaseLoggingEncoder extends LayoutWrappingEncoder<ILoggingE
         final Marker marker = event.getMarker();
         final String name = event.getMessage();
         final Object[] argumentArray = event.getArgumentArray();
+        final boolean sampleLatency = _metrics.shouldSampleLatency();
+        final long startNanos = sampleLatency ? System.nanoTime() : 0;
 
+        final Registration registration = getRegistration(marker);
         String output;
         try {
-            output = encodeAsString(event, marker, name, argumentArray);
+            output = encodeAsString(event, registration, name, argumentArray);
         } catch (final EncodingException ee) {
+            _metrics.recordEncodingFailure(ee.getCause());
             output = encodeAsString(event, ee);
         }
 
-        outputStream.write(output.getBytes("UTF8"));
+        final byte[] bytes = output.getBytes("UTF8");
+        if (sampleLatency) {
+            _metrics.recordLatency(System.nanoTime() - startNanos);
+        }
+
+        outputStream.write(bytes);
+        _metrics.recordEncoded(registration.getName(), bytes.length);
+        afterEncode(event, registration == _standardRegistration ? null : name, bytes.length);
 
         if (isImmediateFlush()) {
             outputStream.flush();
         }
     }
 
+    /**
+     * Invoked after each event is encoded and written to the output stream
+     * but before the stream is flushed. The default implementation does
+     * nothing.
+     *
+     * @since 1.16.0
+     *
+     * @param event Instance of <code>ILoggingEvent</code>.
+     * @param eventName The name of the event or null if the event did not specify one.
+     * @param bytesWritten The number of encoded bytes written for the event.
+     * @throws IOException If writing to the output stream fails.
+     */
+    protected void afterEncode(final ILoggingEvent event, final String eventName, final int bytesWritten) throws IOException {
+        // Intentionally empty
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start() {
+        // Resolve the host name in the background ahead of the first event
+        HostProvider.RESOLVING.resolve();
+        super.start();
+        if (_jmxEnabled) {
+            registerMXBean(_metrics, null);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        unregisterMXBeans();
+        super.stop();
+    }
+
+    /**
+     * Retrieve the metrics maintained by this encoder.
+     *
+     * @since 1.16.0
+     *
+     * @return The <code>EncoderMetrics</code> for this encoder.
+     */
+    public EncoderMetrics getMetrics() {
+        return _metrics;
+    }
+
+    /**
+     * Enables/Disables registration of this encoder's metrics as an MXBean
+     * with the platform <code>MBeanServer</code> when the encoder is started.
+     * The object name is <code>com.arpnetworking.logback:type=[Class],context=[Context],name=[Name]</code>.
+     * By default this is false.
+     *
+     * @since 1.16.0
+     *
+     * @param value Whether to register metrics with JMX.
+     */
+    public void setJmxEnabled(final boolean value) {
+        _jmxEnabled = value;
+    }
+
+    /**
+     * Whether this encoder's metrics are registered with JMX. By default
+     * this is false.
+     *
+     * @since 1.16.0
+     *
+     * @return True if and only if metrics are registered with JMX on start.
+     */
+    public boolean isJmxEnabled() {
+        return _jmxEnabled;
+    }
+
+    /**
+     * Set the name used for this encoder in its JMX object name. By default
+     * the identity hash code of the encoder is used; set this to a stable
+     * name such as the name of the appender.
+     *
+     * @since 1.16.0
+     *
+     * @param value The name of the encoder in JMX.
+     */
+    public void setJmxName(final String value) {
+        _jmxName = value;
+    }
+
+    /**
+     * Retrieve the name used for this encoder in its JMX object name.
+     *
+     * @since 1.16.0
+     *
+     * @return The name of the encoder in JMX or null if the identity hash code is used.
+     */
+    public String getJmxName() {
+        return _jmxName;
+    }
+
+    /**
+     * Set the encode latency sample rate; one in this many events has its
+     * encode latency recorded. A value of zero disables latency sampling. By
+     * default this is 100.
+     *
+     * @since 1.16.0
+     *
+     * @param value The encode latency sample rate.
+     */
+    public void setLatencySampleRate(final int value) {
+        _metrics.setLatencySampleRate(value);
+    }
+
+    /**
+     * Retrieve the encode latency sample rate.
+     *
+     * @since 1.16.0
+     *
+     * @return The encode latency sample rate.
+     */
+    public int getLatencySampleRate() {
+        return _metrics.getLatencySampleRate();
+    }
+
     /**
      * Safely encode an instance of <code>EncodingException</code>.
      *
@@ -194,6 +344,34 @@ public abstract class BaseLoggingEncoder extends LayoutWrappingEncoder<ILoggingE
             List<Object> contextValues)
             throws EncodingException;
 
+    /**
+     * Encode a <code>StenoPayload</code> of data and context key-value pairs.
+     * The default implementation converts the payload into lists and
+     * delegates to {@link #buildListsMessage}; subclasses should override it
+     * to avoid the copy.
+     *
+     * @since 1.16.0
+     *
+     * @param event Instance of <code>ILoggingEvent</code>.
+     * @param eventName The name of the event.
+     * @param payload The <code>StenoPayload</code> instance.
+     * @return Message encoded as a <code>String</code>.
+     * @throws EncodingException If encoding fails for any reason.
+     */
+    protected String buildPayloadMessage(
+            final ILoggingEvent event,
+            final String eventName,
+            final StenoPayload payload)
+            throws EncodingException {
+        return buildListsMessage(
+                event,
+                eventName,
+                payload.getData().getKeys(),
+                payload.getData().getValues(),
+                payload.getContext().getKeys(),
+                payload.getContext().getValues());
+    }
+
     /**
      * Encode a standard message into a <code>String</code>.
      *
@@ -205,6 +383,28 @@ public abstract class BaseLoggingEncoder extends LayoutWrappingEncoder<ILoggingE
      */
     protected abstract String buildStandardMessage(final ILoggingEvent event) throws EncodingException;
 
+    /**
+     * Register the <code>MessageBuilder</code> used to encode events carrying
+     * <code>marker</code>. Events are dispatched by the identity of their
+     * <code>Marker</code>. Events whose <code>Marker</code> is not registered
+     * are dispatched to the built-in strategy selected by the
+     * <code>is*StenoEvent</code> methods (e.g. {@link #isMapStenoEvent}) and
+     * otherwise to the first registration in registration order whose
+     * <code>Marker</code> is referenced. Registering a <code>Marker</code> a
+     * second time replaces the previous registration but keeps its position.
+     * The built-in <code>StenoMarker</code> strategies are registered on
+     * construction.
+     *
+     * @since 1.16.0
+     *
+     * @param marker The <code>Marker</code> instance to dispatch on.
+     * @param name The name of the strategy used in metrics.
+     * @param messageBuilder The <code>MessageBuilder</code> to encode matching events with.
+     */
+    protected final void registerStrategy(final Marker marker, final String name, final MessageBuilder messageBuilder) {
+        register(new Registration(marker, name, null, messageBuilder));
+    }
+
     /**
      * Determine whether the <code>marker</code> represents an array event.
      *
@@ -289,57 +489,295 @@ public abstract class BaseLoggingEncoder extends LayoutWrappingEncoder<ILoggingE
         return marker != null && marker.contains(StenoMarker.LISTS_MARKER);
     }
 
-    @SuppressWarnings("unchecked")
-    private String encodeAsString(
-            final ILoggingEvent event,
-            final Marker marker,
-            final String name,
-            final Object[] argumentArray)
-            throws EncodingException {
-        final String output;
-        if (isListsStenoEvent(marker)) {
-            output = buildListsMessage(
-                    event,
-                    name,
-                    (List<String>) argumentArray[0],  // data keys
-                    (List<Object>) argumentArray[1],  // data object values
-                    (List<String>) argumentArray[2],  // context keys
-                    (List<Object>) argumentArray[3]); // context object values
+    /**
+     * Determine whether the <code>marker</code> represents a payload event.
+     *
+     * @since 1.16.0
+     *
+     * @param marker The <code>Marker</code> instance to evaluate.
+     * @return True if and only if <code>marker</code> represents a payload event.
+     */
+    protected boolean isPayloadStenoEvent(final Marker marker) {
+        return marker != null && marker.contains(StenoMarker.PAYLOAD_MARKER);
+    }
+
+    /**
+     * Register an MXBean belonging to this encoder with the platform
+     * <code>MBeanServer</code>. The MXBean is unregistered when the encoder is
+     * stopped. Failure to register is reported as a warning.
+     *
+     * @since 1.16.0
+     *
+     * @param mxBean The MXBean to register.
+     * @param component The component name added to the object name or null for the encoder's metrics.
+     */
+    protected void registerMXBean(final Object mxBean, final String component) {
+        try {
+            final ObjectName objectName = createObjectName(component);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mxBean, objectName);
+            _registeredObjectNames.add(objectName);
+        } catch (final JMException e) {
+            addWarn("Unable to register encoder metrics with JMX", e);
+        }
+    }
+
+    /* package private */ ObjectName createObjectName() throws JMException {
+        return createObjectName(null);
+    }
+
+    /* package private */ ObjectName createObjectName(final String component) throws JMException {
+        final Hashtable<String, String> properties = new Hashtable<>();
+        properties.put("type", getClass().getSimpleName());
+        if (getContext() != null && getContext().getName() != null) {
+            properties.put("context", ObjectName.quote(getContext().getName()));
+        }
+        properties.put(
+                "name",
+                ObjectName.quote(_jmxName == null ? Integer.toHexString(System.identityHashCode(this)) : _jmxName));
+        if (component != null) {
+            properties.put("component", component);
+        }
+        return new ObjectName(JMX_DOMAIN, properties);
+    }
+
+    private void unregisterMXBeans() {
+        for (final ObjectName objectName : _registeredObjectNames) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (final JMException e) {
+                addWarn("Unable to unregister encoder metrics from JMX", e);
+            }
+        }
+        _registeredObjectNames.clear();
+    }
+
+    private void register(final Registration registration) {
+        final Marker marker = registration.getMarker();
+        synchronized (_registrationLock) {
+            final Map<Marker, Registration> registrationsByMarker = new IdentityHashMap<>(_registrationsByMarker);
+            final List<Registration> registrations = new ArrayList<>(_registrations);
+            final Registration previous = registrationsByMarker.put(marker, registration);
+            if (previous == null) {
+                registrations.add(registration);
+            } else {
+                registrations.set(registrations.indexOf(previous), registration);
+            }
+            _registrationsByMarker = registrationsByMarker;
+            _registrations = registrations;
+        }
+    }
+
+    private Registration getRegistration(final Marker marker) {
+        if (marker == null) {
+            return _standardRegistration;
+        }
+        final Registration registration = _registrationsByMarker.get(marker);
+        if (registration != null) {
+            return registration;
+        }
+        // Markers which are not registered may reference a registered marker
+        final Strategy strategy = getStrategy(marker);
+        if (strategy != Strategy.STANDARD) {
+            return _registrationsByMarker.get(strategy.getMarker());
+        }
+        for (final Registration candidate : _registrations) {
+            if (candidate.getStrategy() == null && marker.contains(candidate.getMarker())) {
+                return candidate;
+            }
+        }
+        return _standardRegistration;
+    }
+
+    private Strategy getStrategy(final Marker marker) {
+        if (isPayloadStenoEvent(marker)) {
+            return Strategy.PAYLOAD;
+        } else if (isListsStenoEvent(marker)) {
+            return Strategy.LISTS;
         } else if (isArrayStenoEvent(marker)) {
-            output = buildArrayMessage(
-                    event,
-                    name,
-                    (String[]) argumentArray[0],  // keys
-                    (Object[]) argumentArray[1]); // object values
+            return Strategy.ARRAY;
         } else if (isArrayJsonStenoEvent(marker)) {
-            output = buildArrayJsonMessage(
-                    event,
-                    name,
-                    (String[]) argumentArray[0],  // keys
-                    (String[]) argumentArray[1]); // json values
+            return Strategy.ARRAY_JSON;
         } else if (isMapStenoEvent(marker)) {
-            output = buildMapMessage(
-                    event,
-                    name,
-                    (Map<String, Object>) argumentArray[0]); // key to object value map
+            return Strategy.MAP;
         } else if (isMapJsonStenoEvent(marker)) {
-            output = buildMapJsonMessage(
-                    event,
-                    name,
-                    (Map<String, String>) argumentArray[0]); // key to json value map
+            return Strategy.MAP_JSON;
         } else if (isObjectStenoEvent(marker)) {
-            output = buildObjectMessage(
-                    event,
-                    name,
-                    argumentArray[0]); // data object value
+            return Strategy.OBJECT;
         } else if (isObjectJsonStenoEvent(marker)) {
-            output = buildObjectJsonMessage(
-                    event,
-                    name,
-                    (String) argumentArray[0]); // data json value
-        } else {
-            output = buildStandardMessage(event);
+            return Strategy.OBJECT_JSON;
         }
-        return output;
+        return Strategy.STANDARD;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String encodeAsString(
+            final ILoggingEvent event,
+            final Registration registration,
+            final String name,
+            final Object[] argumentArray)
+            throws EncodingException {
+        final Strategy strategy = registration.getStrategy();
+        if (strategy == null) {
+            return registration.getMessageBuilder().build(event, name, argumentArray);
+        }
+        // Built-in strategies are invoked on this instance rather than bound
+        // at construction so that overrides (and proxies) are honored
+        switch (strategy) {
+            case PAYLOAD:
+                final StenoPayload payload = (StenoPayload) argumentArray[0];
+                return buildPayloadMessage(
+                        event,
+                        name,
+                        payload == null ? EMPTY_PAYLOAD : payload); // data and context payload
+            case LISTS:
+                return buildListsMessage(
+                        event,
+                        name,
+                        (List<String>) argumentArray[0],  // data keys
+                        (List<Object>) argumentArray[1],  // data object values
+                        (List<String>) argumentArray[2],  // context keys
+                        (List<Object>) argumentArray[3]); // context object values
+            case ARRAY:
+                return buildArrayMessage(
+                        event,
+                        name,
+                        (String[]) argumentArray[0],  // keys
+                        (Object[]) argumentArray[1]); // object values
+            case ARRAY_JSON:
+                return buildArrayJsonMessage(
+                        event,
+                        name,
+                        (String[]) argumentArray[0],  // keys
+                        (String[]) argumentArray[1]); // json values
+            case MAP:
+                return buildMapMessage(
+                        event,
+                        name,
+                        (Map<String, Object>) argumentArray[0]); // key to object value map
+            case MAP_JSON:
+                return buildMapJsonMessage(
+                        event,
+                        name,
+                        (Map<String, String>) argumentArray[0]); // key to json value map
+            case OBJECT:
+                return buildObjectMessage(
+                        event,
+                        name,
+                        argumentArray[0]); // data object value
+            case OBJECT_JSON:
+                return buildObjectJsonMessage(
+                        event,
+                        name,
+                        (String) argumentArray[0]); // data json value
+            default:
+                return buildStandardMessage(event);
+        }
+    }
+
+    private void registerBuiltInStrategies() {
+        for (final Strategy strategy : Strategy.values()) {
+            if (strategy != Strategy.STANDARD) {
+                register(new Registration(strategy.getMarker(), strategy.getName(), strategy, null));
+            }
+        }
+    }
+
+    private final EncoderMetrics _metrics = new EncoderMetrics();
+    private boolean _jmxEnabled = false;
+    private String _jmxName;
+    private final List<ObjectName> _registeredObjectNames = new CopyOnWriteArrayList<>();
+    private final Object _registrationLock = new Object();
+    private volatile Map<Marker, Registration> _registrationsByMarker = Collections.emptyMap();
+    private volatile List<Registration> _registrations = Collections.emptyList();
+    private final Registration _standardRegistration = new Registration(
+            null,
+            Strategy.STANDARD.getName(),
+            Strategy.STANDARD,
+            null);
+
+    private static final String JMX_DOMAIN = "com.arpnetworking.logback";
+    private static final StenoPayload EMPTY_PAYLOAD = new StenoPayload(StenoPayload.Fields.EMPTY, StenoPayload.Fields.EMPTY);
+
+    /**
+     * Encodes events dispatched to a registered strategy.
+     *
+     * @since 1.16.0
+     */
+    @FunctionalInterface
+    protected interface MessageBuilder {
+
+        /**
+         * Encode the event into a <code>String</code>.
+         *
+         * @param event Instance of <code>ILoggingEvent</code>.
+         * @param eventName The name of the event.
+         * @param argumentArray The arguments of the event.
+         * @return Message encoded as a <code>String</code>.
+         * @throws EncodingException If encoding fails for any reason.
+         */
+        String build(ILoggingEvent event, String eventName, Object[] argumentArray) throws EncodingException;
+    }
+
+    private enum Strategy {
+        PAYLOAD(StenoMarker.PAYLOAD_MARKER, "payload"),
+        LISTS(StenoMarker.LISTS_MARKER, "lists"),
+        ARRAY(StenoMarker.ARRAY_MARKER, "array"),
+        ARRAY_JSON(StenoMarker.ARRAY_JSON_MARKER, "arrayJson"),
+        MAP(StenoMarker.MAP_MARKER, "map"),
+        MAP_JSON(StenoMarker.MAP_JSON_MARKER, "mapJson"),
+        OBJECT(StenoMarker.OBJECT_MARKER, "object"),
+        OBJECT_JSON(StenoMarker.OBJECT_JSON_MARKER, "objectJson"),
+        STANDARD(null, "standard");
+
+        Strategy(final Marker marker, final String name) {
+            _marker = marker;
+            _name = name;
+        }
+
+        public Marker getMarker() {
+            return _marker;
+        }
+
+        public String getName() {
+            return _name;
+        }
+
+        private final Marker _marker;
+        private final String _name;
+    }
+
+    private static final class Registration {
+
+        private Registration(
+                final Marker marker,
+                final String name,
+                final Strategy strategy,
+                final MessageBuilder messageBuilder) {
+            _marker = marker;
+            _name = name;
+            _strategy = strategy;
+            _messageBuilder = messageBuilder;
+        }
+
+        public Marker getMarker() {
+            return _marker;
+        }
+
+        public String getName() {
+            return _name;
+        }
+
+        public Strategy getStrategy() {
+            return _strategy;
+        }
+
+        public MessageBuilder getMessageBuilder() {
+            return _messageBuilder;
+        }
+
+        private final Marker _marker;
+        private final String _name;
+        private final Strategy _strategy;
+        private final MessageBuilder _messageBuilder;
     }
 }
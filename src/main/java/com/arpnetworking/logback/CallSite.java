@@ -0,0 +1,182 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The source location of a logging statement captured at compile time. When
+ * the Steno <code>LogBuilderAspect</code> is woven into the calling code a
+ * single <code>CallSite</code> instance is created per logging statement and
+ * published with <code>enter</code> for the duration of the call to the
+ * Steno <code>Logger</code>. The logger then passes it as the last argument
+ * of the event (before any <code>Throwable</code>) which
+ * <code>StenoEncoder</code> uses for the file, class, method and line context
+ * instead of capturing the stack. The event's <code>Marker</code> is not
+ * changed.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public final class CallSite implements Serializable {
+
+    /**
+     * Public constructor.
+     *
+     * @param className The name of the calling class.
+     * @param methodName The name of the calling method.
+     * @param fileName The name of the calling source file.
+     * @param line The line number of the call.
+     */
+    public CallSite(final String className, final String methodName, final String fileName, final int line) {
+        _stackTraceElement = new StackTraceElement(className, methodName, fileName, line);
+    }
+
+    /**
+     * Publish the call site of the logging statement being executed by the
+     * current thread. Logging statements may nest, for example when
+     * <code>toString</code> of an argument logs, so each call must be
+     * followed by a call to <code>exit</code> which restores the call site
+     * returned here.
+     *
+     * @param callSite The <code>CallSite</code> instance.
+     * @return The previously published <code>CallSite</code> or <code>null</code> if none.
+     */
+    public static CallSite enter(final CallSite callSite) {
+        return FRAMES.get().push(callSite);
+    }
+
+    /**
+     * Restore the call site published before the matching call to
+     * <code>enter</code> on the current thread.
+     */
+    public static void exit() {
+        FRAMES.get().pop();
+    }
+
+    /**
+     * Retrieve the call site of the logging statement being executed by the
+     * current thread.
+     *
+     * @return The <code>CallSite</code> or <code>null</code> if none.
+     */
+    public static CallSite current() {
+        return FRAMES.get().peek();
+    }
+
+    /**
+     * Retrieve the call site passed as the last argument of an event.
+     *
+     * @param event The <code>ILoggingEvent</code> instance.
+     * @return The <code>CallSite</code> or <code>null</code> if none.
+     */
+    public static CallSite fromEvent(final ILoggingEvent event) {
+        final Object[] arguments = event.getArgumentArray();
+        if (arguments != null && arguments.length > 0 && arguments[arguments.length - 1] instanceof CallSite) {
+            return (CallSite) arguments[arguments.length - 1];
+        }
+        return null;
+    }
+
+    /**
+     * Retrieve the name of the calling class.
+     *
+     * @return The name of the calling class.
+     */
+    public String getClassName() {
+        return _stackTraceElement.getClassName();
+    }
+
+    /**
+     * Retrieve the name of the calling method.
+     *
+     * @return The name of the calling method.
+     */
+    public String getMethodName() {
+        return _stackTraceElement.getMethodName();
+    }
+
+    /**
+     * Retrieve the name of the calling source file.
+     *
+     * @return The name of the calling source file.
+     */
+    public String getFileName() {
+        return _stackTraceElement.getFileName();
+    }
+
+    /**
+     * Retrieve the line number of the call.
+     *
+     * @return The line number of the call.
+     */
+    public int getLine() {
+        return _stackTraceElement.getLineNumber();
+    }
+
+    /**
+     * Retrieve the call site as a <code>StackTraceElement</code>. The same
+     * instance is returned on each invocation.
+     *
+     * @return The call site as a <code>StackTraceElement</code>.
+     */
+    public StackTraceElement getStackTraceElement() {
+        return _stackTraceElement;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CallSite{" + _stackTraceElement + "}";
+    }
+
+    private final StackTraceElement _stackTraceElement;
+
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+    private static final long serialVersionUID = 5327415068247091835L;
+
+    private static final class Frames {
+
+        public CallSite push(final CallSite callSite) {
+            final CallSite previous = peek();
+            if (_depth == _callSites.length) {
+                _callSites = Arrays.copyOf(_callSites, _depth * 2);
+            }
+            _callSites[_depth++] = callSite;
+            return previous;
+        }
+
+        public void pop() {
+            if (_depth > 0) {
+                _callSites[--_depth] = null;
+            }
+        }
+
+        public CallSite peek() {
+            return _depth > 0 ? _callSites[_depth - 1] : null;
+        }
+
+        private CallSite[] _callSites = new CallSite[INITIAL_DEPTH];
+        private int _depth;
+
+        private static final int INITIAL_DEPTH = 4;
+    }
+}
@@ -18,11 +18,12 @@ package com.arpnetworking.logback;
 import ch.qos.logback.classic.pattern.ClassicConverter;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 
-import java.util.concurrent.atomic.AtomicReference;
-
 /**
  * Generate the host name for a logging event. This implementation uses the local host name and therefore will not
- * work as expected if log events are serialized on a remote system.
+ * work as expected if log events are serialized on a remote system. The host name is resolved in the background and
+ * until resolution completes the <code>HOSTNAME</code> or <code>COMPUTERNAME</code> environment variable is used
+ * instead; set the <code>steno.host</code> system property or the <code>STENO_HOST</code> environment variable to
+ * override it.
  *
  * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
  * @since 1.1.0
@@ -33,7 +34,7 @@ public class HostConverter extends ClassicConverter {
      * Public constructor.
      */
     public HostConverter() {
-        this(HostProvider.DEFAULT);
+        this(HostProvider.RESOLVING);
     }
 
     /**
@@ -42,12 +43,7 @@ public class HostConverter extends ClassicConverter {
     @Override
     public String convert(final ILoggingEvent event) {
         try {
-            String result = this._hostName.get();
-            if (result == null) {
-                result = _provider.get();
-                this._hostName.set(result);
-            }
-            return result;
+            return _provider.get();
             // CHECKSTYLE.OFF: IllegalCatch - Prevent all failures
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -60,5 +56,4 @@ public class HostConverter extends ClassicConverter {
     }
 
     private final HostProvider _provider;
-    private final AtomicReference<String> _hostName = new AtomicReference<>();
 }
@@ -17,6 +17,15 @@ package com.arpnetworking.logback;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Interface for providing the local host name.
@@ -39,6 +48,22 @@ import java.net.UnknownHostException;
      */
     HostProvider DEFAULT = new DefaultHostProvider();
 
+    /**
+     * Shared instance of <code>ResolvingHostProvider</code> wrapping
+     * <code>DEFAULT</code>.
+     */
+    ResolvingHostProvider RESOLVING = new ResolvingHostProvider(
+            DEFAULT,
+            System::getProperty,
+            System::getenv,
+            runnable -> {
+                final Thread thread = new Thread(runnable, "steno-host-resolver");
+                thread.setDaemon(true);
+                thread.start();
+            },
+            Clock.systemUTC(),
+            ResolvingHostProvider.DEFAULT_TIMEOUT_IN_MILLIS);
+
     /**
      * Default implementation of <code>HostProvider</code> using <code>InetAddress</code>.
      */
@@ -48,4 +73,109 @@ import java.net.UnknownHostException;
             return InetAddress.getLocalHost().getCanonicalHostName();
         }
     }
+
+    /**
+     * Implementation of <code>HostProvider</code> which resolves the host name
+     * from another provider once on a background thread so that callers never
+     * block on name resolution. Until resolution completes the value of the
+     * <code>HOSTNAME</code> or <code>COMPUTERNAME</code> environment variable
+     * is returned instead and if resolution does not complete within the
+     * timeout that value is used from then on. The host name may be overridden
+     * with the <code>steno.host</code> system property or the
+     * <code>STENO_HOST</code> environment variable in which case no resolution
+     * is performed.
+     */
+    /* package private static */ final class ResolvingHostProvider implements HostProvider {
+
+        /* package private */ ResolvingHostProvider(
+                final HostProvider resolver,
+                final Function<String, String> systemProperties,
+                final Function<String, String> environment,
+                final Executor executor,
+                final Clock clock,
+                final long timeoutInMillis) {
+            _resolver = resolver;
+            _executor = executor;
+            _clock = clock;
+            _timeoutInMillis = timeoutInMillis;
+            _override = Optional.ofNullable(systemProperties.apply(OVERRIDE_PROPERTY))
+                    .orElse(environment.apply(OVERRIDE_VARIABLE));
+            _fallback = Optional.ofNullable(environment.apply(FALLBACK_VARIABLE))
+                    .orElse(environment.apply(WINDOWS_FALLBACK_VARIABLE));
+            if (_override != null) {
+                _host.complete(_override);
+            }
+        }
+
+        @Override
+        public String get() throws UnknownHostException {
+            if (!_host.isDone()) {
+                resolve();
+                if (_fallback != null && _clock.millis() >= _deadline.get()) {
+                    _host.complete(_fallback);
+                }
+            }
+            return orUnknown(_host.getNow(_fallback));
+        }
+
+        /**
+         * Return a host name which does not depend on the timing of resolution;
+         * that is the override or the fallback if either is set, and otherwise
+         * the resolved host name waiting at most the timeout for it.
+         *
+         * @return The host name.
+         * @throws UnknownHostException If the host name cannot be determined.
+         */
+        /* package private */ String getStable() throws UnknownHostException {
+            final String host = Optional.ofNullable(_override).orElse(_fallback);
+            if (host != null) {
+                return host;
+            }
+            resolve();
+            try {
+                return orUnknown(_host.get(_timeoutInMillis, TimeUnit.MILLISECONDS));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UnknownHostException("Interrupted resolving host name");
+            } catch (final ExecutionException | TimeoutException e) {
+                throw new UnknownHostException("Timed out resolving host name");
+            }
+        }
+
+        /**
+         * Start resolving the host name if it has not been started already.
+         */
+        /* package private */ void resolve() {
+            if (_deadline.compareAndSet(0, _clock.millis() + _timeoutInMillis)) {
+                _executor.execute(this::lookup);
+            }
+        }
+
+        private void lookup() {
+            try {
+                _host.complete(_resolver.get());
+            } catch (final UnknownHostException e) {
+                _host.complete(_fallback);
+            }
+        }
+
+        private static String orUnknown(final String host) throws UnknownHostException {
+            return Optional.ofNullable(host).orElseThrow(() -> new UnknownHostException("Unable to determine host name"));
+        }
+
+        private final HostProvider _resolver;
+        private final Executor _executor;
+        private final Clock _clock;
+        private final long _timeoutInMillis;
+        private final String _override;
+        private final String _fallback;
+        private final CompletableFuture<String> _host = new CompletableFuture<>();
+        private final AtomicLong _deadline = new AtomicLong();
+
+        /* package private */ static final long DEFAULT_TIMEOUT_IN_MILLIS = 5000;
+        /* package private */ static final String OVERRIDE_PROPERTY = "steno.host";
+        /* package private */ static final String OVERRIDE_VARIABLE = "STENO_HOST";
+        private static final String FALLBACK_VARIABLE = "HOSTNAME";
+        private static final String WINDOWS_FALLBACK_VARIABLE = "COMPUTERNAME";
+    }
 }
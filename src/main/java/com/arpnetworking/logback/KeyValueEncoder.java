@@ -16,12 +16,18 @@
 package com.arpnetworking.logback;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.arpnetworking.logback.jackson.SupplierSerializer;
 import com.arpnetworking.logback.serialization.keyvalue.KeyValueSerializationHelper;
+import org.slf4j.helpers.MessageFormatter;
 
 import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
 /**
  * Encoder to take a Steno log event {@link com.arpnetworking.logback.StenoMarker} and convert it to an
@@ -54,6 +60,32 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
         return _logEventName;
     }
 
+    /**
+     * Set whether a <code>Supplier</code> value which throws is encoded as a
+     * placeholder naming the exception instead of failing the event. By
+     * default this is true.
+     *
+     * @param value True if and only if failed suppliers should be encoded as a placeholder.
+     *
+     * @since 1.16.0
+     */
+    public void setSafe(final boolean value) {
+        _safe = value;
+    }
+
+    /**
+     * Whether a <code>Supplier</code> value which throws is encoded as a
+     * placeholder naming the exception instead of failing the event. By
+     * default this is true.
+     *
+     * @return True if and only if failed suppliers are encoded as a placeholder.
+     *
+     * @since 1.16.0
+     */
+    public boolean isSafe() {
+        return _safe;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -74,7 +106,7 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
             throws EncodingException {
 
         try {
-            return createMessage(event, eventName, keys, values);
+            return createMessage(event, eventName, keys, values, false);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -94,8 +126,7 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
             throws EncodingException {
 
         try {
-            final Object[] escapedJsonValues = jsonValues == null ? null : escapeStringValues(jsonValues);
-            return createMessage(event, eventName, keys, escapedJsonValues);
+            return createMessage(event, eventName, keys, jsonValues, true);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -129,7 +160,8 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
                     event,
                     eventName,
                     keys,
-                    values);
+                    values,
+                    false);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -163,7 +195,8 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
                     event,
                     eventName,
                     keys,
-                    values == null ? null : escapeStringValues(values));
+                    values,
+                    true);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -186,7 +219,8 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
                     event,
                     eventName,
                     new String[]{"data"},
-                    escapeStringValues(new Object[]{data == null ? null : data.toString()}));
+                    new Object[]{data == null ? null : data.toString()},
+                    true);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -209,7 +243,8 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
                     event,
                     eventName,
                     new String[]{"data"},
-                    escapeStringValues(new Object[]{jsonData}));
+                    new Object[]{jsonData},
+                    true);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -278,7 +313,8 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
                     event,
                     eventName,
                     keys,
-                    escapeStringValues(values));
+                    values,
+                    true);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
@@ -286,6 +322,51 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String buildPayloadMessage(
+            final ILoggingEvent event,
+            final String eventName,
+            final StenoPayload payload)
+            throws EncodingException {
+
+        try {
+            final StenoPayload.Fields data = payload.getData();
+            final StenoPayload.Fields context = payload.getContext();
+            final int size = context.size() + data.size();
+
+            final String[] keys = new String[size];
+            final Object[] values = new Object[size];
+
+            int index = 0;
+            for (int i = 0; i < context.size(); ++i) {
+                keys[index] = context.getKey(i);
+                values[index] = context.getValue(i);
+                ++index;
+            }
+            for (int i = 0; i < data.size(); ++i) {
+                keys[index] = data.getKey(i);
+                values[index] = data.getValue(i);
+                ++index;
+            }
+
+            return createMessage(
+                    event,
+                    eventName,
+                    keys,
+                    values,
+                    true);
+            // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
+        } catch (final Throwable t) {
+            // CHECKSTYLE.ON: IllegalCatch
+            throw new EncodingException(
+                    createSafeContext(event, payload.getContext().getKeys(), payload.getContext().getValues()),
+                    t);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -320,7 +401,8 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
     }
 
     /**
-     * Escape all <code>String</code> instances.
+     * Escape all <code>String</code> instances. Any <code>Supplier</code>
+     * instances are resolved first.
      *
      * @param values Arguments to encode.
      * @return Encoded arguments.
@@ -328,25 +410,211 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
     protected Object[] escapeStringValues(final Object[] values) {
         final Object[] escapedValues = new Object[values.length];
         for (int i = 0; i < values.length; i++) {
-            Object value = values[i];
+            Object value = resolveSupplier(values[i], _safe);
             // Instance of check implies value is not null
             if (value instanceof String) {
-                value = ((String) value).replaceAll("\"", "\\\\\"");
+                final String stringValue = (String) value;
+                if (stringValue.indexOf('"') >= 0) {
+                    final StringBuilder builder = new StringBuilder(stringValue.length() + 8);
+                    appendEscaped(builder, stringValue);
+                    value = builder.toString();
+                }
             }
             escapedValues[i] = value;
         }
         return escapedValues;
     }
 
+    /**
+     * Create the formatted message for an event by writing the cached name
+     * and key segments for the key signature interleaved with the values.
+     * The output matches formatting {@link #buildFormatString} with
+     * <code>MessageFormatter</code>; inputs which <code>MessageFormatter</code>
+     * treats specially (a name or key containing a placeholder, a trailing
+     * <code>Throwable</code> value or a value whose <code>toString</code> is
+     * not well behaved) are formatted with <code>MessageFormatter</code>. The
+     * cached segments are only used when neither {@link #buildFormatString}
+     * nor {@link #escapeStringValues} is overridden by a subclass.
+     */
     /* package private */ String createMessage(
             final ILoggingEvent event,
             final String eventName,
             final String[] keys,
-            final Object[] values) {
+            final Object[] values,
+            final boolean escape) {
+
+        final Object[] resolvedValues = values == null ? null : resolveSuppliers(values, _safe);
+        String message = null;
+        if (_segmentsEnabled) {
+            final String[] segments = getSegments(eventName == null ? _logEventName : eventName, keys);
+            if (segments != FORMATTER_SEGMENTS) {
+                message = writeMessage(segments, resolvedValues, escape);
+            }
+        }
+        if (message == null) {
+            Object[] formatterValues = resolvedValues;
+            if (escape && resolvedValues != null) {
+                formatterValues = escapeStringValues(resolvedValues);
+            }
+            message = MessageFormatter.arrayFormat(buildFormatString(eventName, keys), formatterValues).getMessage();
+        }
+        return layout.doLayout(new LoggingEventWrapper(event, message, null));
+    }
+
+    /* package private */ String[] getSegments(final String name, final String[] keys) {
+        final String[] signatureKeys = keys == null ? NO_KEYS : keys;
+        final SegmentsEntry entry = _segments.get(probeSegments(name, signatureKeys));
+        if (entry != null) {
+            return entry._segments;
+        }
+        final String[] signature = new String[signatureKeys.length + 1];
+        signature[0] = name;
+        System.arraycopy(signatureKeys, 0, signature, 1, signatureKeys.length);
+        final String[] segments = createSegments(signature);
+        cacheSegments(new SegmentsEntry(name, signatureKeys.clone(), segments));
+        return segments;
+    }
+
+    private int probeSegments(final String name, final String[] keys) {
+        int index = hashSignature(name, keys) & SEGMENTS_TABLE_MASK;
+        SegmentsEntry entry = _segments.get(index);
+        while (entry != null && !entry.matches(name, keys)) {
+            index = (index + 1) & SEGMENTS_TABLE_MASK;
+            entry = _segments.get(index);
+        }
+        return index;
+    }
+
+    private synchronized void cacheSegments(final SegmentsEntry entry) {
+        if (_segmentsSize < MAXIMUM_CACHED_SIGNATURES) {
+            // Probe again since another thread may have cached the same or a colliding signature
+            _segments.set(probeSegments(entry._name, entry._keys), entry);
+            ++_segmentsSize;
+        }
+    }
+
+    private static int hashSignature(final String name, final String[] keys) {
+        int hash = Objects.hashCode(name);
+        for (final String key : keys) {
+            hash = 31 * hash + Objects.hashCode(key);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /* package private */ static boolean isOverridden(
+            final Class<?> clazz,
+            final String name,
+            final Class<?>... parameterTypes) {
+        for (Class<?> current = clazz; current != KeyValueEncoder.class; current = current.getSuperclass()) {
+            try {
+                current.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (final NoSuchMethodException e) {
+                // Not declared here; check the superclass
+            }
+        }
+        return false;
+    }
+
+    private static String[] createSegments(final String[] signature) {
+        final String[] segments = new String[signature.length];
+        for (int i = 0; i < signature.length; ++i) {
+            // MessageFormatter would treat these as placeholders or escapes
+            if (String.valueOf(signature[i]).indexOf('{') >= 0) {
+                return FORMATTER_SEGMENTS;
+            }
+            if (i == 0) {
+                segments[i] = "name=\"" + signature[i] + "\"";
+            } else {
+                segments[i] = ", " + signature[i] + "=\"";
+            }
+        }
+        return segments;
+    }
+
+    private static String writeMessage(final String[] segments, final Object[] values, final boolean escape) {
+        final int valueCount = values == null ? 0 : values.length;
+        if (valueCount > 0 && values[valueCount - 1] instanceof Throwable) {
+            // MessageFormatter does not substitute a trailing throwable
+            return null;
+        }
+        final StringBuilder builder = new StringBuilder(MESSAGE_CAPACITY);
+        builder.append(segments[0]);
+        for (int i = 1; i < segments.length; ++i) {
+            builder.append(segments[i]);
+            if (i > valueCount) {
+                builder.append("{}");
+            } else if (!appendValue(builder, values[i - 1], escape)) {
+                return null;
+            }
+            builder.append('"');
+        }
+        return builder.toString();
+    }
 
-        final String formatString = buildFormatString(eventName, keys);
-        final LoggingEventWrapper eventWrapper = new LoggingEventWrapper(event, formatString, values);
-        return layout.doLayout(eventWrapper);
+    private static boolean appendValue(final StringBuilder builder, final Object value, final boolean escape) {
+        if (value instanceof String) {
+            if (escape) {
+                appendEscaped(builder, (String) value);
+            } else {
+                builder.append((String) value);
+            }
+        } else if (value == null) {
+            builder.append("null");
+        } else if (value.getClass().isArray()) {
+            builder.append(MessageFormatter.arrayFormat("{}", new Object[]{value}).getMessage());
+        } else {
+            try {
+                builder.append(value.toString());
+                // CHECKSTYLE.OFF: IllegalCatch: Failures are reported by MessageFormatter instead.
+            } catch (final Throwable t) {
+                // CHECKSTYLE.ON: IllegalCatch
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendEscaped(final StringBuilder builder, final String value) {
+        final int length = value.length();
+        for (int i = 0; i < length; ++i) {
+            final char c = value.charAt(i);
+            if (c == '"') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+    }
+
+    /* package private */ static Object[] resolveSuppliers(final Object[] values, final boolean safe) {
+        Object[] resolvedValues = values;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] instanceof Supplier) {
+                if (resolvedValues == values) {
+                    // Copy on first supplier; the caller's array is never modified
+                    resolvedValues = Arrays.copyOf(values, values.length, Object[].class);
+                }
+                resolvedValues[i] = resolveSupplier(values[i], safe);
+            }
+        }
+        return resolvedValues;
+    }
+
+    /* package private */ static Object resolveSupplier(final Object value, final boolean safe) {
+        Object resolvedValue = value;
+        try {
+            while (resolvedValue instanceof Supplier) {
+                resolvedValue = ((Supplier<?>) resolvedValue).get();
+            }
+            // CHECKSTYLE.OFF: IllegalCatch: Suppliers may throw any runtime exception.
+        } catch (final RuntimeException e) {
+            // CHECKSTYLE.ON: IllegalCatch
+            if (!safe) {
+                throw e;
+            }
+            resolvedValue = SupplierSerializer.createFailedPlaceholder(e);
+        }
+        return resolvedValue;
     }
 
     /* package private */ Map<String, Object> createSafeContext(final ILoggingEvent event) {
@@ -361,5 +629,35 @@ public class KeyValueEncoder extends BaseLoggingEncoder {
     }
 
     private String _logEventName = STANDARD_LOG_EVENT_NAME;
+    private boolean _safe = true;
+    // Open addressing table without removal; lookups probe it without allocating a key
+    private final AtomicReferenceArray<SegmentsEntry> _segments = new AtomicReferenceArray<>(SEGMENTS_TABLE_MASK + 1);
+    private int _segmentsSize;
+    private final boolean _segmentsEnabled =
+            !isOverridden(getClass(), "buildFormatString", String.class, String[].class)
+                    && !isOverridden(getClass(), "escapeStringValues", Object[].class);
+
     private static final String STANDARD_LOG_EVENT_NAME = "log";
+    private static final String[] FORMATTER_SEGMENTS = new String[0];
+    private static final int MAXIMUM_CACHED_SIGNATURES = 1024;
+    private static final int SEGMENTS_TABLE_MASK = 2 * MAXIMUM_CACHED_SIGNATURES - 1;
+    private static final String[] NO_KEYS = new String[0];
+    private static final int MESSAGE_CAPACITY = 256;
+
+    private static final class SegmentsEntry {
+
+        private SegmentsEntry(final String name, final String[] keys, final String[] segments) {
+            _name = name;
+            _keys = keys;
+            _segments = segments;
+        }
+
+        private boolean matches(final String name, final String[] keys) {
+            return Objects.equals(_name, name) && Arrays.equals(_keys, keys);
+        }
+
+        private final String _name;
+        private final String[] _keys;
+        private final String[] _segments;
+    }
 }
@@ -15,7 +15,12 @@
  */
 package com.arpnetworking.logback;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,7 +42,10 @@ import java.util.regex.Pattern;
     /**
      * Default instance of <code>ProcessProvider</code>.
      */
-    ProcessProvider DEFAULT = new DefaultProcessProvider(Pattern.compile("^([\\d]+)@.*$"));
+    ProcessProvider DEFAULT = new FastProcessProvider(
+            "java.lang.ProcessHandle",
+            Paths.get("/proc/self"),
+            new DefaultProcessProvider(Pattern.compile("^([\\d]+)@.*$")));
 
     /**
      * Default implementation of <code>ProcessProvider</code> using <code>ManagementFactory</code>.
@@ -59,4 +67,49 @@ import java.util.regex.Pattern;
 
         private final Pattern _pattern;
     }
+
+    /**
+     * Implementation of <code>ProcessProvider</code> which avoids loading
+     * <code>java.lang.management</code> at startup. The process identifier is
+     * read from <code>ProcessHandle</code> when available (Java 9 and later),
+     * then from the <code>/proc/self</code> link, and otherwise from the
+     * fallback provider.
+     */
+    /* package private static */ final class FastProcessProvider implements ProcessProvider {
+
+        /* package private */ FastProcessProvider(
+                final String processHandleClassName,
+                final Path procSelf,
+                final ProcessProvider fallback) {
+            _processHandleClassName = processHandleClassName;
+            _procSelf = procSelf;
+            _fallback = fallback;
+        }
+
+        public String get() {
+            return fromProcessHandle().orElseGet(() -> fromProcSelf().orElseGet(_fallback::get));
+        }
+
+        private Optional<String> fromProcessHandle() {
+            try {
+                final Class<?> processHandleClass = Class.forName(_processHandleClassName);
+                final Object current = processHandleClass.getMethod("current").invoke(null);
+                return Optional.of(String.valueOf(processHandleClass.getMethod("pid").invoke(current)));
+            } catch (final ReflectiveOperationException e) {
+                return Optional.empty();
+            }
+        }
+
+        private Optional<String> fromProcSelf() {
+            try {
+                return Optional.of(String.valueOf(Long.parseLong(Files.readSymbolicLink(_procSelf).toString())));
+            } catch (final IOException | NumberFormatException | UnsupportedOperationException e) {
+                return Optional.empty();
+            }
+        }
+
+        private final String _processHandleClassName;
+        private final Path _procSelf;
+        private final ProcessProvider _fallback;
+    }
 }
@@ -31,6 +31,11 @@ import java.util.Date;
  * The default maximum offset is 1 hour.  If you have a rolling period lower than an hour then this value will need
  * to be modified.  If the rolling period is hourly then there is the possibility that the first log roll will
  * occur up to 2 hours after startup.
+ * <br>
+ * The offset is seeded by the host name so that it is stable across restarts. To avoid blocking on name resolution
+ * the <code>steno.host</code> system property, the <code>STENO_HOST</code> environment variable or the
+ * <code>HOSTNAME</code> (or <code>COMPUTERNAME</code>) environment variable is used if set; otherwise, the resolved
+ * host name is waited for up to a bounded timeout before falling back to an unseeded offset.
  *
  * @param <E> The event type.
  *
@@ -44,7 +49,7 @@ public class RandomizedTimeBasedFNATP<E> extends DefaultTimeBasedFileNamingAndTr
      * Public constructor.
      */
     public RandomizedTimeBasedFNATP() {
-        this(SecureRandomProvider.DEFAULT, HostProvider.DEFAULT);
+        this(SecureRandomProvider.DEFAULT, HostProvider.RESOLVING::getStable);
     }
 
     /*package private*/ RandomizedTimeBasedFNATP(
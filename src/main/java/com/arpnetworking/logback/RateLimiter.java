@@ -0,0 +1,180 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed token bucket rate limiter implemented with the generic cell rate
+ * algorithm (GCRA). Each key is allowed <code>burst</code> permits at once
+ * and thereafter one permit per <code>interval</code>. The state of each key
+ * is a single <code>AtomicLong</code> updated with compare-and-set so the
+ * limiter is lock-free and a rejected request never allocates an
+ * <code>Instant</code>.
+ *
+ * The number of keys tracked is bounded by <code>capacity</code>. Once the
+ * capacity is reached any new keys share a single overflow bucket. Buckets
+ * are never evicted so the number of rejected requests reported with each
+ * permit is exact: every rejection is counted in exactly one subsequent
+ * permit for the same bucket.
+ *
+ * This class is thread safe.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public final class RateLimiter {
+
+    /**
+     * Public constructor. Allows one permit per interval per key.
+     *
+     * @param interval The minimum interval between permits for a key.
+     */
+    public RateLimiter(final Duration interval) {
+        this(interval, 1, DEFAULT_CAPACITY, Clock.systemUTC());
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param interval The interval at which permits are replenished for a key.
+     * @param burst The maximum number of permits available at once for a key.
+     * @param capacity The maximum number of keys to track.
+     * @param clock The <code>Clock</code> to use.
+     */
+    public RateLimiter(final Duration interval, final int burst, final int capacity, final Clock clock) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be positive");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        _intervalMillis = Math.max(1, interval.toMillis());
+        _toleranceMillis = _intervalMillis * (burst - 1);
+        _capacity = capacity;
+        _clock = clock;
+        _buckets = new ConcurrentHashMap<>(Math.min(capacity, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Attempt to acquire a permit for a key.
+     *
+     * @param key The key to rate limit on; may be <code>null</code>.
+     * @return The <code>Permit</code> if acquired or <code>null</code> if
+     * the key is currently rate limited.
+     */
+    public Permit tryAcquire(final Object key) {
+        final Bucket bucket = getBucket(key == null ? NULL_KEY : key);
+        final AtomicLong theoreticalArrivalTime = bucket._theoreticalArrivalTime;
+        long now;
+        long expected;
+        do {
+            expected = theoreticalArrivalTime.get();
+            now = _clock.millis();
+            if (expected - now > _toleranceMillis) {
+                bucket._skipped.incrementAndGet();
+                return null;
+            }
+        } while (!theoreticalArrivalTime.compareAndSet(expected, Math.max(expected, now) + _intervalMillis));
+        final long lastAcquired = bucket._lastAcquired.getAndSet(now);
+        return new Permit(
+                bucket._skipped.getAndSet(0),
+                lastAcquired == NEVER ? null : Instant.ofEpochMilli(lastAcquired));
+    }
+
+    /**
+     * Retrieve the number of keys currently tracked.
+     *
+     * @return The number of keys currently tracked.
+     */
+    public int getSize() {
+        return _buckets.size();
+    }
+
+    private Bucket getBucket(final Object key) {
+        final Bucket bucket = _buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (_buckets.size() >= _capacity) {
+            return _overflowBucket;
+        }
+        return _buckets.computeIfAbsent(key, k -> new Bucket());
+    }
+
+    private final long _intervalMillis;
+    private final long _toleranceMillis;
+    private final int _capacity;
+    private final Clock _clock;
+    private final ConcurrentMap<Object, Bucket> _buckets;
+    private final Bucket _overflowBucket = new Bucket();
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final Object NULL_KEY = new Object();
+
+    /**
+     * The result of a successful acquisition.
+     *
+     * @since 1.16.0
+     */
+    public static final class Permit {
+
+        /**
+         * Retrieve the number of requests rejected for the key since the
+         * previous permit.
+         *
+         * @return The number of rejected requests.
+         */
+        public int getSkipped() {
+            return _skipped;
+        }
+
+        /**
+         * Retrieve the time of the previous permit for the key.
+         *
+         * @return The time of the previous permit or <code>null</code> if
+         * this is the first permit.
+         */
+        public Instant getLastAcquired() {
+            return _lastAcquired;
+        }
+
+        private Permit(final int skipped, final Instant lastAcquired) {
+            _skipped = skipped;
+            _lastAcquired = lastAcquired;
+        }
+
+        private final int _skipped;
+        private final Instant _lastAcquired;
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLong _theoreticalArrivalTime = new AtomicLong(0);
+        private final AtomicLong _lastAcquired = new AtomicLong(NEVER);
+        private final AtomicInteger _skipped = new AtomicInteger(0);
+    }
+}
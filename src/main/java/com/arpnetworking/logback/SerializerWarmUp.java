@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.core.spi.ContextAware;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Creates and caches the serializers for configured classes and for the
+ * classes in configured packages (including sub-packages) so that the cost
+ * of introspection and bytecode generation is paid at startup instead of
+ * when each type is first logged. Failures are reported as warnings and the
+ * number of classes warmed up and the elapsed time are reported on
+ * completion.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+/* package private */ final class SerializerWarmUp implements Runnable {
+
+    /**
+     * Package private constructor.
+     *
+     * @param contextAware The <code>ContextAware</code> to report status to.
+     * @param objectMapper The <code>ObjectMapper</code> to warm up.
+     * @param classLoader The <code>ClassLoader</code> to load classes from.
+     * @param classNames The fully qualified names of the classes to warm up.
+     * @param packageNames The names of the packages to warm up.
+     */
+    /* package private */ SerializerWarmUp(
+            final ContextAware contextAware,
+            final ObjectMapper objectMapper,
+            final ClassLoader classLoader,
+            final Collection<String> classNames,
+            final Collection<String> packageNames) {
+        _contextAware = contextAware;
+        _objectMapper = objectMapper;
+        _classLoader = classLoader;
+        _classNames = new ArrayList<>(classNames);
+        _packageNames = new ArrayList<>(packageNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        final long startNanos = System.nanoTime();
+        final Set<String> classNames = new LinkedHashSet<>(_classNames);
+        for (final String packageName : _packageNames) {
+            try {
+                classNames.addAll(findClassNames(packageName));
+            } catch (final IOException | URISyntaxException | FileSystemNotFoundException e) {
+                _contextAware.addWarn("Unable to scan package for serializer warm-up; package=" + packageName, e);
+            }
+        }
+        int warmed = 0;
+        for (final String className : classNames) {
+            if (warmUp(className)) {
+                ++warmed;
+            }
+        }
+        _contextAware.addInfo(String.format(
+                "Warmed up serializers for %d of %d classes in %d ms",
+                warmed,
+                classNames.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+    }
+
+    /* package private */ boolean warmUp(final String className) {
+        final Class<?> clazz;
+        try {
+            clazz = Class.forName(className, false, _classLoader);
+        } catch (final ClassNotFoundException | LinkageError e) {
+            _contextAware.addWarn("Unable to load class for serializer warm-up; class=" + className, e);
+            return false;
+        }
+        final AtomicReference<Throwable> cause = new AtomicReference<>();
+        if (!_objectMapper.canSerialize(clazz, cause)) {
+            _contextAware.addWarn("Unable to create serializer for warm-up; class=" + className, cause.get());
+            return false;
+        }
+        return true;
+    }
+
+    /* package private */ List<String> findClassNames(final String packageName) throws IOException, URISyntaxException {
+        final String path = packageName.replace('.', '/');
+        final List<String> classNames = new ArrayList<>();
+        final Enumeration<URL> resources = _classLoader.getResources(path);
+        while (resources.hasMoreElements()) {
+            final URL url = resources.nextElement();
+            if ("jar".equals(url.getProtocol())) {
+                final JarURLConnection connection = (JarURLConnection) url.openConnection();
+                // Do not close a jar file cached and shared with the class loader
+                connection.setUseCaches(false);
+                final JarFile jarFile = connection.getJarFile();
+                try {
+                    final Enumeration<JarEntry> entries = jarFile.entries();
+                    while (entries.hasMoreElements()) {
+                        addClassName(classNames, path, entries.nextElement().getName());
+                    }
+                } finally {
+                    jarFile.close();
+                }
+            } else {
+                final Path root = Paths.get(url.toURI());
+                final Stream<Path> files = Files.walk(root);
+                try {
+                    files.forEach(file -> addClassName(
+                            classNames,
+                            path,
+                            path + "/" + root.relativize(file).toString().replace(File.separatorChar, '/')));
+                } finally {
+                    files.close();
+                }
+            }
+        }
+        return classNames;
+    }
+
+    private static void addClassName(final List<String> classNames, final String path, final String entryName) {
+        if (entryName.startsWith(path + "/") && entryName.endsWith(CLASS_SUFFIX) && !entryName.endsWith(INFO_SUFFIX)) {
+            classNames.add(entryName.substring(0, entryName.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+        }
+    }
+
+    private final ContextAware _contextAware;
+    private final ObjectMapper _objectMapper;
+    private final ClassLoader _classLoader;
+    private final List<String> _classNames;
+    private final List<String> _packageNames;
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String INFO_SUFFIX = "-info.class";
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.slf4j.Marker;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extension of Logback's <code>AsyncAppender</code> which sheds events by
+ * priority as its queue fills. Once the queue is at least
+ * <code>debugShedRatio</code> full <code>TRACE</code> and <code>DEBUG</code>
+ * events are discarded and once it is at least <code>infoShedRatio</code>
+ * full <code>INFO</code> events are also discarded. <code>WARN</code> and
+ * <code>ERROR</code> events are never discarded. Logback's own discarding
+ * threshold is disabled by default.
+ *
+ * Discarded events are counted by level and event name; for Steno events the
+ * event name is the message and for other events it is <code>null</code>.
+ * Once the queue drains below <code>debugShedRatio</code> a single
+ * <code>WARN</code> level Steno event named <code>_shed</code> is logged
+ * ahead of the next appended event of any level
+ * with the <code>total</code> number of discarded events and a
+ * <code>dropped</code> list of <code>level</code>, <code>event</code> and
+ * <code>count</code> entries. The counters are reset as they are read for
+ * the summary so each discarded event is reported once. Any pending summary is also logged when the
+ * appender is stopped.
+ *
+ * Example configuration:
+ *
+ * <pre>
+ * &lt;appender name="ASYNC" class="com.arpnetworking.logback.SheddingAsyncAppender"&gt;
+ *   &lt;appender-ref ref="FILE"/&gt;
+ *   &lt;queueSize&gt;4096&lt;/queueSize&gt;
+ *   &lt;debugShedRatio&gt;0.5&lt;/debugShedRatio&gt;
+ *   &lt;infoShedRatio&gt;0.8&lt;/infoShedRatio&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public class SheddingAsyncAppender extends AsyncAppender {
+
+    /**
+     * Public constructor.
+     */
+    public SheddingAsyncAppender() {
+        setDiscardingThreshold(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start() {
+        if (_debugShedRatio < 0.0 || _debugShedRatio > _infoShedRatio || _infoShedRatio > 1.0) {
+            addError("Shed ratios must satisfy 0 <= debugShedRatio <= infoShedRatio <= 1; "
+                    + "debugShedRatio=" + _debugShedRatio + ", infoShedRatio=" + _infoShedRatio);
+            return;
+        }
+        super.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        if (isStarted()) {
+            emitShedSummary();
+        }
+        super.stop();
+    }
+
+    /**
+     * Retrieve the queue fill ratio at which <code>TRACE</code> and
+     * <code>DEBUG</code> events are discarded. Default is 0.5.
+     *
+     * @return The queue fill ratio.
+     */
+    public double getDebugShedRatio() {
+        return _debugShedRatio;
+    }
+
+    /**
+     * Set the queue fill ratio at which <code>TRACE</code> and
+     * <code>DEBUG</code> events are discarded. Default is 0.5.
+     *
+     * @param value The queue fill ratio.
+     */
+    public void setDebugShedRatio(final double value) {
+        _debugShedRatio = value;
+    }
+
+    /**
+     * Retrieve the queue fill ratio at which <code>INFO</code> events are
+     * discarded. Default is 0.8.
+     *
+     * @return The queue fill ratio.
+     */
+    public double getInfoShedRatio() {
+        return _infoShedRatio;
+    }
+
+    /**
+     * Set the queue fill ratio at which <code>INFO</code> events are
+     * discarded. Default is 0.8.
+     *
+     * @param value The queue fill ratio.
+     */
+    public void setInfoShedRatio(final double value) {
+        _infoShedRatio = value;
+    }
+
+    /**
+     * Retrieve the total number of events discarded since the appender was
+     * created.
+     *
+     * @return The total number of events discarded.
+     */
+    public long getShedCount() {
+        return _shedCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void append(final ILoggingEvent event) {
+        final int levelInt = event.getLevel().toInt();
+        if (levelInt < Level.WARN_INT) {
+            final double fill = (double) getNumberOfElementsInQueue() / getQueueSize();
+            final double shedRatio = levelInt < Level.INFO_INT ? _debugShedRatio : _infoShedRatio;
+            if (fill >= shedRatio) {
+                shed(event);
+                return;
+            }
+        }
+        // Events of any level flush the summary so that it is not held back by WARN and ERROR only traffic
+        if (_pending.get() && (double) getNumberOfElementsInQueue() / getQueueSize() < _debugShedRatio) {
+            emitShedSummary();
+        }
+        super.append(event);
+    }
+
+    /**
+     * Log the summary of discarded events if there are any.
+     */
+    /* package private */ void emitShedSummary() {
+        // Clear the flag before draining so that a concurrent shed triggers another summary
+        _pending.set(false);
+        long total = 0;
+        final List<Map<String, Object>> dropped = new ArrayList<>();
+        for (final Map.Entry<Map.Entry<Level, String>, AtomicLong> entry : _counts.entrySet()) {
+            final long count = entry.getValue().getAndSet(0);
+            if (count == 0) {
+                continue;
+            }
+            final Map<String, Object> drop = new LinkedHashMap<>();
+            drop.put("level", entry.getKey().getKey().toString());
+            drop.put("event", entry.getKey().getValue());
+            drop.put("count", count);
+            dropped.add(drop);
+            total += count;
+        }
+        if (total == 0) {
+            return;
+        }
+        final LoggingEvent summary = new LoggingEvent(
+                SheddingAsyncAppender.class.getName(),
+                ((LoggerContext) getContext()).getLogger(SheddingAsyncAppender.class),
+                Level.WARN,
+                SHED_EVENT_NAME,
+                null,
+                new Object[]{new String[]{"total", "dropped"}, new Object[]{total, dropped}});
+        summary.setMarker(StenoMarker.ARRAY_MARKER);
+        super.append(summary);
+    }
+
+    private void shed(final ILoggingEvent event) {
+        final Map.Entry<Level, String> key = new AbstractMap.SimpleImmutableEntry<>(
+                event.getLevel(),
+                isStenoEvent(event.getMarker()) ? event.getMessage() : null);
+        AtomicLong count = _counts.get(key);
+        if (count == null) {
+            // Bound the number of distinct events; others are counted without a name
+            count = _counts.computeIfAbsent(
+                    _counts.size() < MAXIMUM_SHED_KEYS ? key : new AbstractMap.SimpleImmutableEntry<>(event.getLevel(), null),
+                    k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+        _shedCount.incrementAndGet();
+        _pending.set(true);
+    }
+
+    private static boolean isStenoEvent(final Marker marker) {
+        return marker != null && marker.getName().startsWith(STENO_MARKER_PREFIX);
+    }
+
+    private double _debugShedRatio = 0.5;
+    private double _infoShedRatio = 0.8;
+    private final ConcurrentMap<Map.Entry<Level, String>, AtomicLong> _counts = new ConcurrentHashMap<>();
+    private final AtomicLong _shedCount = new AtomicLong();
+    private final AtomicBoolean _pending = new AtomicBoolean(false);
+
+    /* package private */ static final int MAXIMUM_SHED_KEYS = 256;
+    private static final String STENO_MARKER_PREFIX = "com.arpnetworking.logback.stenoMarker.";
+
+    /* package private */ static final String SHED_EVENT_NAME = "_shed";
+}
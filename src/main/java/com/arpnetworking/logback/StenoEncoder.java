@@ -15,21 +15,31 @@
  */
 package com.arpnetworking.logback;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.arpnetworking.logback.jackson.LogValueMapSerializer;
 import com.arpnetworking.logback.jackson.RedactionFilter;
 import com.arpnetworking.logback.jackson.StenoAnnotationIntrospector;
 import com.arpnetworking.logback.jackson.StenoBeanSerializerModifier;
+import com.arpnetworking.logback.jackson.SupplierSerializer;
 import com.arpnetworking.logback.jackson.ThrowableMixIn;
+import com.arpnetworking.logback.metrics.TopTalker;
+import com.arpnetworking.logback.metrics.TopTalkers;
 import com.arpnetworking.logback.serialization.steno.ArrayOfJsonSerialziationStrategy;
 import com.arpnetworking.logback.serialization.steno.ArraySerialziationStrategy;
+import com.arpnetworking.logback.serialization.steno.DelegatingSerializationStrategy;
 import com.arpnetworking.logback.serialization.steno.ListsSerialziationStrategy;
 import com.arpnetworking.logback.serialization.steno.MapOfJsonSerialziationStrategy;
 import com.arpnetworking.logback.serialization.steno.MapSerialziationStrategy;
 import com.arpnetworking.logback.serialization.steno.ObjectAsJsonSerialziationStrategy;
 import com.arpnetworking.logback.serialization.steno.ObjectSerialziationStrategy;
+import com.arpnetworking.logback.serialization.steno.PayloadSerializationStrategy;
 import com.arpnetworking.logback.serialization.steno.SafeSerializationHelper;
 import com.arpnetworking.logback.serialization.steno.StandardSerializationStrategy;
 import com.arpnetworking.logback.serialization.steno.StenoSerializationHelper;
+import com.arpnetworking.logback.serialization.steno.StenoSerializationStrategy;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -40,15 +50,20 @@ import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -144,7 +159,9 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
     public StenoEncoder() {
         // Each instance of StenoEncoder requires its own ObjectMapper instance
         // in order to apply the correct filtering settings to support redaction.
-        this(new ObjectMapper());
+        // It is created with the serialization strategies when the encoder is
+        // started or first used.
+        this(null, null);
     }
 
     /* package private */ StenoEncoder(final ObjectMapper objectMapper) {
@@ -154,42 +171,8 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
     }
 
     /* package private */ StenoEncoder(final JsonFactory jsonFactory, final ObjectMapper objectMapper) {
-
-        // Initialize object mapper;
+        _jsonFactory = jsonFactory;
         _objectMapper = objectMapper;
-        _objectMapper.setAnnotationIntrospector(new StenoAnnotationIntrospector(_objectMapper));
-        final SimpleFilterProvider simpleFilterProvider = new SimpleFilterProvider();
-        simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID, new RedactionFilter(!DEFAULT_REDACT_NULL));
-        // Initialize this here based on the above code, if it was initialized at the declaration site then things
-        // could get out of sync
-        _redactEnabled = true;
-        _objectMapper.setFilterProvider(simpleFilterProvider);
-
-        // Setup writing of Date/DateTime values
-        _objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        _objectMapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
-        _objectMapper.setDateFormat(new ISO8601DateFormat());
-
-        // Simple module with customizations
-        final SimpleModule module = new SimpleModule();
-        module.setSerializerModifier(new StenoBeanSerializerModifier(this));
-        _objectMapper.registerModule(module);
-
-        // Throwable mix-in
-        _objectMapper.setMixIns(Collections.singletonMap(Throwable.class, ThrowableMixIn.class));
-
-        // After burner to improve data-bind performance
-        _objectMapper.registerModule(new AfterburnerModule());
-
-        // Serialization strategies
-        _listsSerialziationStrategy = new ListsSerialziationStrategy(this, jsonFactory, _objectMapper);
-        _objectAsJsonSerialziationStrategy = new ObjectAsJsonSerialziationStrategy(this, jsonFactory, _objectMapper);
-        _objectSerialziationStrategy = new ObjectSerialziationStrategy(this, jsonFactory, _objectMapper);
-        _mapOfJsonSerialziationStrategy = new MapOfJsonSerialziationStrategy(this, jsonFactory, _objectMapper);
-        _mapSerialziationStrategy = new MapSerialziationStrategy(this, jsonFactory, _objectMapper);
-        _arrayOfJsonSerialziationStrategy = new ArrayOfJsonSerialziationStrategy(this, jsonFactory, _objectMapper);
-        _arraySerialziationStrategy = new ArraySerialziationStrategy(this, jsonFactory, _objectMapper);
-        _standardSerializationStrategy = new StandardSerializationStrategy(this, jsonFactory, _objectMapper);
     }
 
     /**
@@ -197,8 +180,40 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
      */
     @Override
     public void start() {
+        final Serialization serialization = getSerialization();
+
         // Add configured Jackson modules
-        _objectMapper.registerModules(_jacksonModules);
+        serialization._objectMapper.registerModules(_jacksonModules);
+
+        // Create serializers for configured types ahead of first use
+        if (!_warmUpClasses.isEmpty() || !_warmUpPackages.isEmpty()) {
+            final SerializerWarmUp warmUp = new SerializerWarmUp(
+                    this,
+                    serialization._objectMapper,
+                    Optional.ofNullable(Thread.currentThread().getContextClassLoader())
+                            .orElse(StenoEncoder.class.getClassLoader()),
+                    _warmUpClasses,
+                    _warmUpPackages);
+            if (_warmUpAsync) {
+                _warmUpThread = new Thread(warmUp, "steno-encoder-warm-up");
+                _warmUpThread.setDaemon(true);
+                _warmUpThread.start();
+            } else {
+                warmUp.run();
+            }
+        }
+
+        // Create top talker accounting
+        if (_topTalkersEnabled) {
+            _topTalkers = new TopTalkers(_topTalkersCapacity, _topTalkersSize);
+            _nextTopTalkersSummary = 0;
+        }
+
+        super.start();
+
+        if (_topTalkers != null && isJmxEnabled()) {
+            registerMXBean(_topTalkers, "topTalkers");
+        }
     }
 
     /**
@@ -210,15 +225,8 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
      * @since 1.1.0
      */
     public void setRedactEnabled(final boolean redactEnabled) {
-        final SimpleFilterProvider simpleFilterProvider = new SimpleFilterProvider();
-        if (redactEnabled) {
-            simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID, new RedactionFilter(!_redactNull));
-        } else {
-            simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID,
-                    SimpleBeanPropertyFilter.serializeAllExcept(Collections.<String>emptySet()));
-        }
-        _objectMapper.setFilterProvider(simpleFilterProvider);
         _redactEnabled = redactEnabled;
+        updateFilterProvider();
     }
 
     /**
@@ -243,12 +251,8 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
      * @since 1.1.0
      */
     public void setRedactNull(final boolean redactNull) {
-        if (_redactEnabled) {
-            final SimpleFilterProvider simpleFilterProvider = new SimpleFilterProvider();
-            simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID, new RedactionFilter(!redactNull));
-            _objectMapper.setFilterProvider(simpleFilterProvider);
-        }
         _redactNull = redactNull;
+        updateFilterProvider();
     }
 
     /**
@@ -311,6 +315,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextProcess;
     }
 
+    /**
+     * Set the minimum level of events into whose context the process id is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the process id is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextProcessMinLevel(final Level value) {
+        _injectContextProcessMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the process id is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the process id is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextProcessMinLevel() {
+        return _injectContextProcessMinLevel;
+    }
+
     /**
      * Inject thread. This controls whether the host name is injected into each message's context. By default this
      * is <b>true</b>.
@@ -334,6 +362,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextHost;
     }
 
+    /**
+     * Set the minimum level of events into whose context the host name is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the host name is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextHostMinLevel(final Level value) {
+        _injectContextHostMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the host name is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the host name is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextHostMinLevel() {
+        return _injectContextHostMinLevel;
+    }
+
     /**
      * Inject thread. This controls whether the thread name is injected into each message's context. By default this
      * is <b>true</b>.
@@ -357,6 +409,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextThread;
     }
 
+    /**
+     * Set the minimum level of events into whose context the thread name is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the thread name is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextThreadMinLevel(final Level value) {
+        _injectContextThreadMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the thread name is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the thread name is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextThreadMinLevel() {
+        return _injectContextThreadMinLevel;
+    }
+
     /**
      * Inject logger. This controls whether the logger name is injected into each message's context. By default this
      * is false.
@@ -384,6 +460,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextLogger;
     }
 
+    /**
+     * Set the minimum level of events into whose context the logger name is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the logger name is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextLoggerMinLevel(final Level value) {
+        _injectContextLoggerMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the logger name is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the logger name is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextLoggerMinLevel() {
+        return _injectContextLoggerMinLevel;
+    }
+
     /**
      * Compress logger name. This controls whether the logger name is compressed prior to injection into each message's
      * context. By default this is false. Compression takes each part of name separated by "." (aka period or dot) and
@@ -433,6 +533,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextFile;
     }
 
+    /**
+     * Set the minimum level of events into whose context the file is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the file is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextFileMinLevel(final Level value) {
+        _injectContextFileMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the file is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the file is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextFileMinLevel() {
+        return _injectContextFileMinLevel;
+    }
+
     /**
      * Inject class. This controls whether the source class name is injected into each message's context. By default this
      * is false.
@@ -456,6 +580,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextClass;
     }
 
+    /**
+     * Set the minimum level of events into whose context the class is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the class is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextClassMinLevel(final Level value) {
+        _injectContextClassMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the class is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the class is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextClassMinLevel() {
+        return _injectContextClassMinLevel;
+    }
+
     /**
      * Inject method. This controls whether the method name is injected into each message's context. By default this
      * is false.
@@ -479,6 +627,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextMethod;
     }
 
+    /**
+     * Set the minimum level of events into whose context the method is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the method is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextMethodMinLevel(final Level value) {
+        _injectContextMethodMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the method is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the method is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextMethodMinLevel() {
+        return _injectContextMethodMinLevel;
+    }
+
     /**
      * Inject line. This controls whether the line number is injected into each message's context. By default this
      * is false.
@@ -502,6 +674,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectContextLine;
     }
 
+    /**
+     * Set the minimum level of events into whose context the line is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the line is injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextLineMinLevel(final Level value) {
+        _injectContextLineMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the line is injected when it is enabled. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the line is injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextLineMinLevel() {
+        return _injectContextLineMinLevel;
+    }
+
     /**
      * Add MDC property to inject into the context. This controls which MDC properties are injected into each message's
      * context. By default no properties are injected.
@@ -537,6 +733,30 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectMdcProperties.contains(key);
     }
 
+    /**
+     * Set the minimum level of events into whose context the configured MDC properties are injected. By default this
+     * is <b>TRACE</b>.
+     *
+     * @param value The minimum level of events into whose context the MDC properties are injected.
+     *
+     * @since 1.16.0
+     */
+    public void setInjectContextMdcMinLevel(final Level value) {
+        _injectContextMdcMinLevel = value;
+    }
+
+    /**
+     * The minimum level of events into whose context the configured MDC properties are injected. By default this is
+     * <b>TRACE</b>.
+     *
+     * @return The minimum level of events into whose context the MDC properties are injected.
+     *
+     * @since 1.16.0
+     */
+    public Level getInjectContextMdcMinLevel() {
+        return _injectContextMdcMinLevel;
+    }
+
     /**
      * Add Jackson <code>Module</code>.
      *
@@ -571,6 +791,121 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _jacksonModules.contains(module);
     }
 
+    /**
+     * Add a class whose serializer is created when the encoder starts instead of when an instance is first
+     * encoded. By default no classes are warmed up.
+     *
+     * @param className The fully qualified name of the class.
+     *
+     * @since 1.16.0
+     */
+    public void addWarmUpClass(final String className) {
+        _warmUpClasses.add(className);
+    }
+
+    /**
+     * Which classes are warmed up. By default this is none.
+     *
+     * @return The iterator over fully qualified names of classes warmed up.
+     *
+     * @since 1.16.0
+     */
+    public Iterator<String> iteratorForWarmUpClass() {
+        return _warmUpClasses.iterator();
+    }
+
+    /**
+     * Add a package whose classes, including those in sub-packages, have their serializers created when the
+     * encoder starts instead of when an instance is first encoded. By default no packages are warmed up.
+     *
+     * @param packageName The name of the package.
+     *
+     * @since 1.16.0
+     */
+    public void addWarmUpPackage(final String packageName) {
+        _warmUpPackages.add(packageName);
+    }
+
+    /**
+     * Which packages are warmed up. By default this is none.
+     *
+     * @return The iterator over names of packages warmed up.
+     *
+     * @since 1.16.0
+     */
+    public Iterator<String> iteratorForWarmUpPackage() {
+        return _warmUpPackages.iterator();
+    }
+
+    /**
+     * Warm up serializers on a background thread. When enabled the encoder starts without waiting for the
+     * warm-up to complete and events encoded in the meantime create any serializers they need as usual.
+     * By default this is false.
+     *
+     * @param value Whether to warm up serializers on a background thread.
+     *
+     * @since 1.16.0
+     */
+    public void setWarmUpAsync(final boolean value) {
+        _warmUpAsync = value;
+    }
+
+    /**
+     * Whether serializers are warmed up on a background thread. By default this is false.
+     *
+     * @return True if and only if serializers are warmed up on a background thread.
+     *
+     * @since 1.16.0
+     */
+    public boolean isWarmUpAsync() {
+        return _warmUpAsync;
+    }
+
+    /* package private */ Thread getWarmUpThread() {
+        return _warmUpThread;
+    }
+
+    /**
+     * Add a <code>StenoSerializationStrategy</code>. Events carrying the
+     * strategy's <code>Marker</code> are serialized by the strategy. A
+     * strategy for a <code>Marker</code> that already has one, including the
+     * built-in <code>StenoMarker</code> instances, replaces it.
+     *
+     * @param strategy The <code>StenoSerializationStrategy</code>.
+     *
+     * @since 1.16.0
+     */
+    public void addSerializationStrategy(final StenoSerializationStrategy strategy) {
+        _serializationStrategies.add(strategy);
+        registerStrategy(
+                strategy.getMarker(),
+                strategy.getName(),
+                (event, eventName, argumentArray) -> buildStrategyMessage(strategy, event, eventName, argumentArray));
+    }
+
+    /**
+     * Which <code>StenoSerializationStrategy</code> instances are configured.
+     *
+     * @return The iterator over configured <code>StenoSerializationStrategy</code> instances.
+     *
+     * @since 1.16.0
+     */
+    public Iterator<StenoSerializationStrategy> iteratorForSerializationStrategy() {
+        return _serializationStrategies.iterator();
+    }
+
+    /**
+     * Determine if the specific <code>StenoSerializationStrategy</code> is configured.
+     *
+     * @param strategy The <code>StenoSerializationStrategy</code>.
+     * @return True if and only if the <code>StenoSerializationStrategy</code> is configured.
+     *
+     * @since 1.16.0
+     */
+    public boolean isSerializationStrategy(final StenoSerializationStrategy strategy) {
+        return _serializationStrategies.contains(strategy);
+    }
+
     /**
      * This controls whether the encoder should only encode types when safe to do so. By default this is true. Types are
      * considered safe for serialization if any of the following are true:
@@ -591,6 +926,7 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
      * </ul>
      *
      * When safe is set to true and a type is determined to be unsafe it is serialized as a reference only.
+     * Further, a <code>Supplier</code> value which throws is serialized as a placeholder naming the exception.
      *
      * @param value True if and only if the encoder should only encode types when safe to do so.
      *
@@ -635,6 +971,222 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         return _injectBeanIdentifier;
     }
 
+    /**
+     * Register Jackson's Afterburner module with the encoder's <code>ObjectMapper</code>. Afterburner generates byte
+     * code for the accessors of each bean type it serializes which speeds up long running processes but adds to the
+     * cost of the first events logged with each type; short lived processes such as command line tools may start
+     * faster with it disabled. The <code>ObjectMapper</code> is created when the encoder is started or, if it is
+     * used without being started, when it encodes its first event; this setting must be made before then. By default
+     * this is true.
+     *
+     * @since 1.16.0
+     *
+     * @param value Whether to register Jackson's Afterburner module.
+     */
+    public void setAfterburnerEnabled(final boolean value) {
+        _afterburnerEnabled = value;
+    }
+
+    /**
+     * Whether Jackson's Afterburner module is registered with the encoder's <code>ObjectMapper</code>. By default this
+     * is true.
+     *
+     * @since 1.16.0
+     *
+     * @return True if and only if Jackson's Afterburner module is registered.
+     */
+    public boolean isAfterburnerEnabled() {
+        return _afterburnerEnabled;
+    }
+
+    /**
+     * Compile the accessors of <code>@LogValue</code> methods. When enabled each type with an active
+     * <code>@LogValue</code> method is serialized by invoking the method through a generated function instead of
+     * by reflection. This setting applies to types first serialized after it is changed. By default this is true.
+     *
+     * @since 1.16.0
+     *
+     * @param value Whether to compile the accessors of <code>@LogValue</code> methods.
+     */
+    public void setCompileLogValue(final boolean value) {
+        _compileLogValue = value;
+    }
+
+    /**
+     * Whether the accessors of <code>@LogValue</code> methods are compiled. By default this is true.
+     *
+     * @since 1.16.0
+     *
+     * @return True if and only if the accessors of <code>@LogValue</code> methods are compiled.
+     */
+    public boolean isCompileLogValue() {
+        return _compileLogValue;
+    }
+
+    /**
+     * Write the message template and arguments of standard (non-Steno) events as the <code>messageTemplate</code>
+     * and <code>messageArguments</code> data fields. The arguments are serialized as typed values instead of being
+     * formatted into the message, which allows events to be grouped by template downstream. By default this is false.
+     *
+     * @since 1.16.0
+     *
+     * @param value Whether to write the message template and arguments of standard events.
+     */
+    public void setMessageTemplateEnabled(final boolean value) {
+        _messageTemplateEnabled = value;
+    }
+
+    /**
+     * Whether the message template and arguments of standard events are written. By default this is false.
+     *
+     * @since 1.16.0
+     *
+     * @return True if and only if the message template and arguments of standard events are written.
+     */
+    public boolean isMessageTemplateEnabled() {
+        return _messageTemplateEnabled;
+    }
+
+    /**
+     * Write the formatted message of standard (non-Steno) events as the <code>message</code> data field when the
+     * message template is also written. Disabling this avoids formatting the message for each standard event. The
+     * formatted message is always written when the message template is disabled. By default this is true.
+     *
+     * @since 1.16.0
+     *
+     * @param value Whether to write the formatted message of standard events with the message template.
+     */
+    public void setFormattedMessageEnabled(final boolean value) {
+        _formattedMessageEnabled = value;
+    }
+
+    /**
+     * Whether the formatted message of standard events is written with the message template. By default this is
+     * true.
+     *
+     * @since 1.16.0
+     *
+     * @return True if and only if the formatted message of standard events is written with the message template.
+     */
+    public boolean isFormattedMessageEnabled() {
+        return _formattedMessageEnabled;
+    }
+
+    /**
+     * Enables/Disables top talker accounting. When enabled the number of events
+     * and encoded bytes are tracked by logger name, event name and level using
+     * a fixed amount of memory. The top talkers are available from JMX (when
+     * enabled) and optionally as a periodic summary event. By default this is
+     * false.
+     *
+     * @since 1.16.0
+     *
+     * @param value Whether to enable top talker accounting.
+     */
+    public void setTopTalkersEnabled(final boolean value) {
+        _topTalkersEnabled = value;
+    }
+
+    /**
+     * Whether top talker accounting is enabled. By default this is false.
+     *
+     * @since 1.16.0
+     *
+     * @return True if and only if top talker accounting is enabled.
+     */
+    public boolean isTopTalkersEnabled() {
+        return _topTalkersEnabled;
+    }
+
+    /**
+     * Set the number of distinct logger name, event name and level
+     * combinations tracked by top talker accounting. Any combination producing
+     * more than <code>1/capacity</code> of the encoded bytes is guaranteed to
+     * be tracked. By default this is 100.
+     *
+     * @since 1.16.0
+     *
+     * @param value The number of combinations to track.
+     */
+    public void setTopTalkersCapacity(final int value) {
+        _topTalkersCapacity = value;
+    }
+
+    /**
+     * Retrieve the number of combinations tracked by top talker accounting.
+     *
+     * @since 1.16.0
+     *
+     * @return The number of combinations tracked.
+     */
+    public int getTopTalkersCapacity() {
+        return _topTalkersCapacity;
+    }
+
+    /**
+     * Set the number of top talkers reported. By default this is 10.
+     *
+     * @since 1.16.0
+     *
+     * @param value The number of top talkers reported.
+     */
+    public void setTopTalkersSize(final int value) {
+        _topTalkersSize = value;
+    }
+
+    /**
+     * Retrieve the number of top talkers reported.
+     *
+     * @since 1.16.0
+     *
+     * @return The number of top talkers reported.
+     */
+    public int getTopTalkersSize() {
+        return _topTalkersSize;
+    }
+
+    /**
+     * Set the interval in milliseconds between top talker summary events. The
+     * summary event is named <code>top_talkers</code> and is written to the
+     * encoder's output. Each summary covers only the events encoded since the
+     * previous summary; it is derived from the cumulative accounting available
+     * from JMX and <code>getTopTalkers()</code> which is not reset by
+     * summaries. Set to zero to disable summary events. By default this is
+     * zero.
+     *
+     * @since 1.16.0
+     *
+     * @param value The interval in milliseconds between summary events.
+     */
+    public void setTopTalkersIntervalInMillis(final long value) {
+        _topTalkersIntervalInMillis = value;
+    }
+
+    /**
+     * Retrieve the interval in milliseconds between top talker summary events.
+     *
+     * @since 1.16.0
+     *
+     * @return The interval in milliseconds between summary events.
+     */
+    public long getTopTalkersIntervalInMillis() {
+        return _topTalkersIntervalInMillis;
+    }
+
+    /**
+     * Retrieve the cumulative top talker accounting. This is only present once
+     * the encoder is started with top talker accounting enabled. It is reset
+     * only through <code>TopTalkers.reset()</code> (e.g. from JMX) and not by
+     * summary events.
+     *
+     * @since 1.16.0
+     *
+     * @return The top talker accounting.
+     */
+    public Optional<TopTalkers> getTopTalkers() {
+        return Optional.ofNullable(_topTalkers);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -661,11 +1213,11 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
     @Override
     protected String buildStandardMessage(final ILoggingEvent event) throws EncodingException {
         try {
-            return _standardSerializationStrategy.serialize(event, _logEventName);
+            return getSerialization()._standardSerializationStrategy.serialize(event, _logEventName);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
-            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, _objectMapper), t);
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
         }
     }
 
@@ -681,7 +1233,7 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             throws EncodingException {
 
         try {
-            return _arraySerialziationStrategy.serialize(
+            return getSerialization()._arraySerialziationStrategy.serialize(
                     event,
                     firstNonNull(eventName, _logEventName),
                     keys,
@@ -689,7 +1241,7 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
-            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, _objectMapper), t);
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
         }
     }
 
@@ -705,7 +1257,7 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             throws EncodingException {
 
         try {
-            return _arrayOfJsonSerialziationStrategy.serialize(
+            return getSerialization()._arrayOfJsonSerialziationStrategy.serialize(
                     event,
                     firstNonNull(eventName, _logEventName),
                     keys,
@@ -713,7 +1265,7 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
-            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, _objectMapper), t);
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
         }
     }
 
@@ -728,14 +1280,14 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             throws EncodingException {
 
         try {
-            return _mapSerialziationStrategy.serialize(
+            return getSerialization()._mapSerialziationStrategy.serialize(
                     event,
                     firstNonNull(eventName, _logEventName),
                     map);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
-            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, _objectMapper), t);
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
         }
     }
 
@@ -750,14 +1302,14 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             throws EncodingException {
 
         try {
-            return _mapOfJsonSerialziationStrategy.serialize(
+            return getSerialization()._mapOfJsonSerialziationStrategy.serialize(
                     event,
                     firstNonNull(eventName, _logEventName),
                     map);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
-            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, _objectMapper), t);
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
         }
     }
 
@@ -772,14 +1324,14 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             throws EncodingException {
 
         try {
-            return _objectSerialziationStrategy.serialize(
+            return getSerialization()._objectSerialziationStrategy.serialize(
                     event,
                     firstNonNull(eventName, _logEventName),
                     data);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
-            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, _objectMapper), t);
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
         }
     }
 
@@ -794,14 +1346,43 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             throws EncodingException {
 
         try {
-            return _objectAsJsonSerialziationStrategy.serialize(
+            return getSerialization()._objectAsJsonSerialziationStrategy.serialize(
                     event,
                     firstNonNull(eventName, _logEventName),
                     jsonData);
             // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
         } catch (final Throwable t) {
             // CHECKSTYLE.ON: IllegalCatch
-            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, _objectMapper), t);
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String buildPayloadMessage(
+            final ILoggingEvent event,
+            final String eventName,
+            final StenoPayload payload)
+            throws EncodingException {
+
+        try {
+            return getSerialization()._payloadSerializationStrategy.serialize(
+                    event,
+                    firstNonNull(eventName, _logEventName),
+                    payload);
+            // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
+        } catch (final Throwable t) {
+            // CHECKSTYLE.ON: IllegalCatch
+            throw new EncodingException(
+                    SafeSerializationHelper.createSafeContext(
+                            this,
+                            event,
+                            getSerialization()._objectMapper,
+                            payload.getContext().getKeys(),
+                            payload.getContext().getValues()),
+                    t);
         }
     }
 
@@ -819,7 +1400,7 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
             throws EncodingException {
 
         try {
-            return _listsSerialziationStrategy.serialize(
+            return getSerialization()._listsSerialziationStrategy.serialize(
                     event,
                     firstNonNull(eventName, _logEventName),
                     dataKeys,
@@ -833,13 +1414,129 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
                     SafeSerializationHelper.createSafeContext(
                             this,
                             event,
-                            _objectMapper,
+                            getSerialization()._objectMapper,
                             contextKeys,
                             contextValues),
                     t);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void afterEncode(final ILoggingEvent event, final String eventName, final int bytesWritten) throws IOException {
+        final TopTalkers topTalkers = _topTalkers;
+        if (topTalkers != null) {
+            topTalkers.record(
+                    event.getLoggerName(),
+                    firstNonNull(eventName, _logEventName),
+                    String.valueOf(event.getLevel()),
+                    bytesWritten);
+
+            if (_topTalkersIntervalInMillis > 0) {
+                final long now = event.getTimeStamp();
+                if (_nextTopTalkersSummary == 0) {
+                    _nextTopTalkersSummary = now + _topTalkersIntervalInMillis;
+                } else if (now >= _nextTopTalkersSummary) {
+                    _nextTopTalkersSummary = now + _topTalkersIntervalInMillis;
+                    writeTopTalkersSummary(topTalkers.getIntervalTopTalkers());
+                }
+            }
+        }
+    }
+
+    private String buildStrategyMessage(
+            final StenoSerializationStrategy strategy,
+            final ILoggingEvent event,
+            final String eventName,
+            final Object[] argumentArray)
+            throws EncodingException {
+
+        try {
+            return getSerialization()._delegatingSerializationStrategy.serialize(
+                    event,
+                    firstNonNull(eventName, _logEventName),
+                    strategy,
+                    argumentArray);
+            // CHECKSTYLE.OFF: IllegalCatch: Ensure any exception or error is caught to prevent Appender death.
+        } catch (final Throwable t) {
+            // CHECKSTYLE.ON: IllegalCatch
+            throw new EncodingException(SafeSerializationHelper.createSafeContext(this, event, getSerialization()._objectMapper), t);
+        }
+    }
+
+    private void writeTopTalkersSummary(final List<TopTalker> topTalkers) throws IOException {
+        if (!(getContext() instanceof LoggerContext)) {
+            return;
+        }
+        final LoggerContext loggerContext = (LoggerContext) getContext();
+
+        final List<Map<String, Object>> talkers = new ArrayList<>(topTalkers.size());
+        for (final TopTalker topTalker : topTalkers) {
+            final Map<String, Object> talker = new LinkedHashMap<>();
+            talker.put("logger", topTalker.getLogger());
+            talker.put("event", topTalker.getEventName());
+            talker.put("level", topTalker.getLevel());
+            talker.put("count", topTalker.getCount());
+            talker.put("bytes", topTalker.getBytes());
+            talker.put("error", topTalker.getError());
+            talkers.add(talker);
+        }
+        final Map<String, Object> data = new LinkedHashMap<>();
+        data.put("intervalInMillis", _topTalkersIntervalInMillis);
+        data.put("talkers", talkers);
+
+        final LoggingEvent summaryEvent = new LoggingEvent(
+                StenoEncoder.class.getName(),
+                loggerContext.getLogger(StenoEncoder.class),
+                Level.INFO,
+                TOP_TALKERS_EVENT_NAME,
+                null,
+                new Object[]{data});
+        summaryEvent.setMarker(StenoMarker.MAP_MARKER);
+
+        String output;
+        try {
+            output = buildMapMessage(summaryEvent, TOP_TALKERS_EVENT_NAME, data);
+        } catch (final EncodingException ee) {
+            output = encodeAsString(summaryEvent, ee);
+        }
+        outputStream.write(output.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Serialization getSerialization() {
+        final Serialization serialization = _serialization;
+        return serialization != null ? serialization : initializeSerialization();
+    }
+
+    /* package private */ synchronized Serialization initializeSerialization() {
+        if (_serialization == null) {
+            _serialization = _objectMapper == null
+                    ? new Serialization(this, new ObjectMapper())
+                    : new Serialization(this, _jsonFactory, _objectMapper);
+        }
+        return _serialization;
+    }
+
+    private synchronized void updateFilterProvider() {
+        final Serialization serialization = _serialization;
+        if (serialization != null) {
+            serialization._objectMapper.setFilterProvider(createFilterProvider());
+        }
+    }
+
+    private SimpleFilterProvider createFilterProvider() {
+        final SimpleFilterProvider simpleFilterProvider = new SimpleFilterProvider();
+        if (_redactEnabled) {
+            simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID, new RedactionFilter(!_redactNull));
+        } else {
+            simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID,
+                    SimpleBeanPropertyFilter.serializeAllExcept(Collections.<String>emptySet()));
+        }
+        return simpleFilterProvider;
+    }
+
     /* package private */ static <T> T firstNonNull(final T first, final T second) {
         if (first != null) {
             return first;
@@ -849,18 +1546,12 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
         throw new NullPointerException("Both arguments are null");
     }
 
-    private ObjectMapper _objectMapper;
-    private final ListsSerialziationStrategy _listsSerialziationStrategy;
-    private final ObjectAsJsonSerialziationStrategy _objectAsJsonSerialziationStrategy;
-    private final ObjectSerialziationStrategy _objectSerialziationStrategy;
-    private final MapOfJsonSerialziationStrategy _mapOfJsonSerialziationStrategy;
-    private final MapSerialziationStrategy _mapSerialziationStrategy;
-    private final ArrayOfJsonSerialziationStrategy _arrayOfJsonSerialziationStrategy;
-    private final ArraySerialziationStrategy _arraySerialziationStrategy;
-    private final StandardSerializationStrategy _standardSerializationStrategy;
+    private final JsonFactory _jsonFactory;
+    private final ObjectMapper _objectMapper;
+    private volatile Serialization _serialization;
 
     private String _logEventName = STANDARD_LOG_EVENT_NAME;
-    private boolean _redactEnabled;
+    private boolean _redactEnabled = true;
     private boolean _redactNull = DEFAULT_REDACT_NULL;
     private boolean _injectContextProcess = true;
     private boolean _injectContextHost = true;
@@ -871,14 +1562,106 @@ public class StenoEncoder extends BaseLoggingEncoder implements Serializable {
     private boolean _injectContextFile = false;
     private boolean _injectContextMethod = false;
     private boolean _injectContextLine = false;
+    private Level _injectContextProcessMinLevel = Level.TRACE;
+    private Level _injectContextHostMinLevel = Level.TRACE;
+    private Level _injectContextThreadMinLevel = Level.TRACE;
+    private Level _injectContextLoggerMinLevel = Level.TRACE;
+    private Level _injectContextFileMinLevel = Level.TRACE;
+    private Level _injectContextClassMinLevel = Level.TRACE;
+    private Level _injectContextMethodMinLevel = Level.TRACE;
+    private Level _injectContextLineMinLevel = Level.TRACE;
+    private Level _injectContextMdcMinLevel = Level.TRACE;
     private Set<String> _injectMdcProperties = new LinkedHashSet<>();
     private Set<Module> _jacksonModules = new LinkedHashSet<>();
+    private Set<StenoSerializationStrategy> _serializationStrategies = new LinkedHashSet<>();
     private boolean _safe = true;
     private boolean _injectBeanIdentifier = false;
+    private boolean _compileLogValue = true;
+    private boolean _afterburnerEnabled = true;
+    private boolean _messageTemplateEnabled = false;
+    private boolean _formattedMessageEnabled = true;
+    private Set<String> _warmUpClasses = new LinkedHashSet<>();
+    private Set<String> _warmUpPackages = new LinkedHashSet<>();
+    private boolean _warmUpAsync = false;
+    private transient Thread _warmUpThread;
+    private boolean _topTalkersEnabled = false;
+    private int _topTalkersCapacity = DEFAULT_TOP_TALKERS_CAPACITY;
+    private int _topTalkersSize = DEFAULT_TOP_TALKERS_SIZE;
+    private long _topTalkersIntervalInMillis = 0;
+    private TopTalkers _topTalkers;
+    private long _nextTopTalkersSummary;
 
     private static final boolean DEFAULT_REDACT_NULL = true;
     private static final String STANDARD_LOG_EVENT_NAME = "log";
+    private static final String TOP_TALKERS_EVENT_NAME = "top_talkers";
+    private static final int DEFAULT_TOP_TALKERS_CAPACITY = 100;
+    private static final int DEFAULT_TOP_TALKERS_SIZE = 10;
     private static final DateTimeFormatter ISO_DATE_TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZZZZZ").withZone(ZoneId.of("UTC"));
     private static final long serialVersionUID = -1803222342605243667L;
+
+    /**
+     * The configured <code>ObjectMapper</code> and the serialization
+     * strategies using it. These are created when the encoder is started or
+     * first used instead of when it is constructed.
+     */
+    private static final class Serialization implements Serializable {
+
+        private Serialization(final StenoEncoder encoder, final ObjectMapper objectMapper) {
+            this(encoder, objectMapper.getFactory(), objectMapper);
+        }
+
+        private Serialization(final StenoEncoder encoder, final JsonFactory jsonFactory, final ObjectMapper objectMapper) {
+            // Initialize object mapper;
+            _objectMapper = objectMapper;
+            _objectMapper.setAnnotationIntrospector(new StenoAnnotationIntrospector(_objectMapper));
+            _objectMapper.setFilterProvider(encoder.createFilterProvider());
+
+            // Setup writing of Date/DateTime values
+            _objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            _objectMapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+            _objectMapper.setDateFormat(new ISO8601DateFormat());
+
+            // Simple module with customizations
+            final SimpleModule module = new SimpleModule();
+            module.setSerializerModifier(new StenoBeanSerializerModifier(encoder));
+            module.addSerializer(new SupplierSerializer(encoder));
+            module.addSerializer(new LogValueMapSerializer(encoder));
+            _objectMapper.registerModule(module);
+
+            // Throwable mix-in
+            _objectMapper.setMixIns(Collections.singletonMap(Throwable.class, ThrowableMixIn.class));
+
+            // After burner to improve data-bind performance
+            if (encoder._afterburnerEnabled) {
+                _objectMapper.registerModule(new AfterburnerModule());
+            }
+
+            // Serialization strategies
+            _delegatingSerializationStrategy = new DelegatingSerializationStrategy(encoder, jsonFactory, _objectMapper);
+            _payloadSerializationStrategy = new PayloadSerializationStrategy(encoder, jsonFactory, _objectMapper);
+            _listsSerialziationStrategy = new ListsSerialziationStrategy(encoder, jsonFactory, _objectMapper);
+            _objectAsJsonSerialziationStrategy = new ObjectAsJsonSerialziationStrategy(encoder, jsonFactory, _objectMapper);
+            _objectSerialziationStrategy = new ObjectSerialziationStrategy(encoder, jsonFactory, _objectMapper);
+            _mapOfJsonSerialziationStrategy = new MapOfJsonSerialziationStrategy(encoder, jsonFactory, _objectMapper);
+            _mapSerialziationStrategy = new MapSerialziationStrategy(encoder, jsonFactory, _objectMapper);
+            _arrayOfJsonSerialziationStrategy = new ArrayOfJsonSerialziationStrategy(encoder, jsonFactory, _objectMapper);
+            _arraySerialziationStrategy = new ArraySerialziationStrategy(encoder, jsonFactory, _objectMapper);
+            _standardSerializationStrategy = new StandardSerializationStrategy(encoder, jsonFactory, _objectMapper);
+        }
+
+        private final ObjectMapper _objectMapper;
+        private final DelegatingSerializationStrategy _delegatingSerializationStrategy;
+        private final PayloadSerializationStrategy _payloadSerializationStrategy;
+        private final ListsSerialziationStrategy _listsSerialziationStrategy;
+        private final ObjectAsJsonSerialziationStrategy _objectAsJsonSerialziationStrategy;
+        private final ObjectSerialziationStrategy _objectSerialziationStrategy;
+        private final MapOfJsonSerialziationStrategy _mapOfJsonSerialziationStrategy;
+        private final MapSerialziationStrategy _mapSerialziationStrategy;
+        private final ArrayOfJsonSerialziationStrategy _arrayOfJsonSerialziationStrategy;
+        private final ArraySerialziationStrategy _arraySerialziationStrategy;
+        private final StandardSerializationStrategy _standardSerializationStrategy;
+
+        private static final long serialVersionUID = 1L;
+    }
 }
@@ -33,6 +33,7 @@ public final class StenoMarker {
     private static final String STENO_OBJECT_JSON_MARKER_NAME = "com.arpnetworking.logback.stenoMarker.object.json";
     private static final String STENO_JSON_MARKER_NAME = "com.arpnetworking.logback.stenoMarker.json";
     private static final String STENO_LISTS_MARKER_NAME = "com.arpnetworking.logback.stenoMarker.lists";
+    private static final String STENO_PAYLOAD_MARKER_NAME = "com.arpnetworking.logback.stenoMarker.payload";
 
     /**
      * Log event payload is an array of keys and and array of values.
@@ -84,6 +85,14 @@ public final class StenoMarker {
      */
     public static final Marker LISTS_MARKER = new BasicMarkerFactory().getMarker(STENO_LISTS_MARKER_NAME);
 
+    /**
+     * Log event payload is a single {@link StenoPayload} instance containing
+     * the data and context key-value pairs.
+     *
+     * @since 1.16.0
+     */
+    public static final Marker PAYLOAD_MARKER = new BasicMarkerFactory().getMarker(STENO_PAYLOAD_MARKER_NAME);
+
     private StenoMarker() {
         throw new UnsupportedOperationException();
     }
@@ -0,0 +1,540 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable log event argument for use with {@link StenoMarker#PAYLOAD_MARKER}
+ * consisting of ordered data and context key-value pairs. Primitive values
+ * are held unboxed so that encoders may write them without allocation. This
+ * class is thread safe.
+ *
+ * @since 1.16.0
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public final class StenoPayload {
+
+    /**
+     * Public constructor.
+     *
+     * @param data The data key-value pairs.
+     * @param context The context key-value pairs.
+     */
+    public StenoPayload(final Fields data, final Fields context) {
+        _data = data;
+        _context = context;
+    }
+
+    public Fields getData() {
+        return _data;
+    }
+
+    public Fields getContext() {
+        return _context;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof StenoPayload)) {
+            return false;
+        }
+        final StenoPayload otherPayload = (StenoPayload) other;
+        return _data.equals(otherPayload._data)
+                && _context.equals(otherPayload._context);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(_data, _context);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "{Data=" + _data
+                + ", Context=" + _context
+                + "}";
+    }
+
+    private final Fields _data;
+    private final Fields _context;
+
+    /**
+     * The storage type of a value in <code>Fields</code>.
+     *
+     * @since 1.16.0
+     */
+    public enum Kind {
+        /**
+         * The value is a reference; see {@link Fields#getValue(int)}.
+         */
+        OBJECT,
+        /**
+         * The value is an <code>int</code>; see {@link Fields#getInt(int)}.
+         */
+        INT,
+        /**
+         * The value is a <code>long</code>; see {@link Fields#getLong(int)}.
+         */
+        LONG,
+        /**
+         * The value is a <code>float</code>; see {@link Fields#getFloat(int)}.
+         */
+        FLOAT,
+        /**
+         * The value is a <code>double</code>; see {@link Fields#getDouble(int)}.
+         */
+        DOUBLE,
+        /**
+         * The value is a <code>boolean</code>; see {@link Fields#getBoolean(int)}.
+         */
+        BOOLEAN
+    }
+
+    /**
+     * Immutable insertion ordered key-value pairs. Instances are created with
+     * {@link Fields.Builder}.
+     *
+     * @since 1.16.0
+     */
+    public static final class Fields {
+
+        /**
+         * The number of key-value pairs.
+         *
+         * @return The number of key-value pairs.
+         */
+        public int size() {
+            return _size;
+        }
+
+        /**
+         * Whether there are no key-value pairs.
+         *
+         * @return True if and only if there are no key-value pairs.
+         */
+        public boolean isEmpty() {
+            return _size == 0;
+        }
+
+        /**
+         * The key at the specified index.
+         *
+         * @param index The index.
+         * @return The key.
+         */
+        public String getKey(final int index) {
+            checkIndex(index);
+            return _keys[index];
+        }
+
+        /**
+         * The storage type of the value at the specified index.
+         *
+         * @param index The index.
+         * @return The <code>Kind</code> of the value.
+         */
+        public Kind getKind(final int index) {
+            checkIndex(index);
+            return KINDS[_kinds[index]];
+        }
+
+        /**
+         * The value at the specified index. Primitive values are boxed.
+         *
+         * @param index The index.
+         * @return The value.
+         */
+        public Object getValue(final int index) {
+            switch (getKind(index)) {
+                case INT:
+                    return Integer.valueOf(getInt(index));
+                case LONG:
+                    return Long.valueOf(getLong(index));
+                case FLOAT:
+                    return Float.valueOf(getFloat(index));
+                case DOUBLE:
+                    return Double.valueOf(getDouble(index));
+                case BOOLEAN:
+                    return Boolean.valueOf(getBoolean(index));
+                default:
+                    return _values[index];
+            }
+        }
+
+        /**
+         * The value at the specified index which must be of kind <code>INT</code>.
+         *
+         * @param index The index.
+         * @return The value.
+         */
+        public int getInt(final int index) {
+            return (int) getPrimitive(index, Kind.INT);
+        }
+
+        /**
+         * The value at the specified index which must be of kind <code>LONG</code>.
+         *
+         * @param index The index.
+         * @return The value.
+         */
+        public long getLong(final int index) {
+            return getPrimitive(index, Kind.LONG);
+        }
+
+        /**
+         * The value at the specified index which must be of kind <code>FLOAT</code>.
+         *
+         * @param index The index.
+         * @return The value.
+         */
+        public float getFloat(final int index) {
+            return Float.intBitsToFloat((int) getPrimitive(index, Kind.FLOAT));
+        }
+
+        /**
+         * The value at the specified index which must be of kind <code>DOUBLE</code>.
+         *
+         * @param index The index.
+         * @return The value.
+         */
+        public double getDouble(final int index) {
+            return Double.longBitsToDouble(getPrimitive(index, Kind.DOUBLE));
+        }
+
+        /**
+         * The value at the specified index which must be of kind <code>BOOLEAN</code>.
+         *
+         * @param index The index.
+         * @return The value.
+         */
+        public boolean getBoolean(final int index) {
+            return getPrimitive(index, Kind.BOOLEAN) != 0;
+        }
+
+        /**
+         * Create a <code>List</code> of the keys.
+         *
+         * @return New <code>List</code> of the keys.
+         */
+        public List<String> getKeys() {
+            final List<String> keys = new ArrayList<>(_size);
+            for (int i = 0; i < _size; ++i) {
+                keys.add(_keys[i]);
+            }
+            return keys;
+        }
+
+        /**
+         * Create a <code>List</code> of the values. Primitive values are boxed.
+         *
+         * @return New <code>List</code> of the values.
+         */
+        public List<Object> getValues() {
+            final List<Object> values = new ArrayList<>(_size);
+            for (int i = 0; i < _size; ++i) {
+                values.add(getValue(i));
+            }
+            return values;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Fields)) {
+                return false;
+            }
+            final Fields otherFields = (Fields) other;
+            if (_size != otherFields._size) {
+                return false;
+            }
+            for (int i = 0; i < _size; ++i) {
+                if (!Objects.equals(_keys[i], otherFields._keys[i])
+                        || !Objects.equals(getValue(i), otherFields.getValue(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int hashCode = 1;
+            for (int i = 0; i < _size; ++i) {
+                hashCode = 31 * hashCode + Objects.hashCode(_keys[i]);
+                hashCode = 31 * hashCode + Objects.hashCode(getValue(i));
+            }
+            return hashCode;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < _size; ++i) {
+                map.put(_keys[i], getValue(i));
+            }
+            return map.toString();
+        }
+
+        private long getPrimitive(final int index, final Kind kind) {
+            if (getKind(index) != kind) {
+                throw new IllegalStateException(String.format(
+                        "Value at index %d is %s not %s",
+                        index,
+                        getKind(index),
+                        kind));
+            }
+            return _primitives[index];
+        }
+
+        private void checkIndex(final int index) {
+            if (index < 0 || index >= _size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+            }
+        }
+
+        private Fields(
+                final String[] keys,
+                final Object[] values,
+                final long[] primitives,
+                final byte[] kinds,
+                final int size) {
+            _keys = keys;
+            _values = values;
+            _primitives = primitives;
+            _kinds = kinds;
+            _size = size;
+        }
+
+        private final String[] _keys;
+        private final Object[] _values;
+        private final long[] _primitives;
+        private final byte[] _kinds;
+        private final int _size;
+
+        /**
+         * Empty instance.
+         */
+        public static final Fields EMPTY = new Fields(null, null, null, null, 0);
+
+        private static final Kind[] KINDS = Kind.values();
+
+        /**
+         * Builder for <code>Fields</code> backed by parallel arrays which are
+         * allocated on first use and grow by doubling. Adding a key that is
+         * already present replaces its value in place. Building does not copy
+         * the arrays; instead they are copied if the builder is modified after
+         * it was built. This class is not thread safe.
+         *
+         * @since 1.16.0
+         */
+        public static final class Builder {
+
+            /**
+             * Public constructor.
+             */
+            public Builder() {}
+
+            /**
+             * Public constructor starting from existing key-value pairs.
+             *
+             * @param fields The initial key-value pairs.
+             */
+            public Builder(final Fields fields) {
+                _keys = fields._keys;
+                _values = fields._values;
+                _primitives = fields._primitives;
+                _kinds = fields._kinds;
+                _size = fields._size;
+                _shared = _size > 0;
+            }
+
+            /**
+             * Whether no key-value pairs have been added.
+             *
+             * @return True if and only if no key-value pairs have been added.
+             */
+            public boolean isEmpty() {
+                return _size == 0;
+            }
+
+            /**
+             * Add a key-value pair.
+             *
+             * @param key The key.
+             * @param value The value.
+             * @return This instance of <code>Builder</code>.
+             */
+            public Builder putObject(final String key, final Object value) {
+                final int index = indexFor(key);
+                _kinds[index] = (byte) Kind.OBJECT.ordinal();
+                _values[index] = value;
+                return this;
+            }
+
+            /**
+             * Add a key-value pair with an <code>int</code> value.
+             *
+             * @param key The key.
+             * @param value The value.
+             * @return This instance of <code>Builder</code>.
+             */
+            public Builder putInt(final String key, final int value) {
+                return putPrimitive(key, Kind.INT, value);
+            }
+
+            /**
+             * Add a key-value pair with a <code>long</code> value.
+             *
+             * @param key The key.
+             * @param value The value.
+             * @return This instance of <code>Builder</code>.
+             */
+            public Builder putLong(final String key, final long value) {
+                return putPrimitive(key, Kind.LONG, value);
+            }
+
+            /**
+             * Add a key-value pair with a <code>float</code> value.
+             *
+             * @param key The key.
+             * @param value The value.
+             * @return This instance of <code>Builder</code>.
+             */
+            public Builder putFloat(final String key, final float value) {
+                return putPrimitive(key, Kind.FLOAT, Float.floatToRawIntBits(value));
+            }
+
+            /**
+             * Add a key-value pair with a <code>double</code> value.
+             *
+             * @param key The key.
+             * @param value The value.
+             * @return This instance of <code>Builder</code>.
+             */
+            public Builder putDouble(final String key, final double value) {
+                return putPrimitive(key, Kind.DOUBLE, Double.doubleToRawLongBits(value));
+            }
+
+            /**
+             * Add a key-value pair with a <code>boolean</code> value.
+             *
+             * @param key The key.
+             * @param value The value.
+             * @return This instance of <code>Builder</code>.
+             */
+            public Builder putBoolean(final String key, final boolean value) {
+                return putPrimitive(key, Kind.BOOLEAN, value ? 1 : 0);
+            }
+
+            /**
+             * Create an immutable <code>Fields</code> instance.
+             *
+             * @return New <code>Fields</code> instance.
+             */
+            public Fields build() {
+                if (_size == 0) {
+                    return EMPTY;
+                }
+                _shared = true;
+                return new Fields(_keys, _values, _primitives, _kinds, _size);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public String toString() {
+                return _size == 0 ? "null" : new Fields(_keys, _values, _primitives, _kinds, _size).toString();
+            }
+
+            private Builder putPrimitive(final String key, final Kind kind, final long bits) {
+                final int index = indexFor(key);
+                _kinds[index] = (byte) kind.ordinal();
+                _values[index] = null;
+                _primitives[index] = bits;
+                return this;
+            }
+
+            private int indexFor(final String key) {
+                if (_shared) {
+                    resize(_size == _keys.length ? _size * 2 : _keys.length);
+                    _shared = false;
+                }
+                for (int i = 0; i < _size; ++i) {
+                    if (Objects.equals(_keys[i], key)) {
+                        return i;
+                    }
+                }
+                if (_keys == null) {
+                    _keys = new String[INITIAL_CAPACITY];
+                    _values = new Object[INITIAL_CAPACITY];
+                    _primitives = new long[INITIAL_CAPACITY];
+                    _kinds = new byte[INITIAL_CAPACITY];
+                } else if (_size == _keys.length) {
+                    resize(_size * 2);
+                }
+                _keys[_size] = key;
+                return _size++;
+            }
+
+            private void resize(final int capacity) {
+                _keys = Arrays.copyOf(_keys, capacity);
+                _values = Arrays.copyOf(_values, capacity);
+                _primitives = Arrays.copyOf(_primitives, capacity);
+                _kinds = Arrays.copyOf(_kinds, capacity);
+            }
+
+            private String[] _keys;
+            private Object[] _values;
+            private long[] _primitives;
+            private byte[] _kinds;
+            private int _size;
+            private boolean _shared;
+
+            private static final int INITIAL_CAPACITY = 8;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback <code>TurboFilter</code> which applies rate limits and sampling to
+ * events before Logback creates a <code>LoggingEvent</code> for them. Unlike
+ * the <code>RateLimitLogger</code> and <code>SamplingLogger</code> the rules
+ * apply to all callers including plain SLF4J loggers.
+ *
+ * Each rule matches events by logger name prefix, level and marker. The
+ * first matching rule decides whether an event is denied; events accepted
+ * by the rule and events matching no rule proceed through the remaining
+ * filters and level checks unchanged. A rule may specify a sample rate,
+ * in which case one in every <code>sampleRate</code> matching events is
+ * accepted, and an interval and burst, in which case each distinct message
+ * format (the event name for Steno events) is accepted <code>burst</code>
+ * times at once and thereafter once per <code>interval</code>. If both are
+ * specified sampling is applied first.
+ *
+ * Level checks such as <code>isDebugEnabled()</code> and events below the
+ * logger's effective level neither consume permits nor advance the sample.
+ * Since no event is created, the number of events denied is not reported.
+ *
+ * Example configuration:
+ *
+ * <pre>
+ * &lt;turboFilter class="com.arpnetworking.logback.StenoTurboFilter"&gt;
+ *   &lt;rule&gt;
+ *     &lt;logger&gt;com.example.chatty&lt;/logger&gt;
+ *     &lt;level&gt;INFO&lt;/level&gt;
+ *     &lt;interval&gt;1 second&lt;/interval&gt;
+ *     &lt;burst&gt;10&lt;/burst&gt;
+ *   &lt;/rule&gt;
+ *   &lt;rule&gt;
+ *     &lt;marker&gt;com.arpnetworking.logback.stenoMarker.array&lt;/marker&gt;
+ *     &lt;level&gt;DEBUG&lt;/level&gt;
+ *     &lt;sampleRate&gt;100&lt;/sampleRate&gt;
+ *   &lt;/rule&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public class StenoTurboFilter extends TurboFilter {
+
+    /**
+     * Public constructor.
+     */
+    public StenoTurboFilter() {
+        this(Clock.systemUTC());
+    }
+
+    /* package private */ StenoTurboFilter(final Clock clock) {
+        _clock = clock;
+    }
+
+    /**
+     * Add a rule. Rules are evaluated in the order they are added.
+     *
+     * @param rule The rule to add.
+     */
+    public void addRule(final Rule rule) {
+        _pendingRules.add(rule);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start() {
+        for (final Rule rule : _pendingRules) {
+            final String error = rule.validate();
+            if (error != null) {
+                addError("Invalid rule; " + error);
+                return;
+            }
+        }
+        for (final Rule rule : _pendingRules) {
+            rule.initialize(_clock);
+        }
+        _rules = _pendingRules.toArray(new Rule[_pendingRules.size()]);
+        super.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FilterReply decide(
+            final Marker marker,
+            final Logger logger,
+            final Level level,
+            final String format,
+            final Object[] params,
+            final Throwable throwable) {
+        // Level checks pass a null format; only actual events are limited
+        if (!isStarted() || format == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        for (final Rule rule : _rules) {
+            if (rule.matches(marker, logger, level)) {
+                return rule.accept(format) ? FilterReply.NEUTRAL : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private final Clock _clock;
+    private final List<Rule> _pendingRules = new ArrayList<>();
+    private volatile Rule[] _rules = new Rule[0];
+
+    private static final int MAXIMUM_KEYS = 1024;
+
+    /**
+     * A single rate limiting and sampling rule. A rule without a logger,
+     * level or marker matches all events.
+     *
+     * @since 1.16.0
+     */
+    public static final class Rule {
+
+        /**
+         * Set the logger name prefix the rule applies to. The rule applies
+         * to the named logger and all its descendants.
+         *
+         * @param value The logger name prefix.
+         */
+        public void setLogger(final String value) {
+            _logger = value;
+        }
+
+        /**
+         * Set the most severe level the rule applies to. The rule applies to
+         * events at this level and below.
+         *
+         * @param value The level.
+         */
+        public void setLevel(final Level value) {
+            _level = value;
+        }
+
+        /**
+         * Set the name of the marker the rule applies to. The rule applies
+         * to events whose marker is or contains the named marker.
+         *
+         * @param value The marker name.
+         */
+        public void setMarker(final String value) {
+            _marker = value;
+        }
+
+        /**
+         * Set the interval at which permits are replenished for each message
+         * format.
+         *
+         * @param value The interval.
+         */
+        public void setInterval(final ch.qos.logback.core.util.Duration value) {
+            _interval = value;
+        }
+
+        /**
+         * Set the number of events accepted at once for each message format.
+         * Default is 1.
+         *
+         * @param value The burst.
+         */
+        public void setBurst(final int value) {
+            _burst = value;
+        }
+
+        /**
+         * Set the sample rate; one in every <code>sampleRate</code> matching
+         * events is accepted. Default is 1.
+         *
+         * @param value The sample rate.
+         */
+        public void setSampleRate(final int value) {
+            _sampleRate = value;
+        }
+
+        /* package private */ String validate() {
+            if (_interval == null && _sampleRate == 1) {
+                return "an interval or sampleRate is required";
+            }
+            if (_sampleRate < 1) {
+                return "sampleRate must be positive; sampleRate=" + _sampleRate;
+            }
+            if (_burst < 1) {
+                return "burst must be positive; burst=" + _burst;
+            }
+            if (_interval != null && _interval.getMilliseconds() < 1) {
+                return "interval must be positive; interval=" + _interval;
+            }
+            return null;
+        }
+
+        /* package private */ void initialize(final Clock clock) {
+            _loggerPrefix = _logger == null ? null : _logger + ".";
+            _rateLimiter = _interval == null
+                    ? null
+                    : new RateLimiter(java.time.Duration.ofMillis(_interval.getMilliseconds()), _burst, MAXIMUM_KEYS, clock);
+        }
+
+        /* package private */ boolean matches(final Marker marker, final Logger logger, final Level level) {
+            return (_level == null || _level.isGreaterOrEqual(level))
+                    && (_marker == null || marker != null && marker.contains(_marker))
+                    && (_logger == null || logger.getName().equals(_logger) || logger.getName().startsWith(_loggerPrefix));
+        }
+
+        /* package private */ boolean accept(final String format) {
+            if (_sampleRate > 1 && _sampled.getAndIncrement() % _sampleRate != 0) {
+                return false;
+            }
+            return _rateLimiter == null || _rateLimiter.tryAcquire(format) != null;
+        }
+
+        private String _logger;
+        private Level _level;
+        private String _marker;
+        private ch.qos.logback.core.util.Duration _interval;
+        private int _burst = 1;
+        private int _sampleRate = 1;
+        private String _loggerPrefix;
+        private RateLimiter _rateLimiter;
+        private final AtomicLong _sampled = new AtomicLong();
+    }
+}
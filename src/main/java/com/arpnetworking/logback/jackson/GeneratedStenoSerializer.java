@@ -0,0 +1,247 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.jackson;
+
+import com.arpnetworking.logback.StenoEncoder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Base class for the serializers generated at compile time for
+ * <code>@Loggable</code> types by the <code>logback-steno-processor</code>
+ * annotation processor. Each generated serializer writes the properties of
+ * its type directly through its accessors instead of through the reflective
+ * (or Afterburner generated) property writers Jackson creates by
+ * introspection. <code>StenoBeanSerializerModifier</code> uses the generated
+ * serializer of a <code>@Loggable</code> type automatically whenever it is
+ * present on the class path; see {@link #getSerializerClassName(Class)}.
+ *
+ * This class writes the <code>_id</code> and <code>_class</code> bean
+ * identifiers when the <code>StenoEncoder</code> is configured to inject
+ * them and redacts properties annotated with <code>@LogRedact</code>
+ * according to its redaction settings.
+ *
+ * @param <T> The type of bean serialized.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public abstract class GeneratedStenoSerializer<T> extends StdSerializer<T> {
+
+    /**
+     * Return the name of the generated serializer class for a bean class. This
+     * is the binary name of the bean class with each <code>$</code> replaced
+     * by <code>_</code> and suffixed with <code>_StenoSerializer</code>.
+     *
+     * @param beanClass The bean class.
+     * @return The name of the generated serializer class.
+     */
+    public static String getSerializerClassName(final Class<?> beanClass) {
+        return beanClass.getName().replace('$', '_') + SERIALIZER_CLASS_NAME_SUFFIX;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final void serialize(
+            final T bean,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        jsonGenerator.writeStartObject();
+        serializeContents(bean, jsonGenerator, provider);
+        jsonGenerator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final void serializeWithType(
+            final T bean,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider,
+            final TypeSerializer typeSerializer)
+            throws IOException {
+        typeSerializer.writeTypePrefixForObject(bean, jsonGenerator);
+        serializeContents(bean, jsonGenerator, provider);
+        typeSerializer.writeTypeSuffixForObject(bean, jsonGenerator);
+    }
+
+    /**
+     * Protected constructor.
+     *
+     * @param beanClass The bean class.
+     * @param stenoEncoder The instance of <code>StenoEncoder</code>.
+     */
+    protected GeneratedStenoSerializer(final Class<T> beanClass, final StenoEncoder stenoEncoder) {
+        super(beanClass);
+        _stenoEncoder = stenoEncoder;
+    }
+
+    /**
+     * Write the properties of the bean as fields of the current object.
+     *
+     * @param bean The bean.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param provider The <code>SerializerProvider</code>.
+     * @throws IOException If writing fails.
+     */
+    protected abstract void serializeProperties(T bean, JsonGenerator jsonGenerator, SerializerProvider provider)
+            throws IOException;
+
+    /**
+     * Write a property.
+     *
+     * @param name The property name.
+     * @param value The property value.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param provider The <code>SerializerProvider</code>.
+     * @throws IOException If writing fails.
+     */
+    protected final void writeProperty(
+            final String name,
+            final Object value,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        jsonGenerator.writeFieldName(name);
+        provider.defaultSerializeValue(value, jsonGenerator);
+    }
+
+    /**
+     * Write an <code>int</code> property.
+     *
+     * @param name The property name.
+     * @param value The property value.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param provider The <code>SerializerProvider</code>.
+     * @throws IOException If writing fails.
+     */
+    protected final void writeProperty(
+            final String name,
+            final int value,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        jsonGenerator.writeNumberField(name, value);
+    }
+
+    /**
+     * Write a <code>long</code> property.
+     *
+     * @param name The property name.
+     * @param value The property value.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param provider The <code>SerializerProvider</code>.
+     * @throws IOException If writing fails.
+     */
+    protected final void writeProperty(
+            final String name,
+            final long value,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        jsonGenerator.writeNumberField(name, value);
+    }
+
+    /**
+     * Write a <code>double</code> property.
+     *
+     * @param name The property name.
+     * @param value The property value.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param provider The <code>SerializerProvider</code>.
+     * @throws IOException If writing fails.
+     */
+    protected final void writeProperty(
+            final String name,
+            final double value,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        jsonGenerator.writeNumberField(name, value);
+    }
+
+    /**
+     * Write a <code>boolean</code> property.
+     *
+     * @param name The property name.
+     * @param value The property value.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param provider The <code>SerializerProvider</code>.
+     * @throws IOException If writing fails.
+     */
+    protected final void writeProperty(
+            final String name,
+            final boolean value,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        jsonGenerator.writeBooleanField(name, value);
+    }
+
+    /**
+     * Write a property annotated with <code>@LogRedact</code>. The value is
+     * replaced with <code>RedactionFilter.REDACTION_STRING</code> when
+     * redaction is enabled unless the value is <code>null</code> and
+     * redaction of <code>null</code> values is disabled.
+     *
+     * @param name The property name.
+     * @param value The property value.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param provider The <code>SerializerProvider</code>.
+     * @throws IOException If writing fails.
+     */
+    protected final void writeRedactedProperty(
+            final String name,
+            final Object value,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        if (_stenoEncoder.isRedactEnabled() && (value != null || _stenoEncoder.isRedactNull())) {
+            jsonGenerator.writeStringField(name, RedactionFilter.REDACTION_STRING);
+        } else {
+            writeProperty(name, value, jsonGenerator, provider);
+        }
+    }
+
+    private void serializeContents(
+            final T bean,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        if (_stenoEncoder.isInjectBeanIdentifier()) {
+            jsonGenerator.writeStringField("_id", Integer.toHexString(System.identityHashCode(bean)));
+            jsonGenerator.writeStringField("_class", bean.getClass().getName());
+        }
+        serializeProperties(bean, jsonGenerator, provider);
+    }
+
+    private final StenoEncoder _stenoEncoder;
+
+    private static final long serialVersionUID = 2916339618390512648L;
+
+    /**
+     * The suffix of generated serializer class names.
+     */
+    public static final String SERIALIZER_CLASS_NAME_SUFFIX = "_StenoSerializer";
+}
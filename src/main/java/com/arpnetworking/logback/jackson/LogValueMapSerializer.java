@@ -0,0 +1,80 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.jackson;
+
+import com.arpnetworking.logback.StenoEncoder;
+import com.arpnetworking.steno.LogValueMapFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Serializer for <code>LogValueMap</code> instances which writes the key-value
+ * pairs directly from the backing arrays to the generator in insertion order.
+ * When the <code>StenoEncoder</code> is configured to inject bean identifiers
+ * the <code>_id</code> and <code>_class</code> of the target instance are
+ * written first; these are <code>null</code> if the map was created without a
+ * target.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public final class LogValueMapSerializer extends StdSerializer<LogValueMapFactory.LogValueMap> {
+
+    /**
+     * Public constructor.
+     *
+     * @param stenoEncoder The instance of <code>StenoEncoder</code>.
+     */
+    public LogValueMapSerializer(final StenoEncoder stenoEncoder) {
+        super(LogValueMapFactory.LogValueMap.class);
+        _stenoEncoder = stenoEncoder;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(
+            final LogValueMapFactory.LogValueMap logValueMap,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        jsonGenerator.writeStartObject();
+        if (_stenoEncoder.isInjectBeanIdentifier()) {
+            final Optional<Object> target = logValueMap.getTarget();
+            if (target.isPresent()) {
+                jsonGenerator.writeStringField("_id", Integer.toHexString(System.identityHashCode(target.get())));
+                jsonGenerator.writeStringField("_class", target.get().getClass().getName());
+            } else {
+                jsonGenerator.writeNullField("_id");
+                jsonGenerator.writeNullField("_class");
+            }
+        }
+        for (int i = 0; i < logValueMap.size(); ++i) {
+            jsonGenerator.writeFieldName(logValueMap.getKey(i));
+            provider.defaultSerializeValue(logValueMap.getValue(i), jsonGenerator);
+        }
+        jsonGenerator.writeEndObject();
+    }
+
+    private final StenoEncoder _stenoEncoder;
+
+    private static final long serialVersionUID = -6317520487135546911L;
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Serializer for types with an active <code>@LogValue</code> method. The
+ * method is invoked through a function generated with
+ * <code>LambdaMetafactory</code>, or through a <code>MethodHandle</code> if
+ * the declaring class is not visible to this library's class loader, instead
+ * of by reflection as Jackson's <code>JsonValueSerializer</code> does. The
+ * serializer for the returned value is cached by class.
+ *
+ * Types whose method is not accessible to this library (e.g. non-public
+ * classes) continue to use the reflective serializer.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+/* package private */ final class LogValueSerializer extends StdSerializer<Object> {
+
+    /**
+     * Create a serializer for the <code>@LogValue</code> method or return the
+     * reflective serializer if the method cannot be compiled.
+     *
+     * @param method The <code>@LogValue</code> method.
+     * @param serializer The reflective serializer.
+     * @return The serializer to use.
+     */
+    /* package private */ static JsonSerializer<?> create(final Method method, final JsonSerializer<?> serializer) {
+        try {
+            return new LogValueSerializer(method, createAccessor(method), serializer);
+            // CHECKSTYLE.OFF: IllegalCatch - Any failure falls back to the reflective serializer.
+        } catch (final Throwable t) {
+            // CHECKSTYLE.ON: IllegalCatch
+            return serializer;
+        }
+    }
+
+    /* package private */ static Accessor createAccessor(final Method method) throws Throwable {
+        final MethodHandle handle = LOOKUP.unreflect(method);
+        if (isVisible(method.getDeclaringClass())) {
+            final CallSite callSite = LambdaMetafactory.metafactory(
+                    LOOKUP,
+                    "get",
+                    MethodType.methodType(Accessor.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(Object.class, method.getDeclaringClass()));
+            return (Accessor) callSite.getTarget().invoke();
+        }
+        final MethodHandle adapted = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return bean -> (Object) adapted.invokeExact(bean);
+    }
+
+    /* package private */ static boolean isVisible(final Class<?> clazz) {
+        // Generated functions resolve the declaring class through this class' loader
+        final ClassLoader classLoader = clazz.getClassLoader();
+        for (ClassLoader loader = LogValueSerializer.class.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader == classLoader) {
+                return true;
+            }
+        }
+        return classLoader == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(
+            final Object bean,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        final Object value;
+        try {
+            value = _accessor.get(bean);
+            // CHECKSTYLE.OFF: IllegalCatch - The log value method may throw anything.
+        } catch (final Throwable t) {
+            // CHECKSTYLE.ON: IllegalCatch
+            // Matches the reflective serializer which rethrows errors and wraps everything else
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw JsonMappingException.wrapWithPath(t, bean, _method.getName() + "()");
+        }
+        if (value == null) {
+            provider.defaultSerializeNull(jsonGenerator);
+            return;
+        }
+        CachedSerializer cachedSerializer = _cachedSerializer;
+        if (cachedSerializer == null || cachedSerializer._valueClass != value.getClass()) {
+            cachedSerializer = new CachedSerializer(
+                    value.getClass(),
+                    provider.findTypedValueSerializer(value.getClass(), true, null));
+            _cachedSerializer = cachedSerializer;
+        }
+        cachedSerializer._serializer.serialize(value, jsonGenerator, provider);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serializeWithType(
+            final Object bean,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider,
+            final TypeSerializer typeSerializer)
+            throws IOException {
+        _serializer.serializeWithType(bean, jsonGenerator, provider, typeSerializer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LogValueSerializer(final Method method, final Accessor accessor, final JsonSerializer<?> serializer) {
+        super(Object.class);
+        _method = method;
+        _accessor = accessor;
+        _serializer = (JsonSerializer<Object>) serializer;
+    }
+
+    private final transient Method _method;
+    private final transient Accessor _accessor;
+    private final JsonSerializer<Object> _serializer;
+    private transient CachedSerializer _cachedSerializer;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final long serialVersionUID = -4302591870725393612L;
+
+    /**
+     * Invokes the <code>@LogValue</code> method on a bean.
+     */
+    @FunctionalInterface
+    /* package private */ interface Accessor {
+
+        Object get(Object bean) throws Throwable;
+    }
+
+    private static final class CachedSerializer {
+
+        private CachedSerializer(final Class<?> valueClass, final JsonSerializer<Object> serializer) {
+            _valueClass = valueClass;
+            _serializer = serializer;
+        }
+
+        private final Class<?> _valueClass;
+        private final JsonSerializer<Object> _serializer;
+    }
+}
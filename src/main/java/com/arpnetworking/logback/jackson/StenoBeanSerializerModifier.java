@@ -16,27 +16,33 @@
 package com.arpnetworking.logback.jackson;
 
 import com.arpnetworking.logback.StenoEncoder;
+import com.arpnetworking.logback.annotations.LogValue;
 import com.arpnetworking.logback.annotations.Loggable;
-import com.arpnetworking.steno.LogValueMapFactory;
+import com.arpnetworking.logback.metrics.EncoderMetrics;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.PropertyName;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.cfg.MapperConfig;
 import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
 import com.fasterxml.jackson.databind.introspect.AnnotationMap;
 import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import com.fasterxml.jackson.databind.ser.VirtualBeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.JsonValueSerializer;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.databind.util.Annotations;
 import com.fasterxml.jackson.databind.util.SimpleBeanPropertyDefinition;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -56,6 +62,17 @@ import java.util.concurrent.ConcurrentHashMap;
  *     <li>The type does not have a custom serializer registered.</li>
  * </ul>
  *
+ * Third, when enabled by the <code>StenoEncoder</code> the reflective serializer Jackson creates for a type with
+ * an active <code>LogValue</code> method is replaced with a <code>LogValueSerializer</code> which invokes the method
+ * through a generated function.
+ *
+ * Fourth, the serializer Jackson creates for a type annotated with <code>Loggable</code> is replaced with the
+ * <code>GeneratedStenoSerializer</code> generated for the type at compile time by the
+ * <code>logback-steno-processor</code> annotation processor if one is present.
+ *
+ * Note that <code>LogValueMap</code> instances are serialized by <code>LogValueMapSerializer</code> which injects
+ * the identifiers of the target instance instead.
+ *
  * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
  * @since 1.9.0
  */
@@ -82,28 +99,66 @@ public final class StenoBeanSerializerModifier extends BeanSerializerModifier {
             final List<BeanPropertyWriter> beanProperties) {
         final List<BeanPropertyWriter> beanPropertyWriters = super.changeProperties(config, beanDesc, beanProperties);
 
-        // Determine if the bean is annotated with @Loggable
-        Boolean isLoggable = LOGGABLE_CLASSES.get(beanDesc.getBeanClass());
-        if (isLoggable == null) {
-            isLoggable = beanDesc.getBeanClass().getAnnotation(Loggable.class) != null;
-            LOGGABLE_CLASSES.put(beanDesc.getBeanClass(), isLoggable);
-        }
-
         // Non-loggable beans under safe encoding should not log properties
-        final boolean clearProperties = !isLoggable && _stenoEncoder.isSafe();
+        final boolean clearProperties = !isLoggable(beanDesc.getBeanClass()) && _stenoEncoder.isSafe();
         if (clearProperties) {
             beanProperties.clear();
         }
 
         // Beans with cleared properties or with bean identifier injection enabled should include identifiers
         if (clearProperties || _stenoEncoder.isInjectBeanIdentifier()) {
-            beanPropertyWriters.add(0, new BeanIdentifierPropertyWriter(config));
+            beanPropertyWriters.add(0, new BeanIdentifierPropertyWriter(config, clearProperties ? _stenoEncoder.getMetrics() : null));
             beanPropertyWriters.add(1, new BeanClassPropertyWriter(config));
         }
 
         return beanPropertyWriters;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonSerializer<?> modifySerializer(
+            final SerializationConfig config,
+            final BeanDescription beanDesc,
+            final JsonSerializer<?> serializer) {
+        if (_stenoEncoder.isCompileLogValue() && serializer instanceof JsonValueSerializer) {
+            // The as-value method is the active @LogValue method if there is one
+            final AnnotatedMethod method = beanDesc.findJsonValueMethod();
+            if (method.getAnnotation(LogValue.class) != null) {
+                return LogValueSerializer.create(method.getAnnotated(), serializer);
+            }
+        }
+        if (serializer instanceof BeanSerializer && isLoggable(beanDesc.getBeanClass())) {
+            // Prefer the serializer generated at compile time if there is one
+            return createGeneratedSerializer(beanDesc.getBeanClass()).orElse(serializer);
+        }
+        return serializer;
+    }
+
+    private Optional<JsonSerializer<?>> createGeneratedSerializer(final Class<?> beanClass) {
+        try {
+            final Class<?> serializerClass = Class.forName(
+                    GeneratedStenoSerializer.getSerializerClassName(beanClass),
+                    true,
+                    beanClass.getClassLoader());
+            return Optional.of(GeneratedStenoSerializer.class.cast(
+                    serializerClass.getConstructor(StenoEncoder.class).newInstance(_stenoEncoder)));
+        } catch (final ReflectiveOperationException | ClassCastException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isLoggable(final Class<?> beanClass) {
+        // Determine if the bean is annotated with @Loggable
+        Boolean isLoggable = LOGGABLE_CLASSES.get(beanClass);
+        if (isLoggable == null) {
+            isLoggable = beanClass.getAnnotation(Loggable.class) != null;
+            LOGGABLE_CLASSES.put(beanClass, isLoggable);
+        }
+        return isLoggable;
+    }
+
     private final StenoEncoder _stenoEncoder;
 
     private static final Map<Class<?>, Boolean> LOGGABLE_CLASSES = new ConcurrentHashMap<>();
@@ -113,6 +168,12 @@ public final class StenoBeanSerializerModifier extends BeanSerializerModifier {
     /* package private */ static class BeanIdentifierPropertyWriter extends VirtualBeanPropertyWriter {
 
         /* package private */ BeanIdentifierPropertyWriter(final SerializationConfig config) {
+            this(config, null);
+        }
+
+        /* package private */ BeanIdentifierPropertyWriter(
+                final SerializationConfig config,
+                final EncoderMetrics referenceOnlyMetrics) {
             super(
                     SimpleBeanPropertyDefinition.construct(
                             config,
@@ -120,22 +181,16 @@ public final class StenoBeanSerializerModifier extends BeanSerializerModifier {
                             PROPERTY_NAME),
                     EMPTY_ANNOTATION_MAP,
                     STRING_JAVA_TYPE);
+            _referenceOnlyMetrics = referenceOnlyMetrics;
         }
 
         @Override
         public void serializeAsField(final Object bean, final JsonGenerator gen, final SerializerProvider prov) throws Exception {
-            if (bean instanceof LogValueMapFactory.LogValueMap) {
-                // LogValueMap representations are identified by the target
-                final LogValueMapFactory.LogValueMap logValueMap = (LogValueMapFactory.LogValueMap) bean;
-                if (logValueMap.getTarget().isPresent()) {
-                    gen.writeStringField("_id", Integer.toHexString(System.identityHashCode(logValueMap.getTarget().get())));
-                } else {
-                    gen.writeNullField("_id");
-                }
-            } else {
-                // Standard beans are identified by the instance
-                gen.writeStringField("_id", Integer.toHexString(System.identityHashCode(this)));
+            if (_referenceOnlyMetrics != null) {
+                // The bean's properties were suppressed leaving only its reference
+                _referenceOnlyMetrics.recordReferenceOnlySubstitution();
             }
+            gen.writeStringField("_id", Integer.toHexString(System.identityHashCode(this)));
         }
 
         /**
@@ -171,6 +226,8 @@ public final class StenoBeanSerializerModifier extends BeanSerializerModifier {
             return "BeanIdentifierPropertyWriter";
         }
 
+        private final EncoderMetrics _referenceOnlyMetrics;
+
         private static final PropertyName PROPERTY_NAME = new PropertyName("_id");
         private static final long serialVersionUID = 1031451570210101221L;
     }
@@ -189,18 +246,7 @@ public final class StenoBeanSerializerModifier extends BeanSerializerModifier {
 
         @Override
         public void serializeAsField(final Object bean, final JsonGenerator gen, final SerializerProvider prov) throws Exception {
-            if (bean instanceof LogValueMapFactory.LogValueMap) {
-                // LogValueMap representations are identified by the target
-                final LogValueMapFactory.LogValueMap logValueMap = (LogValueMapFactory.LogValueMap) bean;
-                if (logValueMap.getTarget().isPresent()) {
-                    gen.writeStringField("_class", logValueMap.getTarget().get().getClass().getName());
-                } else {
-                    gen.writeNullField("_class");
-                }
-            } else {
-                // Standard beans are identified by the instance
-                gen.writeStringField("_class", bean.getClass().getName());
-            }
+            gen.writeStringField("_class", bean.getClass().getName());
         }
 
         /**
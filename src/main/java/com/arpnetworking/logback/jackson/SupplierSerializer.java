@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.jackson;
+
+import com.arpnetworking.logback.StenoEncoder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Serializer for <code>Supplier</code> values which serializes the supplied
+ * value in place of the <code>Supplier</code>. The <code>Supplier</code> is
+ * only invoked when the event is serialized. When the <code>StenoEncoder</code>
+ * is safe a <code>Supplier</code> which throws is serialized as a placeholder
+ * naming the exception instead of failing the event.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public final class SupplierSerializer extends StdSerializer<Supplier<?>> {
+
+    /**
+     * Public constructor.
+     *
+     * @param stenoEncoder The instance of <code>StenoEncoder</code>.
+     */
+    public SupplierSerializer(final StenoEncoder stenoEncoder) {
+        super(Supplier.class, false);
+        _stenoEncoder = stenoEncoder;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(
+            final Supplier<?> supplier,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        final Object value;
+        try {
+            value = supplier.get();
+            // CHECKSTYLE.OFF: IllegalCatch: Suppliers may throw any runtime exception.
+        } catch (final RuntimeException e) {
+            // CHECKSTYLE.ON: IllegalCatch
+            if (!_stenoEncoder.isSafe()) {
+                throw e;
+            }
+            jsonGenerator.writeString(createFailedPlaceholder(e));
+            return;
+        }
+        provider.defaultSerializeValue(value, jsonGenerator);
+    }
+
+    /**
+     * Create the placeholder written in place of the value of a
+     * <code>Supplier</code> which threw.
+     *
+     * @param exception The exception thrown by the <code>Supplier</code>.
+     * @return The placeholder naming the exception.
+     */
+    public static String createFailedPlaceholder(final RuntimeException exception) {
+        return String.format(FAILED_PLACEHOLDER_FORMAT, exception.getClass().getName());
+    }
+
+    private final StenoEncoder _stenoEncoder;
+
+    private static final String FAILED_PLACEHOLDER_FORMAT = "<SUPPLIER FAILED: %s>";
+    private static final long serialVersionUID = 7216409527309114281L;
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.metrics;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics maintained by an encoder. All counters are striped (see
+ * <code>LongAdder</code>) so recording from concurrent appenders does not
+ * contend. Encode latency is only recorded for a random sample of one in
+ * <code>latencySampleRate</code> events to keep the overhead of reading the
+ * clock off the common path.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public final class EncoderMetrics implements EncoderMetricsMXBean, Serializable {
+
+    /**
+     * Public constructor.
+     */
+    public EncoderMetrics() {
+        for (int i = 0; i < _latencyBuckets.length; ++i) {
+            _latencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Determine whether the latency of the current event should be recorded.
+     *
+     * @return True if and only if the latency of the current event should be recorded.
+     */
+    public boolean shouldSampleLatency() {
+        final int sampleRate = _latencySampleRate;
+        return sampleRate == 1 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    /**
+     * Record an encoded event.
+     *
+     * @param strategy The name of the strategy used to encode the event.
+     * @param bytes The number of encoded bytes written.
+     */
+    public void recordEncoded(final String strategy, final long bytes) {
+        getOrCreateCounter(_eventsByStrategy, strategy).increment();
+        _bytesWritten.add(bytes);
+    }
+
+    /**
+     * Record a sampled encode latency.
+     *
+     * @param nanos The encode latency in nanoseconds.
+     */
+    public void recordLatency(final long nanos) {
+        final long boundedNanos = Math.max(0, nanos);
+        final int bucket = Math.min(LATENCY_BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(boundedNanos));
+        _latencyBuckets[bucket].increment();
+        _latencyNanos.add(boundedNanos);
+        _latencySamples.increment();
+    }
+
+    /**
+     * Record an encoding failure.
+     *
+     * @param cause The cause of the encoding failure.
+     */
+    public void recordEncodingFailure(final Throwable cause) {
+        final String causeName = cause == null ? UNKNOWN_CAUSE : cause.getClass().getName();
+        getOrCreateCounter(_failuresByCause, causeName).increment();
+    }
+
+    /**
+     * Record the substitution of a value with its reference only.
+     */
+    public void recordReferenceOnlySubstitution() {
+        _referenceOnlySubstitutions.increment();
+    }
+
+    /**
+     * Set the latency sample rate; one in this many events has its latency
+     * recorded. A value of zero disables latency sampling.
+     *
+     * @param latencySampleRate The latency sample rate.
+     */
+    public void setLatencySampleRate(final int latencySampleRate) {
+        if (latencySampleRate < 0) {
+            throw new IllegalArgumentException("Latency sample rate must be non-negative");
+        }
+        _latencySampleRate = latencySampleRate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLatencySampleRate() {
+        return _latencySampleRate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEventsEncoded() {
+        long total = 0;
+        for (final LongAdder counter : _eventsByStrategy.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getEventsEncodedByStrategy() {
+        return snapshot(_eventsByStrategy);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBytesWritten() {
+        return _bytesWritten.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncodingFailures() {
+        long total = 0;
+        for (final LongAdder counter : _failuresByCause.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getEncodingFailuresByCause() {
+        return snapshot(_failuresByCause);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getReferenceOnlySubstitutions() {
+        return _referenceOnlySubstitutions.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncodeLatencySamples() {
+        return _latencySamples.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEncodeLatencyMeanNanos() {
+        final long samples = _latencySamples.sum();
+        if (samples == 0) {
+            return 0.0;
+        }
+        return ((double) _latencyNanos.sum()) / samples;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getEncodeLatencyHistogram() {
+        final Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < LATENCY_BUCKETS; ++i) {
+            final long count = _latencyBuckets[i].sum();
+            if (count > 0) {
+                histogram.put(i == LATENCY_BUCKETS - 1 ? OVERFLOW_BUCKET : Long.toString(1L << i), count);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        _eventsByStrategy.clear();
+        _failuresByCause.clear();
+        _bytesWritten.reset();
+        _referenceOnlySubstitutions.reset();
+        _latencySamples.reset();
+        _latencyNanos.reset();
+        for (final LongAdder bucket : _latencyBuckets) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "EncoderMetrics{"
+                + "EventsEncodedByStrategy=" + getEventsEncodedByStrategy()
+                + ", BytesWritten=" + getBytesWritten()
+                + ", EncodingFailuresByCause=" + getEncodingFailuresByCause()
+                + ", ReferenceOnlySubstitutions=" + getReferenceOnlySubstitutions()
+                + ", EncodeLatencySamples=" + getEncodeLatencySamples()
+                + "}";
+    }
+
+    private static LongAdder getOrCreateCounter(final ConcurrentMap<String, LongAdder> counters, final String key) {
+        // Avoid computeIfAbsent on the common path since it locks the bin even when the key is present
+        final LongAdder counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static Map<String, Long> snapshot(final Map<String, LongAdder> counters) {
+        final Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (final Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    private volatile int _latencySampleRate = DEFAULT_LATENCY_SAMPLE_RATE;
+    private final ConcurrentMap<String, LongAdder> _eventsByStrategy = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> _failuresByCause = new ConcurrentHashMap<>();
+    private final LongAdder _bytesWritten = new LongAdder();
+    private final LongAdder _referenceOnlySubstitutions = new LongAdder();
+    private final LongAdder _latencySamples = new LongAdder();
+    private final LongAdder _latencyNanos = new LongAdder();
+    private final LongAdder[] _latencyBuckets = new LongAdder[LATENCY_BUCKETS];
+
+    /**
+     * The default latency sample rate.
+     */
+    public static final int DEFAULT_LATENCY_SAMPLE_RATE = 100;
+
+    private static final int LATENCY_BUCKETS = 40;
+    private static final String OVERFLOW_BUCKET = "+Inf";
+    private static final String UNKNOWN_CAUSE = "<UNKNOWN>";
+    private static final long serialVersionUID = 4328405717383425016L;
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface for encoder metrics.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public interface EncoderMetricsMXBean {
+
+    /**
+     * Retrieve the total number of events encoded.
+     *
+     * @return The total number of events encoded.
+     */
+    long getEventsEncoded();
+
+    /**
+     * Retrieve the number of events encoded by each strategy (e.g. array, map, lists or standard).
+     *
+     * @return The number of events encoded by strategy name.
+     */
+    Map<String, Long> getEventsEncodedByStrategy();
+
+    /**
+     * Retrieve the total number of encoded bytes written.
+     *
+     * @return The total number of encoded bytes written.
+     */
+    long getBytesWritten();
+
+    /**
+     * Retrieve the total number of events which failed encoding and were
+     * written using the fallback encoding.
+     *
+     * @return The total number of encoding failures.
+     */
+    long getEncodingFailures();
+
+    /**
+     * Retrieve the number of encoding failures by the class name of the cause.
+     *
+     * @return The number of encoding failures by cause class name.
+     */
+    Map<String, Long> getEncodingFailuresByCause();
+
+    /**
+     * Retrieve the number of non-<code>Loggable</code> values replaced with
+     * only their reference (identifier and class) in safe mode.
+     *
+     * @return The number of reference only substitutions.
+     */
+    long getReferenceOnlySubstitutions();
+
+    /**
+     * Retrieve the number of encode latency samples recorded.
+     *
+     * @return The number of encode latency samples.
+     */
+    long getEncodeLatencySamples();
+
+    /**
+     * Retrieve the mean sampled encode latency in nanoseconds.
+     *
+     * @return The mean sampled encode latency in nanoseconds.
+     */
+    double getEncodeLatencyMeanNanos();
+
+    /**
+     * Retrieve the sampled encode latency histogram. Each key is the exclusive
+     * upper bound of the bucket in nanoseconds and each value is the number of
+     * samples in that bucket. Buckets are powers of two and empty buckets are
+     * omitted.
+     *
+     * @return The sampled encode latency histogram.
+     */
+    Map<String, Long> getEncodeLatencyHistogram();
+
+    /**
+     * Retrieve the latency sample rate; one in this many events has its
+     * latency recorded. A value of zero disables latency sampling.
+     *
+     * @return The latency sample rate.
+     */
+    int getLatencySampleRate();
+
+    /**
+     * Reset all metrics.
+     */
+    void reset();
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.metrics;
+
+import java.io.Serializable;
+
+/**
+ * Accounting for a single (logger name, event name, level) combination.
+ *
+ * Since the accounting is approximate the count and bytes may be
+ * overestimated; however, they are never overestimated by more than the
+ * error.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public final class TopTalker implements Serializable {
+
+    /**
+     * Public constructor.
+     *
+     * @param logger The name of the logger.
+     * @param eventName The name of the event.
+     * @param level The level of the event.
+     * @param count The number of events.
+     * @param bytes The number of encoded bytes.
+     * @param error The maximum overestimate of encoded bytes.
+     */
+    public TopTalker(
+            final String logger,
+            final String eventName,
+            final String level,
+            final long count,
+            final long bytes,
+            final long error) {
+        _logger = logger;
+        _eventName = eventName;
+        _level = level;
+        _count = count;
+        _bytes = bytes;
+        _error = error;
+    }
+
+    public String getLogger() {
+        return _logger;
+    }
+
+    public String getEventName() {
+        return _eventName;
+    }
+
+    public String getLevel() {
+        return _level;
+    }
+
+    public long getCount() {
+        return _count;
+    }
+
+    public long getBytes() {
+        return _bytes;
+    }
+
+    public long getError() {
+        return _error;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "TopTalker{"
+                + "Logger=" + _logger
+                + ", EventName=" + _eventName
+                + ", Level=" + _level
+                + ", Count=" + _count
+                + ", Bytes=" + _bytes
+                + ", Error=" + _error
+                + "}";
+    }
+
+    private final String _logger;
+    private final String _eventName;
+    private final String _level;
+    private final long _count;
+    private final long _bytes;
+    private final long _error;
+
+    private static final long serialVersionUID = -2465185010469335513L;
+}
@@ -0,0 +1,340 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.metrics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Approximate accounting of encoded events and bytes by (logger name, event
+ * name, level) using the Space-Saving heavy hitters algorithm weighted by
+ * encoded bytes. At most <code>capacity</code> combinations are tracked so
+ * memory use is fixed regardless of the number of distinct call sites. Any
+ * combination whose share of the bytes exceeds <code>1/capacity</code> is
+ * guaranteed to be tracked.
+ *
+ * The tracked combinations are held in an open addressing table probed with
+ * the logger name, event name and level directly, so recording an event does
+ * not allocate, and in a min-heap by bytes, so the combination replaced when
+ * the table is full is found without a scan. The top talkers for an interval
+ * are derived from the same counters by taking a snapshot at the start of
+ * each interval and reporting the difference.
+ *
+ * Encoders are invoked under the appender's lock so access is synchronized
+ * rather than striped.
+ *
+ * See: Metwally, Agrawal and El Abbadi; "Efficient Computation of Frequent and
+ * Top-k Elements in Data Streams" (2005).
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public final class TopTalkers implements TopTalkersMXBean, Serializable {
+
+    /**
+     * Public constructor.
+     *
+     * @param capacity The maximum number of combinations to track.
+     * @param size The number of top talkers to report.
+     */
+    public TopTalkers(final int capacity, final int size) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        _capacity = capacity;
+        _size = size;
+        // Keep the load factor at or below one half
+        _table = new Counter[Integer.highestOneBit(capacity) << 2];
+        _heap = new Counter[capacity];
+    }
+
+    /**
+     * Record an encoded event.
+     *
+     * @param logger The name of the logger.
+     * @param eventName The name of the event.
+     * @param level The level of the event.
+     * @param bytes The number of encoded bytes.
+     */
+    public synchronized void record(final String logger, final String eventName, final String level, final long bytes) {
+        final int hash = hash(logger, eventName, level);
+        final int mask = _table.length - 1;
+        int slot = hash & mask;
+        Counter counter = _table[slot];
+        while (counter != null) {
+            if (counter._hash == hash && counter.matches(logger, eventName, level)) {
+                counter._count += 1;
+                counter._bytes += bytes;
+                siftDown(counter._heapIndex);
+                return;
+            }
+            slot = (slot + 1) & mask;
+            counter = _table[slot];
+        }
+
+        if (_heapSize < _capacity) {
+            counter = _heap[_heapSize];
+            if (counter == null) {
+                counter = new Counter();
+                _heap[_heapSize] = counter;
+            }
+            counter._heapIndex = _heapSize;
+            ++_heapSize;
+            counter.set(hash, logger, eventName, level, 1, bytes, 0);
+            _table[slot] = counter;
+            siftUp(counter._heapIndex);
+        } else {
+            // Replace the combination with the fewest bytes; the new combination
+            // inherits its totals which bounds the error of the estimate
+            counter = _heap[0];
+            remove(counter);
+            counter.set(hash, logger, eventName, level, counter._count + 1, counter._bytes + bytes, counter._bytes);
+            insert(counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized List<TopTalker> getTopTalkers() {
+        final List<Counter> counters = new ArrayList<>(Arrays.asList(_heap).subList(0, _heapSize));
+        counters.sort(BYTES_DESCENDING);
+        final List<TopTalker> topTalkers = new ArrayList<>(Math.min(_size, counters.size()));
+        for (final Counter counter : counters.subList(0, Math.min(_size, counters.size()))) {
+            topTalkers.add(new TopTalker(
+                    counter._logger,
+                    counter._eventName,
+                    counter._level,
+                    counter._count,
+                    counter._bytes,
+                    counter._error));
+        }
+        return topTalkers;
+    }
+
+    /**
+     * Retrieve the top talkers since the previous call (or since the
+     * accounting was created or reset) and start a new interval. The
+     * cumulative accounting is not reset. A combination which was not tracked
+     * at the start of the interval reports its full estimate, including any
+     * totals inherited on replacement, with the inherited bytes as its error.
+     *
+     * @return The top talkers by encoded bytes during the interval.
+     */
+    public synchronized List<TopTalker> getIntervalTopTalkers() {
+        final List<Counter> counters = new ArrayList<>(_heapSize);
+        for (int i = 0; i < _heapSize; ++i) {
+            final Counter counter = _heap[i];
+            if (counter._count > counter._snapshotCount) {
+                counters.add(counter);
+            }
+        }
+        counters.sort(INTERVAL_BYTES_DESCENDING);
+        final List<TopTalker> topTalkers = new ArrayList<>(Math.min(_size, counters.size()));
+        for (final Counter counter : counters.subList(0, Math.min(_size, counters.size()))) {
+            topTalkers.add(new TopTalker(
+                    counter._logger,
+                    counter._eventName,
+                    counter._level,
+                    counter._count - counter._snapshotCount,
+                    counter._bytes - counter._snapshotBytes,
+                    counter._intervalError));
+        }
+        for (int i = 0; i < _heapSize; ++i) {
+            _heap[i].snapshot();
+        }
+        return topTalkers;
+    }
+
+    /**
+     * Retrieve the top talkers and reset the accounting.
+     *
+     * @return The top talkers by encoded bytes.
+     */
+    public synchronized List<TopTalker> getTopTalkersAndReset() {
+        final List<TopTalker> topTalkers = getTopTalkers();
+        reset();
+        return topTalkers;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCapacity() {
+        return _capacity;
+    }
+
+    /**
+     * Retrieve the number of top talkers reported.
+     *
+     * @return The number of top talkers reported.
+     */
+    public int getSize() {
+        return _size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void reset() {
+        // The counters are retained in the heap for reuse
+        Arrays.fill(_table, null);
+        _heapSize = 0;
+    }
+
+    private void insert(final Counter counter) {
+        final int mask = _table.length - 1;
+        int slot = counter._hash & mask;
+        while (_table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        _table[slot] = counter;
+    }
+
+    private void remove(final Counter counter) {
+        final int mask = _table.length - 1;
+        int hole = counter._hash & mask;
+        while (_table[hole] != counter) {
+            hole = (hole + 1) & mask;
+        }
+        // Shift back any later entry of the probe sequence whose home slot
+        // does not lie between the hole and its current slot
+        int next = (hole + 1) & mask;
+        while (_table[next] != null) {
+            final int home = _table[next]._hash & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                _table[hole] = _table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        _table[hole] = null;
+    }
+
+    private void siftUp(final int index) {
+        int child = index;
+        final Counter counter = _heap[child];
+        while (child > 0) {
+            final int parent = (child - 1) >>> 1;
+            if (_heap[parent]._bytes <= counter._bytes) {
+                break;
+            }
+            place(_heap[parent], child);
+            child = parent;
+        }
+        place(counter, child);
+    }
+
+    private void siftDown(final int index) {
+        int parent = index;
+        final Counter counter = _heap[parent];
+        int child = 2 * parent + 1;
+        while (child < _heapSize) {
+            if (child + 1 < _heapSize && _heap[child + 1]._bytes < _heap[child]._bytes) {
+                ++child;
+            }
+            if (counter._bytes <= _heap[child]._bytes) {
+                break;
+            }
+            place(_heap[child], parent);
+            parent = child;
+            child = 2 * parent + 1;
+        }
+        place(counter, parent);
+    }
+
+    private void place(final Counter counter, final int index) {
+        _heap[index] = counter;
+        counter._heapIndex = index;
+    }
+
+    private static int hash(final String logger, final String eventName, final String level) {
+        final int hash = 31 * (31 * Objects.hashCode(logger) + Objects.hashCode(eventName)) + Objects.hashCode(level);
+        return hash ^ (hash >>> 16);
+    }
+
+    private final int _capacity;
+    private final int _size;
+    private final Counter[] _table;
+    private final Counter[] _heap;
+    private int _heapSize;
+
+    private static final Comparator<Counter> BYTES_DESCENDING = (a, b) -> Long.compare(b._bytes, a._bytes);
+    private static final Comparator<Counter> INTERVAL_BYTES_DESCENDING =
+            (a, b) -> Long.compare(b._bytes - b._snapshotBytes, a._bytes - a._snapshotBytes);
+    private static final long serialVersionUID = 3096146254342806620L;
+
+    private static final class Counter implements Serializable {
+
+        private void set(
+                final int hash,
+                final String logger,
+                final String eventName,
+                final String level,
+                final long count,
+                final long bytes,
+                final long error) {
+            _hash = hash;
+            _logger = logger;
+            _eventName = eventName;
+            _level = level;
+            _count = count;
+            _bytes = bytes;
+            _error = error;
+            // A new combination's interval starts from zero
+            _snapshotCount = 0;
+            _snapshotBytes = 0;
+            _intervalError = error;
+        }
+
+        private boolean matches(final String logger, final String eventName, final String level) {
+            return Objects.equals(_logger, logger)
+                    && Objects.equals(_eventName, eventName)
+                    && Objects.equals(_level, level);
+        }
+
+        private void snapshot() {
+            _snapshotCount = _count;
+            _snapshotBytes = _bytes;
+            _intervalError = 0;
+        }
+
+        private int _hash;
+        private String _logger;
+        private String _eventName;
+        private String _level;
+        private long _count;
+        private long _bytes;
+        private long _error;
+        private long _snapshotCount;
+        private long _snapshotBytes;
+        private long _intervalError;
+        private int _heapIndex;
+
+        private static final long serialVersionUID = -6307262442096219147L;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.metrics;
+
+import java.util.List;
+
+/**
+ * Management interface for top talker accounting.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public interface TopTalkersMXBean {
+
+    /**
+     * Retrieve the top talkers by encoded bytes in descending order.
+     *
+     * @return The top talkers by encoded bytes.
+     */
+    List<TopTalker> getTopTalkers();
+
+    /**
+     * Retrieve the number of distinct talkers tracked.
+     *
+     * @return The number of distinct talkers tracked.
+     */
+    int getCapacity();
+
+    /**
+     * Reset the accounting.
+     */
+    void reset();
+}
@@ -68,7 +68,17 @@ public class StandardSerializationStrategy implements Serializable {
 
         // Write event data
         jsonGenerator.writeObjectFieldStart("data");
-        jsonGenerator.writeObjectField("message", event.getFormattedMessage());
+        if (!_encoder.isMessageTemplateEnabled() || _encoder.isFormattedMessageEnabled()) {
+            jsonGenerator.writeObjectField("message", event.getFormattedMessage());
+        }
+        if (_encoder.isMessageTemplateEnabled()) {
+            jsonGenerator.writeObjectField("messageTemplate", event.getMessage());
+            final Object[] arguments = event.getArgumentArray();
+            if (arguments != null) {
+                jsonGenerator.writeFieldName("messageArguments");
+                _objectMapper.writeValue(jsonGenerator, arguments);
+            }
+        }
         jsonGenerator.writeEndObject(); // End 'data' field
 
         // Output throwable
@@ -30,6 +30,7 @@ import com.arpnetworking.logback.StenoEncoder;
 import com.arpnetworking.logback.StenoFileOfCallerConverter;
 import com.arpnetworking.logback.StenoLineOfCallerConverter;
 import com.arpnetworking.logback.StenoMethodOfCallerConverter;
+import com.arpnetworking.logback.StenoPayload;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -44,6 +45,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -134,20 +136,47 @@ public final class StenoSerializationHelper {
             final StenoEncoder encoder)
             throws IOException {
 
-        jsonGenerator.writeFieldName("context");
-        objectMapper.writeValue(
-                jsonGenerator,
+        writeContextAndEnd(
                 StenoSerializationHelper.createContext(
                         encoder,
                         event,
                         objectMapper,
                         contextKeys,
-                        contextValues));
-        jsonGenerator.writeObjectField("id", StenoSerializationHelper.createId());
-        jsonGenerator.writeObjectField("version", "0");
-        jsonGenerator.writeEndObject(); // End log message
-        jsonGenerator.writeRaw('\n');
-        jsonGenerator.flush();
+                        contextValues),
+                jsonGenerator,
+                objectMapper);
+    }
+
+    /**
+     * Complete writing the Steno JSON wrapper.
+     *
+     * @since 1.16.0
+     *
+     * @param event Instance of <code>ILoggingEvent</code>.
+     * @param eventName The name of the event.
+     * @param context The context key-value pairs.
+     * @param jsonGenerator <code>JsonGenerator</code> instance.
+     * @param objectMapper <code>ObjectMapper</code> instance.
+     * @param encoder <code>StenoEncoder</code> instance.
+     * @throws IOException If writing JSON fails.
+     */
+    public static void endStenoWrapper(
+            final ILoggingEvent event,
+            final String eventName,
+            final StenoPayload.Fields context,
+            final JsonGenerator jsonGenerator,
+            final ObjectMapper objectMapper,
+            final StenoEncoder encoder)
+            throws IOException {
+
+        writeContextAndEnd(
+                StenoSerializationHelper.createContext(
+                        encoder,
+                        event,
+                        objectMapper,
+                        context),
+                jsonGenerator,
+                objectMapper);
     }
 
     /**
@@ -189,6 +218,55 @@ public final class StenoSerializationHelper {
         }
     }
 
+    /**
+     * Write specified key-value pairs into the current block. Primitive
+     * values are written without boxing.
+     *
+     * @since 1.16.0
+     * @param fields The key-value pairs.
+     * @param jsonGenerator <code>JsonGenerator</code> instance.
+     * @param objectMapper <code>ObjectMapper</code> instance.
+     * @param encoder Instance of <code>StenoEncoder</code>.
+     * @throws IOException If writing JSON fails.
+     */
+    public static void writeKeyValuePairs(
+            final StenoPayload.Fields fields,
+            final JsonGenerator jsonGenerator,
+            final ObjectMapper objectMapper,
+            final StenoEncoder encoder)
+            throws IOException {
+        for (int i = 0; i < fields.size(); ++i) {
+            final String key = fields.getKey(i);
+            switch (fields.getKind(i)) {
+                case INT:
+                    jsonGenerator.writeNumberField(key, fields.getInt(i));
+                    break;
+                case LONG:
+                    jsonGenerator.writeNumberField(key, fields.getLong(i));
+                    break;
+                case FLOAT:
+                    jsonGenerator.writeNumberField(key, fields.getFloat(i));
+                    break;
+                case DOUBLE:
+                    jsonGenerator.writeNumberField(key, fields.getDouble(i));
+                    break;
+                case BOOLEAN:
+                    jsonGenerator.writeBooleanField(key, fields.getBoolean(i));
+                    break;
+                default:
+                    final Object value = fields.getValue(i);
+                    if (isSimpleType(value)) {
+                        jsonGenerator.writeObjectField(key, value);
+                    } else {
+                        jsonGenerator.writeFieldName(key);
+                        objectMapper.writeValue(
+                                jsonGenerator,
+                                value);
+                    }
+            }
+        }
+    }
+
     /**
      * Write a <code>Throwable</code> via <code>IThrowableProxy</code> as JSON.
      *
@@ -282,41 +360,7 @@ public final class StenoSerializationHelper {
             final List<String> contextKeys,
             final List<Object> contextValues) {
 
-        final Map<String, Object> context = new LinkedHashMap<>();
-        if (encoder.isInjectContextHost()) {
-            context.put("host", StenoSerializationHelper.HOST_CONVERTER.convert(event));
-        }
-        if (encoder.isInjectContextProcess()) {
-            context.put("processId", StenoSerializationHelper.PROCESS_CONVERTER.convert(event));
-        }
-        if (encoder.isInjectContextThread()) {
-            context.put("threadId", StenoSerializationHelper.THREAD_CONVERTER.convert(event));
-        }
-        if (encoder.isInjectContextLogger()) {
-            if (encoder.isCompressLoggerName()) {
-                context.put("logger", StenoSerializationHelper.CONDENSED_LOGGER_CONVERTER.convert(event));
-            } else {
-                context.put("logger", StenoSerializationHelper.LOGGER_CONVERTER.convert(event));
-            }
-        }
-        if (encoder.isInjectContextFile()) {
-            context.put("file", StenoSerializationHelper.FILE_CONVERTER.convert(event));
-        }
-        if (encoder.isInjectContextClass()) {
-            context.put("class", StenoSerializationHelper.CLASS_CONVERTER.convert(event));
-        }
-        if (encoder.isInjectContextMethod()) {
-            context.put("method", StenoSerializationHelper.METHOD_CONVERTER.convert(event));
-        }
-        if (encoder.isInjectContextLine()) {
-            context.put("line", StenoSerializationHelper.LINE_CONVERTER.convert(event));
-        }
-        final Iterator<String> injectContextMdcIterator = encoder.iteratorForInjectContextMdc();
-        while (injectContextMdcIterator.hasNext()) {
-            final String key = injectContextMdcIterator.next();
-            final String value = event.getMDCPropertyMap().get(key);
-            context.put(key, value);
-        }
+        final Map<String, Object> context = createInjectedContext(encoder, event);
         if (contextKeys != null) {
             final int contextValuesLength = contextValues == null ? 0 : contextValues.size();
             for (int i = 0; i < contextKeys.size(); ++i) {
@@ -328,6 +372,29 @@ public final class StenoSerializationHelper {
         return context;
     }
 
+    /**
+     * Create a context based on the <code>StenoEncoder</code> configuration.
+     *
+     * @since 1.16.0
+     * @param encoder The <code>StenoEncoder</code> instance.
+     * @param event The <code>ILoggingEvent</code> instance.
+     * @param objectMapper <code>ObjectMapper</code> instance.
+     * @param contextFields The additional user provided context key-value pairs.
+     * @return <code>Map</code> with event context.
+     */
+    public static Map<String, Object> createContext(
+            final StenoEncoder encoder,
+            final ILoggingEvent event,
+            final ObjectMapper objectMapper,
+            final StenoPayload.Fields contextFields) {
+
+        final Map<String, Object> context = createInjectedContext(encoder, event);
+        for (int i = 0; i < contextFields.size(); ++i) {
+            context.put(contextFields.getKey(i), contextFields.getValue(i));
+        }
+        return context;
+    }
+
     /**
      * Create a Steno compatible identifier.
      *
@@ -367,6 +434,61 @@ public final class StenoSerializationHelper {
         return false;
     }
 
+    private static Map<String, Object> createInjectedContext(final StenoEncoder encoder, final ILoggingEvent event) {
+        final Map<String, Object> context = new LinkedHashMap<>();
+        // Events without a level are treated as the highest level so that all enabled context is injected
+        final Level level = Optional.ofNullable(event.getLevel()).orElse(Level.OFF);
+        if (encoder.isInjectContextHost() && level.isGreaterOrEqual(encoder.getInjectContextHostMinLevel())) {
+            context.put("host", StenoSerializationHelper.HOST_CONVERTER.convert(event));
+        }
+        if (encoder.isInjectContextProcess() && level.isGreaterOrEqual(encoder.getInjectContextProcessMinLevel())) {
+            context.put("processId", StenoSerializationHelper.PROCESS_CONVERTER.convert(event));
+        }
+        if (encoder.isInjectContextThread() && level.isGreaterOrEqual(encoder.getInjectContextThreadMinLevel())) {
+            context.put("threadId", StenoSerializationHelper.THREAD_CONVERTER.convert(event));
+        }
+        if (encoder.isInjectContextLogger() && level.isGreaterOrEqual(encoder.getInjectContextLoggerMinLevel())) {
+            if (encoder.isCompressLoggerName()) {
+                context.put("logger", StenoSerializationHelper.CONDENSED_LOGGER_CONVERTER.convert(event));
+            } else {
+                context.put("logger", StenoSerializationHelper.LOGGER_CONVERTER.convert(event));
+            }
+        }
+        if (encoder.isInjectContextFile() && level.isGreaterOrEqual(encoder.getInjectContextFileMinLevel())) {
+            context.put("file", StenoSerializationHelper.FILE_CONVERTER.convert(event));
+        }
+        if (encoder.isInjectContextClass() && level.isGreaterOrEqual(encoder.getInjectContextClassMinLevel())) {
+            context.put("class", StenoSerializationHelper.CLASS_CONVERTER.convert(event));
+        }
+        if (encoder.isInjectContextMethod() && level.isGreaterOrEqual(encoder.getInjectContextMethodMinLevel())) {
+            context.put("method", StenoSerializationHelper.METHOD_CONVERTER.convert(event));
+        }
+        if (encoder.isInjectContextLine() && level.isGreaterOrEqual(encoder.getInjectContextLineMinLevel())) {
+            context.put("line", StenoSerializationHelper.LINE_CONVERTER.convert(event));
+        }
+        final Iterator<String> injectContextMdcIterator = encoder.iteratorForInjectContextMdc();
+        while (injectContextMdcIterator.hasNext() && level.isGreaterOrEqual(encoder.getInjectContextMdcMinLevel())) {
+            final String key = injectContextMdcIterator.next();
+            final String value = event.getMDCPropertyMap().get(key);
+            context.put(key, value);
+        }
+        return context;
+    }
+
+    private static void writeContextAndEnd(
+            final Map<String, Object> context,
+            final JsonGenerator jsonGenerator,
+            final ObjectMapper objectMapper)
+            throws IOException {
+        jsonGenerator.writeFieldName("context");
+        objectMapper.writeValue(jsonGenerator, context);
+        jsonGenerator.writeObjectField("id", StenoSerializationHelper.createId());
+        jsonGenerator.writeObjectField("version", "0");
+        jsonGenerator.writeEndObject(); // End log message
+        jsonGenerator.writeRaw('\n');
+        jsonGenerator.flush();
+    }
+
     /**
      * Converter for host.
      * @since 1.7.0
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.serialization.steno;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.arpnetworking.logback.StenoEncoder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Marker;
+
+/**
+ * Interface for serialization strategies plugged into <code>StenoEncoder</code>.
+ * Events carrying the strategy's <code>Marker</code> are dispatched to it; the
+ * encoder writes the Steno wrapper including the throwable and context and the
+ * strategy writes only the fields of the <code>data</code> object. Strategies
+ * are registered either with {@link StenoEncoder#addSerializationStrategy} or
+ * from logback configuration:
+ *
+ * <pre>{@code
+ * <encoder class="com.arpnetworking.logback.StenoEncoder">
+ *   <serializationStrategy class="com.example.ProtobufSerializationStrategy"/>
+ * </encoder>
+ * }</pre>
+ *
+ * The <code>Marker</code> should be a singleton such as one obtained from
+ * <code>MarkerFactory.getMarker</code> since events are dispatched by the
+ * identity of their <code>Marker</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.16.0
+ */
+public interface StenoSerializationStrategy {
+
+    /**
+     * The <code>Marker</code> identifying events serialized by this strategy.
+     *
+     * @return The <code>Marker</code> instance.
+     */
+    Marker getMarker();
+
+    /**
+     * The name of this strategy used in encoder metrics.
+     *
+     * @return The name of this strategy.
+     */
+    String getName();
+
+    /**
+     * Write the fields of the <code>data</code> object for an event. The
+     * <code>data</code> object has already been started and is ended by the
+     * caller.
+     *
+     * @param event The event.
+     * @param argumentArray The arguments of the event.
+     * @param jsonGenerator The <code>JsonGenerator</code> to write to.
+     * @param objectMapper The encoder's <code>ObjectMapper</code>.
+     * @param encoder The <code>StenoEncoder</code> instance.
+     * @throws Exception Serialization may throw any <code>Exception</code>.
+     */
+    void serializeData(
+            ILoggingEvent event,
+            Object[] argumentArray,
+            JsonGenerator jsonGenerator,
+            ObjectMapper objectMapper,
+            StenoEncoder encoder)
+            throws Exception;
+}
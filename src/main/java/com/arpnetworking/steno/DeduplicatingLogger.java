@@ -0,0 +1,323 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import com.arpnetworking.logback.StenoPayload;
+
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Extension of Steno logger designed for use particularly with Steno encoder
+ * while also suppressing duplicate log events. Events are fingerprinted by
+ * level, event name, message and <code>Throwable</code> class. The first
+ * event with a fingerprint is logged and any repeats within the window are
+ * suppressed. Once the window ends a single summary event is logged for the
+ * fingerprint with the event name and message and the data
+ * <code>_count</code>, <code>_firstSeen</code> and <code>_lastSeen</code>,
+ * plus <code>_throwableClass</code> if the events had a
+ * <code>Throwable</code>. No summary is logged if there were no repeats.
+ *
+ * Fingerprints are kept in a fixed size open addressing table updated with
+ * compare-and-set so callers never block. Counting a repeat and retiring an
+ * entry for its summary race on the same compare-and-set so that a repeat is
+ * either included in the summary or starts a new window. The fingerprint uses only the
+ * hash code and equality of the message and never serializes the data. If
+ * the table is full along a fingerprint's probe sequence the event is logged
+ * without deduplication. Summaries for windows without a subsequent event are
+ * logged by a shared daemon thread. This class is thread safe.
+ *
+ * @since 1.16.0
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+/* package private */ class DeduplicatingLogger extends Logger {
+
+    /**
+     * Log for a particular level using the <code>ARRAY_MARKER</code>.
+     *
+     * @param level The log event level.
+     * @param event The log event name.
+     * @param keys The array of data keys including the message key.
+     * @param values The array of data values including the message.
+     * @param throwable The <code>Throwable</code>.
+     */
+    @Override
+    /* package private */ void log(
+            final LogLevel level,
+            final String event,
+            final String[] keys,
+            final Object[] values,
+            final Throwable throwable) {
+        Object message = null;
+        for (int i = 0; i < keys.length; ++i) {
+            if (MESSAGE_DATA_KEY.equals(keys[i])) {
+                message = values[i];
+                break;
+            }
+        }
+        if (shouldLog(level, event, message, throwable)) {
+            super.log(level, event, keys, values, throwable);
+        }
+    }
+
+    /**
+     * Log for a particular level using the <code>PAYLOAD_MARKER</code>.
+     *
+     * @param level The log event level.
+     * @param event The log event name.
+     * @param payload The <code>StenoPayload</code> of data and context.
+     * @param throwable The <code>Throwable</code>.
+     */
+    @Override
+    /* package private */ void log(
+            final LogLevel level,
+            final String event,
+            final StenoPayload payload,
+            final Throwable throwable) {
+        final StenoPayload.Fields data = payload.getData();
+        Object message = null;
+        for (int i = 0; i < data.size(); ++i) {
+            if (MESSAGE_DATA_KEY.equals(data.getKey(i))) {
+                message = data.getValue(i);
+                break;
+            }
+        }
+        if (shouldLog(level, event, message, throwable)) {
+            super.log(level, event, payload, throwable);
+        }
+    }
+
+    /**
+     * Log summaries for and discard all fingerprints whose window has ended.
+     */
+    /* package private */ void sweep() {
+        final long now = _clock.millis();
+        final UnaryOperator<Entry> expire = entry -> entry != null && entry.isExpired(now) ? null : entry;
+        for (int i = 0; i < _table.length(); ++i) {
+            final Entry previous = _table.getAndUpdate(i, expire);
+            if (previous != null && previous.isExpired(now)) {
+                retire(previous);
+            }
+        }
+    }
+
+    /* package private */ DeduplicatingLogger(final org.slf4j.Logger slf4jLogger, final Duration window) {
+        this(slf4jLogger, window, Clock.systemUTC(), SWEEPER_EXECUTOR);
+    }
+
+    /* package private */ DeduplicatingLogger(
+            final org.slf4j.Logger slf4jLogger,
+            final Duration window,
+            final Clock clock,
+            final ScheduledExecutorService executor) {
+        super(slf4jLogger);
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        _windowMillis = Math.max(1, window.toMillis());
+        _clock = clock;
+        if (executor != null) {
+            final Sweeper sweeper = new Sweeper(new WeakReference<>(this));
+            sweeper.setFuture(executor.scheduleAtFixedRate(
+                    sweeper,
+                    _windowMillis,
+                    _windowMillis,
+                    TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private boolean shouldLog(
+            final LogLevel level,
+            final String event,
+            final Object message,
+            final Throwable throwable) {
+        final Class<?> throwableClass = throwable == null ? null : throwable.getClass();
+        final int hash = hash(level, event, message, throwableClass);
+        final long now = _clock.millis();
+        final UnaryOperator<Entry> claim = entry ->
+                entry == null || (entry.matches(level, event, message, throwableClass) && entry.isExpired(now))
+                        ? new Entry(level, event, message, throwableClass, now, now + _windowMillis)
+                        : entry;
+        int probe = 0;
+        while (probe < MAXIMUM_PROBES) {
+            final int index = (hash + probe) & (TABLE_SIZE - 1);
+            final Entry previous = _table.getAndUpdate(index, claim);
+            if (previous == null) {
+                // New fingerprint
+                return true;
+            }
+            if (previous.matches(level, event, message, throwableClass)) {
+                if (previous.isExpired(now)) {
+                    // New window for an existing fingerprint
+                    retire(previous);
+                    return true;
+                }
+                if (previous.suppress(now)) {
+                    return false;
+                }
+                // The entry was retired concurrently so claim the slot again
+                continue;
+            }
+            ++probe;
+        }
+        // Do not deduplicate when the probe sequence is full
+        return true;
+    }
+
+    private void retire(final Entry entry) {
+        final long count = entry.retire();
+        if (count > 1) {
+            final boolean hasThrowable = entry._throwableClass != null;
+            final String[] keys = hasThrowable ? new String[5] : new String[4];
+            final Object[] values = new Object[keys.length];
+            keys[0] = MESSAGE_DATA_KEY;
+            values[0] = entry._message;
+            keys[1] = "_count";
+            values[1] = count;
+            keys[2] = "_firstSeen";
+            values[2] = Instant.ofEpochMilli(entry._firstSeen);
+            keys[3] = "_lastSeen";
+            values[3] = Instant.ofEpochMilli(entry._lastSeen.get());
+            if (hasThrowable) {
+                keys[4] = "_throwableClass";
+                values[4] = entry._throwableClass.getName();
+            }
+            super.log(entry._level, entry._event, keys, values, null);
+        }
+    }
+
+    /* package private */ static int hash(
+            final LogLevel level,
+            final String event,
+            final Object message,
+            final Class<?> throwableClass) {
+        int h = 31 * (31 * (31 * level.ordinal() + Objects.hashCode(event)) + Objects.hashCode(message))
+                + Objects.hashCode(throwableClass);
+        // Spread the bits since the table index uses only the low bits
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private final long _windowMillis;
+    private final Clock _clock;
+    private final AtomicReferenceArray<Entry> _table = new AtomicReferenceArray<>(TABLE_SIZE);
+
+    private static final int MAXIMUM_PROBES = 8;
+    private static final ScheduledExecutorService SWEEPER_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "steno-deduplicating-logger-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /* package private */ static final int TABLE_SIZE = 1024;
+
+    private static final class Entry {
+
+        private Entry(
+                final LogLevel level,
+                final String event,
+                final Object message,
+                final Class<?> throwableClass,
+                final long firstSeen,
+                final long windowEnd) {
+            _level = level;
+            _event = event;
+            _message = message;
+            _throwableClass = throwableClass;
+            _firstSeen = firstSeen;
+            _windowEnd = windowEnd;
+            _lastSeen = new AtomicLong(firstSeen);
+        }
+
+        private boolean matches(
+                final LogLevel level,
+                final String event,
+                final Object message,
+                final Class<?> throwableClass) {
+            return _level == level
+                    && _throwableClass == throwableClass
+                    && Objects.equals(_event, event)
+                    && Objects.equals(_message, message);
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= _windowEnd;
+        }
+
+        private boolean suppress(final long now) {
+            // Update last seen first so that it covers every counted occurrence
+            _lastSeen.accumulateAndGet(now, Math::max);
+            return _count.getAndUpdate(count -> count == RETIRED ? RETIRED : count + 1) != RETIRED;
+        }
+
+        private long retire() {
+            return _count.getAndSet(RETIRED);
+        }
+
+        private final LogLevel _level;
+        private final String _event;
+        private final Object _message;
+        private final Class<?> _throwableClass;
+        private final long _firstSeen;
+        private final long _windowEnd;
+        private final AtomicLong _count = new AtomicLong(1);
+        private final AtomicLong _lastSeen;
+
+        private static final long RETIRED = -1;
+    }
+
+    /**
+     * Periodically sweeps a <code>DeduplicatingLogger</code> without
+     * preventing it from being garbage collected.
+     */
+    /* package private */ static final class Sweeper implements Runnable {
+
+        @Override
+        public void run() {
+            final DeduplicatingLogger logger = _logger.get();
+            if (logger == null) {
+                _future.get().cancel(false);
+            } else {
+                logger.sweep();
+            }
+        }
+
+        /* package private */ void setFuture(final Future<?> future) {
+            _future.set(future);
+        }
+
+        /* package private */ Sweeper(final WeakReference<DeduplicatingLogger> logger) {
+            _logger = logger;
+        }
+
+        private final WeakReference<DeduplicatingLogger> _logger;
+        private final AtomicReference<Future<?>> _future = new AtomicReference<>();
+    }
+}
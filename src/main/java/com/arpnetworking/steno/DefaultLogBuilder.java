@@ -15,10 +15,9 @@
  */
 package com.arpnetworking.steno;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import com.arpnetworking.logback.StenoPayload;
+
+import java.util.function.Supplier;
 
 /**
  * Class facilitates type-safe construction of a Steno log message. Instances
@@ -62,10 +61,70 @@ public class DefaultLogBuilder implements LogBuilder {
      */
     @Override
     public DefaultLogBuilder addData(final String name, final Object value) {
-        if (_data == null) {
-            _data = new LinkedHashMap<>();
-        }
-        _data.put(name, value);
+        _data.putObject(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addData(final String name, final long value) {
+        _data.putLong(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addData(final String name, final int value) {
+        _data.putInt(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addData(final String name, final double value) {
+        _data.putDouble(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addData(final String name, final float value) {
+        _data.putFloat(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addData(final String name, final boolean value) {
+        _data.putBoolean(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addData(final String name, final char value) {
+        _data.putObject(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addData(final String name, final Supplier<?> value) {
+        _data.putObject(name, value);
         return this;
     }
 
@@ -74,10 +133,7 @@ public class DefaultLogBuilder implements LogBuilder {
      */
     @Override
     public DefaultLogBuilder addContext(final String name, final Object value) {
-        if (_context == null) {
-            _context = new LinkedHashMap<>();
-        }
-        _context.put(name, value);
+        _context.putObject(name, value);
         return this;
     }
 
@@ -85,31 +141,74 @@ public class DefaultLogBuilder implements LogBuilder {
      * {@inheritDoc}
      */
     @Override
-    public void log() {
-        // TODO(vkoskela): Add STENO_MAPS_MARKER and convert to it. [ISSUE-12]
-        List<String> dataKeys = null;
-        List<Object> dataValues = null;
-        List<String> contextKeys = null;
-        List<Object> contextValues = null;
-
-        if (_data != null) {
-            dataKeys = new ArrayList<>();
-            dataValues = new ArrayList<>();
-            populateKeyValueLists(_data, dataKeys, dataValues);
-        }
-        if (_context != null) {
-            contextKeys = new ArrayList<>();
-            contextValues = new ArrayList<>();
-            populateKeyValueLists(_context, contextKeys, contextValues);
-        }
+    public DefaultLogBuilder addContext(final String name, final long value) {
+        _context.putLong(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addContext(final String name, final int value) {
+        _context.putInt(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addContext(final String name, final double value) {
+        _context.putDouble(name, value);
+        return this;
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addContext(final String name, final float value) {
+        _context.putFloat(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addContext(final String name, final boolean value) {
+        _context.putBoolean(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addContext(final String name, final char value) {
+        _context.putObject(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DefaultLogBuilder addContext(final String name, final Supplier<?> value) {
+        _context.putObject(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void log() {
         _logger.log(
                 _level,
                 _event,
-                dataKeys,
-                dataValues,
-                contextKeys,
-                contextValues,
+                new StenoPayload(_data.build(), _context.build()),
                 _throwable);
     }
 
@@ -127,13 +226,6 @@ public class DefaultLogBuilder implements LogBuilder {
                 + "}";
     }
 
-    private void populateKeyValueLists(final Map<String, Object> map, final List<String> keys, final List<Object> values) {
-        for (final Map.Entry<String, Object> entry : map.entrySet()) {
-            keys.add(entry.getKey());
-            values.add(entry.getValue());
-        }
-    }
-
     /* package private */ DefaultLogBuilder(final Logger logger, final LogLevel level) {
         _logger = logger;
         _level = level;
@@ -143,6 +235,6 @@ public class DefaultLogBuilder implements LogBuilder {
     private final LogLevel _level;
     private String _event = null;
     private Throwable _throwable = null;
-    private Map<String, Object> _data = null;
-    private Map<String, Object> _context = null;
+    private final StenoPayload.Fields.Builder _data = new StenoPayload.Fields.Builder();
+    private final StenoPayload.Fields.Builder _context = new StenoPayload.Fields.Builder();
 }
@@ -15,6 +15,8 @@
  */
 package com.arpnetworking.steno;
 
+import java.util.function.Supplier;
+
 /**
  * Interface for classes which assemble log messages where the actual logging
  * is deferred.
@@ -74,4 +76,194 @@ public interface DeferredLogBuilder {
      * @return This instance as {@code <T>}.
      */
     DeferredLogBuilder addContext(String name, Object value);
+
+    /**
+     * Add data key-value pair with a <code>long</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addData(final String name, final long value) {
+        return addData(name, (Object) value);
+    }
+
+    /**
+     * Add data key-value pair with an <code>int</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addData(final String name, final int value) {
+        return addData(name, (Object) value);
+    }
+
+    /**
+     * Add data key-value pair with a <code>double</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addData(final String name, final double value) {
+        return addData(name, (Object) value);
+    }
+
+    /**
+     * Add data key-value pair with a <code>float</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addData(final String name, final float value) {
+        return addData(name, (Object) value);
+    }
+
+    /**
+     * Add data key-value pair with a <code>boolean</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addData(final String name, final boolean value) {
+        return addData(name, (Object) value);
+    }
+
+    /**
+     * Add data key-value pair with a <code>char</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addData(final String name, final char value) {
+        return addData(name, (Object) value);
+    }
+
+    /**
+     * Add data key-value pair with a <code>Supplier</code> value. The value is
+     * only supplied if and when the event is encoded, which may be on another
+     * thread (e.g. with an asynchronous appender) and after this method
+     * returns. The <code>Supplier</code> must therefore be thread safe and
+     * should not depend on state which may change in the meantime.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value <code>Supplier</code>.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addData(final String name, final Supplier<?> value) {
+        return addData(name, (Object) value);
+    }
+
+    /**
+     * Add context key-value pair with a <code>long</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addContext(final String name, final long value) {
+        return addContext(name, (Object) value);
+    }
+
+    /**
+     * Add context key-value pair with an <code>int</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addContext(final String name, final int value) {
+        return addContext(name, (Object) value);
+    }
+
+    /**
+     * Add context key-value pair with a <code>double</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addContext(final String name, final double value) {
+        return addContext(name, (Object) value);
+    }
+
+    /**
+     * Add context key-value pair with a <code>float</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addContext(final String name, final float value) {
+        return addContext(name, (Object) value);
+    }
+
+    /**
+     * Add context key-value pair with a <code>boolean</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addContext(final String name, final boolean value) {
+        return addContext(name, (Object) value);
+    }
+
+    /**
+     * Add context key-value pair with a <code>char</code> value.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addContext(final String name, final char value) {
+        return addContext(name, (Object) value);
+    }
+
+    /**
+     * Add context key-value pair with a <code>Supplier</code> value. The value is
+     * only supplied if and when the event is encoded, which may be on another
+     * thread (e.g. with an asynchronous appender) and after this method
+     * returns. The <code>Supplier</code> must therefore be thread safe and
+     * should not depend on state which may change in the meantime.
+     *
+     * @since 1.16.0
+     *
+     * @param name The key.
+     * @param value The value <code>Supplier</code>.
+     * @return This instance as {@code <T>}.
+     */
+    default DeferredLogBuilder addContext(final String name, final Supplier<?> value) {
+        return addContext(name, (Object) value);
+    }
 }
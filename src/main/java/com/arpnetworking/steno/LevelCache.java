@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import ch.qos.logback.classic.turbo.TurboFilter;
+
+import java.util.List;
+
+/**
+ * Caches the effective level of a Logback <code>Logger</code>. The cached value
+ * is cleared by <code>LoggerRegistry</code> whenever the owning
+ * <code>LoggerContext</code> reports a level change, reset, start or stop.
+ *
+ * Logback does not publish changes to its turbo filters and a filter may decide
+ * differently for each call; therefore, the cache is only consulted while no
+ * turbo filter is installed. In that case checking a level costs a read of the
+ * turbo filter list and a volatile read of the cached level. Otherwise, the
+ * check is delegated to the underlying Logback <code>Logger</code> which
+ * evaluates the filters on every call.
+ *
+ * This class is thread safe.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+/* package private */ final class LevelCache {
+
+    /**
+     * Determine whether the specified level is enabled.
+     *
+     * @param level The <code>LogLevel</code> to check.
+     * @return True if and only if the level is enabled.
+     */
+    public boolean isEnabled(final LogLevel level) {
+        if (!_turboFilters.isEmpty()) {
+            return level.isEnabled(_logger);
+        }
+        final int threshold = _threshold;
+        if (threshold != UNCACHED) {
+            return level.getLevelInt() >= threshold;
+        }
+        return level.getLevelInt() >= refresh();
+    }
+
+    /**
+     * Discard the cached effective level. The next check will recompute it.
+     */
+    public synchronized void invalidate() {
+        _threshold = UNCACHED;
+    }
+
+    /* package private */ boolean isCached() {
+        return _threshold != UNCACHED;
+    }
+
+    private synchronized int refresh() {
+        // Synchronizing with invalidate ensures a level change that races
+        // with this computation is either observed or invalidates it afterwards
+        final int threshold = _logger.getEffectiveLevel().toInt();
+        _threshold = threshold;
+        return threshold;
+    }
+
+    /* package private */ LevelCache(final ch.qos.logback.classic.Logger logger) {
+        _logger = logger;
+        _turboFilters = logger.getLoggerContext().getTurboFilterList();
+    }
+
+    private final ch.qos.logback.classic.Logger _logger;
+    private final List<TurboFilter> _turboFilters;
+    private volatile int _threshold = UNCACHED;
+
+    private static final int UNCACHED = Integer.MIN_VALUE;
+}
@@ -15,8 +15,12 @@
  */
 package com.arpnetworking.steno;
 
+import ch.qos.logback.classic.Level;
+import com.arpnetworking.logback.CallSite;
 import com.arpnetworking.logback.StenoMarker;
+import com.arpnetworking.logback.StenoPayload;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,7 +31,7 @@ import java.util.List;
  * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
  */
 /* package private */ enum LogLevel {
-    TRACE {
+    TRACE(Level.TRACE_INT) {
         @Override
         public void log(
                 final org.slf4j.Logger logger,
@@ -35,12 +39,13 @@ import java.util.List;
                 final String[] keys,
                 final Object[] values,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.trace(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
-                } else {
-                    logger.trace(StenoMarker.ARRAY_MARKER, event, keys, values);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.trace(StenoMarker.ARRAY_MARKER, event, withCallSite(callSite, throwable, keys, values));
+            } else if (throwable != null) {
+                logger.trace(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
+            } else {
+                logger.trace(StenoMarker.ARRAY_MARKER, event, keys, values);
             }
         }
 
@@ -53,12 +58,32 @@ import java.util.List;
                 final List<String> contextKeys,
                 final List<Object> contextValues,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.trace(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
-                } else {
-                    logger.trace(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.trace(
+                        StenoMarker.LISTS_MARKER,
+                        event,
+                        withCallSite(callSite, throwable, dataKeys, dataValues, contextKeys, contextValues));
+            } else if (throwable != null) {
+                logger.trace(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
+            } else {
+                logger.trace(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
+            }
+        }
+
+        @Override
+        public void log(
+                final org.slf4j.Logger logger,
+                final String event,
+                final StenoPayload payload,
+                final Throwable throwable) {
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.trace(StenoMarker.PAYLOAD_MARKER, event, withCallSite(callSite, throwable, payload));
+            } else if (throwable != null) {
+                logger.trace(StenoMarker.PAYLOAD_MARKER, event, payload, throwable);
+            } else {
+                logger.trace(StenoMarker.PAYLOAD_MARKER, event, payload);
             }
         }
 
@@ -67,7 +92,7 @@ import java.util.List;
             return logger.isTraceEnabled();
         }
     },
-    DEBUG {
+    DEBUG(Level.DEBUG_INT) {
         @Override
         public void log(
                 final org.slf4j.Logger logger,
@@ -75,12 +100,13 @@ import java.util.List;
                 final String[] keys,
                 final Object[] values,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.debug(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
-                } else {
-                    logger.debug(StenoMarker.ARRAY_MARKER, event, keys, values);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.debug(StenoMarker.ARRAY_MARKER, event, withCallSite(callSite, throwable, keys, values));
+            } else if (throwable != null) {
+                logger.debug(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
+            } else {
+                logger.debug(StenoMarker.ARRAY_MARKER, event, keys, values);
             }
         }
 
@@ -93,12 +119,32 @@ import java.util.List;
                 final List<String> contextKeys,
                 final List<Object> contextValues,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.debug(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
-                } else {
-                    logger.debug(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.debug(
+                        StenoMarker.LISTS_MARKER,
+                        event,
+                        withCallSite(callSite, throwable, dataKeys, dataValues, contextKeys, contextValues));
+            } else if (throwable != null) {
+                logger.debug(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
+            } else {
+                logger.debug(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
+            }
+        }
+
+        @Override
+        public void log(
+                final org.slf4j.Logger logger,
+                final String event,
+                final StenoPayload payload,
+                final Throwable throwable) {
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.debug(StenoMarker.PAYLOAD_MARKER, event, withCallSite(callSite, throwable, payload));
+            } else if (throwable != null) {
+                logger.debug(StenoMarker.PAYLOAD_MARKER, event, payload, throwable);
+            } else {
+                logger.debug(StenoMarker.PAYLOAD_MARKER, event, payload);
             }
         }
 
@@ -107,7 +153,7 @@ import java.util.List;
             return logger.isDebugEnabled();
         }
     },
-    INFO {
+    INFO(Level.INFO_INT) {
         @Override
         public void log(
                 final org.slf4j.Logger logger,
@@ -115,12 +161,13 @@ import java.util.List;
                 final String[] keys,
                 final Object[] values,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.info(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
-                } else {
-                    logger.info(StenoMarker.ARRAY_MARKER, event, keys, values);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.info(StenoMarker.ARRAY_MARKER, event, withCallSite(callSite, throwable, keys, values));
+            } else if (throwable != null) {
+                logger.info(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
+            } else {
+                logger.info(StenoMarker.ARRAY_MARKER, event, keys, values);
             }
         }
 
@@ -133,12 +180,32 @@ import java.util.List;
                 final List<String> contextKeys,
                 final List<Object> contextValues,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.info(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
-                } else {
-                    logger.info(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.info(
+                        StenoMarker.LISTS_MARKER,
+                        event,
+                        withCallSite(callSite, throwable, dataKeys, dataValues, contextKeys, contextValues));
+            } else if (throwable != null) {
+                logger.info(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
+            } else {
+                logger.info(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
+            }
+        }
+
+        @Override
+        public void log(
+                final org.slf4j.Logger logger,
+                final String event,
+                final StenoPayload payload,
+                final Throwable throwable) {
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.info(StenoMarker.PAYLOAD_MARKER, event, withCallSite(callSite, throwable, payload));
+            } else if (throwable != null) {
+                logger.info(StenoMarker.PAYLOAD_MARKER, event, payload, throwable);
+            } else {
+                logger.info(StenoMarker.PAYLOAD_MARKER, event, payload);
             }
         }
 
@@ -147,7 +214,7 @@ import java.util.List;
             return logger.isInfoEnabled();
         }
     },
-    WARN {
+    WARN(Level.WARN_INT) {
         @Override
         public void log(
                 final org.slf4j.Logger logger,
@@ -155,12 +222,13 @@ import java.util.List;
                 final String[] keys,
                 final Object[] values,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.warn(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
-                } else {
-                    logger.warn(StenoMarker.ARRAY_MARKER, event, keys, values);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.warn(StenoMarker.ARRAY_MARKER, event, withCallSite(callSite, throwable, keys, values));
+            } else if (throwable != null) {
+                logger.warn(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
+            } else {
+                logger.warn(StenoMarker.ARRAY_MARKER, event, keys, values);
             }
         }
 
@@ -173,12 +241,32 @@ import java.util.List;
                 final List<String> contextKeys,
                 final List<Object> contextValues,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.warn(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
-                } else {
-                    logger.warn(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.warn(
+                        StenoMarker.LISTS_MARKER,
+                        event,
+                        withCallSite(callSite, throwable, dataKeys, dataValues, contextKeys, contextValues));
+            } else if (throwable != null) {
+                logger.warn(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
+            } else {
+                logger.warn(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
+            }
+        }
+
+        @Override
+        public void log(
+                final org.slf4j.Logger logger,
+                final String event,
+                final StenoPayload payload,
+                final Throwable throwable) {
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.warn(StenoMarker.PAYLOAD_MARKER, event, withCallSite(callSite, throwable, payload));
+            } else if (throwable != null) {
+                logger.warn(StenoMarker.PAYLOAD_MARKER, event, payload, throwable);
+            } else {
+                logger.warn(StenoMarker.PAYLOAD_MARKER, event, payload);
             }
         }
 
@@ -187,7 +275,7 @@ import java.util.List;
             return logger.isWarnEnabled();
         }
     },
-    ERROR {
+    ERROR(Level.ERROR_INT) {
         @Override
         public void log(
                 final org.slf4j.Logger logger,
@@ -195,12 +283,13 @@ import java.util.List;
                 final String[] keys,
                 final Object[] values,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.error(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
-                } else {
-                    logger.error(StenoMarker.ARRAY_MARKER, event, keys, values);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.error(StenoMarker.ARRAY_MARKER, event, withCallSite(callSite, throwable, keys, values));
+            } else if (throwable != null) {
+                logger.error(StenoMarker.ARRAY_MARKER, event, keys, values, throwable);
+            } else {
+                logger.error(StenoMarker.ARRAY_MARKER, event, keys, values);
             }
         }
 
@@ -213,12 +302,32 @@ import java.util.List;
                 final List<String> contextKeys,
                 final List<Object> contextValues,
                 final Throwable throwable) {
-            if (isEnabled(logger)) {
-                if (throwable != null) {
-                    logger.error(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
-                } else {
-                    logger.error(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
-                }
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.error(
+                        StenoMarker.LISTS_MARKER,
+                        event,
+                        withCallSite(callSite, throwable, dataKeys, dataValues, contextKeys, contextValues));
+            } else if (throwable != null) {
+                logger.error(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues, throwable);
+            } else {
+                logger.error(StenoMarker.LISTS_MARKER, event, dataKeys, dataValues, contextKeys, contextValues);
+            }
+        }
+
+        @Override
+        public void log(
+                final org.slf4j.Logger logger,
+                final String event,
+                final StenoPayload payload,
+                final Throwable throwable) {
+            final CallSite callSite = CallSite.current();
+            if (callSite != null) {
+                logger.error(StenoMarker.PAYLOAD_MARKER, event, withCallSite(callSite, throwable, payload));
+            } else if (throwable != null) {
+                logger.error(StenoMarker.PAYLOAD_MARKER, event, payload, throwable);
+            } else {
+                logger.error(StenoMarker.PAYLOAD_MARKER, event, payload);
             }
         }
 
@@ -244,5 +353,36 @@ import java.util.List;
             final List<Object> contextValues,
             final Throwable throwable);
 
+    public abstract void log(
+            final org.slf4j.Logger logger,
+            final String event,
+            final StenoPayload payload,
+            final Throwable throwable);
+
     public abstract boolean isEnabled(final org.slf4j.Logger logger);
+
+    /**
+     * Return the Logback integer representation of this level.
+     *
+     * @return The Logback integer representation of this level.
+     */
+    public int getLevelInt() {
+        return _levelInt;
+    }
+
+    LogLevel(final int levelInt) {
+        _levelInt = levelInt;
+    }
+
+    private static Object[] withCallSite(final CallSite callSite, final Throwable throwable, final Object... arguments) {
+        // The call site precedes the throwable which Logback expects last
+        final Object[] augmentedArguments = Arrays.copyOf(arguments, arguments.length + (throwable == null ? 1 : 2));
+        augmentedArguments[arguments.length] = callSite;
+        if (throwable != null) {
+            augmentedArguments[arguments.length + 1] = throwable;
+        }
+        return augmentedArguments;
+    }
+
+    private final int _levelInt;
 }
@@ -22,6 +22,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -33,6 +35,10 @@ import java.util.Optional;
  * keys or values and adds keys "_nullKeys" and/or "_nullValues" with value
  * true. If no null keys/values are found then no additional data is inserted.
  *
+ * The maps are backed by flat arrays of keys and values and are serialized by
+ * the <code>StenoEncoder</code> directly from those arrays, so creating and
+ * logging a map does not allocate any hash table or require reflection.
+ *
  * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
  * @since 1.7.0
  */
@@ -74,7 +80,7 @@ public final class LogValueMapFactory {
      * @return New <code>LogValueMap</code>.
      */
     public static LogValueMap of(final String k1, final Object v1) {
-        return builder()
+        return new Builder(Optional.empty(), 1)
                 .put(k1, v1)
                 .build();
     }
@@ -94,7 +100,7 @@ public final class LogValueMapFactory {
     public static LogValueMap of(
             final String k1, final Object v1,
             final String k2, final Object v2) {
-        return builder()
+        return new Builder(Optional.empty(), 2)
                 .put(k1, v1)
                 .put(k2, v2)
                 .build();
@@ -118,7 +124,7 @@ public final class LogValueMapFactory {
             final String k1, final Object v1,
             final String k2, final Object v2,
             final String k3, final Object v3) {
-        return builder()
+        return new Builder(Optional.empty(), 3)
                 .put(k1, v1)
                 .put(k2, v2)
                 .put(k3, v3)
@@ -147,7 +153,7 @@ public final class LogValueMapFactory {
             final String k2, final Object v2,
             final String k3, final Object v3,
             final String k4, final Object v4) {
-        return builder()
+        return new Builder(Optional.empty(), 4)
                 .put(k1, v1)
                 .put(k2, v2)
                 .put(k3, v3)
@@ -181,7 +187,7 @@ public final class LogValueMapFactory {
             final String k3, final Object v3,
             final String k4, final Object v4,
             final String k5, final Object v5) {
-        return builder()
+        return new Builder(Optional.empty(), 5)
                 .put(k1, v1)
                 .put(k2, v2)
                 .put(k3, v3)
@@ -209,7 +215,22 @@ public final class LogValueMapFactory {
          */
         public LogValueMap(final Optional<Object> target, final Map<String, Object> data) {
             _target = target;
-            _data = data;
+            _size = data.size();
+            _keys = new String[_size];
+            _values = new Object[_size];
+            int index = 0;
+            for (final Map.Entry<String, Object> entry : data.entrySet()) {
+                _keys[index] = entry.getKey();
+                _values[index] = entry.getValue();
+                ++index;
+            }
+        }
+
+        private LogValueMap(final Optional<Object> target, final String[] keys, final Object[] values, final int size) {
+            _target = target;
+            _keys = keys;
+            _values = values;
+            _size = size;
         }
 
         @JsonIgnore
@@ -217,9 +238,56 @@ public final class LogValueMapFactory {
             return _target;
         }
 
+        /**
+         * Retrieve the data as an unmodifiable <code>Map</code>. The map is
+         * created on each invocation; use <code>size()</code>,
+         * <code>getKey(int)</code> and <code>getValue(int)</code> to access
+         * the data without allocation.
+         *
+         * @return The data as an unmodifiable <code>Map</code>.
+         */
         @JsonAnyGetter
         public Map<String, Object> getData() {
-            return _data;
+            final Map<String, Object> data = new LinkedHashMap<>();
+            for (int i = 0; i < _size; ++i) {
+                data.put(_keys[i], _values[i]);
+            }
+            return Collections.unmodifiableMap(data);
+        }
+
+        /**
+         * Retrieve the number of key-value pairs.
+         *
+         * @since 1.16.0
+         *
+         * @return The number of key-value pairs.
+         */
+        public int size() {
+            return _size;
+        }
+
+        /**
+         * Retrieve the key at an index in insertion order.
+         *
+         * @since 1.16.0
+         *
+         * @param index The index; must be less than <code>size()</code>.
+         * @return The key at the index.
+         */
+        public String getKey(final int index) {
+            return _keys[checkIndex(index)];
+        }
+
+        /**
+         * Retrieve the value at an index in insertion order.
+         *
+         * @since 1.16.0
+         *
+         * @param index The index; must be less than <code>size()</code>.
+         * @return The value at the index.
+         */
+        public Object getValue(final int index) {
+            return _values[checkIndex(index)];
         }
 
         /**
@@ -236,28 +304,37 @@ public final class LogValueMapFactory {
                         .append(_target.get().getClass().getName())
                         .append(" ");
             }
-            for (final Map.Entry<String, Object> entry : _data.entrySet()) {
-                builder.append(entry.getKey())
+            for (int i = 0; i < _size; ++i) {
+                builder.append(_keys[i])
                         .append("=")
-                        .append(entry.getValue().toString())
+                        .append(_values[i])
                         .append(" ");
             }
-            if (_target.isPresent() || !_data.isEmpty()) {
+            if (builder.length() > 1) {
                 builder.setLength(builder.length() - 1);
             }
             builder.append("}");
             return builder.toString();
         }
 
+        private int checkIndex(final int index) {
+            if (index >= _size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+            }
+            return index;
+        }
+
         private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
             in.defaultReadObject();
             _target = Optional.empty();
         }
 
         private transient Optional<Object> _target = Optional.empty();
-        private final Map<String, Object> _data;
+        private final String[] _keys;
+        private final Object[] _values;
+        private final int _size;
 
-        private static final long serialVersionUID = -2817278417438085513L;
+        private static final long serialVersionUID = 4137402183569406254L;
     }
 
     /**
@@ -275,7 +352,13 @@ public final class LogValueMapFactory {
          * @param target The target instance to build a log value map for.
          */
         private Builder(final Optional<Object> target) {
+            this(target, DEFAULT_CAPACITY);
+        }
+
+        private Builder(final Optional<Object> target, final int capacity) {
             _target = target;
+            _keys = new String[capacity];
+            _values = new Object[capacity];
         }
 
         /**
@@ -292,7 +375,9 @@ public final class LogValueMapFactory {
             if (_nullValues) {
                 put("_nullValues", true);
             }
-            return new LogValueMap(_target, _data);
+            // The arrays are shared with the map until the next modification
+            _shared = true;
+            return new LogValueMap(_target, _keys, _values, _size);
         }
 
         /**
@@ -300,7 +385,8 @@ public final class LogValueMapFactory {
          * null the entry is suppressed. If any entries are suppressed one or both of
          * "_nullKeys" and "_nullValues" will be inserted as keys with a value true
          * into the log value map. These indicate the suppression of one or more null
-         * keys or values respectively.
+         * keys or values respectively. If the key was already added its value is
+         * replaced.
          *
          * @since 1.7.0
          *
@@ -317,13 +403,33 @@ public final class LogValueMapFactory {
                 _nullValues = true;
                 return this;
             }
-            _data.put(key, value);
+            if (_shared || _size == _keys.length) {
+                final int capacity = _size == _keys.length ? Math.max(DEFAULT_CAPACITY, _size * 2) : _keys.length;
+                _keys = Arrays.copyOf(_keys, capacity);
+                _values = Arrays.copyOf(_values, capacity);
+                _shared = false;
+            }
+            // Maps are small so a linear scan is cheaper than hashing
+            for (int i = 0; i < _size; ++i) {
+                if (_keys[i].equals(key)) {
+                    _values[i] = value;
+                    return this;
+                }
+            }
+            _keys[_size] = key;
+            _values[_size] = value;
+            ++_size;
             return this;
         }
 
         private final Optional<Object> _target;
-        private final Map<String, Object> _data = new LinkedHashMap<>();
+        private String[] _keys;
+        private Object[] _values;
+        private int _size = 0;
+        private boolean _shared = false;
         private boolean _nullKeys = false;
         private boolean _nullValues = false;
+
+        private static final int DEFAULT_CAPACITY = 8;
     }
 }
@@ -15,6 +15,8 @@
  */
 package com.arpnetworking.steno;
 
+import com.arpnetworking.logback.StenoPayload;
+
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -30,6 +32,10 @@ import java.util.function.Consumer;
  * injection for Steno versus the general marker methods in the SFL4J
  * implementation.
  *
+ * Data and context values may be <code>java.util.function.Supplier</code>
+ * instances in which case the value is supplied only if and when the event
+ * is encoded by <code>StenoEncoder</code> or <code>KeyValueEncoder</code>.
+ *
  * @since 1.3.0
  *
  * @author Stuart Siegrist (fsiegrist at groupon dot com)
@@ -46,7 +52,7 @@ public class Logger {
      * @return True if and only if trace level logging is enabled.
      */
     public boolean isTraceEnabled() {
-        return getSlf4jLogger().isTraceEnabled();
+        return isEnabled(LogLevel.TRACE);
     }
 
     /**
@@ -58,7 +64,7 @@ public class Logger {
      * @return Instance of <code>LogBuilder</code>.
      */
     public LogBuilder trace() {
-        if (getSlf4jLogger().isTraceEnabled()) {
+        if (isBuilderEnabled(LogLevel.TRACE)) {
             return new DefaultLogBuilder(this, LogLevel.TRACE);
         } else {
             return NO_OP_LOG_BUILDER;
@@ -76,7 +82,7 @@ public class Logger {
      * @param consumer Function to populate the <code>DeferredLogBuilder</code>.
      */
     public void trace(final Consumer<DeferredLogBuilder> consumer) {
-        if (_slf4jLogger.isTraceEnabled()) {
+        if (isBuilderEnabled(LogLevel.TRACE)) {
             final LogBuilder logBuilder = new DefaultLogBuilder(this, LogLevel.TRACE);
             consumer.accept(logBuilder);
             logBuilder.log();
@@ -178,9 +184,9 @@ public class Logger {
             final String message,
             final Map<String, Object> data,
             final Throwable throwable) {
-        if (getSlf4jLogger().isTraceEnabled()) {
-            LogLevel.TRACE.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.TRACE, event)) {
+            log(
+                    LogLevel.TRACE,
                     event,
                     createKeysFromCollection(
                             data == null ? Collections.emptyList() : data.keySet(),
@@ -288,9 +294,9 @@ public class Logger {
             final String dataKey1,
             final Object dataValue1,
             final Throwable throwable) {
-        if (getSlf4jLogger().isTraceEnabled()) {
-            LogLevel.TRACE.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.TRACE, event)) {
+            log(
+                    LogLevel.TRACE,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1),
                     createValuesFromArgs(message, dataValue1),
@@ -346,9 +352,9 @@ public class Logger {
             final Object dataValue1,
             final Object dataValue2,
             final Throwable throwable) {
-        if (getSlf4jLogger().isTraceEnabled()) {
-            LogLevel.TRACE.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.TRACE, event)) {
+            log(
+                    LogLevel.TRACE,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1, dataKey2),
                     createValuesFromArgs(message, dataValue1, dataValue2),
@@ -364,7 +370,7 @@ public class Logger {
      * @return True if and only if debug level logging is enabled.
      */
     public boolean isDebugEnabled() {
-        return getSlf4jLogger().isDebugEnabled();
+        return isEnabled(LogLevel.DEBUG);
     }
 
     /**
@@ -376,7 +382,7 @@ public class Logger {
      * @return Instance of <code>LogBuilder</code>.
      */
     public LogBuilder debug() {
-        if (getSlf4jLogger().isDebugEnabled()) {
+        if (isBuilderEnabled(LogLevel.DEBUG)) {
             return new DefaultLogBuilder(this, LogLevel.DEBUG);
         } else {
             return NO_OP_LOG_BUILDER;
@@ -394,7 +400,7 @@ public class Logger {
      * @param consumer Function to populate the <code>DeferredLogBuilder</code>.
      */
     public void debug(final Consumer<DeferredLogBuilder> consumer) {
-        if (_slf4jLogger.isDebugEnabled()) {
+        if (isBuilderEnabled(LogLevel.DEBUG)) {
             final LogBuilder logBuilder = new DefaultLogBuilder(this, LogLevel.DEBUG);
             consumer.accept(logBuilder);
             logBuilder.log();
@@ -496,9 +502,9 @@ public class Logger {
             final String message,
             final Map<String, Object> data,
             final Throwable throwable) {
-        if (getSlf4jLogger().isDebugEnabled()) {
-            LogLevel.DEBUG.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.DEBUG, event)) {
+            log(
+                    LogLevel.DEBUG,
                     event,
                     createKeysFromCollection(
                             data == null ? Collections.emptyList() : data.keySet(),
@@ -606,9 +612,9 @@ public class Logger {
             final String dataKey1,
             final Object dataValue1,
             final Throwable throwable) {
-        if (getSlf4jLogger().isDebugEnabled()) {
-            LogLevel.DEBUG.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.DEBUG, event)) {
+            log(
+                    LogLevel.DEBUG,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1),
                     createValuesFromArgs(message, dataValue1),
@@ -664,9 +670,9 @@ public class Logger {
             final Object dataValue1,
             final Object dataValue2,
             final Throwable throwable) {
-        if (getSlf4jLogger().isDebugEnabled()) {
-            LogLevel.DEBUG.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.DEBUG, event)) {
+            log(
+                    LogLevel.DEBUG,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1, dataKey2),
                     createValuesFromArgs(message, dataValue1, dataValue2),
@@ -682,7 +688,7 @@ public class Logger {
      * @return True if and only if info level logging is enabled.
      */
     public boolean isInfoEnabled() {
-        return getSlf4jLogger().isInfoEnabled();
+        return isEnabled(LogLevel.INFO);
     }
 
     /**
@@ -694,7 +700,7 @@ public class Logger {
      * @return Instance of <code>LogBuilder</code>.
      */
     public LogBuilder info() {
-        if (getSlf4jLogger().isInfoEnabled()) {
+        if (isBuilderEnabled(LogLevel.INFO)) {
             return new DefaultLogBuilder(this, LogLevel.INFO);
         } else {
             return NO_OP_LOG_BUILDER;
@@ -712,7 +718,7 @@ public class Logger {
      * @param consumer Function to populate the <code>DeferredLogBuilder</code>.
      */
     public void info(final Consumer<DeferredLogBuilder> consumer) {
-        if (_slf4jLogger.isInfoEnabled()) {
+        if (isBuilderEnabled(LogLevel.INFO)) {
             final LogBuilder logBuilder = new DefaultLogBuilder(this, LogLevel.INFO);
             consumer.accept(logBuilder);
             logBuilder.log();
@@ -814,9 +820,9 @@ public class Logger {
             final String message,
             final Map<String, Object> data,
             final Throwable throwable) {
-        if (getSlf4jLogger().isInfoEnabled()) {
-            LogLevel.INFO.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.INFO, event)) {
+            log(
+                    LogLevel.INFO,
                     event,
                     createKeysFromCollection(
                             data == null ? Collections.emptyList() : data.keySet(),
@@ -924,9 +930,9 @@ public class Logger {
             final String dataKey1,
             final Object dataValue1,
             final Throwable throwable) {
-        if (getSlf4jLogger().isInfoEnabled()) {
-            LogLevel.INFO.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.INFO, event)) {
+            log(
+                    LogLevel.INFO,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1),
                     createValuesFromArgs(message, dataValue1),
@@ -982,9 +988,9 @@ public class Logger {
             final Object dataValue1,
             final Object dataValue2,
             final Throwable throwable) {
-        if (getSlf4jLogger().isInfoEnabled()) {
-            LogLevel.INFO.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.INFO, event)) {
+            log(
+                    LogLevel.INFO,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1, dataKey2),
                     createValuesFromArgs(message, dataValue1, dataValue2),
@@ -1000,7 +1006,7 @@ public class Logger {
      * @return True if and only if warn level logging is enabled.
      */
     public boolean isWarnEnabled() {
-        return getSlf4jLogger().isWarnEnabled();
+        return isEnabled(LogLevel.WARN);
     }
 
     /**
@@ -1012,7 +1018,7 @@ public class Logger {
      * @return Instance of <code>LogBuilder</code>.
      */
     public LogBuilder warn() {
-        if (getSlf4jLogger().isWarnEnabled()) {
+        if (isBuilderEnabled(LogLevel.WARN)) {
             return new DefaultLogBuilder(this, LogLevel.WARN);
         } else {
             return NO_OP_LOG_BUILDER;
@@ -1031,7 +1037,7 @@ public class Logger {
      * @param consumer Function to populate the <code>DeferredLogBuilder</code>.
      */
     public void warn(final Consumer<DeferredLogBuilder> consumer) {
-        if (_slf4jLogger.isWarnEnabled()) {
+        if (isBuilderEnabled(LogLevel.WARN)) {
             final LogBuilder logBuilder = new DefaultLogBuilder(this, LogLevel.WARN);
             consumer.accept(logBuilder);
             logBuilder.log();
@@ -1133,9 +1139,9 @@ public class Logger {
             final String message,
             final Map<String, Object> data,
             final Throwable throwable) {
-        if (getSlf4jLogger().isWarnEnabled()) {
-            LogLevel.WARN.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.WARN, event)) {
+            log(
+                    LogLevel.WARN,
                     event,
                     createKeysFromCollection(
                             data == null ? Collections.emptyList() : data.keySet(),
@@ -1243,9 +1249,9 @@ public class Logger {
             final String dataKey1,
             final Object dataValue1,
             final Throwable throwable) {
-        if (getSlf4jLogger().isWarnEnabled()) {
-            LogLevel.WARN.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.WARN, event)) {
+            log(
+                    LogLevel.WARN,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1),
                     createValuesFromArgs(message, dataValue1),
@@ -1301,9 +1307,9 @@ public class Logger {
             final Object dataValue1,
             final Object dataValue2,
             final Throwable throwable) {
-        if (getSlf4jLogger().isWarnEnabled()) {
-            LogLevel.WARN.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.WARN, event)) {
+            log(
+                    LogLevel.WARN,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1, dataKey2),
                     createValuesFromArgs(message, dataValue1, dataValue2),
@@ -1319,7 +1325,7 @@ public class Logger {
      * @return True if and only if error level logging is enabled.
      */
     public boolean isErrorEnabled() {
-        return getSlf4jLogger().isErrorEnabled();
+        return isEnabled(LogLevel.ERROR);
     }
 
     /**
@@ -1331,7 +1337,7 @@ public class Logger {
      * @return Instance of <code>LogBuilder</code>.
      */
     public LogBuilder error() {
-        if (getSlf4jLogger().isErrorEnabled()) {
+        if (isBuilderEnabled(LogLevel.ERROR)) {
             return new DefaultLogBuilder(this, LogLevel.ERROR);
         } else {
             return NO_OP_LOG_BUILDER;
@@ -1349,7 +1355,7 @@ public class Logger {
      * @param consumer Function to populate the <code>DeferredLogBuilder</code>.
      */
     public void error(final Consumer<DeferredLogBuilder> consumer) {
-        if (_slf4jLogger.isErrorEnabled()) {
+        if (isBuilderEnabled(LogLevel.ERROR)) {
             final LogBuilder logBuilder = new DefaultLogBuilder(this, LogLevel.ERROR);
             consumer.accept(logBuilder);
             logBuilder.log();
@@ -1451,9 +1457,9 @@ public class Logger {
             final String message,
             final Map<String, Object> data,
             final Throwable throwable) {
-        if (getSlf4jLogger().isErrorEnabled()) {
-            LogLevel.ERROR.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.ERROR, event)) {
+            log(
+                    LogLevel.ERROR,
                     event,
                     createKeysFromCollection(
                             data == null ? Collections.emptyList() : data.keySet(),
@@ -1561,9 +1567,9 @@ public class Logger {
             final String dataKey1,
             final Object dataValue1,
             final Throwable throwable) {
-        if (getSlf4jLogger().isErrorEnabled()) {
-            LogLevel.ERROR.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.ERROR, event)) {
+            log(
+                    LogLevel.ERROR,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1),
                     createValuesFromArgs(message, dataValue1),
@@ -1619,9 +1625,9 @@ public class Logger {
             final Object dataValue1,
             final Object dataValue2,
             final Throwable throwable) {
-        if (getSlf4jLogger().isErrorEnabled()) {
-            LogLevel.ERROR.log(
-                    getSlf4jLogger(),
+        if (isEnabled(LogLevel.ERROR, event)) {
+            log(
+                    LogLevel.ERROR,
                     event,
                     createKeysFromArgs(MESSAGE_DATA_KEY, dataKey1, dataKey2),
                     createValuesFromArgs(message, dataValue1, dataValue2),
@@ -1638,6 +1644,51 @@ public class Logger {
         return _slf4jLogger;
     }
 
+    /**
+     * Determine if logging is enabled for a particular level. Loggers backed
+     * by Logback consult a <code>LevelCache</code> shared by all Steno
+     * <code>Logger</code> instances with the same name; other loggers are
+     * queried directly.
+     *
+     * @param level The log event level.
+     * @return True if and only if logging is enabled for the level.
+     */
+    /* package private */ boolean isEnabled(final LogLevel level) {
+        final LevelCache levelCache = _levelCache;
+        if (levelCache != null) {
+            return levelCache.isEnabled(level);
+        }
+        return level.isEnabled(getSlf4jLogger());
+    }
+
+    /**
+     * Determine if a log event should be logged for a particular level. This
+     * check is made before any log builder or data arrays are created for
+     * the event; it is the extension point for loggers which drop events
+     * such as <code>SamplingLogger</code>.
+     *
+     * @param level The log event level.
+     * @param event The log event name; may be <code>null</code>.
+     * @return True if and only if the event should be logged.
+     */
+    /* package private */ boolean isEnabled(final LogLevel level, final String event) {
+        return isEnabled(level);
+    }
+
+    /**
+     * Determine if a log builder should be created for a particular level.
+     * Log builders are created before their event name is known; by default
+     * they are checked with a <code>null</code> event. Loggers which decide
+     * by event name may instead defer the decision until the builder is
+     * logged.
+     *
+     * @param level The log event level.
+     * @return True if and only if a log builder should be created.
+     */
+    /* package private */ boolean isBuilderEnabled(final LogLevel level) {
+        return isEnabled(level, DEFAULT_EVENT);
+    }
+
     /**
      * Log for a particular level using the <code>ARRAY_MARKER</code>.
      *
@@ -1655,14 +1706,42 @@ public class Logger {
             final String[] dataKeys,
             final Object[] dataValues,
             final Throwable throwable) {
-        level.log(
-                getSlf4jLogger(),
+        if (!isEnabled(level, event)) {
+            return;
+        }
+        log(
+                level,
                 event,
                 createKeysFromArray(dataKeys, MESSAGE_DATA_KEY),
                 createValuesFromArray(dataValues, message),
                 throwable);
     }
 
+    /**
+     * Log for a particular level using the <code>ARRAY_MARKER</code> without
+     * checking whether the level is enabled. Callers must check
+     * <code>isEnabled(LogLevel, String)</code> first.
+     *
+     * @param level The log event level.
+     * @param event The log event name.
+     * @param keys The array of data keys including the message key.
+     * @param values The array of data values including the message.
+     * @param throwable The <code>Throwable</code>.
+     */
+    /* package private */ void log(
+            final LogLevel level,
+            final String event,
+            final String[] keys,
+            final Object[] values,
+            final Throwable throwable) {
+        level.log(
+                getSlf4jLogger(),
+                event,
+                keys,
+                values,
+                throwable);
+    }
+
     /**
      * Log for a particular level using the <code>LISTS_MARKER</code>.
      *
@@ -1686,6 +1765,9 @@ public class Logger {
             final List<String> contextKeys,
             final List<Object> contextValues,
             final Throwable throwable) {
+        if (!isEnabled(level)) {
+            return;
+        }
         level.log(
                 getSlf4jLogger(),
                 event,
@@ -1696,6 +1778,29 @@ public class Logger {
                 throwable);
     }
 
+    /**
+     * Log for a particular level using the <code>PAYLOAD_MARKER</code>.
+     *
+     * @param level The log event level.
+     * @param event The log event name.
+     * @param payload The <code>StenoPayload</code> of data and context.
+     * @param throwable The <code>Throwable</code>.
+     */
+    /* package private */ void log(
+            final LogLevel level,
+            final String event,
+            final StenoPayload payload,
+            final Throwable throwable) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        level.log(
+                getSlf4jLogger(),
+                event,
+                payload,
+                throwable);
+    }
+
     /* package private */ static String[] createKeysFromCollection(final Collection<String> collection, final String... keys) {
         if (isNullOrEmpty(keys)) {
             return collection.toArray(new String[collection.size()]);
@@ -1818,15 +1923,27 @@ public class Logger {
     }
 
     /**
-     * Protected constructor for extension.
+     * Package private constructor.
      *
      * @param slf4jLogger Instance of underlying <code>org.slf4j.Logger</code>.
      */
     /* package private */ Logger(final org.slf4j.Logger slf4jLogger) {
+        this(slf4jLogger, LoggerRegistry.getLevelCache(slf4jLogger));
+    }
+
+    /**
+     * Package private constructor.
+     *
+     * @param slf4jLogger Instance of underlying <code>org.slf4j.Logger</code>.
+     * @param levelCache The shared <code>LevelCache</code> or <code>null</code>.
+     */
+    /* package private */ Logger(final org.slf4j.Logger slf4jLogger, final LevelCache levelCache) {
         _slf4jLogger = slf4jLogger;
+        _levelCache = levelCache;
     }
 
-    private org.slf4j.Logger _slf4jLogger;
+    private final org.slf4j.Logger _slf4jLogger;
+    private final LevelCache _levelCache;
 
     private static final String DEFAULT_EVENT = null;
     private static final Throwable DEFAULT_THROWABLE = null;
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of canonical Steno <code>Logger</code> instances and their
+ * <code>LevelCache</code> instances for a single Logback
+ * <code>LoggerContext</code>. The registry listens to the context and
+ * invalidates every cached level when a level changes or when the context is
+ * started, reset or stopped.
+ *
+ * This class is thread safe.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+/* package private */ final class LoggerRegistry implements LoggerContextListener {
+
+    /**
+     * Return the <code>LevelCache</code> for an <code>org.slf4j.Logger</code>
+     * or <code>null</code> if the logger is not backed by Logback.
+     *
+     * @param logger The <code>org.slf4j.Logger</code> instance.
+     * @return The shared <code>LevelCache</code> or <code>null</code>.
+     */
+    public static LevelCache getLevelCache(final org.slf4j.Logger logger) {
+        if (logger instanceof ch.qos.logback.classic.Logger) {
+            final ch.qos.logback.classic.Logger logbackLogger = (ch.qos.logback.classic.Logger) logger;
+            return getInstance(logbackLogger.getLoggerContext()).levelCacheFor(logbackLogger);
+        }
+        return null;
+    }
+
+    /**
+     * Return the canonical Steno <code>Logger</code> for an
+     * <code>org.slf4j.Logger</code>. Loggers not backed by Logback are wrapped
+     * in a new instance on each call.
+     *
+     * @param logger The <code>org.slf4j.Logger</code> instance.
+     * @return Steno <code>Logger</code> instance.
+     */
+    public static Logger getLogger(final org.slf4j.Logger logger) {
+        if (logger instanceof ch.qos.logback.classic.Logger) {
+            final ch.qos.logback.classic.Logger logbackLogger = (ch.qos.logback.classic.Logger) logger;
+            return getInstance(logbackLogger.getLoggerContext()).loggerFor(logbackLogger);
+        }
+        return new Logger(logger);
+    }
+
+    /**
+     * Return the registry for a <code>LoggerContext</code>, creating and
+     * registering it as a listener on first use.
+     *
+     * @param context The <code>LoggerContext</code>.
+     * @return The <code>LoggerRegistry</code> for the context.
+     */
+    /* package private */ static LoggerRegistry getInstance(final LoggerContext context) {
+        final Object registry = context.getObject(REGISTRY_KEY);
+        if (registry instanceof LoggerRegistry) {
+            return (LoggerRegistry) registry;
+        }
+        LoggerRegistry contextRegistry = null;
+        synchronized (context) {
+            // The object map is cleared on reset; the listener list is not
+            for (final LoggerContextListener listener : context.getCopyOfListenerList()) {
+                if (listener instanceof LoggerRegistry) {
+                    contextRegistry = (LoggerRegistry) listener;
+                }
+            }
+            if (contextRegistry == null) {
+                contextRegistry = new LoggerRegistry();
+                context.addListener(contextRegistry);
+            }
+            context.putObject(REGISTRY_KEY, contextRegistry);
+        }
+        return contextRegistry;
+    }
+
+    /* package private */ Logger loggerFor(final ch.qos.logback.classic.Logger logger) {
+        return _loggers.computeIfAbsent(logger.getName(), name -> new Logger(logger, levelCacheFor(logger)));
+    }
+
+    /* package private */ LevelCache levelCacheFor(final ch.qos.logback.classic.Logger logger) {
+        return _levelCaches.computeIfAbsent(logger.getName(), name -> new LevelCache(logger));
+    }
+
+    @Override
+    public boolean isResetResistant() {
+        return true;
+    }
+
+    @Override
+    public void onStart(final LoggerContext context) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onReset(final LoggerContext context) {
+        context.putObject(REGISTRY_KEY, this);
+        invalidateAll();
+    }
+
+    @Override
+    public void onStop(final LoggerContext context) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onLevelChange(final ch.qos.logback.classic.Logger logger, final Level level) {
+        // A level change affects the effective level of every descendant
+        invalidateAll();
+    }
+
+    private void invalidateAll() {
+        for (final LevelCache levelCache : _levelCaches.values()) {
+            levelCache.invalidate();
+        }
+    }
+
+    private LoggerRegistry() {}
+
+    private final ConcurrentMap<String, Logger> _loggers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LevelCache> _levelCaches = new ConcurrentHashMap<>();
+
+    private static final String REGISTRY_KEY = LoggerRegistry.class.getName();
+}
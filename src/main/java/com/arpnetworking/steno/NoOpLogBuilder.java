@@ -15,6 +15,8 @@
  */
 package com.arpnetworking.steno;
 
+import java.util.function.Supplier;
+
 /**
  * Implementation of <code>LogBuilder</code> which does not log a message.
  *
@@ -62,6 +64,118 @@ public class NoOpLogBuilder implements LogBuilder {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final long value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final int value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final double value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final float value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final boolean value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final char value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final Supplier<?> value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final long value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final int value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final double value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final float value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final boolean value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final char value) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final Supplier<?> value) {
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+/**
+ * Selects the key on which a rate limited <code>Logger</code> limits log
+ * events. Events with the same key share a rate limit and skipped count while
+ * events with different keys are limited independently. The returned key
+ * should implement <code>equals</code> and <code>hashCode</code>; it may be
+ * <code>null</code>.
+ *
+ * @since 1.16.0
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@FunctionalInterface
+public interface RateLimitKey {
+
+    /**
+     * All events share a single rate limit.
+     */
+    RateLimitKey LOGGER = (event, throwable) -> null;
+
+    /**
+     * Events are rate limited by event name.
+     */
+    RateLimitKey EVENT = (event, throwable) -> event;
+
+    /**
+     * Events are rate limited by the class of the <code>Throwable</code>.
+     * Events without a <code>Throwable</code> share a single rate limit.
+     */
+    RateLimitKey THROWABLE_CLASS = (event, throwable) -> throwable == null ? null : throwable.getClass();
+
+    /**
+     * Compute the rate limit key for a log event.
+     *
+     * @param event The log event name; may be <code>null</code>.
+     * @param throwable The <code>Throwable</code>; may be <code>null</code>.
+     * @return The rate limit key.
+     */
+    Object getKey(String event, Throwable throwable);
+}
@@ -21,6 +21,7 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Limits actual log output to at most once per specified <code>Period</code>.
@@ -106,6 +107,132 @@ public class RateLimitLogBuilder implements LogBuilder {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final long value) {
+        _logBuilder.addData(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final int value) {
+        _logBuilder.addData(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final double value) {
+        _logBuilder.addData(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final float value) {
+        _logBuilder.addData(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final boolean value) {
+        _logBuilder.addData(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final char value) {
+        _logBuilder.addData(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addData(final String name, final Supplier<?> value) {
+        _logBuilder.addData(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final long value) {
+        _logBuilder.addContext(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final int value) {
+        _logBuilder.addContext(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final double value) {
+        _logBuilder.addContext(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final float value) {
+        _logBuilder.addContext(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final boolean value) {
+        _logBuilder.addContext(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final char value) {
+        _logBuilder.addContext(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogBuilder addContext(final String name, final Supplier<?> value) {
+        _logBuilder.addContext(name, value);
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
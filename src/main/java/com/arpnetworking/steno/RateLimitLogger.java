@@ -15,18 +15,23 @@
  */
 package com.arpnetworking.steno;
 
+import com.arpnetworking.logback.RateLimiter;
+import com.arpnetworking.logback.StenoPayload;
+
 import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Extension of Steno logger designed for use particularly with Steno encoder
- * while also providing log event rate limiting. This class is thread safe.
+ * while also providing log event rate limiting. Events are limited per key
+ * as selected by the <code>RateLimitKey</code>; by default all events of the
+ * logger share a single key. Each output event includes the number of events
+ * skipped for its key since the previous output as <code>_skipped</code> and
+ * the time of the previous output as <code>_lastLogTime</code>. This class is
+ * thread safe.
  *
  * @since 1.12.0
  *
@@ -39,29 +44,28 @@ import java.util.concurrent.atomic.AtomicReference;
      *
      * @param level The log event level.
      * @param event The log event name.
-     * @param message The log event message.
-     * @param dataKeys The array of data keys.
-     * @param dataValues The array of data values.
+     * @param keys The array of data keys including the message key.
+     * @param values The array of data values including the message.
      * @param throwable The <code>Throwable</code>.
      */
     @Override
     /* package private */ void log(
             final LogLevel level,
             final String event,
-            final String message,
-            final String[] dataKeys,
-            final Object[] dataValues,
+            final String[] keys,
+            final Object[] values,
             final Throwable throwable) {
 
-        if (shouldLog(level)) {
-            final String[] augmentedDataKeys = Arrays.copyOf(dataKeys, dataKeys.length + 2);
-            final Object[] augmentedDataValues = Arrays.copyOf(dataValues, dataValues.length + 2);
-            augmentedDataKeys[augmentedDataKeys.length - 2] = "_skipped";
-            augmentedDataKeys[augmentedDataKeys.length - 1] = "_lastLogTime";
-            augmentedDataValues[augmentedDataValues.length - 2] = _skipped.getAndSet(0);
-            augmentedDataValues[augmentedDataValues.length - 1] = _lastLogTime.getAndSet(_clock.instant());
+        final RateLimiter.Permit permit = tryAcquire(level, event, throwable);
+        if (permit != null) {
+            final String[] augmentedKeys = Arrays.copyOf(keys, keys.length + 2);
+            final Object[] augmentedValues = Arrays.copyOf(values, values.length + 2);
+            augmentedKeys[augmentedKeys.length - 2] = "_skipped";
+            augmentedKeys[augmentedKeys.length - 1] = "_lastLogTime";
+            augmentedValues[augmentedValues.length - 2] = permit.getSkipped();
+            augmentedValues[augmentedValues.length - 1] = permit.getLastAcquired();
 
-            super.log(level, event, message, augmentedDataKeys, augmentedDataValues, throwable);
+            super.log(level, event, augmentedKeys, augmentedValues, throwable);
         }
     }
 
@@ -86,45 +90,80 @@ import java.util.concurrent.atomic.AtomicReference;
             final List<Object> contextValues,
             final Throwable throwable) {
 
-        if (shouldLog(level)) {
+        final RateLimiter.Permit permit = tryAcquire(level, event, throwable);
+        if (permit != null) {
             final List<String> actualDataKeys = dataKeys != null ? dataKeys : new ArrayList<>(2);
             final List<Object> actualDataValues = dataValues != null ? dataValues : new ArrayList<>(2);
             actualDataKeys.add("_skipped");
             actualDataKeys.add("_lastLogTime");
-            actualDataValues.add(_skipped.getAndSet(0));
-            actualDataValues.add(_lastLogTime.getAndSet(_clock.instant()));
+            actualDataValues.add(permit.getSkipped());
+            actualDataValues.add(permit.getLastAcquired());
 
             super.log(level, event, actualDataKeys, actualDataValues, contextKeys, contextValues, throwable);
         }
     }
 
+    /**
+     * Log for a particular level using the <code>PAYLOAD_MARKER</code>.
+     *
+     * @param level The log event level.
+     * @param event The log event name.
+     * @param payload The <code>StenoPayload</code> of data and context.
+     * @param throwable The <code>Throwable</code>.
+     */
+    @Override
+    /* package private */ void log(
+            final LogLevel level,
+            final String event,
+            final StenoPayload payload,
+            final Throwable throwable) {
+
+        final RateLimiter.Permit permit = tryAcquire(level, event, throwable);
+        if (permit != null) {
+            final StenoPayload.Fields augmentedData = new StenoPayload.Fields.Builder(payload.getData())
+                    .putInt("_skipped", permit.getSkipped())
+                    .putObject("_lastLogTime", permit.getLastAcquired())
+                    .build();
+
+            super.log(level, event, new StenoPayload(augmentedData, payload.getContext()), throwable);
+        }
+    }
+
     /* package private */ RateLimitLogger(final org.slf4j.Logger slf4jLogger, final Duration duration) {
-        this(slf4jLogger, duration, Clock.systemUTC());
+        this(slf4jLogger, duration, RateLimitKey.LOGGER);
     }
 
-    private boolean shouldLog(final LogLevel level) {
-        // Check this first to avoid counting unlogged messages against the logging rate
-        if (!level.isEnabled(getSlf4jLogger())) {
-            return false;
-        }
-        final Instant now = _clock.instant();
-        if (_lastLogTime.get() != null) {
-            if (!_lastLogTime.get().plus(_duration).isBefore(now)) {
-                _skipped.incrementAndGet();
-                return false;
-            }
-        }
-        return true;
+    /* package private */ RateLimitLogger(
+            final org.slf4j.Logger slf4jLogger,
+            final Duration duration,
+            final RateLimitKey rateLimitKey) {
+        this(slf4jLogger, duration, rateLimitKey, Clock.systemUTC());
     }
 
     /* package private */ RateLimitLogger(final org.slf4j.Logger slf4jLogger, final Duration duration, final Clock clock) {
+        this(slf4jLogger, duration, RateLimitKey.LOGGER, clock);
+    }
+
+    /* package private */ RateLimitLogger(
+            final org.slf4j.Logger slf4jLogger,
+            final Duration duration,
+            final RateLimitKey rateLimitKey,
+            final Clock clock) {
         super(slf4jLogger);
-        _duration = duration;
-        _clock = clock;
+        _rateLimitKey = rateLimitKey;
+        _rateLimiter = new RateLimiter(duration, 1, MAXIMUM_KEYS, clock);
+    }
+
+    private RateLimiter.Permit tryAcquire(final LogLevel level, final String event, final Throwable throwable) {
+        // Check this first to avoid counting unlogged messages against the logging rate
+        if (!isEnabled(level)) {
+            return null;
+        }
+        return _rateLimiter.tryAcquire(_rateLimitKey.getKey(event, throwable));
     }
 
-    private final Duration _duration;
-    private final Clock _clock;
-    private AtomicReference<Instant> _lastLogTime = new AtomicReference<>();
-    private AtomicInteger _skipped = new AtomicInteger(0);
+    private final RateLimitKey _rateLimitKey;
+    private final RateLimiter _rateLimiter;
+
+    private static final int MAXIMUM_KEYS = 1024;
 }
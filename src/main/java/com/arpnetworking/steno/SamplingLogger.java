@@ -0,0 +1,177 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import com.arpnetworking.logback.StenoPayload;
+import org.slf4j.MDC;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extension of Steno logger designed for use particularly with Steno encoder
+ * while also providing log event sampling. One in every <code>sampleRate</code>
+ * events is logged per event name. Alternatively, if an MDC key is specified
+ * and present, every event is logged for the MDC values (e.g. request
+ * identifiers) which hash into the sampled set so that the events of a sampled
+ * request are complete across loggers and processes. Each logged event includes
+ * the sample rate as <code>_sampleRate</code> so that downstream counts can be
+ * scaled back up.
+ *
+ * The sampling decision is made before any data arrays are created. Log
+ * builders are created before their event name is known; they are created
+ * for any enabled level and sampled by their event name when logged. This
+ * class is thread safe.
+ *
+ * @since 1.16.0
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+/* package private */ class SamplingLogger extends Logger {
+
+    /**
+     * Determine if a log event should be logged for a particular level
+     * applying sampling.
+     *
+     * @param level The log event level.
+     * @param event The log event name; may be <code>null</code>.
+     * @return True if and only if the event should be logged.
+     */
+    @Override
+    /* package private */ boolean isEnabled(final LogLevel level, final String event) {
+        // Check this first to avoid counting unlogged messages against the sample
+        return isEnabled(level) && isSampled(event);
+    }
+
+    /**
+     * Determine if a log builder should be created for a particular level.
+     * Sampling is deferred until the builder is logged with its event name.
+     *
+     * @param level The log event level.
+     * @return True if and only if a log builder should be created.
+     */
+    @Override
+    /* package private */ boolean isBuilderEnabled(final LogLevel level) {
+        return isEnabled(level);
+    }
+
+    /**
+     * Log for a particular level using the <code>ARRAY_MARKER</code>.
+     *
+     * @param level The log event level.
+     * @param event The log event name.
+     * @param keys The array of data keys including the message key.
+     * @param values The array of data values including the message.
+     * @param throwable The <code>Throwable</code>.
+     */
+    @Override
+    /* package private */ void log(
+            final LogLevel level,
+            final String event,
+            final String[] keys,
+            final Object[] values,
+            final Throwable throwable) {
+        final String[] augmentedKeys = Arrays.copyOf(keys, keys.length + 1);
+        final Object[] augmentedValues = Arrays.copyOf(values, values.length + 1);
+        augmentedKeys[augmentedKeys.length - 1] = SAMPLE_RATE_DATA_KEY;
+        augmentedValues[augmentedValues.length - 1] = _sampleRate;
+
+        super.log(level, event, augmentedKeys, augmentedValues, throwable);
+    }
+
+    /**
+     * Log for a particular level using the <code>PAYLOAD_MARKER</code> if the
+     * event is sampled. This is only used by log builders.
+     *
+     * @param level The log event level.
+     * @param event The log event name.
+     * @param payload The <code>StenoPayload</code> of data and context.
+     * @param throwable The <code>Throwable</code>.
+     */
+    @Override
+    /* package private */ void log(
+            final LogLevel level,
+            final String event,
+            final StenoPayload payload,
+            final Throwable throwable) {
+        if (!isSampled(event)) {
+            return;
+        }
+        final StenoPayload.Fields augmentedData = new StenoPayload.Fields.Builder(payload.getData())
+                .putInt(SAMPLE_RATE_DATA_KEY, _sampleRate)
+                .build();
+
+        super.log(level, event, new StenoPayload(augmentedData, payload.getContext()), throwable);
+    }
+
+    /* package private */ SamplingLogger(final org.slf4j.Logger slf4jLogger, final int sampleRate) {
+        this(slf4jLogger, sampleRate, null);
+    }
+
+    /* package private */ SamplingLogger(final org.slf4j.Logger slf4jLogger, final int sampleRate, final String mdcKey) {
+        super(slf4jLogger);
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("Sample rate must be positive");
+        }
+        _sampleRate = sampleRate;
+        _mdcKey = mdcKey;
+    }
+
+    private boolean isSampled(final String event) {
+        if (_mdcKey != null) {
+            final String value = MDC.get(_mdcKey);
+            if (value != null) {
+                return Integer.remainderUnsigned(mix(value.hashCode()), _sampleRate) == 0;
+            }
+        }
+        return getCounter(event).getAndIncrement() % _sampleRate == 0;
+    }
+
+    private AtomicLong getCounter(final String event) {
+        final Object key = event == null ? NULL_EVENT : event;
+        final AtomicLong counter = _counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (_counters.size() >= MAXIMUM_EVENTS) {
+            return _overflowCounter;
+        }
+        return _counters.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private static int mix(final int hash) {
+        // Murmur3 finalizer; String.hashCode alone is poorly distributed modulo small rates
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private final int _sampleRate;
+    private final String _mdcKey;
+    private final ConcurrentMap<Object, AtomicLong> _counters = new ConcurrentHashMap<>();
+    private final AtomicLong _overflowCounter = new AtomicLong();
+
+    private static final int MAXIMUM_EVENTS = 1024;
+    private static final Object NULL_EVENT = new Object();
+
+    /* package private */ static final String SAMPLE_RATE_DATA_KEY = "_sampleRate";
+}
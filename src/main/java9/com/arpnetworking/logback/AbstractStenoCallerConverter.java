@@ -0,0 +1,140 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+/**
+ * Abstract Steno caller converter.
+ *
+ * This is the Java 9 version which when the event does not already carry
+ * caller data finds the caller with <code>StackWalker</code>. Like Logback's
+ * <code>CallerData</code> the walk skips the frames up to and including the
+ * event's logger class (<code>fqnOfLoggerClass</code>), SLF4J's
+ * <code>Logger</code> and the context's framework packages and then any Steno
+ * frames; only the caller's frame is materialized. It is stored as the
+ * caller data of the event so that the other caller converters reuse it. If
+ * the logger class of the event cannot be determined the caller data is
+ * captured by Logback instead.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ * @since 1.14.0
+ */
+public abstract class AbstractStenoCallerConverter extends ClassicConverter {
+
+    /**
+     * Retrieve the relevant caller data adjusted for Steno logger wrapping.
+     * If the event carries a <code>CallSite</code> captured by the Steno
+     * aspect it is used instead of capturing the caller data from the stack.
+     *
+     * @param loggingEvent The <code>ILoggingEvent</code> instance.
+     * @return The relevant caller data adjusted for Steno logger wrapping.
+     */
+    protected StackTraceElement getCallerData(final ILoggingEvent loggingEvent) {
+        final CallSite callSite = CallSite.fromEvent(loggingEvent);
+        if (callSite != null) {
+            return callSite.getStackTraceElement();
+        }
+        if (!loggingEvent.hasCallerData() && loggingEvent instanceof LoggingEvent) {
+            final StackTraceElement caller = walkToCaller((LoggingEvent) loggingEvent);
+            if (caller != null) {
+                ((LoggingEvent) loggingEvent).setCallerData(new StackTraceElement[] {caller});
+                return caller;
+            }
+        }
+        final StackTraceElement[] callerData = loggingEvent.getCallerData();
+        if (callerData != null) {
+            for (int i = 0; i < callerData.length; ++i) {
+                final String callerClassName = callerData[i].getClassName();
+                if (!callerClassName.startsWith(STENO_CLASS_NAME_PREFIX)) {
+                    return callerData[i];
+                }
+            }
+        }
+        return null;
+    }
+
+    private static StackTraceElement walkToCaller(final LoggingEvent loggingEvent) {
+        if (FQN_OF_LOGGER_CLASS == null || LOGGER_CONTEXT == null) {
+            return null;
+        }
+        final String fqnOfLoggerClass;
+        final LoggerContext loggerContext;
+        try {
+            fqnOfLoggerClass = (String) FQN_OF_LOGGER_CLASS.invokeExact(loggingEvent);
+            loggerContext = (LoggerContext) LOGGER_CONTEXT.invokeExact(loggingEvent);
+            // CHECKSTYLE.OFF: IllegalCatch: Declared by MethodHandle.invokeExact.
+        } catch (final Throwable t) {
+            // CHECKSTYLE.ON: IllegalCatch
+            return null;
+        }
+        if (fqnOfLoggerClass == null) {
+            return null;
+        }
+        final List<String> frameworkPackages = loggerContext == null ? null : loggerContext.getFrameworkPackages();
+        return STACK_WALKER.walk(frames -> frames
+                .dropWhile(frame -> !isInFrameworkSpace(frame.getClassName(), fqnOfLoggerClass, frameworkPackages))
+                .dropWhile(frame -> isInFrameworkSpace(frame.getClassName(), fqnOfLoggerClass, frameworkPackages))
+                .dropWhile(frame -> frame.getClassName().startsWith(STENO_CLASS_NAME_PREFIX))
+                .findFirst()
+                .map(StackWalker.StackFrame::toStackTraceElement)
+                .orElse(null));
+    }
+
+    // Mirrors CallerData.isInFrameworkSpace
+    private static boolean isInFrameworkSpace(
+            final String className,
+            final String fqnOfLoggerClass,
+            final List<String> frameworkPackages) {
+        if (className.equals(fqnOfLoggerClass)
+                || className.equals(LOG4J_CATEGORY_CLASS_NAME)
+                || className.startsWith(SLF4J_BOUNDARY)) {
+            return true;
+        }
+        if (frameworkPackages != null) {
+            for (final String frameworkPackage : frameworkPackages) {
+                if (className.startsWith(frameworkPackage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static MethodHandle findGetter(final String name, final Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(LoggingEvent.class, MethodHandles.lookup())
+                    .findGetter(LoggingEvent.class, name, type);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    // Logback does not expose the logger class or the context of an event
+    private static final MethodHandle FQN_OF_LOGGER_CLASS = findGetter("fqnOfLoggerClass", String.class);
+    private static final MethodHandle LOGGER_CONTEXT = findGetter("loggerContext", LoggerContext.class);
+    private static final String STENO_CLASS_NAME_PREFIX = "com.arpnetworking.steno.";
+    private static final String SLF4J_BOUNDARY = "org.slf4j.Logger";
+    private static final String LOG4J_CATEGORY_CLASS_NAME = "org.apache.log4j.Category";
+}
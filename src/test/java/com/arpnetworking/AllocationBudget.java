@@ -0,0 +1,128 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking;
+
+import org.junit.Assert;
+import org.junit.Assume;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+/**
+ * Measures the bytes allocated per invocation of an operation by the current
+ * thread and compares it against the budgets checked in as
+ * <code>AllocationBudget.properties</code>.
+ *
+ * The operation is first invoked repeatedly to warm up the JIT so that the
+ * measurement reflects steady state allocation (e.g. after escape analysis)
+ * rather than interpreter and class loading overhead. The measured values
+ * are printed when the <code>allocation.report</code> system property is set
+ * to true; use this to update the budgets after an intentional change.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public final class AllocationBudget {
+
+    /**
+     * Assert that the operation allocates no more than its budget per
+     * invocation. The test is skipped if the JVM does not support per-thread
+     * allocation accounting.
+     *
+     * @param name The name of the budget.
+     * @param operation The operation to measure.
+     * @throws Exception if the operation fails.
+     */
+    public static void assertWithinBudget(final String name, final Operation operation) throws Exception {
+        final long budget = getBudget(name);
+        final long allocated = measure(operation);
+        if (Boolean.getBoolean("allocation.report")) {
+            System.out.printf("%s=%d%n", name, allocated);
+        }
+        Assert.assertTrue(
+                String.format("Allocation budget exceeded for %s; allocated=%d bytes/op, budget=%d bytes/op", name, allocated, budget),
+                allocated <= budget);
+    }
+
+    /**
+     * Measure the average number of bytes allocated per invocation of the
+     * operation by the current thread after warm-up.
+     *
+     * @param operation The operation to measure.
+     * @return The average number of bytes allocated per invocation.
+     * @throws Exception if the operation fails.
+     */
+    public static long measure(final Operation operation) throws Exception {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(sunThreadMXBean.isThreadAllocatedMemorySupported());
+        if (!sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+            sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; ++i) {
+            operation.run();
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = sunThreadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; ++i) {
+            operation.run();
+        }
+        final long after = sunThreadMXBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / MEASURED_ITERATIONS;
+    }
+
+    private static long getBudget(final String name) {
+        final String budget = BUDGETS.getProperty(name);
+        if (budget == null) {
+            Assert.fail("No allocation budget defined for " + name);
+        }
+        return Long.parseLong(budget.trim());
+    }
+
+    private static Properties loadBudgets() {
+        final Properties budgets = new Properties();
+        try (InputStream stream = AllocationBudget.class.getResourceAsStream("AllocationBudget.properties")) {
+            budgets.load(stream);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+        return budgets;
+    }
+
+    private AllocationBudget() {}
+
+    private static final Properties BUDGETS = loadBudgets();
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 10000;
+
+    /**
+     * An operation whose allocation is measured.
+     */
+    @FunctionalInterface
+    public interface Operation {
+
+        /**
+         * Invoke the operation.
+         *
+         * @throws Exception if the operation fails.
+         */
+        void run() throws Exception;
+    }
+}
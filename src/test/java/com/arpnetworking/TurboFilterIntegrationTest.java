@@ -0,0 +1,41 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+
+/**
+ * Integration test of <code>StenoTurboFilter</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class TurboFilterIntegrationTest extends BaseStenoIntegrationTest {
+
+    @Test
+    public void test() {
+        final Logger logger = getLogger();
+        logger.debug("Debug level events will be suppressed");
+        logger.info("Event A");
+        logger.info("Event A");
+        logger.info("Event A");
+        logger.info("Event B");
+        logger.warn("Warning 1");
+        logger.warn("Warning 2");
+        logger.warn("Warning 3");
+        assertOutput();
+    }
+}
@@ -15,13 +15,21 @@
  */
 package com.arpnetworking.logback;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.arpnetworking.steno.LoggerFactory;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.slf4j.spi.LocationAwareLogger;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Tests for <code>AbstractStenoCallerConverter</code>.
@@ -47,7 +55,86 @@ public class AbstractStenoCallerConverterTest {
         Assert.assertNull(new FakeAbstractStenoCallerConverter().getCallerData(_loggingEvent));
     }
 
+    @Test
+    public void testCallSite() {
+        final CallSite callSite = new CallSite("com.example.Foo", "bar", "Foo.java", 42);
+        Mockito.doReturn(new Object[]{new String[]{}, new Object[]{}, callSite}).when(_loggingEvent).getArgumentArray();
+        Assert.assertSame(
+                callSite.getStackTraceElement(),
+                new FakeAbstractStenoCallerConverter().getCallerData(_loggingEvent));
+        Mockito.verify(_loggingEvent, Mockito.never()).getCallerData();
+    }
+
+    @Test
+    public void testCallerFromStack() {
+        LoggerFactory.getLogger(createLogger()).info("event", "message");
+        assertCaller("testCallerFromStack");
+    }
+
+    @Test
+    public void testCallerWithLoggerClass() {
+        new LocationAwareWrapper(createLogger()).info("message");
+        assertCaller("testCallerWithLoggerClass");
+    }
+
+    @Test
+    public void testCallerWithFrameworkPackages() {
+        final ch.qos.logback.classic.Logger logger = createLogger();
+        _context.getFrameworkPackages().add(FrameworkWrapper.class.getName());
+        new FrameworkWrapper(logger).info("message");
+        assertCaller("testCallerWithFrameworkPackages");
+    }
+
+    private ch.qos.logback.classic.Logger createLogger() {
+        final AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(final ILoggingEvent event) {
+                _callers.add(new FakeAbstractStenoCallerConverter().getCallerData(event));
+            }
+        };
+        appender.setContext(_context);
+        appender.start();
+        final ch.qos.logback.classic.Logger logger = _context.getLogger(AbstractStenoCallerConverterTest.class);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private void assertCaller(final String methodName) {
+        Assert.assertEquals(1, _callers.size());
+        Assert.assertEquals(AbstractStenoCallerConverterTest.class.getName(), _callers.get(0).getClassName());
+        Assert.assertEquals(methodName, _callers.get(0).getMethodName());
+    }
+
     @Mock private ILoggingEvent _loggingEvent;
+    private final LoggerContext _context = new LoggerContext();
+    private final List<StackTraceElement> _callers = new ArrayList<>();
+
+    private static final class LocationAwareWrapper {
+
+        /* package private */ LocationAwareWrapper(final LocationAwareLogger logger) {
+            _logger = logger;
+        }
+
+        public void info(final String message) {
+            _logger.log(null, LocationAwareWrapper.class.getName(), LocationAwareLogger.INFO_INT, message, null, null);
+        }
+
+        private final LocationAwareLogger _logger;
+    }
+
+    private static final class FrameworkWrapper {
+
+        /* package private */ FrameworkWrapper(final org.slf4j.Logger logger) {
+            _logger = logger;
+        }
+
+        public void info(final String message) {
+            _logger.info(message);
+        }
+
+        private final org.slf4j.Logger _logger;
+    }
 
     private static final class FakeAbstractStenoCallerConverter extends AbstractStenoCallerConverter {
         @Override
@@ -15,7 +15,9 @@
  */
 package com.arpnetworking.logback;
 
+import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.status.Status;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -23,8 +25,12 @@ import org.slf4j.Marker;
 import org.slf4j.helpers.BasicMarkerFactory;
 
 import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
  * Tests for <code>BaseLoggingEncoder</code>.
@@ -39,6 +45,7 @@ public class BaseLoggingEncoderTest {
         rootMarker.add(StenoMarker.ARRAY_MARKER);
         Assert.assertTrue(_encoder.isArrayStenoEvent(StenoMarker.ARRAY_MARKER));
         Assert.assertTrue(_encoder.isArrayStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isArrayStenoEvent(null));
         Assert.assertFalse(_encoder.isArrayStenoEvent(StenoMarker.ARRAY_JSON_MARKER));
         Assert.assertFalse(_encoder.isArrayStenoEvent(StenoMarker.MAP_MARKER));
         Assert.assertFalse(_encoder.isArrayStenoEvent(StenoMarker.MAP_JSON_MARKER));
@@ -52,6 +59,7 @@ public class BaseLoggingEncoderTest {
         rootMarker.add(StenoMarker.ARRAY_JSON_MARKER);
         Assert.assertTrue(_encoder.isArrayJsonStenoEvent(StenoMarker.ARRAY_JSON_MARKER));
         Assert.assertTrue(_encoder.isArrayJsonStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isArrayJsonStenoEvent(null));
         Assert.assertFalse(_encoder.isArrayJsonStenoEvent(StenoMarker.ARRAY_MARKER));
         Assert.assertFalse(_encoder.isArrayJsonStenoEvent(StenoMarker.MAP_MARKER));
         Assert.assertFalse(_encoder.isArrayJsonStenoEvent(StenoMarker.MAP_JSON_MARKER));
@@ -65,6 +73,7 @@ public class BaseLoggingEncoderTest {
         rootMarker.add(StenoMarker.MAP_MARKER);
         Assert.assertTrue(_encoder.isMapStenoEvent(StenoMarker.MAP_MARKER));
         Assert.assertTrue(_encoder.isMapStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isMapStenoEvent(null));
         Assert.assertFalse(_encoder.isMapStenoEvent(StenoMarker.MAP_JSON_MARKER));
         Assert.assertFalse(_encoder.isMapStenoEvent(StenoMarker.ARRAY_MARKER));
         Assert.assertFalse(_encoder.isMapStenoEvent(StenoMarker.ARRAY_JSON_MARKER));
@@ -78,6 +87,7 @@ public class BaseLoggingEncoderTest {
         rootMarker.add(StenoMarker.MAP_JSON_MARKER);
         Assert.assertTrue(_encoder.isMapJsonStenoEvent(StenoMarker.MAP_JSON_MARKER));
         Assert.assertTrue(_encoder.isMapJsonStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isMapJsonStenoEvent(null));
         Assert.assertFalse(_encoder.isMapJsonStenoEvent(StenoMarker.MAP_MARKER));
         Assert.assertFalse(_encoder.isMapJsonStenoEvent(StenoMarker.ARRAY_MARKER));
         Assert.assertFalse(_encoder.isMapJsonStenoEvent(StenoMarker.ARRAY_JSON_MARKER));
@@ -91,6 +101,7 @@ public class BaseLoggingEncoderTest {
         rootMarker.add(StenoMarker.OBJECT_MARKER);
         Assert.assertTrue(_encoder.isObjectStenoEvent(StenoMarker.OBJECT_MARKER));
         Assert.assertTrue(_encoder.isObjectStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isObjectStenoEvent(null));
         Assert.assertFalse(_encoder.isObjectStenoEvent(StenoMarker.MAP_MARKER));
         Assert.assertFalse(_encoder.isObjectStenoEvent(StenoMarker.MAP_JSON_MARKER));
         Assert.assertFalse(_encoder.isObjectStenoEvent(StenoMarker.ARRAY_MARKER));
@@ -104,6 +115,7 @@ public class BaseLoggingEncoderTest {
         rootMarker.add(StenoMarker.OBJECT_JSON_MARKER);
         Assert.assertTrue(_encoder.isObjectJsonStenoEvent(StenoMarker.OBJECT_JSON_MARKER));
         Assert.assertTrue(_encoder.isObjectJsonStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isObjectJsonStenoEvent(null));
         Assert.assertFalse(_encoder.isObjectJsonStenoEvent(StenoMarker.MAP_MARKER));
         Assert.assertFalse(_encoder.isObjectJsonStenoEvent(StenoMarker.MAP_JSON_MARKER));
         Assert.assertFalse(_encoder.isObjectJsonStenoEvent(StenoMarker.ARRAY_MARKER));
@@ -111,6 +123,196 @@ public class BaseLoggingEncoderTest {
         Assert.assertFalse(_encoder.isObjectJsonStenoEvent(StenoMarker.OBJECT_MARKER));
     }
 
+    @Test
+    public void testIsListsStenoEvent() throws Exception {
+        final Marker rootMarker = new BasicMarkerFactory().getMarker("foo");
+        rootMarker.add(StenoMarker.LISTS_MARKER);
+        Assert.assertTrue(_encoder.isListsStenoEvent(StenoMarker.LISTS_MARKER));
+        Assert.assertTrue(_encoder.isListsStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isListsStenoEvent(null));
+        Assert.assertFalse(_encoder.isListsStenoEvent(StenoMarker.PAYLOAD_MARKER));
+        Assert.assertFalse(_encoder.isListsStenoEvent(StenoMarker.ARRAY_MARKER));
+        Assert.assertFalse(_encoder.isListsStenoEvent(StenoMarker.MAP_MARKER));
+        Assert.assertFalse(_encoder.isListsStenoEvent(StenoMarker.OBJECT_MARKER));
+    }
+
+    @Test
+    public void testIsPayloadStenoEvent() throws Exception {
+        final Marker rootMarker = new BasicMarkerFactory().getMarker("foo");
+        rootMarker.add(StenoMarker.PAYLOAD_MARKER);
+        Assert.assertTrue(_encoder.isPayloadStenoEvent(StenoMarker.PAYLOAD_MARKER));
+        Assert.assertTrue(_encoder.isPayloadStenoEvent(rootMarker));
+        Assert.assertFalse(_encoder.isPayloadStenoEvent(null));
+        Assert.assertFalse(_encoder.isPayloadStenoEvent(StenoMarker.LISTS_MARKER));
+        Assert.assertFalse(_encoder.isPayloadStenoEvent(StenoMarker.ARRAY_MARKER));
+        Assert.assertFalse(_encoder.isPayloadStenoEvent(StenoMarker.MAP_MARKER));
+        Assert.assertFalse(_encoder.isPayloadStenoEvent(StenoMarker.OBJECT_MARKER));
+    }
+
+    @Test
+    public void testBuildPayloadMessageDelegatesToLists() throws Exception {
+        final BaseLoggingEncoder encoder = Mockito.spy(new TestLoggingEncoder());
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        encoder.init(outputStream);
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(StenoMarker.PAYLOAD_MARKER).when(event).getMarker();
+        Mockito.doReturn("name").when(event).getMessage();
+        Mockito.doReturn(new Object[]{new StenoPayload(
+                new StenoPayload.Fields.Builder().putInt("dataKey", 1).build(),
+                new StenoPayload.Fields.Builder().putObject("contextKey", "contextValue").build())})
+                .when(event).getArgumentArray();
+
+        encoder.doEncode(event);
+
+        Mockito.verify(encoder).buildListsMessage(
+                event,
+                "name",
+                Collections.singletonList("dataKey"),
+                Collections.singletonList(1),
+                Collections.singletonList("contextKey"),
+                Collections.singletonList("contextValue"));
+        Mockito.verify(outputStream).write("lists message".getBytes("UTF8"));
+        Assert.assertEquals(Long.valueOf(1), encoder.getMetrics().getEventsEncodedByStrategy().get("payload"));
+    }
+
+    @Test
+    public void testRegisterStrategy() throws Exception {
+        final Marker marker = new BasicMarkerFactory().getMarker("testRegisterStrategy");
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+        _encoder.registerStrategy(marker, "custom", (event, eventName, argumentArray) -> "custom message");
+
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(marker).when(event).getMarker();
+        _encoder.doEncode(event);
+
+        Mockito.verify(outputStream).write("custom message".getBytes("UTF8"));
+        Assert.assertEquals(Long.valueOf(1), _encoder.getMetrics().getEventsEncodedByStrategy().get("custom"));
+    }
+
+    @Test
+    public void testRegisterStrategyReplacesExisting() throws Exception {
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+        _encoder.registerStrategy(StenoMarker.MAP_MARKER, "custom", (event, eventName, argumentArray) -> "custom message");
+
+        final Marker rootMarker = new BasicMarkerFactory().getMarker("foo");
+        rootMarker.add(StenoMarker.MAP_MARKER);
+        rootMarker.add(StenoMarker.OBJECT_MARKER);
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(rootMarker).when(event).getMarker();
+        _encoder.doEncode(event);
+
+        // The replacement keeps the position of the built-in map strategy
+        Mockito.verify(outputStream).write("custom message".getBytes("UTF8"));
+        Assert.assertNull(_encoder.getMetrics().getEventsEncodedByStrategy().get("map"));
+    }
+
+    @Test
+    public void testReferencedMarker() throws Exception {
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+
+        final Marker rootMarker = new BasicMarkerFactory().getMarker("foo");
+        rootMarker.add(StenoMarker.OBJECT_JSON_MARKER);
+        rootMarker.add(StenoMarker.ARRAY_MARKER);
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(rootMarker).when(event).getMarker();
+        Mockito.doReturn(new Object[]{new String[0], new Object[0]}).when(event).getArgumentArray();
+        _encoder.doEncode(event);
+
+        Mockito.verify(outputStream).write("array message".getBytes("UTF8"));
+    }
+
+    @Test
+    public void testUnregisteredMarker() throws Exception {
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(new BasicMarkerFactory().getMarker("foo")).when(event).getMarker();
+        _encoder.doEncode(event);
+
+        Mockito.verify(outputStream).write("standard message".getBytes("UTF8"));
+        Assert.assertEquals(Long.valueOf(1), _encoder.getMetrics().getEventsEncodedByStrategy().get("standard"));
+    }
+
+    @Test
+    public void testReferencedRegisteredMarker() throws Exception {
+        final Marker marker = new BasicMarkerFactory().getMarker("testReferencedRegisteredMarker");
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+        _encoder.registerStrategy(marker, "custom", (event, eventName, argumentArray) -> "custom message");
+
+        final Marker rootMarker = new BasicMarkerFactory().getMarker("foo");
+        rootMarker.add(marker);
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(rootMarker).when(event).getMarker();
+        _encoder.doEncode(event);
+
+        Mockito.verify(outputStream).write("custom message".getBytes("UTF8"));
+    }
+
+    @Test
+    public void testReferencedBuiltInMarkers() throws Exception {
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+        _encoder.registerStrategy(
+                new BasicMarkerFactory().getMarker("testReferencedBuiltInMarkers"),
+                "custom",
+                (event, eventName, argumentArray) -> "custom message");
+
+        final Marker[] markers = new Marker[] {
+            StenoMarker.PAYLOAD_MARKER,
+            StenoMarker.LISTS_MARKER,
+            StenoMarker.ARRAY_MARKER,
+            StenoMarker.ARRAY_JSON_MARKER,
+            StenoMarker.MAP_MARKER,
+            StenoMarker.MAP_JSON_MARKER,
+            StenoMarker.OBJECT_MARKER,
+            StenoMarker.OBJECT_JSON_MARKER,
+        };
+        for (final Marker marker : markers) {
+            final Marker rootMarker = new BasicMarkerFactory().getMarker("foo");
+            rootMarker.add(marker);
+            final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+            Mockito.doReturn(rootMarker).when(event).getMarker();
+            Mockito.doReturn(new Object[4]).when(event).getArgumentArray();
+            _encoder.doEncode(event);
+        }
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(new BasicMarkerFactory().getMarker("foo")).when(event).getMarker();
+        _encoder.doEncode(event);
+
+        final Map<String, Long> eventsEncodedByStrategy = _encoder.getMetrics().getEventsEncodedByStrategy();
+        for (final String strategy : new String[] {"payload", "lists", "array", "arrayJson", "map", "mapJson", "object", "objectJson"}) {
+            Assert.assertEquals(strategy, Long.valueOf(1), eventsEncodedByStrategy.get(strategy));
+        }
+        Assert.assertEquals(Long.valueOf(1), eventsEncodedByStrategy.get("standard"));
+        Assert.assertNull(eventsEncodedByStrategy.get("custom"));
+    }
+
+    @Test
+    public void testOverriddenMarkerCheck() throws Exception {
+        final Marker marker = new BasicMarkerFactory().getMarker("testOverriddenMarkerCheck");
+        final BaseLoggingEncoder encoder = new TestLoggingEncoder() {
+            @Override
+            protected boolean isMapStenoEvent(final Marker eventMarker) {
+                return eventMarker == marker || super.isMapStenoEvent(eventMarker);
+            }
+        };
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        encoder.init(outputStream);
+
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        Mockito.doReturn(marker).when(event).getMarker();
+        Mockito.doReturn(new Object[]{Collections.emptyMap()}).when(event).getArgumentArray();
+        encoder.doEncode(event);
+
+        Mockito.verify(outputStream).write("map message".getBytes("UTF8"));
+        Assert.assertEquals(Long.valueOf(1), encoder.getMetrics().getEventsEncodedByStrategy().get("map"));
+    }
+
     @Test
     public void testImmediateFlushEnabled() throws Exception {
         final OutputStream outputStream = Mockito.mock(OutputStream.class);
@@ -134,8 +336,157 @@ public class BaseLoggingEncoderTest {
         Mockito.verify(outputStream, Mockito.never()).flush();
     }
 
+    @Test
+    public void testMetrics() throws Exception {
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+        _encoder.setLatencySampleRate(1);
+        Assert.assertEquals(1, _encoder.getLatencySampleRate());
+
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        _encoder.doEncode(event);
+        Mockito.doReturn(StenoMarker.MAP_MARKER).when(event).getMarker();
+        Mockito.doReturn(new Object[]{Collections.emptyMap()}).when(event).getArgumentArray();
+        _encoder.doEncode(event);
+
+        Assert.assertEquals(2, _encoder.getMetrics().getEventsEncoded());
+        Assert.assertEquals(Long.valueOf(1), _encoder.getMetrics().getEventsEncodedByStrategy().get("standard"));
+        Assert.assertEquals(Long.valueOf(1), _encoder.getMetrics().getEventsEncodedByStrategy().get("map"));
+        Assert.assertEquals("standard message".length() + "map message".length(), _encoder.getMetrics().getBytesWritten());
+        Assert.assertEquals(2, _encoder.getMetrics().getEncodeLatencySamples());
+        Assert.assertEquals(0, _encoder.getMetrics().getEncodingFailures());
+    }
+
+    @Test
+    public void testMetricsLatencySamplingDisabled() throws Exception {
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        _encoder.init(outputStream);
+        _encoder.setLatencySampleRate(0);
+
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        _encoder.doEncode(event);
+
+        Assert.assertEquals(1, _encoder.getMetrics().getEventsEncoded());
+        Assert.assertEquals(0, _encoder.getMetrics().getEncodeLatencySamples());
+    }
+
+    @Test
+    public void testMetricsEncodingFailure() throws Exception {
+        final BaseLoggingEncoder encoder = new TestLoggingEncoder() {
+            @Override
+            protected String buildStandardMessage(final ILoggingEvent event) throws EncodingException {
+                throw new EncodingException(Collections.emptyMap(), new IllegalStateException("Test"));
+            }
+        };
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        encoder.init(outputStream);
+
+        final ILoggingEvent event = Mockito.mock(ILoggingEvent.class);
+        encoder.doEncode(event);
+
+        Assert.assertEquals(1, encoder.getMetrics().getEncodingFailures());
+        Assert.assertEquals(
+                Long.valueOf(1),
+                encoder.getMetrics().getEncodingFailuresByCause().get(IllegalStateException.class.getName()));
+        Assert.assertEquals(Long.valueOf(1), encoder.getMetrics().getEventsEncodedByStrategy().get("standard"));
+    }
+
+    @Test
+    public void testJmxDisabled() throws Exception {
+        final LoggerContext context = new LoggerContext();
+        _encoder.setContext(context);
+        _encoder.init(Mockito.mock(OutputStream.class));
+        _encoder.setJmxName("testJmxDisabled");
+        Assert.assertFalse(_encoder.isJmxEnabled());
+        _encoder.start();
+        Assert.assertFalse(MBEAN_SERVER.isRegistered(_encoder.createObjectName()));
+        _encoder.stop();
+    }
+
+    @Test
+    public void testJmxRegistration() throws Exception {
+        final LoggerContext context = new LoggerContext();
+        context.setName("default");
+        _encoder.setContext(context);
+        _encoder.init(Mockito.mock(OutputStream.class));
+        _encoder.setJmxEnabled(true);
+        _encoder.setJmxName("testJmxRegistration");
+        Assert.assertTrue(_encoder.isJmxEnabled());
+        Assert.assertEquals("testJmxRegistration", _encoder.getJmxName());
+
+        final ObjectName objectName = _encoder.createObjectName();
+        Assert.assertEquals("com.arpnetworking.logback", objectName.getDomain());
+        Assert.assertEquals("TestLoggingEncoder", objectName.getKeyProperty("type"));
+        Assert.assertEquals(ObjectName.quote("default"), objectName.getKeyProperty("context"));
+        Assert.assertEquals(ObjectName.quote("testJmxRegistration"), objectName.getKeyProperty("name"));
+
+        _encoder.start();
+        Assert.assertTrue(MBEAN_SERVER.isRegistered(objectName));
+        Assert.assertEquals(0L, MBEAN_SERVER.getAttribute(objectName, "EventsEncoded"));
+        _encoder.stop();
+        Assert.assertFalse(MBEAN_SERVER.isRegistered(objectName));
+    }
+
+    @Test
+    public void testJmxRegistrationConflict() throws Exception {
+        final LoggerContext context = new LoggerContext();
+        final BaseLoggingEncoder otherEncoder = new TestLoggingEncoder();
+        otherEncoder.setContext(context);
+        otherEncoder.init(Mockito.mock(OutputStream.class));
+        otherEncoder.setJmxEnabled(true);
+        otherEncoder.setJmxName("testJmxRegistrationConflict");
+        _encoder.setContext(context);
+        _encoder.init(Mockito.mock(OutputStream.class));
+        _encoder.setJmxEnabled(true);
+        _encoder.setJmxName("testJmxRegistrationConflict");
+
+        otherEncoder.start();
+        _encoder.start();
+        Assert.assertTrue(hasWarning(context, "Unable to register encoder metrics with JMX"));
+
+        // Only the registered encoder unregisters the metrics
+        _encoder.stop();
+        Assert.assertTrue(MBEAN_SERVER.isRegistered(otherEncoder.createObjectName()));
+        otherEncoder.stop();
+        Assert.assertFalse(MBEAN_SERVER.isRegistered(otherEncoder.createObjectName()));
+    }
+
+    @Test
+    public void testJmxUnregistrationFailure() throws Exception {
+        final LoggerContext context = new LoggerContext();
+        _encoder.setContext(context);
+        _encoder.init(Mockito.mock(OutputStream.class));
+        _encoder.setJmxEnabled(true);
+        _encoder.setJmxName("testJmxUnregistrationFailure");
+
+        _encoder.start();
+        MBEAN_SERVER.unregisterMBean(_encoder.createObjectName());
+        _encoder.stop();
+        Assert.assertTrue(hasWarning(context, "Unable to unregister encoder metrics from JMX"));
+    }
+
+    @Test
+    public void testJmxObjectNameWithoutContext() throws Exception {
+        final ObjectName objectName = _encoder.createObjectName();
+        Assert.assertNull(objectName.getKeyProperty("context"));
+        Assert.assertEquals(
+                ObjectName.quote(Integer.toHexString(System.identityHashCode(_encoder))),
+                objectName.getKeyProperty("name"));
+    }
+
+    private static boolean hasWarning(final LoggerContext context, final String message) {
+        for (final Status status : context.getStatusManager().getCopyOfStatusList()) {
+            if (status.getLevel() == Status.WARN && message.equals(status.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private BaseLoggingEncoder _encoder = new TestLoggingEncoder();
 
+    private static final MBeanServer MBEAN_SERVER = ManagementFactory.getPlatformMBeanServer();
+
     /**
      * Implementation of <code>BaseLoggingEncoder</code> for tests.
      */
@@ -210,7 +561,7 @@ public class BaseLoggingEncoderTest {
         }
 
         @Override
-        protected String buildStandardMessage(final ILoggingEvent event) {
+        protected String buildStandardMessage(final ILoggingEvent event) throws EncodingException {
             return "standard message";
         }
 
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import com.arpnetworking.logback.annotations.LogRedact;
+import com.arpnetworking.logback.annotations.Loggable;
+import com.arpnetworking.logback.widgets.Widget;
+import com.arpnetworking.logback.widgets.WidgetWithLoggable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Representative events for each encoding strategy shared by the encoder
+ * benchmarks and allocation tests.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+/* package private */ final class BenchmarkEvents {
+
+    /**
+     * Create a representative event for the named strategy.
+     *
+     * @param context The <code>LoggerContext</code> the event belongs to.
+     * @param strategy The strategy; one of: array, arrayJson, map, mapJson, object, objectJson, lists, payload or standard.
+     * @param withThrowable Whether to attach a nested <code>Throwable</code> to the event.
+     * @return New <code>LoggingEvent</code> instance.
+     */
+    public static LoggingEvent create(final LoggerContext context, final String strategy, final boolean withThrowable) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setLoggerName("com.arpnetworking.logback.BenchmarkEvents");
+        event.setLoggerContextRemoteView(context.getLoggerContextRemoteView());
+        event.setThreadName("benchmark");
+        event.setTimeStamp(0);
+        event.setMessage("standard".equals(strategy) ? "User {} logged in from {} after {} attempts" : "benchmark_event");
+        if (withThrowable) {
+            event.setThrowableProxy(new ThrowableProxy(
+                    new IllegalStateException(
+                            "outer",
+                            new IllegalArgumentException(
+                                    "middle",
+                                    new IOException("inner")))));
+        }
+        switch (strategy) {
+            case "array":
+                event.setMarker(StenoMarker.ARRAY_MARKER);
+                event.setArgumentArray(new Object[]{KEYS, VALUES});
+                break;
+            case "arrayJson":
+                event.setMarker(StenoMarker.ARRAY_JSON_MARKER);
+                event.setArgumentArray(new Object[]{KEYS, JSON_VALUES});
+                break;
+            case "map":
+                event.setMarker(StenoMarker.MAP_MARKER);
+                event.setArgumentArray(new Object[]{createMap(VALUES)});
+                break;
+            case "mapJson":
+                event.setMarker(StenoMarker.MAP_JSON_MARKER);
+                event.setArgumentArray(new Object[]{createMap(JSON_VALUES)});
+                break;
+            case "object":
+                event.setMarker(StenoMarker.OBJECT_MARKER);
+                event.setArgumentArray(new Object[]{new Account("user-1234", "hunter2")});
+                break;
+            case "objectJson":
+                event.setMarker(StenoMarker.OBJECT_JSON_MARKER);
+                event.setArgumentArray(new Object[]{"{\"id\":\"user-1234\",\"password\":\"hunter2\"}"});
+                break;
+            case "lists":
+                event.setMarker(StenoMarker.LISTS_MARKER);
+                event.setArgumentArray(new Object[]{
+                        new ArrayList<>(Arrays.asList(KEYS)),
+                        new ArrayList<>(Arrays.asList(VALUES)),
+                        new ArrayList<>(Arrays.asList(CONTEXT_KEYS)),
+                        new ArrayList<>(Arrays.asList(CONTEXT_VALUES))});
+                break;
+            case "payload":
+                event.setMarker(StenoMarker.PAYLOAD_MARKER);
+                event.setArgumentArray(new Object[]{
+                        new StenoPayload(createFields(KEYS, VALUES), createFields(CONTEXT_KEYS, CONTEXT_VALUES))});
+                break;
+            case "standard":
+                event.setArgumentArray(new Object[]{"user-1234", "10.0.0.1", Integer.valueOf(3)});
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported strategy: " + strategy);
+        }
+        return event;
+    }
+
+    private static <T> Map<String, T> createMap(final T[] values) {
+        final Map<String, T> map = new LinkedHashMap<>();
+        for (int i = 0; i < KEYS.length; ++i) {
+            map.put(KEYS[i], values[i]);
+        }
+        return map;
+    }
+
+    private static StenoPayload.Fields createFields(final String[] keys, final Object[] values) {
+        final StenoPayload.Fields.Builder builder = new StenoPayload.Fields.Builder();
+        for (int i = 0; i < keys.length; ++i) {
+            builder.putObject(keys[i], values[i]);
+        }
+        return builder.build();
+    }
+
+    private BenchmarkEvents() {}
+
+    /**
+     * <code>OutputStream</code> which discards everything written to it.
+     */
+    public static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(final int b) {
+            // Discard
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            // Discard
+        }
+    };
+
+    private static final String[] KEYS = new String[]{"userId", "count", "ratio", "loggable", "widget", "account"};
+    private static final Object[] VALUES = new Object[]{
+            "user-1234",
+            Integer.valueOf(42),
+            Double.valueOf(0.75),
+            new WidgetWithLoggable("loggable"),
+            new Widget("widget"),
+            new Account("user-1234", "hunter2")};
+    private static final String[] JSON_VALUES = new String[]{
+            "\"user-1234\"",
+            "42",
+            "0.75",
+            "{\"value\":\"loggable\"}",
+            "{\"value\":\"widget\"}",
+            "{\"id\":\"user-1234\",\"password\":\"hunter2\"}"};
+    private static final String[] CONTEXT_KEYS = new String[]{"requestId", "session"};
+    private static final Object[] CONTEXT_VALUES = new Object[]{"c8b3b9f4-7a5e-4b9b-9d5c-3f1e2a7d6b10", "s-5678"};
+
+    /**
+     * Loggable class with a redacted property.
+     */
+    @Loggable
+    public static final class Account {
+
+        /**
+         * Public constructor.
+         *
+         * @param id The account identifier.
+         * @param password The account password.
+         */
+        public Account(final String id, final String password) {
+            _id = id;
+            _password = password;
+        }
+
+        public String getId() {
+            return _id;
+        }
+
+        @LogRedact
+        public String getPassword() {
+            return _password;
+        }
+
+        private final String _id;
+        private final String _password;
+    }
+}
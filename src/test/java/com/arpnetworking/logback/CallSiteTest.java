@@ -0,0 +1,104 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Tests for <code>CallSite</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class CallSiteTest {
+
+    @Test
+    public void testCallSite() {
+        Assert.assertEquals("com.example.Foo", _callSite.getClassName());
+        Assert.assertEquals("bar", _callSite.getMethodName());
+        Assert.assertEquals("Foo.java", _callSite.getFileName());
+        Assert.assertEquals(42, _callSite.getLine());
+        Assert.assertEquals(new StackTraceElement("com.example.Foo", "bar", "Foo.java", 42), _callSite.getStackTraceElement());
+        Assert.assertSame(_callSite.getStackTraceElement(), _callSite.getStackTraceElement());
+        Assert.assertEquals("CallSite{com.example.Foo.bar(Foo.java:42)}", _callSite.toString());
+    }
+
+    @Test
+    public void testCurrent() {
+        Assert.assertNull(CallSite.current());
+        CallSite.enter(_callSite);
+        try {
+            Assert.assertSame(_callSite, CallSite.current());
+        } finally {
+            CallSite.exit();
+        }
+        Assert.assertNull(CallSite.current());
+    }
+
+    @Test
+    public void testNested() {
+        final CallSite[] callSites = new CallSite[10];
+        for (int i = 0; i < callSites.length; ++i) {
+            callSites[i] = new CallSite("com.example.Foo", "bar", "Foo.java", i);
+            Assert.assertSame(i == 0 ? null : callSites[i - 1], CallSite.enter(callSites[i]));
+            Assert.assertSame(callSites[i], CallSite.current());
+        }
+        for (int i = callSites.length - 1; i >= 0; --i) {
+            Assert.assertSame(callSites[i], CallSite.current());
+            CallSite.exit();
+        }
+        Assert.assertNull(CallSite.current());
+
+        // An unbalanced exit is ignored
+        CallSite.exit();
+        Assert.assertNull(CallSite.current());
+    }
+
+    @Test
+    public void testFromEvent() {
+        Assert.assertNull(CallSite.fromEvent(createEvent(null)));
+        Assert.assertNull(CallSite.fromEvent(createEvent(new Object[0])));
+        Assert.assertNull(CallSite.fromEvent(createEvent(new Object[]{new String[]{}, new Object[]{}})));
+        Assert.assertSame(_callSite, CallSite.fromEvent(createEvent(new Object[]{new String[]{}, new Object[]{}, _callSite})));
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(_callSite);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final CallSite callSite = (CallSite) in.readObject();
+            Assert.assertEquals(_callSite.getStackTraceElement(), callSite.getStackTraceElement());
+        }
+    }
+
+    private static LoggingEvent createEvent(final Object[] arguments) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setArgumentArray(arguments);
+        return event;
+    }
+
+    private final CallSite _callSite = new CallSite("com.example.Foo", "bar", "Foo.java", 42);
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of resolving the caller of a logging statement with
+ * <code>StenoLineOfCallerConverter</code> at increasing stack depths (the
+ * harness adds a few frames). The <code>base</code> version uses the Java 8
+ * classes which capture the whole stack through a <code>Throwable</code> and
+ * the <code>versioned</code> version loads the Java 9 classes from
+ * <code>META-INF/versions/9</code> which walk the stack with
+ * <code>StackWalker</code>; the versioned classes are only compiled when
+ * building on Java 9 or later and otherwise both versions are the same.
+ *
+ * Execute this using the command:
+ * <pre>
+ *     mvn -Pjmh -Djmh.include=CallerDataBenchmark test
+ * </pre>
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallerDataBenchmark {
+
+    /**
+     * Create the logger and the converting appender under test.
+     *
+     * @throws Exception if the converter cannot be created.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        final ClassLoader classLoader;
+        if ("versioned".equals(version)) {
+            final URL classes = CallSite.class.getProtectionDomain().getCodeSource().getLocation();
+            classLoader = new VersionedClassLoader(
+                    new URL[] {new URL(classes, "META-INF/versions/9/"), classes},
+                    CallerDataBenchmark.class.getClassLoader());
+        } else {
+            classLoader = CallerDataBenchmark.class.getClassLoader();
+        }
+        final ClassicConverter converter = (ClassicConverter) Class.forName(
+                StenoLineOfCallerConverter.class.getName(),
+                true,
+                classLoader).newInstance();
+        converter.start();
+
+        _context = new LoggerContext();
+        _appender = new ConvertingAppender(converter);
+        _appender.setContext(_context);
+        _appender.start();
+        _logger = _context.getLogger(CallerDataBenchmark.class);
+        _logger.setLevel(Level.INFO);
+        _logger.setAdditive(false);
+        _logger.addAppender(_appender);
+    }
+
+    /**
+     * Stop the logger context.
+     */
+    @TearDown
+    public void tearDown() {
+        _appender.stop();
+        _context.stop();
+    }
+
+    /**
+     * Log an event at the configured stack depth and resolve its caller.
+     *
+     * @return The line number of the caller.
+     */
+    @Benchmark
+    public String callerData() {
+        return logAtDepth(depth);
+    }
+
+    private String logAtDepth(final int remaining) {
+        if (remaining > 0) {
+            return logAtDepth(remaining - 1);
+        }
+        _logger.info("benchmark");
+        return _appender.getLast();
+    }
+
+    @Param({"20", "100", "300"})
+    public int depth;
+
+    @Param({"base", "versioned"})
+    public String version;
+
+    private LoggerContext _context;
+    private Logger _logger;
+    private ConvertingAppender _appender;
+
+    private static final class ConvertingAppender extends AppenderBase<ILoggingEvent> {
+
+        /* package private */ ConvertingAppender(final ClassicConverter converter) {
+            _converter = converter;
+        }
+
+        public String getLast() {
+            return _last;
+        }
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            _last = _converter.convert(event);
+        }
+
+        private final ClassicConverter _converter;
+        private String _last;
+    }
+
+    /**
+     * Class loader which loads the classes of this library itself, in
+     * preference to its parent, so that the versioned classes take effect.
+     */
+    private static final class VersionedClassLoader extends URLClassLoader {
+
+        /* package private */ VersionedClassLoader(final URL[] urls, final ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(LIBRARY_PACKAGE_PREFIX)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    clazz = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(clazz);
+                }
+                return clazz;
+            }
+        }
+
+        private static final String LIBRARY_PACKAGE_PREFIX = "com.arpnetworking.logback.";
+    }
+}
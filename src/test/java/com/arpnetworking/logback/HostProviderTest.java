@@ -17,8 +17,16 @@ package com.arpnetworking.logback;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.net.UnknownHostException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Tests for <code>HostProvider</code>.
@@ -33,4 +41,159 @@ public class HostProviderTest {
         Assert.assertNotNull(hostName);
         Assert.assertFalse(hostName.isEmpty());
     }
+
+    @Test
+    public void testResolvingHostProviderDefault() throws UnknownHostException {
+        final String hostName = HostProvider.RESOLVING.getStable();
+        Assert.assertNotNull(hostName);
+        Assert.assertFalse(hostName.isEmpty());
+    }
+
+    @Test
+    public void testResolvingOverrideProperty() throws UnknownHostException {
+        final Map<String, String> properties = Collections.singletonMap("steno.host", "override");
+        final Map<String, String> environment = new HashMap<>();
+        environment.put("STENO_HOST", "environment");
+        environment.put("HOSTNAME", "fallback");
+        final HostProvider.ResolvingHostProvider provider = createProvider(properties, environment, _tasks::add);
+        Assert.assertEquals("override", provider.get());
+        Assert.assertEquals("override", provider.getStable());
+        Assert.assertTrue(_tasks.isEmpty());
+        Mockito.verifyZeroInteractions(_resolver);
+    }
+
+    @Test
+    public void testResolvingOverrideEnvironment() throws UnknownHostException {
+        final Map<String, String> environment = new HashMap<>();
+        environment.put("STENO_HOST", "environment");
+        environment.put("HOSTNAME", "fallback");
+        final HostProvider.ResolvingHostProvider provider = createProvider(Collections.emptyMap(), environment, _tasks::add);
+        Assert.assertEquals("environment", provider.get());
+        Assert.assertEquals("environment", provider.getStable());
+        Assert.assertTrue(_tasks.isEmpty());
+    }
+
+    @Test
+    public void testResolvingFallbackUntilResolved() throws UnknownHostException {
+        Mockito.doReturn("fallback.example.com").when(_resolver).get();
+        final HostProvider.ResolvingHostProvider provider = createProvider(
+                Collections.emptyMap(),
+                Collections.singletonMap("HOSTNAME", "fallback"),
+                _tasks::add);
+        Assert.assertEquals("fallback", provider.get());
+        Assert.assertEquals("fallback", provider.get());
+        Assert.assertEquals(1, _tasks.size());
+        Mockito.verifyZeroInteractions(_resolver);
+
+        _tasks.get(0).run();
+        Assert.assertEquals("fallback.example.com", provider.get());
+        Assert.assertEquals("fallback", provider.getStable());
+        Assert.assertEquals(1, _tasks.size());
+    }
+
+    @Test
+    public void testResolvingWindowsFallback() throws UnknownHostException {
+        final HostProvider.ResolvingHostProvider provider = createProvider(
+                Collections.emptyMap(),
+                Collections.singletonMap("COMPUTERNAME", "computer"),
+                _tasks::add);
+        Assert.assertEquals("computer", provider.get());
+        Assert.assertEquals("computer", provider.getStable());
+    }
+
+    @Test
+    public void testResolvingTimeout() throws UnknownHostException {
+        Mockito.doReturn("fallback.example.com").when(_resolver).get();
+        final HostProvider.ResolvingHostProvider provider = createProvider(
+                Collections.emptyMap(),
+                Collections.singletonMap("HOSTNAME", "fallback"),
+                _tasks::add);
+        Assert.assertEquals("fallback", provider.get());
+        Mockito.doReturn(START + TIMEOUT).when(_clock).millis();
+        Assert.assertEquals("fallback", provider.get());
+
+        _tasks.get(0).run();
+        Assert.assertEquals("fallback", provider.get());
+    }
+
+    @Test
+    public void testResolvingWithoutFallback() throws UnknownHostException {
+        Mockito.doReturn("host.example.com").when(_resolver).get();
+        final HostProvider.ResolvingHostProvider provider = createProvider(
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                _tasks::add);
+        try {
+            provider.get();
+            Assert.fail("Expected exception not thrown");
+        } catch (final UnknownHostException e) {
+            // Expected exception
+        }
+        Mockito.doReturn(START + TIMEOUT).when(_clock).millis();
+        _tasks.get(0).run();
+        Assert.assertEquals("host.example.com", provider.get());
+    }
+
+    @Test
+    public void testResolvingFailure() throws UnknownHostException {
+        Mockito.doThrow(new UnknownHostException()).when(_resolver).get();
+        final HostProvider.ResolvingHostProvider provider = createProvider(
+                Collections.emptyMap(),
+                Collections.singletonMap("HOSTNAME", "fallback"),
+                _tasks::add);
+        provider.resolve();
+        _tasks.get(0).run();
+        Assert.assertEquals("fallback", provider.get());
+    }
+
+    @Test
+    public void testResolvingStableWaitsForResolution() throws UnknownHostException {
+        Mockito.doReturn("host.example.com").when(_resolver).get();
+        final HostProvider.ResolvingHostProvider provider = createProvider(
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Runnable::run);
+        Assert.assertEquals("host.example.com", provider.getStable());
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void testResolvingStableTimeout() throws UnknownHostException {
+        createProvider(Collections.emptyMap(), Collections.emptyMap(), _tasks::add).getStable();
+    }
+
+    @Test
+    public void testResolvingStableInterrupted() {
+        final HostProvider.ResolvingHostProvider provider = createProvider(
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                _tasks::add);
+        Thread.currentThread().interrupt();
+        try {
+            provider.getStable();
+            Assert.fail("Expected exception not thrown");
+        } catch (final UnknownHostException e) {
+            Assert.assertTrue(Thread.interrupted());
+        }
+    }
+
+    private HostProvider.ResolvingHostProvider createProvider(
+            final Map<String, String> properties,
+            final Map<String, String> environment,
+            final Executor executor) {
+        Mockito.doReturn(START).when(_clock).millis();
+        return new HostProvider.ResolvingHostProvider(
+                _resolver,
+                properties::get,
+                environment::get,
+                executor,
+                _clock,
+                TIMEOUT);
+    }
+
+    private final HostProvider _resolver = Mockito.mock(HostProvider.class);
+    private final Clock _clock = Mockito.mock(Clock.class);
+    private final List<Runnable> _tasks = new ArrayList<>();
+
+    private static final long START = 1000L;
+    private static final long TIMEOUT = 10L;
 }
@@ -28,6 +28,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.slf4j.helpers.MessageFormatter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -39,6 +40,7 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Tests for <code>KeyValueEncoder</code>.
@@ -84,6 +86,45 @@ public class KeyValueEncoderTest {
         assertOutput("KeyValueEncoderTest.testEncodeArray.log", logOutput);
     }
 
+    @Test
+    public void testEncodeArrayWithSuppliers() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.ARRAY_MARKER);
+        event.setMessage("logEvent");
+        event.setThreadName("thread");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        final Supplier<Integer> intSupplier = () -> 1234;
+        final Supplier<Supplier<String>> nestedSupplier = () -> () -> "foo";
+        final Object[] values = new Object[] {intSupplier, nestedSupplier};
+        final Object[] argArray = new Object[2];
+        argArray[0] = new String[] {"key1", "key2"};
+        argArray[1] = values;
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("KeyValueEncoderTest.testEncodeArray.log", logOutput);
+        Assert.assertSame(intSupplier, values[0]);
+    }
+
+    @Test
+    public void testEncodeArrayWithFailedSupplier() throws Exception {
+        Assert.assertTrue(_encoder.isSafe());
+        _encoder.doEncode(createFailedSupplierEvent());
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("KeyValueEncoderTest.testEncodeArrayWithFailedSupplier.log", logOutput);
+    }
+
+    @Test
+    public void testEncodeArrayWithFailedSupplierUnsafe() throws Exception {
+        _encoder.setSafe(false);
+        Assert.assertFalse(_encoder.isSafe());
+        _encoder.doEncode(createFailedSupplierEvent());
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("KeyValueEncoderTest.testEncodeArrayWithFailedSupplierUnsafe.log", logOutput);
+    }
+
     @Test
     public void testEncodeArrayThrowsException() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -434,6 +475,84 @@ public class KeyValueEncoderTest {
         assertOutput("KeyValueEncoderTest.testEncodeLists.log", logOutput);
     }
 
+    @Test
+    public void testEncodePayload() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setThreadName("thread");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        final Object[] argArray = new Object[1];
+        argArray[0] = new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putObject("dataKey", "data\"Value")
+                        .putLong("count", 3L)
+                        .putDouble("ratio", 0.5)
+                        .putBoolean("flag", true)
+                        .build(),
+                new StenoPayload.Fields.Builder()
+                        .putObject("contextKey", "contextValue")
+                        .build());
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("KeyValueEncoderTest.testEncodePayload.log", logOutput);
+    }
+
+    @Test
+    public void testEncodePayloadWithSuppliers() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setThreadName("thread");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        final Supplier<String> dataSupplier = () -> "data\"Value";
+        final Supplier<String> contextSupplier = () -> "contextValue";
+        final Object[] argArray = new Object[1];
+        argArray[0] = new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putObject("dataKey", dataSupplier)
+                        .putLong("count", 3L)
+                        .putDouble("ratio", 0.5)
+                        .putBoolean("flag", true)
+                        .build(),
+                new StenoPayload.Fields.Builder()
+                        .putObject("contextKey", contextSupplier)
+                        .build());
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("KeyValueEncoderTest.testEncodePayload.log", logOutput);
+    }
+
+    @Test
+    public void testEncodePayloadThrowsException() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setThreadName("thread");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        final Object[] argArray = new Object[1];
+        argArray[0] = new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putObject("dataKey", "dataValue")
+                        .build(),
+                new StenoPayload.Fields.Builder()
+                        .putObject("contextKey", "contextValue")
+                        .build());
+        event.setArgumentArray(argArray);
+        _encoder.setLayout(_throwingLayout);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("KeyValueEncoderTest.testEncodeListsThrowsException.log", logOutput);
+    }
+
     @Test
     public void testEncodeListsThrowsException() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -604,6 +723,171 @@ public class KeyValueEncoderTest {
         assertOutput("KeyValueEncoderTest.testEncodeArrayStringNullKeys.log", logOutput);
     }
 
+    @Test
+    public void testCreateMessageMatchesMessageFormatter() {
+        final PatternLayout layout = new PatternLayout();
+        layout.setPattern("%m");
+        layout.setContext(_context);
+        layout.start();
+        _encoder.setLayout(layout);
+        final Object throwingToString = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("Mocked Failure");
+            }
+        };
+        final String[] keys = new String[] {"key1", "key2"};
+        for (final boolean escape : new boolean[] {false, true}) {
+            assertMatchesMessageFormatter("event", keys, new Object[] {"a\"quoted\" value", 1234}, escape);
+            assertMatchesMessageFormatter("event", keys, new Object[] {"plain"}, escape);
+            assertMatchesMessageFormatter("event", keys, new Object[] {null, (Supplier<String>) () -> "\"supplied\""}, escape);
+            assertMatchesMessageFormatter("event", keys, new Object[] {new int[] {1, 2}, new Object[] {"a", null}}, escape);
+            assertMatchesMessageFormatter("event", keys, new Object[] {"value", new IllegalStateException("Trailing")}, escape);
+            assertMatchesMessageFormatter("event", keys, new Object[] {throwingToString, "value"}, escape);
+            assertMatchesMessageFormatter("event", keys, new Object[] {}, escape);
+            assertMatchesMessageFormatter("event", keys, null, escape);
+            assertMatchesMessageFormatter("event", null, new Object[] {"ignored"}, escape);
+            assertMatchesMessageFormatter("event", new String[] {}, new Object[] {"ignored"}, escape);
+            assertMatchesMessageFormatter(null, new String[] {"key1", null}, new Object[] {"a", "b"}, escape);
+            assertMatchesMessageFormatter("event{}", keys, new Object[] {"a\"quoted\" value", "plain"}, escape);
+            assertMatchesMessageFormatter("event", new String[] {"key{}"}, new Object[] {"a", 1234}, escape);
+            assertMatchesMessageFormatter("event", new String[] {"\\{}"}, null, escape);
+        }
+    }
+
+    @Test
+    public void testCreateMessageWithOverriddenFormatString() {
+        final KeyValueEncoder encoder = new KeyValueEncoder() {
+            @Override
+            protected String buildFormatString(final String name, final String[] keys) {
+                return "custom " + super.buildFormatString(name, keys);
+            }
+        };
+        Assert.assertEquals(
+                "custom name=\"event\", key1=\"a\\\"b\"",
+                createMessage(encoder, "event", new String[] {"key1"}, new Object[] {"a\"b"}, true));
+    }
+
+    @Test
+    public void testCreateMessageWithOverriddenEscape() {
+        final KeyValueEncoder encoder = new KeyValueEncoder() {
+            @Override
+            protected Object[] escapeStringValues(final Object[] values) {
+                return new Object[] {"escaped"};
+            }
+        };
+        Assert.assertEquals(
+                "name=\"event\", key1=\"escaped\"",
+                createMessage(encoder, "event", new String[] {"key1"}, new Object[] {"a\"b"}, true));
+    }
+
+    @Test
+    public void testCreateMessageWithSubclass() {
+        final KeyValueEncoder encoder = new KeyValueEncoder() { };
+        Assert.assertEquals(
+                "name=\"event\", key1=\"a\\\"b\"",
+                createMessage(encoder, "event", new String[] {"key1"}, new Object[] {"a\"b"}, true));
+        Assert.assertFalse(KeyValueEncoder.isOverridden(encoder.getClass(), "buildFormatString", String.class, String[].class));
+        Assert.assertTrue(KeyValueEncoder.isOverridden(
+                new KeyValueEncoder() {
+                    @Override
+                    protected Object[] escapeStringValues(final Object[] values) {
+                        return values;
+                    }
+                }.getClass(),
+                "escapeStringValues",
+                Object[].class));
+    }
+
+    @Test
+    public void testSegmentsCacheIsBounded() {
+        final String[] keys = new String[] {"key1", "key2"};
+        Assert.assertArrayEquals(
+                new String[] {"name=\"event\"", ", key1=\"", ", key2=\""},
+                _encoder.getSegments("event", keys));
+        for (int i = 0; i < 2048; ++i) {
+            _encoder.getSegments("event" + i, keys);
+        }
+        Assert.assertSame(_encoder.getSegments("event", keys), _encoder.getSegments("event", keys));
+        Assert.assertNotSame(_encoder.getSegments("event2047", keys), _encoder.getSegments("event2047", keys));
+        Assert.assertArrayEquals(
+                new String[] {"name=\"event2047\"", ", key1=\"", ", key2=\""},
+                _encoder.getSegments("event2047", keys));
+    }
+
+    @Test
+    public void testSegmentsCacheCollisions() {
+        // "Aa" and "BB" have the same hash code
+        final String[] aa = _encoder.getSegments("Aa", new String[] {"key"});
+        final String[] bb = _encoder.getSegments("BB", new String[] {"key"});
+        final String[] keyAa = _encoder.getSegments("event", new String[] {"Aa"});
+        final String[] keyBb = _encoder.getSegments("event", new String[] {"BB"});
+        Assert.assertArrayEquals(new String[] {"name=\"Aa\"", ", key=\""}, aa);
+        Assert.assertArrayEquals(new String[] {"name=\"BB\"", ", key=\""}, bb);
+        Assert.assertArrayEquals(new String[] {"name=\"event\"", ", Aa=\""}, keyAa);
+        Assert.assertArrayEquals(new String[] {"name=\"event\"", ", BB=\""}, keyBb);
+
+        // Lookups compare the signature contents rather than the keys array
+        Assert.assertSame(aa, _encoder.getSegments("Aa", new String[] {"key"}));
+        Assert.assertSame(bb, _encoder.getSegments("BB", new String[] {"key"}));
+        Assert.assertSame(keyAa, _encoder.getSegments("event", new String[] {"Aa"}));
+        Assert.assertSame(keyBb, _encoder.getSegments("event", new String[] {"BB"}));
+        Assert.assertSame(_encoder.getSegments("event", null), _encoder.getSegments("event", new String[0]));
+    }
+
+    private LoggingEvent createFailedSupplierEvent() {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.ARRAY_MARKER);
+        event.setMessage("logEvent");
+        event.setThreadName("thread");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        final Supplier<String> failedSupplier = () -> {
+            throw new IllegalStateException("Supplier failed");
+        };
+        final Object[] argArray = new Object[2];
+        argArray[0] = new String[] {"key1", "key2"};
+        argArray[1] = new Object[] {Integer.valueOf(1234), failedSupplier};
+        event.setArgumentArray(argArray);
+        return event;
+    }
+
+    private void assertMatchesMessageFormatter(
+            final String name,
+            final String[] keys,
+            final Object[] values,
+            final boolean escape) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        Object[] formatterValues = values == null ? null : KeyValueEncoder.resolveSuppliers(values, _encoder.isSafe());
+        if (escape && formatterValues != null) {
+            formatterValues = _encoder.escapeStringValues(formatterValues);
+        }
+        Assert.assertEquals(
+                MessageFormatter.arrayFormat(_encoder.buildFormatString(name, keys), formatterValues).getMessage(),
+                _encoder.createMessage(event, name, keys, values, escape));
+    }
+
+    private String createMessage(
+            final KeyValueEncoder encoder,
+            final String name,
+            final String[] keys,
+            final Object[] values,
+            final boolean escape) {
+        final PatternLayout layout = new PatternLayout();
+        layout.setPattern("%m");
+        layout.setContext(_context);
+        layout.start();
+        encoder.setLayout(layout);
+        encoder.setContext(_context);
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        return encoder.createMessage(event, name, keys, values, escape);
+    }
+
     private static void assertOutput(final String expectedResource, final String actualOutput) {
         final String actualOutputSanitized = actualOutput.replaceAll("host=[^,\\}]+", "host=<HOST>")
                 .replaceAll("processId=[^,\\}]+", "processId=<PROCESS_ID>")
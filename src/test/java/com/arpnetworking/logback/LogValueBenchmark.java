@@ -0,0 +1,116 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.arpnetworking.logback.widgets.WidgetWithLogValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of <code>StenoEncoder</code> encoding <code>@LogValue</code>
+ * types with compiled accessors against Jackson's reflective as-value
+ * serializer.
+ *
+ * Execute this using the command:
+ * <pre>
+ *     mvn -Pjmh -Djmh.include=LogValueBenchmark test
+ * </pre>
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogValueBenchmark {
+
+    /**
+     * Create and start the encoder under test.
+     *
+     * @throws IOException if the encoder cannot be initialized.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        _context = new LoggerContext();
+        _encoder = new StenoEncoder();
+        _encoder.setContext(_context);
+        _encoder.setCompileLogValue(compile);
+        _encoder.init(BenchmarkEvents.NULL_OUTPUT_STREAM);
+        _encoder.start();
+
+        final String[] keys = new String[VALUE_COUNT];
+        final Object[] values = new Object[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; ++i) {
+            keys[i] = "widget" + i;
+            values[i] = new WidgetWithLogValue("value" + i);
+        }
+        _event = new LoggingEvent();
+        _event.setLevel(Level.INFO);
+        _event.setLoggerName("com.arpnetworking.logback.LogValueBenchmark");
+        _event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        _event.setThreadName("benchmark");
+        _event.setTimeStamp(0);
+        _event.setMessage("benchmark_event");
+        _event.setMarker(StenoMarker.ARRAY_MARKER);
+        _event.setArgumentArray(new Object[]{keys, values});
+    }
+
+    /**
+     * Stop the encoder under test.
+     */
+    @TearDown
+    public void tearDown() {
+        _encoder.stop();
+        _context.stop();
+    }
+
+    /**
+     * Encode the event.
+     *
+     * @throws IOException if encoding fails.
+     */
+    @Benchmark
+    public void encode() throws IOException {
+        _encoder.doEncode(_event);
+    }
+
+    @Param({"true", "false"})
+    public boolean compile;
+
+    private LoggerContext _context;
+    private StenoEncoder _encoder;
+    private LoggingEvent _event;
+
+    private static final int VALUE_COUNT = 4;
+}
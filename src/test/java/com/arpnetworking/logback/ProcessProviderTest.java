@@ -16,7 +16,16 @@
 package com.arpnetworking.logback;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
 
 /**
  * Tests for <code>ProcessProvider</code>.
@@ -31,4 +40,85 @@ public class ProcessProviderTest {
         Assert.assertNotNull(process);
         Assert.assertFalse(process.isEmpty());
     }
+
+    @Test
+    public void testDefaultProcessProviderMatchesManagement() {
+        final ProcessProvider management = new ProcessProvider.DefaultProcessProvider(Pattern.compile("^([\\d]+)@.*$"));
+        Assert.assertEquals(management.get(), ProcessProvider.DEFAULT.get());
+    }
+
+    @Test
+    public void testFastProcessProviderProcessHandle() {
+        final ProcessProvider provider = new ProcessProvider.FastProcessProvider(
+                FakeProcessHandle.class.getName(),
+                Paths.get("does-not-exist"),
+                _fallback);
+        Assert.assertEquals("1234", provider.get());
+        Mockito.verifyZeroInteractions(_fallback);
+    }
+
+    @Test
+    public void testFastProcessProviderProcSelf() throws IOException {
+        final Path procSelf = Files.createSymbolicLink(
+                _temporaryFolder.getRoot().toPath().resolve("self"),
+                Paths.get("4321"));
+        final ProcessProvider provider = new ProcessProvider.FastProcessProvider(
+                "com.example.DoesNotExist",
+                procSelf,
+                _fallback);
+        Assert.assertEquals("4321", provider.get());
+        Mockito.verifyZeroInteractions(_fallback);
+    }
+
+    @Test
+    public void testFastProcessProviderProcSelfNotNumeric() throws IOException {
+        final Path procSelf = Files.createSymbolicLink(
+                _temporaryFolder.getRoot().toPath().resolve("self"),
+                Paths.get("thread-self"));
+        Mockito.doReturn("fallback").when(_fallback).get();
+        final ProcessProvider provider = new ProcessProvider.FastProcessProvider(
+                "com.example.DoesNotExist",
+                procSelf,
+                _fallback);
+        Assert.assertEquals("fallback", provider.get());
+    }
+
+    @Test
+    public void testFastProcessProviderFallback() {
+        Mockito.doReturn("fallback").when(_fallback).get();
+        final ProcessProvider provider = new ProcessProvider.FastProcessProvider(
+                "com.example.DoesNotExist",
+                _temporaryFolder.getRoot().toPath().resolve("does-not-exist"),
+                _fallback);
+        Assert.assertEquals("fallback", provider.get());
+    }
+
+    @Rule
+    public final TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    private final ProcessProvider _fallback = Mockito.mock(ProcessProvider.class);
+
+    /**
+     * Stand-in for <code>java.lang.ProcessHandle</code>.
+     */
+    public static final class FakeProcessHandle {
+
+        /**
+         * Return the current process handle.
+         *
+         * @return The current process handle.
+         */
+        public static FakeProcessHandle current() {
+            return new FakeProcessHandle();
+        }
+
+        /**
+         * Return the process identifier.
+         *
+         * @return The process identifier.
+         */
+        public long pid() {
+            return 1234;
+        }
+    }
 }
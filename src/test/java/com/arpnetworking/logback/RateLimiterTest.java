@@ -0,0 +1,254 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for <code>RateLimiter</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class RateLimiterTest {
+
+    @Before
+    public void setUp() {
+        _clock = new ManualClock(START);
+    }
+
+    @Test
+    public void testFirstPermit() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofSeconds(1), 1, 10, _clock);
+        final RateLimiter.Permit permit = rateLimiter.tryAcquire("foo");
+        Assert.assertNotNull(permit);
+        Assert.assertEquals(0, permit.getSkipped());
+        Assert.assertNull(permit.getLastAcquired());
+    }
+
+    @Test
+    public void testRateLimited() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofSeconds(1), 1, 10, _clock);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+        _clock.setMillis(START + 999);
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+
+        _clock.setMillis(START + 1000);
+        final RateLimiter.Permit permit = rateLimiter.tryAcquire("foo");
+        Assert.assertNotNull(permit);
+        Assert.assertEquals(2, permit.getSkipped());
+        Assert.assertEquals(Instant.ofEpochMilli(START), permit.getLastAcquired());
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+    }
+
+    @Test
+    public void testIndependentKeys() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofSeconds(1), 1, 10, _clock);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNotNull(rateLimiter.tryAcquire("bar"));
+        Assert.assertNotNull(rateLimiter.tryAcquire(null));
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNull(rateLimiter.tryAcquire("bar"));
+        Assert.assertNull(rateLimiter.tryAcquire(null));
+        Assert.assertEquals(3, rateLimiter.getSize());
+    }
+
+    @Test
+    public void testBurst() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofSeconds(1), 3, 10, _clock);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+
+        // One permit is replenished per interval
+        _clock.setMillis(START + 1000);
+        final RateLimiter.Permit permit = rateLimiter.tryAcquire("foo");
+        Assert.assertNotNull(permit);
+        Assert.assertEquals(1, permit.getSkipped());
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+
+        // Idle time replenishes up to the burst
+        _clock.setMillis(START + 60000);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+    }
+
+    @Test
+    public void testCapacity() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofSeconds(1), 1, 2, _clock);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNotNull(rateLimiter.tryAcquire("bar"));
+
+        // Additional keys share the overflow bucket
+        Assert.assertNotNull(rateLimiter.tryAcquire("one"));
+        Assert.assertNull(rateLimiter.tryAcquire("two"));
+        Assert.assertEquals(2, rateLimiter.getSize());
+
+        // Tracked keys are unaffected
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+        _clock.setMillis(START + 1000);
+        Assert.assertEquals(1, rateLimiter.tryAcquire("three").getSkipped());
+    }
+
+    @Test
+    public void testSubMillisecondInterval() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofNanos(1), 1, 10, _clock);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+        _clock.setMillis(START + 1);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+    }
+
+    @Test
+    public void testDefaultConstructor() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofMinutes(1));
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+    }
+
+    @Test
+    public void testConcurrentSkippedCount() throws InterruptedException {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofMinutes(1), 1, 10, _clock);
+        final AtomicInteger permits = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; ++i) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < ITERATIONS; ++j) {
+                    if (rateLimiter.tryAcquire("foo") != null) {
+                        permits.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        // Exactly one permit in the window and every rejection is reported
+        Assert.assertEquals(1, permits.get());
+        _clock.setMillis(START + TimeUnit.MINUTES.toMillis(1));
+        Assert.assertEquals(THREADS * ITERATIONS - 1, rateLimiter.tryAcquire("foo").getSkipped());
+    }
+
+    @Test
+    public void testAcquireRetriesAfterConcurrentUpdate() {
+        final RateLimiter rateLimiter = new RateLimiter(Duration.ofSeconds(1), 2, 10, _clock);
+        Assert.assertNotNull(rateLimiter.tryAcquire("foo"));
+        _clock.setMillis(START + 2000);
+
+        // A permit acquired while the first acquisition reads the clock causes it to retry
+        _clock.runOnNextMillis(() -> Assert.assertNotNull(rateLimiter.tryAcquire("foo")));
+        final RateLimiter.Permit permit = rateLimiter.tryAcquire("foo");
+        Assert.assertNotNull(permit);
+        Assert.assertEquals(Instant.ofEpochMilli(START + 2000), permit.getLastAcquired());
+        Assert.assertNull(rateLimiter.tryAcquire("foo"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroInterval() {
+        new RateLimiter(Duration.ZERO, 1, 10, _clock);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeInterval() {
+        new RateLimiter(Duration.ofSeconds(-1), 1, 10, _clock);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBurst() {
+        new RateLimiter(Duration.ofSeconds(1), 0, 10, _clock);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new RateLimiter(Duration.ofSeconds(1), 1, 0, _clock);
+    }
+
+    private ManualClock _clock;
+
+    private static final long START = 1478000000000L;
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 10000;
+
+    private static final class ManualClock extends Clock {
+
+        private ManualClock(final long millis) {
+            _millis = millis;
+        }
+
+        public void setMillis(final long millis) {
+            _millis = millis;
+        }
+
+        public void runOnNextMillis(final Runnable runnable) {
+            _onNextMillis = runnable;
+        }
+
+        @Override
+        public long millis() {
+            final Runnable onNextMillis = _onNextMillis;
+            if (onNextMillis != null) {
+                _onNextMillis = null;
+                onNextMillis.run();
+            }
+            return _millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(_millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        private volatile long _millis;
+        private volatile Runnable _onNextMillis;
+    }
+}
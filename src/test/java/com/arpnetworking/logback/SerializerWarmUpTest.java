@@ -0,0 +1,169 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.core.spi.ContextAware;
+import com.arpnetworking.logback.widgets.Widget;
+import com.arpnetworking.logback.widgets.WidgetWithLogValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystemNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Tests for <code>SerializerWarmUp</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class SerializerWarmUpTest {
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testWarmUp() {
+        final SerializerWarmUp warmUp = createWarmUp(new ObjectMapper(), getClass().getClassLoader());
+        Assert.assertTrue(warmUp.warmUp(Widget.class.getName()));
+        Mockito.verifyZeroInteractions(_contextAware);
+    }
+
+    @Test
+    public void testWarmUpClassNotFound() {
+        final SerializerWarmUp warmUp = createWarmUp(new ObjectMapper(), getClass().getClassLoader());
+        Assert.assertFalse(warmUp.warmUp("com.example.DoesNotExist"));
+        Mockito.verify(_contextAware).addWarn(
+                Mockito.contains("com.example.DoesNotExist"),
+                Mockito.any(ClassNotFoundException.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWarmUpSerializerFailure() {
+        final ObjectMapper objectMapper = Mockito.mock(ObjectMapper.class);
+        final IllegalArgumentException cause = new IllegalArgumentException("Failure");
+        Mockito.doAnswer(invocation -> {
+            ((AtomicReference<Throwable>) invocation.getArguments()[1]).set(cause);
+            return false;
+        }).when(objectMapper).canSerialize(Mockito.eq(Widget.class), Mockito.any());
+        final SerializerWarmUp warmUp = createWarmUp(objectMapper, getClass().getClassLoader());
+        Assert.assertFalse(warmUp.warmUp(Widget.class.getName()));
+        Mockito.verify(_contextAware).addWarn(Mockito.contains(Widget.class.getName()), Mockito.same(cause));
+    }
+
+    @Test
+    public void testFindClassNamesInDirectory() throws Exception {
+        final SerializerWarmUp warmUp = createWarmUp(new ObjectMapper(), getClass().getClassLoader());
+        final List<String> classNames = warmUp.findClassNames("com.arpnetworking.logback.widgets");
+        Assert.assertThat(classNames, Matchers.hasItems(Widget.class.getName(), WidgetWithLogValue.class.getName()));
+        Assert.assertFalse(classNames.contains("com.arpnetworking.logback.widgets.package-info"));
+    }
+
+    @Test
+    public void testFindClassNamesInJar() throws Exception {
+        final File jar = _temporaryFolder.newFile("warm-up.jar");
+        try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jar))) {
+            for (final String entry : Arrays.asList(
+                    "com/example/",
+                    "com/example/Foo.class",
+                    "com/example/package-info.class",
+                    "com/example/readme.txt",
+                    "com/example/sub/",
+                    "com/example/sub/Bar.class",
+                    "com/other/Baz.class")) {
+                jarOutputStream.putNextEntry(new JarEntry(entry));
+                jarOutputStream.closeEntry();
+            }
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null)) {
+            final SerializerWarmUp warmUp = createWarmUp(new ObjectMapper(), classLoader);
+            Assert.assertEquals(
+                    Arrays.asList("com.example.Foo", "com.example.sub.Bar"),
+                    warmUp.findClassNames("com.example"));
+        }
+    }
+
+    @Test
+    public void testRun() {
+        final SerializerWarmUp warmUp = new SerializerWarmUp(
+                _contextAware,
+                new ObjectMapper(),
+                getClass().getClassLoader(),
+                Arrays.asList(Widget.class.getName(), "com.example.DoesNotExist"),
+                Collections.singletonList("com.arpnetworking.logback.widgets"));
+        warmUp.run();
+        Mockito.verify(_contextAware).addWarn(
+                Mockito.contains("com.example.DoesNotExist"),
+                Mockito.any(ClassNotFoundException.class));
+        Mockito.verify(_contextAware).addInfo(Mockito.startsWith("Warmed up serializers for "));
+    }
+
+    @Test
+    public void testRunUnsupportedPackageLocation() {
+        final ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(final String name) throws IOException {
+                return Collections.enumeration(Collections.singletonList(new URL("http://example.com/" + name)));
+            }
+        };
+        final SerializerWarmUp warmUp = new SerializerWarmUp(
+                _contextAware,
+                new ObjectMapper(),
+                classLoader,
+                Collections.emptyList(),
+                Collections.singletonList("com.example"));
+        warmUp.run();
+        Mockito.verify(_contextAware).addWarn(
+                Mockito.contains("com.example"),
+                Mockito.any(FileSystemNotFoundException.class));
+        Mockito.verify(_contextAware).addInfo(Mockito.startsWith("Warmed up serializers for 0 of 0 classes"));
+    }
+
+    private SerializerWarmUp createWarmUp(final ObjectMapper objectMapper, final ClassLoader classLoader) {
+        return new SerializerWarmUp(
+                _contextAware,
+                objectMapper,
+                classLoader,
+                Collections.emptyList(),
+                Collections.emptyList());
+    }
+
+    @Rule
+    public final TemporaryFolder _temporaryFolder = new TemporaryFolder();
+    @Mock
+    private ContextAware _contextAware;
+}
@@ -0,0 +1,320 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.helpers.BasicMarkerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests for <code>SheddingAsyncAppender</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class SheddingAsyncAppenderTest {
+
+    @Before
+    public void setUp() {
+        _context = new LoggerContext();
+        _recorder = new RecordingAppender();
+        _recorder.setContext(_context);
+        _recorder.start();
+        _appender = new SheddingAsyncAppender();
+        _appender.setContext(_context);
+        _appender.setQueueSize(10);
+        _appender.addAppender(_recorder);
+    }
+
+    @After
+    public void tearDown() {
+        _recorder.release();
+        _appender.stop();
+    }
+
+    @Test
+    public void testDefaults() {
+        Assert.assertEquals(0.5, _appender.getDebugShedRatio(), 0.0);
+        Assert.assertEquals(0.8, _appender.getInfoShedRatio(), 0.0);
+        Assert.assertEquals(0, _appender.getDiscardingThreshold());
+        Assert.assertEquals(0, _appender.getShedCount());
+    }
+
+    @Test
+    public void testSetShedRatios() {
+        _appender.setDebugShedRatio(0.25);
+        _appender.setInfoShedRatio(0.75);
+        Assert.assertEquals(0.25, _appender.getDebugShedRatio(), 0.0);
+        Assert.assertEquals(0.75, _appender.getInfoShedRatio(), 0.0);
+        _appender.start();
+        Assert.assertTrue(_appender.isStarted());
+    }
+
+    @Test
+    public void testNegativeDebugShedRatio() {
+        _appender.setDebugShedRatio(-0.1);
+        _appender.start();
+        Assert.assertFalse(_appender.isStarted());
+    }
+
+    @Test
+    public void testDebugShedRatioAboveInfoShedRatio() {
+        _appender.setDebugShedRatio(0.9);
+        _appender.start();
+        Assert.assertFalse(_appender.isStarted());
+    }
+
+    @Test
+    public void testInfoShedRatioAboveOne() {
+        _appender.setInfoShedRatio(1.1);
+        _appender.start();
+        Assert.assertFalse(_appender.isStarted());
+    }
+
+    @Test
+    public void testShedByPriority() throws InterruptedException {
+        _appender.start();
+
+        // Block the worker on the first event so that the queue fills
+        _appender.doAppend(createEvent(Level.WARN, "first", true));
+        awaitCondition(() -> _appender.getNumberOfElementsInQueue() == 0);
+
+        for (int i = 0; i < 5; ++i) {
+            _appender.doAppend(createEvent(Level.INFO, "info", true));
+        }
+        _appender.doAppend(createEvent(Level.DEBUG, "debug", true));
+        for (int i = 0; i < 3; ++i) {
+            _appender.doAppend(createEvent(Level.INFO, "info", true));
+        }
+        _appender.doAppend(createEvent(Level.INFO, "info", true));
+        _appender.doAppend(createEvent(Level.TRACE, "not steno", false));
+        _appender.doAppend(createEvent(Level.WARN, "warn", true));
+        Assert.assertEquals(9, _appender.getNumberOfElementsInQueue());
+        Assert.assertEquals(3, _appender.getShedCount());
+
+        _recorder.release();
+        awaitCondition(() -> _recorder.getEvents().size() == 10);
+
+        _appender.doAppend(createEvent(Level.INFO, "after", true));
+        awaitCondition(() -> _recorder.getEvents().size() == 12);
+
+        final List<ILoggingEvent> events = _recorder.getEvents();
+        Assert.assertEquals("warn", events.get(9).getMessage());
+        Assert.assertEquals("after", events.get(11).getMessage());
+
+        final ILoggingEvent summary = events.get(10);
+        Assert.assertEquals(Level.WARN, summary.getLevel());
+        Assert.assertEquals(SheddingAsyncAppender.SHED_EVENT_NAME, summary.getMessage());
+        Assert.assertSame(StenoMarker.ARRAY_MARKER, summary.getMarker());
+        Assert.assertArrayEquals(new String[]{"total", "dropped"}, (String[]) summary.getArgumentArray()[0]);
+        final Object[] values = (Object[]) summary.getArgumentArray()[1];
+        Assert.assertEquals(3L, values[0]);
+        final List<?> dropped = (List<?>) values[1];
+        Assert.assertEquals(3, dropped.size());
+        assertDropped(dropped, "DEBUG", "debug", 1L);
+        assertDropped(dropped, "INFO", "info", 1L);
+        assertDropped(dropped, "TRACE", null, 1L);
+    }
+
+    @Test
+    public void testSummaryBeforeWarn() throws InterruptedException {
+        _appender.start();
+
+        // Block the worker on the first event so that the queue fills
+        _appender.doAppend(createEvent(Level.WARN, "first", true));
+        awaitCondition(() -> _appender.getNumberOfElementsInQueue() == 0);
+
+        for (int i = 0; i < 5; ++i) {
+            _appender.doAppend(createEvent(Level.WARN, "warn", true));
+        }
+        _appender.doAppend(createEvent(Level.DEBUG, "debug", true));
+        Assert.assertEquals(1, _appender.getShedCount());
+
+        _recorder.release();
+        awaitCondition(() -> _recorder.getEvents().size() == 6);
+
+        // Only WARN events follow shedding and the summary is still logged once the queue drains
+        _appender.doAppend(createEvent(Level.WARN, "after", true));
+        awaitCondition(() -> _recorder.getEvents().size() == 8);
+
+        final List<ILoggingEvent> events = _recorder.getEvents();
+        Assert.assertEquals(SheddingAsyncAppender.SHED_EVENT_NAME, events.get(6).getMessage());
+        final Object[] values = (Object[]) events.get(6).getArgumentArray()[1];
+        Assert.assertEquals(1L, values[0]);
+        assertDropped((List<?>) values[1], "DEBUG", "debug", 1L);
+        Assert.assertEquals("after", events.get(7).getMessage());
+
+        _appender.stop();
+        Assert.assertEquals(8, _recorder.getEvents().size());
+    }
+
+    @Test
+    public void testSummaryOnStop() throws InterruptedException {
+        _appender.setDebugShedRatio(0.0);
+        _appender.setInfoShedRatio(0.0);
+        _appender.start();
+
+        final int distinct = SheddingAsyncAppender.MAXIMUM_SHED_KEYS + 10;
+        for (int i = 0; i < distinct; ++i) {
+            _appender.doAppend(createEvent(Level.DEBUG, "event" + i, true));
+        }
+        _appender.doAppend(createEvent(Level.ERROR, "error", true));
+        Assert.assertEquals(distinct, _appender.getShedCount());
+        _recorder.release();
+        awaitCondition(() -> _recorder.getEvents().size() == 1);
+
+        _appender.stop();
+        Assert.assertEquals(2, _recorder.getEvents().size());
+        final ILoggingEvent summary = _recorder.getEvents().get(1);
+        Assert.assertEquals(SheddingAsyncAppender.SHED_EVENT_NAME, summary.getMessage());
+        final Object[] values = (Object[]) summary.getArgumentArray()[1];
+        Assert.assertEquals((long) distinct, values[0]);
+        final List<?> dropped = (List<?>) values[1];
+        Assert.assertEquals(SheddingAsyncAppender.MAXIMUM_SHED_KEYS + 1, dropped.size());
+        assertDropped(dropped, "DEBUG", null, 10L);
+    }
+
+    @Test
+    public void testSummaryResetsCounts() throws InterruptedException {
+        _appender.setDebugShedRatio(0.0);
+        _appender.setInfoShedRatio(0.0);
+        _appender.start();
+        _recorder.release();
+
+        _appender.doAppend(createEvent(Level.DEBUG, "a", true));
+        _appender.emitShedSummary();
+        _appender.doAppend(createEvent(Level.DEBUG, "b", true));
+        _appender.doAppend(createEvent(Level.DEBUG, "b", true));
+        _appender.stop();
+        Assert.assertEquals(3, _appender.getShedCount());
+        Assert.assertEquals(2, _recorder.getEvents().size());
+
+        final Object[] first = (Object[]) _recorder.getEvents().get(0).getArgumentArray()[1];
+        Assert.assertEquals(1L, first[0]);
+        assertDropped((List<?>) first[1], "DEBUG", "a", 1L);
+
+        // Only events discarded since the previous summary are reported
+        final Object[] second = (Object[]) _recorder.getEvents().get(1).getArgumentArray()[1];
+        Assert.assertEquals(2L, second[0]);
+        final List<?> dropped = (List<?>) second[1];
+        Assert.assertEquals(1, dropped.size());
+        assertDropped(dropped, "DEBUG", "b", 2L);
+    }
+
+    @Test
+    public void testShedWithOtherMarker() throws InterruptedException {
+        _appender.setDebugShedRatio(0.0);
+        _appender.start();
+        _recorder.release();
+
+        final LoggingEvent event = createEvent(Level.DEBUG, "other", false);
+        event.setMarker(new BasicMarkerFactory().getMarker("other"));
+        _appender.doAppend(event);
+        _appender.stop();
+        Assert.assertEquals(1, _recorder.getEvents().size());
+
+        // Events without a Steno marker are counted without an event name
+        final Object[] values = (Object[]) _recorder.getEvents().get(0).getArgumentArray()[1];
+        Assert.assertEquals(1L, values[0]);
+        assertDropped((List<?>) values[1], "DEBUG", null, 1L);
+    }
+
+    @Test
+    public void testNoSummaryWithoutShedding() throws InterruptedException {
+        _appender.start();
+        _recorder.release();
+        _appender.emitShedSummary();
+        _appender.doAppend(createEvent(Level.INFO, "info", true));
+        _appender.stop();
+        Assert.assertEquals(1, _recorder.getEvents().size());
+        Assert.assertEquals("info", _recorder.getEvents().get(0).getMessage());
+    }
+
+    private void assertDropped(final List<?> dropped, final String level, final String event, final long count) {
+        for (final Object element : dropped) {
+            final Map<?, ?> drop = (Map<?, ?>) element;
+            if (level.equals(drop.get("level")) && Objects.equals(event, drop.get("event"))) {
+                Assert.assertEquals(count, drop.get("count"));
+                return;
+            }
+        }
+        Assert.fail("Dropped entry not found; level=" + level + ", event=" + event + ", dropped=" + dropped);
+    }
+
+    private LoggingEvent createEvent(final Level level, final String message, final boolean steno) {
+        final LoggingEvent event = new LoggingEvent(
+                SheddingAsyncAppenderTest.class.getName(),
+                _context.getLogger(SheddingAsyncAppenderTest.class),
+                level,
+                message,
+                null,
+                steno ? new Object[]{new String[]{}, new Object[]{}} : null);
+        if (steno) {
+            event.setMarker(StenoMarker.ARRAY_MARKER);
+        }
+        return event;
+    }
+
+    private static void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timed out waiting for condition", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private LoggerContext _context;
+    private RecordingAppender _recorder;
+    private SheddingAsyncAppender _appender;
+
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> {
+
+        public List<ILoggingEvent> getEvents() {
+            return _events;
+        }
+
+        public void release() {
+            _latch.countDown();
+        }
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            try {
+                _latch.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            _events.add(event);
+        }
+
+        private final CountDownLatch _latch = new CountDownLatch(1);
+        private final List<ILoggingEvent> _events = new CopyOnWriteArrayList<>();
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.arpnetworking.logback.widgets.Widget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the time from launching a new JVM until it has written
+ * its first events with a <code>StenoEncoder</code>; one with only simple
+ * values and one with a bean. Each invocation starts a separate JVM with
+ * the benchmark's class path which runs <code>main</code> below and the time
+ * is measured until both encoded lines are read from its output, so JVM
+ * start up, class loading and initialization are all included. The JMH fork
+ * itself only launches and reads from the process.
+ *
+ * Execute this using the command:
+ * <pre>
+ *     mvn -Pjmh -Djmh.include=StartupBenchmark test
+ * </pre>
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    /**
+     * Launch a JVM which creates and starts an encoder and writes the first
+     * events, and wait until both lines are read.
+     *
+     * @return The last line read.
+     * @throws IOException if the process cannot be launched or read.
+     */
+    @Benchmark
+    public String firstEvents() throws IOException {
+        _process = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp",
+                System.getProperty("java.class.path"),
+                StartupBenchmark.class.getName(),
+                String.valueOf(afterburner))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(_process.getInputStream(), StandardCharsets.UTF_8));
+        reader.readLine();
+        return reader.readLine();
+    }
+
+    /**
+     * Wait for the launched JVM to exit outside of the measurement.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        if (_process != null) {
+            _process.waitFor();
+            _process = null;
+        }
+    }
+
+    /**
+     * Create and start an encoder and write the first events to standard out.
+     *
+     * @param args Whether to enable Afterburner.
+     * @throws IOException if encoding fails.
+     */
+    public static void main(final String[] args) throws IOException {
+        final LoggerContext context = new LoggerContext();
+        final StenoEncoder encoder = new StenoEncoder();
+        encoder.setContext(context);
+        encoder.setAfterburnerEnabled(Boolean.parseBoolean(args[0]));
+        encoder.setImmediateFlush(true);
+        encoder.init(System.out);
+        encoder.start();
+
+        encoder.doEncode(createEvent(context, new String[]{"key"}, new Object[]{"value"}));
+        encoder.doEncode(createEvent(context, new String[]{"widget"}, new Object[]{new Widget("value")}));
+
+        encoder.stop();
+        context.stop();
+    }
+
+    private static LoggingEvent createEvent(final LoggerContext context, final String[] keys, final Object[] values) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setLoggerName("com.arpnetworking.logback.StartupBenchmark");
+        event.setLoggerContextRemoteView(context.getLoggerContextRemoteView());
+        event.setThreadName("benchmark");
+        event.setTimeStamp(0);
+        event.setMessage("benchmark_event");
+        event.setMarker(StenoMarker.ARRAY_MARKER);
+        event.setArgumentArray(new Object[]{keys, values});
+        return event;
+    }
+
+    @Param({"true", "false"})
+    public boolean afterburner;
+
+    private Process _process;
+}
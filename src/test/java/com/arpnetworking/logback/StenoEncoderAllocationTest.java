@@ -0,0 +1,106 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.arpnetworking.AllocationBudget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Allocation budget tests for <code>StenoEncoder.doEncode</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class StenoEncoderAllocationTest {
+
+    @Before
+    public void setUp() throws Exception {
+        _context = new LoggerContext();
+        _encoder = new StenoEncoder();
+        _encoder.setContext(_context);
+        _encoder.init(BenchmarkEvents.NULL_OUTPUT_STREAM);
+        _encoder.start();
+    }
+
+    @After
+    public void tearDown() {
+        _encoder.stop();
+        _context.stop();
+    }
+
+    @Test
+    public void testEncodeArray() throws Exception {
+        assertWithinBudget("array", false);
+    }
+
+    @Test
+    public void testEncodeArrayJson() throws Exception {
+        assertWithinBudget("arrayJson", false);
+    }
+
+    @Test
+    public void testEncodeMap() throws Exception {
+        assertWithinBudget("map", false);
+    }
+
+    @Test
+    public void testEncodeMapJson() throws Exception {
+        assertWithinBudget("mapJson", false);
+    }
+
+    @Test
+    public void testEncodeObject() throws Exception {
+        assertWithinBudget("object", false);
+    }
+
+    @Test
+    public void testEncodeObjectJson() throws Exception {
+        assertWithinBudget("objectJson", false);
+    }
+
+    @Test
+    public void testEncodeLists() throws Exception {
+        assertWithinBudget("lists", false);
+    }
+
+    @Test
+    public void testEncodePayload() throws Exception {
+        assertWithinBudget("payload", false);
+    }
+
+    @Test
+    public void testEncodeStandard() throws Exception {
+        assertWithinBudget("standard", false);
+    }
+
+    @Test
+    public void testEncodeListsWithThrowable() throws Exception {
+        assertWithinBudget("lists", true);
+    }
+
+    private void assertWithinBudget(final String strategy, final boolean withThrowable) throws Exception {
+        final LoggingEvent event = BenchmarkEvents.create(_context, strategy, withThrowable);
+        AllocationBudget.assertWithinBudget(
+                "stenoEncoder.doEncode." + strategy + (withThrowable ? ".throwable" : ""),
+                () -> _encoder.doEncode(event));
+    }
+
+    private LoggerContext _context;
+    private StenoEncoder _encoder;
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of <code>StenoEncoder</code> for each encoding strategy.
+ *
+ * Execute this using the command:
+ * <pre>
+ *     mvn -Pjmh -Djmh.include=StenoEncoderBenchmark test
+ * </pre>
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StenoEncoderBenchmark {
+
+    /**
+     * Create and start the encoder under test.
+     *
+     * @throws IOException if the encoder cannot be initialized.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        _context = new LoggerContext();
+        _encoder = new StenoEncoder();
+        _encoder.setContext(_context);
+        _encoder.setSafe(safe);
+        _encoder.setRedactEnabled(redact);
+        _encoder.init(BenchmarkEvents.NULL_OUTPUT_STREAM);
+        _encoder.start();
+        _event = BenchmarkEvents.create(_context, strategy, throwable);
+    }
+
+    /**
+     * Stop the encoder under test.
+     */
+    @TearDown
+    public void tearDown() {
+        _encoder.stop();
+        _context.stop();
+    }
+
+    /**
+     * Encode the event.
+     *
+     * @throws IOException if encoding fails.
+     */
+    @Benchmark
+    public void encode() throws IOException {
+        _encoder.doEncode(_event);
+    }
+
+    @Param({"array", "arrayJson", "map", "mapJson", "object", "objectJson", "lists", "payload", "standard"})
+    public String strategy;
+
+    @Param({"true", "false"})
+    public boolean safe;
+
+    @Param({"true", "false"})
+    public boolean redact;
+
+    @Param({"false", "true"})
+    public boolean throwable;
+
+    private LoggerContext _context;
+    private StenoEncoder _encoder;
+    private LoggingEvent _event;
+}
@@ -18,11 +18,15 @@ package com.arpnetworking.logback;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
 import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.classic.spi.ThrowableProxy;
+import ch.qos.logback.core.status.Status;
 import com.arpnetworking.logback.annotations.LogRedact;
 import com.arpnetworking.logback.annotations.Loggable;
+import com.arpnetworking.logback.metrics.TopTalker;
+import com.arpnetworking.logback.serialization.steno.StenoSerializationStrategy;
 import com.arpnetworking.logback.widgets.Widget;
 import com.arpnetworking.logback.widgets.WidgetWithLogValue;
 import com.arpnetworking.logback.widgets.WidgetWithLogValueProvidingReference;
@@ -36,6 +40,7 @@ import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 import com.github.fge.jackson.JsonLoader;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
@@ -47,10 +52,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.helpers.BasicMarkerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Writer;
+import java.lang.management.ManagementFactory;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -63,7 +71,10 @@ import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import javax.management.ObjectName;
 
 /**
  * Tests for <code>StenoEncoder</code>.
@@ -448,6 +459,73 @@ public class StenoEncoderTest {
         assertMatchesJsonSchema(logOutput);
     }
 
+    @Test
+    public void testEncodeMapWithSupplier() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.MAP_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Supplier<Integer> intSupplier = () -> 1234;
+        final Supplier<Supplier<String>> nestedSupplier = () -> () -> "foo";
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("key1", intSupplier);
+        map.put("key2", nestedSupplier);
+        final Object[] argArray = new Object[1];
+        argArray[0] = map;
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeMap.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodeMapWithThrowingSupplier() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.MAP_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Supplier<Integer> throwingSupplier = () -> {
+            throw new IllegalStateException("Test");
+        };
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("key1", throwingSupplier);
+        map.put("key2", "foo");
+        final Object[] argArray = new Object[1];
+        argArray[0] = map;
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeMapWithThrowingSupplier.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodeMapWithThrowingSupplierUnsafe() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.MAP_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Supplier<Integer> throwingSupplier = () -> {
+            throw new IllegalStateException("Test");
+        };
+        final Object[] argArray = new Object[1];
+        argArray[0] = Collections.singletonMap("key1", throwingSupplier);
+        event.setArgumentArray(argArray);
+        _encoder.setSafe(false);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        Assert.assertTrue(logOutput.contains("\"name\":\"EncodingException\""));
+        Assert.assertEquals(1, _encoder.getMetrics().getEncodingFailures());
+        assertMatchesJsonSchema(logOutput);
+    }
+
     @Test
     public void testEncodeMapJson() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -547,6 +625,249 @@ public class StenoEncoderTest {
         assertMatchesJsonSchema(logOutput);
     }
 
+    @Test
+    public void testEncodeObjectWithoutAfterburner() throws Exception {
+        final StenoEncoder encoder = new StenoEncoder();
+        Assert.assertTrue(encoder.isAfterburnerEnabled());
+        encoder.setAfterburnerEnabled(false);
+        Assert.assertFalse(encoder.isAfterburnerEnabled());
+        encoder.setRedactEnabled(false);
+        encoder.setRedactNull(true);
+        encoder.setImmediateFlush(true);
+        encoder.init(_baos);
+        encoder.setContext(_context);
+        encoder.start();
+
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.OBJECT_MARKER);
+        event.setMessage("logEvent");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        final Object[] argArray = new Object[1];
+        argArray[0] = new Widget("foo");
+        event.setArgumentArray(argArray);
+        encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeObject.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testAfterburnerWithoutStart() throws Exception {
+        final ObjectMapper objectMapper = Mockito.spy(new ObjectMapper());
+        final StenoEncoder encoder = new StenoEncoder(objectMapper);
+        Mockito.verify(objectMapper, Mockito.never()).registerModule(Mockito.any(Module.class));
+        encoder.init(_baos);
+        encoder.setContext(_context);
+        encoder.doEncode(createObjectEvent(new Widget("foo")));
+        Mockito.verify(objectMapper).registerModule(Mockito.isA(AfterburnerModule.class));
+        Assert.assertSame(encoder.initializeSerialization(), encoder.initializeSerialization());
+    }
+
+    @Test
+    public void testAfterburnerDisabledWithoutStart() throws Exception {
+        final ObjectMapper objectMapper = Mockito.spy(new ObjectMapper());
+        final StenoEncoder encoder = new StenoEncoder(objectMapper);
+        encoder.setAfterburnerEnabled(false);
+        encoder.init(_baos);
+        encoder.setContext(_context);
+        encoder.doEncode(createObjectEvent(new Widget("foo")));
+        Mockito.verify(objectMapper, Mockito.never()).registerModule(Mockito.isA(AfterburnerModule.class));
+    }
+
+    @Test
+    public void testEncodeObjectReferenceOnlyMetrics() throws Exception {
+        _encoder.doEncode(createObjectEvent(new Widget("foo")));
+        _encoder.doEncode(createObjectEvent(new WidgetWithLoggable("foo")));
+        Assert.assertEquals(1, _encoder.getMetrics().getReferenceOnlySubstitutions());
+        Assert.assertEquals(Long.valueOf(2), _encoder.getMetrics().getEventsEncodedByStrategy().get("object"));
+    }
+
+    @Test
+    public void testWarmUpDisabled() throws Exception {
+        Assert.assertFalse(_encoder.iteratorForWarmUpClass().hasNext());
+        Assert.assertFalse(_encoder.iteratorForWarmUpPackage().hasNext());
+        Assert.assertFalse(_encoder.isWarmUpAsync());
+        Assert.assertNull(_encoder.getWarmUpThread());
+        Assert.assertFalse(isWarmedUp());
+    }
+
+    @Test
+    public void testWarmUpClass() throws Exception {
+        _encoder.stop();
+        _encoder.addWarmUpClass(Widget.class.getName());
+        Assert.assertEquals(Widget.class.getName(), _encoder.iteratorForWarmUpClass().next());
+        _encoder.start();
+        Assert.assertTrue(isWarmedUp());
+    }
+
+    @Test
+    public void testWarmUpPackage() throws Exception {
+        _encoder.stop();
+        _encoder.addWarmUpPackage("com.arpnetworking.logback.widgets");
+        Assert.assertEquals("com.arpnetworking.logback.widgets", _encoder.iteratorForWarmUpPackage().next());
+        _encoder.start();
+        Assert.assertTrue(isWarmedUp());
+    }
+
+    @Test
+    public void testWarmUpAsync() throws Exception {
+        _encoder.stop();
+        _encoder.addWarmUpClass(Widget.class.getName());
+        _encoder.setWarmUpAsync(true);
+        Assert.assertTrue(_encoder.isWarmUpAsync());
+        _encoder.start();
+        _encoder.getWarmUpThread().join();
+        Assert.assertTrue(isWarmedUp());
+    }
+
+    @Test
+    public void testTopTalkersDisabled() throws Exception {
+        Assert.assertFalse(_encoder.isTopTalkersEnabled());
+        Assert.assertEquals(100, _encoder.getTopTalkersCapacity());
+        Assert.assertEquals(10, _encoder.getTopTalkersSize());
+        Assert.assertEquals(0, _encoder.getTopTalkersIntervalInMillis());
+        Assert.assertFalse(_encoder.getTopTalkers().isPresent());
+    }
+
+    @Test
+    public void testTopTalkers() throws Exception {
+        _encoder.setTopTalkersEnabled(true);
+        _encoder.setTopTalkersCapacity(10);
+        _encoder.setTopTalkersSize(1);
+        _encoder.start();
+        Assert.assertTrue(_encoder.isTopTalkersEnabled());
+        Assert.assertTrue(_encoder.getTopTalkers().isPresent());
+
+        _encoder.doEncode(createMapEvent("com.example.Quiet", "quiet_event", 0));
+        _encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 1));
+        _encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 2));
+        final String[] lines = _baos.toString(StandardCharsets.UTF_8.name()).split("\n");
+        Assert.assertEquals(3, lines.length);
+
+        final List<TopTalker> topTalkers = _encoder.getTopTalkers().get().getTopTalkers();
+        Assert.assertEquals(1, topTalkers.size());
+        Assert.assertEquals("com.example.Noisy", topTalkers.get(0).getLogger());
+        Assert.assertEquals("noisy_event", topTalkers.get(0).getEventName());
+        Assert.assertEquals("INFO", topTalkers.get(0).getLevel());
+        Assert.assertEquals(2, topTalkers.get(0).getCount());
+        Assert.assertEquals(lines[1].length() + lines[2].length() + 2, topTalkers.get(0).getBytes());
+    }
+
+    @Test
+    public void testTopTalkersSummary() throws Exception {
+        _encoder.setTopTalkersEnabled(true);
+        _encoder.setTopTalkersSize(1);
+        _encoder.setTopTalkersIntervalInMillis(1000);
+        _encoder.start();
+        Assert.assertEquals(1000, _encoder.getTopTalkersIntervalInMillis());
+
+        _encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 0));
+        _encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 500));
+        _encoder.doEncode(createMapEvent("com.example.Quiet", "quiet_event", 1000));
+        final String[] lines = _baos.toString(StandardCharsets.UTF_8.name()).split("\n");
+        Assert.assertEquals(4, lines.length);
+        assertMatchesJsonSchema(lines[3] + "\n");
+
+        final JsonNode summary = OBJECT_MAPPER.readTree(lines[3]);
+        Assert.assertEquals("top_talkers", summary.get("name").asText());
+        Assert.assertEquals(1000, summary.get("data").get("intervalInMillis").asLong());
+        final JsonNode talkers = summary.get("data").get("talkers");
+        Assert.assertEquals(1, talkers.size());
+        Assert.assertEquals("com.example.Noisy", talkers.get(0).get("logger").asText());
+        Assert.assertEquals("noisy_event", talkers.get(0).get("event").asText());
+        Assert.assertEquals("INFO", talkers.get(0).get("level").asText());
+        Assert.assertEquals(2, talkers.get(0).get("count").asLong());
+        Assert.assertEquals(lines[0].length() + lines[1].length() + 2, talkers.get(0).get("bytes").asLong());
+        Assert.assertEquals(0, talkers.get(0).get("error").asLong());
+
+        // The cumulative accounting is not reset by the summary
+        final List<TopTalker> cumulative = _encoder.getTopTalkers().get().getTopTalkers();
+        Assert.assertEquals(1, cumulative.size());
+        Assert.assertEquals("com.example.Noisy", cumulative.get(0).getLogger());
+        Assert.assertEquals(2, cumulative.get(0).getCount());
+
+        // The next summary only covers events since the previous summary
+        _encoder.doEncode(createMapEvent("com.example.Quiet", "quiet_event", 1500));
+        _encoder.doEncode(createMapEvent("com.example.Quiet", "quiet_event", 2000));
+        final String[] nextLines = _baos.toString(StandardCharsets.UTF_8.name()).split("\n");
+        Assert.assertEquals(7, nextLines.length);
+        final JsonNode nextTalkers = OBJECT_MAPPER.readTree(nextLines[6]).get("data").get("talkers");
+        Assert.assertEquals(1, nextTalkers.size());
+        Assert.assertEquals("com.example.Quiet", nextTalkers.get(0).get("logger").asText());
+        Assert.assertEquals(2, nextTalkers.get(0).get("count").asLong());
+        Assert.assertEquals(nextLines[4].length() + nextLines[5].length() + 2, nextTalkers.get(0).get("bytes").asLong());
+        Assert.assertEquals(3, _encoder.getTopTalkers().get().getTopTalkers().get(0).getCount());
+    }
+
+    @Test
+    public void testTopTalkersSummaryEncodingFailure() throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final StenoEncoder encoder = new StenoEncoder() {
+            @Override
+            protected String buildMapMessage(
+                    final ILoggingEvent event,
+                    final String eventName,
+                    final Map<String, ?> map)
+                    throws EncodingException {
+                if ("top_talkers".equals(eventName)) {
+                    throw new EncodingException(Collections.emptyMap(), new IllegalStateException("Mocked Failure"));
+                }
+                return super.buildMapMessage(event, eventName, map);
+            }
+
+            private static final long serialVersionUID = 1L;
+        };
+        encoder.init(baos);
+        encoder.setContext(_context);
+        encoder.setTopTalkersEnabled(true);
+        encoder.setTopTalkersIntervalInMillis(1000);
+        encoder.start();
+
+        encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 0));
+        encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 1000));
+
+        // The summary is replaced by the encoding failure
+        final String[] lines = baos.toString(StandardCharsets.UTF_8.name()).split("\n");
+        Assert.assertEquals(3, lines.length);
+        final JsonNode failure = OBJECT_MAPPER.readTree(lines[2]);
+        Assert.assertEquals("EncodingException", failure.get("name").asText());
+        Assert.assertEquals("top_talkers", failure.get("data").get("originalMessage").asText());
+    }
+
+    @Test
+    public void testTopTalkersSummaryWithoutLoggerContext() throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final StenoEncoder encoder = new StenoEncoder();
+        encoder.init(baos);
+        encoder.setTopTalkersEnabled(true);
+        encoder.setTopTalkersIntervalInMillis(1000);
+        encoder.start();
+
+        encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 0));
+        encoder.doEncode(createMapEvent("com.example.Noisy", "noisy_event", 1000));
+
+        // Summary events require a logger context
+        Assert.assertEquals(2, baos.toString(StandardCharsets.UTF_8.name()).split("\n").length);
+        Assert.assertEquals(2, encoder.getTopTalkers().get().getTopTalkers().get(0).getCount());
+    }
+
+    @Test
+    public void testTopTalkersJmx() throws Exception {
+        _encoder.setTopTalkersEnabled(true);
+        _encoder.setJmxEnabled(true);
+        _encoder.setJmxName("testTopTalkersJmx");
+        _encoder.start();
+        final ObjectName objectName = _encoder.createObjectName("topTalkers");
+        try {
+            Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+        } finally {
+            _encoder.stop();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+
     @Test
     public void testEncodeObjectUnsafe() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -664,6 +985,26 @@ public class StenoEncoderTest {
         assertMatchesJsonSchema(logOutput);
     }
 
+    @Test
+    public void testEncodeLogValueObjectNotCompiled() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.OBJECT_MARKER);
+        event.setMessage("logEvent");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        final Object[] argArray = new Object[1];
+        argArray[0] = new WidgetWithLogValue("foo");
+        event.setArgumentArray(argArray);
+        Assert.assertTrue(_encoder.isCompileLogValue());
+        _encoder.setCompileLogValue(false);
+        Assert.assertFalse(_encoder.isCompileLogValue());
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeLogValueObject.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
     @Test
     public void testEncodeLogValueObjectWithInjectBeanIdentity() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -930,6 +1271,188 @@ public class StenoEncoderTest {
         assertMatchesJsonSchema(logOutput);
     }
 
+    @Test
+    public void testEncodePayload() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Object[] argArray = new Object[1];
+        argArray[0] = new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putInt("int", 1234)
+                        .putLong("long", 5000000000L)
+                        .putFloat("float", 2.5f)
+                        .putDouble("double", 1.23)
+                        .putBoolean("boolean", true)
+                        .putObject("string", "foo")
+                        .putObject("null", null)
+                        .putObject("map", Collections.singletonMap("a", "b"))
+                        .build(),
+                new StenoPayload.Fields.Builder()
+                        .putObject("CONTEXT_KEY1", "bar")
+                        .putDouble("CONTEXT_KEY2", 1.23)
+                        .build());
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodePayload.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodePayloadWithSupplier() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Supplier<Integer> dataSupplier = () -> 1234;
+        final Supplier<String> contextSupplier = () -> "bar";
+        final Object[] argArray = new Object[1];
+        argArray[0] = new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putObject("key1", dataSupplier)
+                        .putObject("key2", "foo")
+                        .build(),
+                new StenoPayload.Fields.Builder()
+                        .putObject("CONTEXT_KEY1", contextSupplier)
+                        .build());
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodePayloadWithSupplier.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodePayloadEmpty() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Object[] argArray = new Object[1];
+        argArray[0] = new StenoPayload(StenoPayload.Fields.EMPTY, StenoPayload.Fields.EMPTY);
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeListsEmpty.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodePayloadNull() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Object[] argArray = new Object[1];
+        argArray[0] = null;
+        event.setArgumentArray(argArray);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeListsEmpty.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodePayloadThrowsIOException() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.PAYLOAD_MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        final Object[] argArray = new Object[1];
+        argArray[0] = new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putInt("key1", 1234)
+                        .putObject("key2", "foo")
+                        .build(),
+                new StenoPayload.Fields.Builder()
+                        .putObject("CONTEXT_KEY1", "bar")
+                        .putDouble("CONTEXT_KEY2", 1.23)
+                        .build());
+        event.setArgumentArray(argArray);
+        final ObjectMapper objectMapper = Mockito.mock(ObjectMapper.class);
+        final JsonFactory jsonFactory = Mockito.mock(JsonFactory.class);
+        Mockito.doThrow(new IOException("Mock Failure")).when(jsonFactory).createGenerator(Mockito.any(Writer.class));
+        _encoder = new StenoEncoder(jsonFactory, objectMapper);
+        _encoder.init(_baos);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeListsThrowsIOException.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodeSerializationStrategy() throws Exception {
+        final TestSerializationStrategy strategy = new TestSerializationStrategy();
+        _encoder.addSerializationStrategy(strategy);
+        Assert.assertTrue(_encoder.isSerializationStrategy(strategy));
+        Assert.assertSame(strategy, _encoder.iteratorForSerializationStrategy().next());
+
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(TestSerializationStrategy.MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        event.setArgumentArray(new Object[]{"value"});
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeObjectJson.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+        Assert.assertEquals(Long.valueOf(1), _encoder.getMetrics().getEventsEncodedByStrategy().get("test"));
+    }
+
+    @Test
+    public void testEncodeSerializationStrategyReferencedMarker() throws Exception {
+        _encoder.addSerializationStrategy(new TestSerializationStrategy());
+
+        final Marker marker = new BasicMarkerFactory().getMarker("testEncodeSerializationStrategyReferencedMarker");
+        marker.add(TestSerializationStrategy.MARKER);
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(marker);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        event.setArgumentArray(new Object[]{"value"});
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeObjectJson.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodeSerializationStrategyThrowsIOException() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(TestSerializationStrategy.MARKER);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(0);
+        event.setArgumentArray(new Object[]{"value"});
+        final ObjectMapper objectMapper = Mockito.mock(ObjectMapper.class);
+        final JsonFactory jsonFactory = Mockito.mock(JsonFactory.class);
+        Mockito.doThrow(new IOException("Mock Failure")).when(jsonFactory).createGenerator(Mockito.any(Writer.class));
+        _encoder = new StenoEncoder(jsonFactory, objectMapper);
+        _encoder.addSerializationStrategy(new TestSerializationStrategy());
+        _encoder.init(_baos);
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeObjectJsonThrowsIOException.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
     @Test
     public void testEncodeStandardEvent() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -947,6 +1470,42 @@ public class StenoEncoderTest {
         assertMatchesJsonSchema(logOutput);
     }
 
+    @Test
+    public void testEncodeStandardEventWithMessageTemplate() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        final ZonedDateTime eventTime = ZonedDateTime.parse("2011-11-11T11:11:11.000Z");
+        event.setLevel(Level.TRACE);
+        event.setMessage("logEvent - foo = {}, bar = {}, baz = {}");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(eventTime.toInstant().toEpochMilli());
+        event.setArgumentArray(new Object[] {"bar", 1234, true});
+        Assert.assertFalse(_encoder.isMessageTemplateEnabled());
+        Assert.assertTrue(_encoder.isFormattedMessageEnabled());
+        _encoder.setMessageTemplateEnabled(true);
+        Assert.assertTrue(_encoder.isMessageTemplateEnabled());
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeStandardEventWithMessageTemplate.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
+    @Test
+    public void testEncodeStandardEventWithMessageTemplateWithoutFormatting() throws Exception {
+        final LoggingEvent event = new LoggingEvent();
+        final ZonedDateTime eventTime = ZonedDateTime.parse("2011-11-11T11:11:11.000Z");
+        event.setLevel(Level.TRACE);
+        event.setMessage("logEvent");
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setTimeStamp(eventTime.toInstant().toEpochMilli());
+        _encoder.setMessageTemplateEnabled(true);
+        _encoder.setFormattedMessageEnabled(false);
+        Assert.assertFalse(_encoder.isFormattedMessageEnabled());
+        _encoder.doEncode(event);
+        final String logOutput = _baos.toString(StandardCharsets.UTF_8.name());
+        assertOutput("StenoEncoderTest.testEncodeStandardEventWithMessageTemplateWithoutFormatting.json", logOutput);
+        assertMatchesJsonSchema(logOutput);
+    }
+
     @Test
     public void testEncodeStandardEventThrowsIOException() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -1101,6 +1660,70 @@ public class StenoEncoderTest {
         assertMatchesJsonSchema(logOutput);
     }
 
+    @Test
+    public void testInjectContextMinLevel() throws Exception {
+        final Logger logger = _context.getLogger("StenoEncoderTest.testInjectContextMinLevel");
+        _encoder.setInjectContextClass(true);
+        _encoder.setInjectContextFile(true);
+        _encoder.setInjectContextLine(true);
+        _encoder.setInjectContextLogger(true);
+        _encoder.setInjectContextMethod(true);
+        _encoder.addInjectContextMdc("MDC_KEY");
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextProcessMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextHostMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextThreadMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextLoggerMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextFileMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextClassMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextMethodMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextLineMinLevel());
+        Assert.assertEquals(Level.TRACE, _encoder.getInjectContextMdcMinLevel());
+        _encoder.setInjectContextProcessMinLevel(Level.WARN);
+        _encoder.setInjectContextHostMinLevel(Level.WARN);
+        _encoder.setInjectContextThreadMinLevel(Level.WARN);
+        _encoder.setInjectContextLoggerMinLevel(Level.WARN);
+        _encoder.setInjectContextFileMinLevel(Level.WARN);
+        _encoder.setInjectContextClassMinLevel(Level.WARN);
+        _encoder.setInjectContextMethodMinLevel(Level.WARN);
+        _encoder.setInjectContextLineMinLevel(Level.WARN);
+        _encoder.setInjectContextMdcMinLevel(Level.WARN);
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextProcessMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextHostMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextThreadMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextLoggerMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextFileMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextClassMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextMethodMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextLineMinLevel());
+        Assert.assertEquals(Level.WARN, _encoder.getInjectContextMdcMinLevel());
+
+        MDC.put("MDC_KEY", "MDC_VALUE");
+        try {
+            for (final Level level : new Level[] {Level.INFO, Level.WARN}) {
+                final LoggingEvent event = new LoggingEvent(
+                        "com.arpnetworking.logback.StenoEncoderTest",
+                        logger,
+                        level,
+                        "logEvent",
+                        null,
+                        null);
+                event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+                _encoder.doEncode(event);
+            }
+        } finally {
+            MDC.remove("MDC_KEY");
+        }
+
+        final String[] lines = _baos.toString(StandardCharsets.UTF_8.name()).split("\n");
+        Assert.assertEquals(2, lines.length);
+        Assert.assertEquals(0, OBJECT_MAPPER.readTree(lines[0]).get("context").size());
+        final JsonNode context = OBJECT_MAPPER.readTree(lines[1]).get("context");
+        for (final String key : new String[] {
+                "host", "processId", "threadId", "logger", "file", "class", "method", "line", "MDC_KEY"}) {
+            Assert.assertTrue(key, context.has(key));
+        }
+    }
+
     @Test
     public void testRedactSettings() throws Exception {
         final LoggingEvent event = new LoggingEvent();
@@ -1394,6 +2017,15 @@ public class StenoEncoderTest {
         assertMatchesJsonSchema(logOutput);
     }
 
+    private boolean isWarmedUp() {
+        for (final Status status : _context.getStatusManager().getCopyOfStatusList()) {
+            if (status.getMessage().startsWith("Warmed up serializers for ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static void assertOutput(final String expectedResource, final String actualOutput) {
         final String redactedOutput = actualOutput
                 .replaceAll("\"id\":\"[^\"]+\"", "\"id\":\"<ID>\"")
@@ -1436,6 +2068,29 @@ public class StenoEncoderTest {
         }
     }
 
+    private LoggingEvent createMapEvent(final String loggerName, final String eventName, final long timestamp) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.MAP_MARKER);
+        event.setMessage(eventName);
+        event.setLoggerName(loggerName);
+        event.setTimeStamp(timestamp);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setArgumentArray(new Object[]{Collections.singletonMap("key", "value")});
+        return event;
+    }
+
+    private LoggingEvent createObjectEvent(final Object object) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMarker(StenoMarker.OBJECT_MARKER);
+        event.setMessage("logEvent");
+        event.setTimeStamp(0);
+        event.setLoggerContextRemoteView(_context.getLoggerContextRemoteView());
+        event.setArgumentArray(new Object[]{object});
+        return event;
+    }
+
     private StenoEncoder _encoder;
     private Module _javaTimeModule;
     private ByteArrayOutputStream _baos;
@@ -1456,6 +2111,32 @@ public class StenoEncoderTest {
         STENO_SCHEMA = jsonNode;
     }
 
+    private static final class TestSerializationStrategy implements StenoSerializationStrategy {
+
+        @Override
+        public Marker getMarker() {
+            return MARKER;
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public void serializeData(
+                final ILoggingEvent event,
+                final Object[] argumentArray,
+                final JsonGenerator jsonGenerator,
+                final ObjectMapper objectMapper,
+                final StenoEncoder encoder)
+                throws IOException {
+            jsonGenerator.writeObjectField("key", argumentArray[0]);
+        }
+
+        private static final Marker MARKER = new BasicMarkerFactory().getMarker("com.arpnetworking.logback.test");
+    }
+
     // CHECKSTYLE.OFF: MemberName - Testing field annotations requires same name as getter.
     // CHECKSTYLE.OFF: HiddenField - Testing field annotations requires same name as getter.
     @Loggable
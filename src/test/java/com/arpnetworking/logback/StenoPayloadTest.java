@@ -0,0 +1,221 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for <code>StenoPayload</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class StenoPayloadTest {
+
+    @Test
+    public void testFields() {
+        final StenoPayload.Fields fields = new StenoPayload.Fields.Builder()
+                .putObject("object", "value")
+                .putInt("int", 1)
+                .putLong("long", 2L)
+                .putFloat("float", 3.5f)
+                .putDouble("double", 4.5d)
+                .putBoolean("boolean", true)
+                .putBoolean("false", false)
+                .build();
+
+        Assert.assertEquals(7, fields.size());
+        Assert.assertFalse(fields.isEmpty());
+        Assert.assertEquals(
+                Arrays.asList("object", "int", "long", "float", "double", "boolean", "false"),
+                fields.getKeys());
+        Assert.assertEquals(
+                Arrays.asList("value", 1, 2L, 3.5f, 4.5d, Boolean.TRUE, Boolean.FALSE),
+                fields.getValues());
+
+        Assert.assertEquals(StenoPayload.Kind.OBJECT, fields.getKind(0));
+        Assert.assertEquals(StenoPayload.Kind.INT, fields.getKind(1));
+        Assert.assertEquals(StenoPayload.Kind.LONG, fields.getKind(2));
+        Assert.assertEquals(StenoPayload.Kind.FLOAT, fields.getKind(3));
+        Assert.assertEquals(StenoPayload.Kind.DOUBLE, fields.getKind(4));
+        Assert.assertEquals(StenoPayload.Kind.BOOLEAN, fields.getKind(5));
+
+        Assert.assertEquals("object", fields.getKey(0));
+        Assert.assertEquals(1, fields.getInt(1));
+        Assert.assertEquals(2L, fields.getLong(2));
+        Assert.assertEquals(3.5f, fields.getFloat(3), 0.0f);
+        Assert.assertEquals(4.5d, fields.getDouble(4), 0.0d);
+        Assert.assertTrue(fields.getBoolean(5));
+        Assert.assertFalse(fields.getBoolean(6));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFieldsWrongKind() {
+        new StenoPayload.Fields.Builder().putInt("int", 1).build().getLong(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFieldsIndexTooLarge() {
+        new StenoPayload.Fields.Builder().putInt("int", 1).build().getKey(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFieldsIndexNegative() {
+        new StenoPayload.Fields.Builder().putInt("int", 1).build().getKind(-1);
+    }
+
+    @Test
+    public void testEmpty() {
+        final StenoPayload.Fields.Builder builder = new StenoPayload.Fields.Builder();
+        Assert.assertTrue(builder.isEmpty());
+        Assert.assertSame(StenoPayload.Fields.EMPTY, builder.build());
+        Assert.assertFalse(new StenoPayload.Fields.Builder().putInt("int", 1).isEmpty());
+        Assert.assertEquals("null", builder.toString());
+        Assert.assertTrue(StenoPayload.Fields.EMPTY.isEmpty());
+        Assert.assertEquals(0, StenoPayload.Fields.EMPTY.size());
+        Assert.assertEquals(Collections.emptyList(), StenoPayload.Fields.EMPTY.getKeys());
+        Assert.assertEquals(Collections.emptyList(), StenoPayload.Fields.EMPTY.getValues());
+        Assert.assertEquals("{}", StenoPayload.Fields.EMPTY.toString());
+    }
+
+    @Test
+    public void testDuplicateKey() {
+        final StenoPayload.Fields fields = new StenoPayload.Fields.Builder()
+                .putObject("key1", "value1")
+                .putObject("key2", "value2")
+                .putLong("key1", 1L)
+                .putObject("key2", null)
+                .build();
+        Assert.assertEquals(Arrays.asList("key1", "key2"), fields.getKeys());
+        Assert.assertEquals(Arrays.asList(1L, null), fields.getValues());
+    }
+
+    @Test
+    public void testGrowth() {
+        final StenoPayload.Fields.Builder builder = new StenoPayload.Fields.Builder();
+        final List<String> keys = new ArrayList<>();
+        final List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            builder.putInt("key" + i, i);
+            keys.add("key" + i);
+            values.add(i);
+        }
+        final StenoPayload.Fields fields = builder.build();
+        Assert.assertEquals(keys, fields.getKeys());
+        Assert.assertEquals(values, fields.getValues());
+    }
+
+    @Test
+    public void testModifyAfterBuild() {
+        final StenoPayload.Fields.Builder builder = new StenoPayload.Fields.Builder()
+                .putObject("key1", "value1");
+        final StenoPayload.Fields first = builder.build();
+        builder.putObject("key1", "value2").putInt("key2", 2);
+        final StenoPayload.Fields second = builder.build();
+
+        Assert.assertEquals(Collections.singletonList("key1"), first.getKeys());
+        Assert.assertEquals(Collections.singletonList("value1"), first.getValues());
+        Assert.assertEquals(Arrays.asList("key1", "key2"), second.getKeys());
+        Assert.assertEquals(Arrays.asList("value2", 2), second.getValues());
+    }
+
+    @Test
+    public void testModifyAfterBuildWhenFull() {
+        final StenoPayload.Fields.Builder builder = new StenoPayload.Fields.Builder();
+        for (int i = 0; i < 8; ++i) {
+            builder.putInt("key" + i, i);
+        }
+        final StenoPayload.Fields first = builder.build();
+        builder.putInt("key8", 8);
+        final StenoPayload.Fields second = builder.build();
+
+        Assert.assertEquals(8, first.size());
+        Assert.assertEquals(9, second.size());
+        Assert.assertEquals(8, second.getInt(8));
+    }
+
+    @Test
+    public void testBuilderFromFields() {
+        final StenoPayload.Fields original = new StenoPayload.Fields.Builder()
+                .putObject("key1", "value1")
+                .build();
+        final StenoPayload.Fields augmented = new StenoPayload.Fields.Builder(original)
+                .putBoolean("key2", true)
+                .build();
+        final StenoPayload.Fields fromEmpty = new StenoPayload.Fields.Builder(StenoPayload.Fields.EMPTY)
+                .putBoolean("key2", true)
+                .build();
+
+        Assert.assertEquals(Collections.singletonList("key1"), original.getKeys());
+        Assert.assertEquals(Arrays.asList("key1", "key2"), augmented.getKeys());
+        Assert.assertEquals(Arrays.asList("value1", Boolean.TRUE), augmented.getValues());
+        Assert.assertEquals(Collections.singletonList("key2"), fromEmpty.getKeys());
+    }
+
+    @Test
+    public void testFieldsEquality() {
+        final StenoPayload.Fields fields = new StenoPayload.Fields.Builder()
+                .putInt("key1", 1)
+                .putObject("key2", "value2")
+                .build();
+        final StenoPayload.Fields boxed = new StenoPayload.Fields.Builder()
+                .putObject("key1", 1)
+                .putObject("key2", "value2")
+                .build();
+        final StenoPayload.Fields differentKey = new StenoPayload.Fields.Builder()
+                .putInt("key1", 1)
+                .putObject("key3", "value2")
+                .build();
+        final StenoPayload.Fields differentValue = new StenoPayload.Fields.Builder()
+                .putInt("key1", 2)
+                .putObject("key2", "value2")
+                .build();
+        final StenoPayload.Fields differentSize = new StenoPayload.Fields.Builder()
+                .putInt("key1", 1)
+                .build();
+
+        Assert.assertTrue(fields.equals(fields));
+        Assert.assertTrue(fields.equals(boxed));
+        Assert.assertEquals(fields.hashCode(), boxed.hashCode());
+        Assert.assertFalse(fields.equals(differentKey));
+        Assert.assertFalse(fields.equals(differentValue));
+        Assert.assertFalse(fields.equals(differentSize));
+        Assert.assertFalse(fields.equals("not fields"));
+        Assert.assertEquals("{key1=1, key2=value2}", fields.toString());
+    }
+
+    @Test
+    public void testPayload() {
+        final StenoPayload.Fields data = new StenoPayload.Fields.Builder().putInt("data", 1).build();
+        final StenoPayload.Fields context = new StenoPayload.Fields.Builder().putObject("context", "value").build();
+        final StenoPayload payload = new StenoPayload(data, context);
+
+        Assert.assertSame(data, payload.getData());
+        Assert.assertSame(context, payload.getContext());
+        Assert.assertTrue(payload.equals(payload));
+        Assert.assertTrue(payload.equals(new StenoPayload(data, context)));
+        Assert.assertEquals(payload.hashCode(), new StenoPayload(data, context).hashCode());
+        Assert.assertFalse(payload.equals(new StenoPayload(data, StenoPayload.Fields.EMPTY)));
+        Assert.assertFalse(payload.equals(new StenoPayload(StenoPayload.Fields.EMPTY, context)));
+        Assert.assertFalse(payload.equals("not payload"));
+        Assert.assertEquals("{Data={data=1}, Context={context=value}}", payload.toString());
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Marker;
+import org.slf4j.helpers.BasicMarkerFactory;
+
+import java.time.Clock;
+
+/**
+ * Tests for <code>StenoTurboFilter</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class StenoTurboFilterTest {
+
+    @Before
+    public void setUp() {
+        _context = new LoggerContext();
+        _context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.TRACE);
+        _logger = _context.getLogger("com.example.Foo");
+        _clock = Mockito.mock(Clock.class);
+        Mockito.doReturn(0L).when(_clock).millis();
+        _filter = new StenoTurboFilter(_clock);
+        _filter.setContext(_context);
+    }
+
+    @Test
+    public void testPublicConstructor() {
+        final StenoTurboFilter filter = new StenoTurboFilter();
+        filter.start();
+        Assert.assertTrue(filter.isStarted());
+        Assert.assertEquals(FilterReply.NEUTRAL, filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testNotStarted() {
+        _filter.addRule(createRateLimitRule(1));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testRateLimit() {
+        _filter.addRule(createRateLimitRule(2));
+        _filter.start();
+        Assert.assertTrue(_filter.isStarted());
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "other", null, null));
+
+        Mockito.doReturn(1000L).when(_clock).millis();
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testSampling() {
+        final StenoTurboFilter.Rule rule = new StenoTurboFilter.Rule();
+        rule.setSampleRate(3);
+        _filter.addRule(rule);
+        _filter.start();
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "other", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testSamplingAndRateLimit() {
+        final StenoTurboFilter.Rule rule = createRateLimitRule(1);
+        rule.setSampleRate(2);
+        _filter.addRule(rule);
+        _filter.start();
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testLevelChecksNotLimited() {
+        _filter.addRule(createRateLimitRule(1));
+        _filter.start();
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, null, null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, null, null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testDisabledEventsNotLimited() {
+        _filter.addRule(createRateLimitRule(1));
+        _filter.start();
+        _logger.setLevel(Level.WARN);
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        _logger.setLevel(null);
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testMatchLevel() {
+        final StenoTurboFilter.Rule rule = createRateLimitRule(1);
+        rule.setLevel(Level.INFO);
+        _filter.addRule(rule);
+        _filter.start();
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.WARN, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.WARN, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.DEBUG, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testMatchMarker() {
+        final Marker parent = MARKER_FACTORY.getMarker("parent");
+        final Marker child = MARKER_FACTORY.getMarker("child");
+        parent.add(child);
+        final StenoTurboFilter.Rule rule = createRateLimitRule(1);
+        rule.setMarker("child");
+        _filter.addRule(rule);
+        _filter.start();
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(
+                MARKER_FACTORY.getMarker("other"), _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(parent, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(child, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testMatchLogger() {
+        final StenoTurboFilter.Rule rule = createRateLimitRule(1);
+        rule.setLogger("com.example");
+        _filter.addRule(rule);
+        _filter.start();
+
+        final Logger other = _context.getLogger("com.examples.Bar");
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, other, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, other, Level.INFO, "event", null, null));
+        final Logger exact = _context.getLogger("com.example");
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, exact, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testFirstMatchingRuleDecides() {
+        final StenoTurboFilter.Rule first = createRateLimitRule(1);
+        first.setLogger("com.other");
+        _filter.addRule(first);
+        _filter.addRule(createRateLimitRule(2));
+        _filter.start();
+
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+        Assert.assertEquals(FilterReply.DENY, _filter.decide(null, _logger, Level.INFO, "event", null, null));
+    }
+
+    @Test
+    public void testInvalidRuleWithoutLimit() {
+        _filter.addRule(new StenoTurboFilter.Rule());
+        _filter.start();
+        Assert.assertFalse(_filter.isStarted());
+    }
+
+    @Test
+    public void testInvalidRuleSampleRate() {
+        final StenoTurboFilter.Rule rule = new StenoTurboFilter.Rule();
+        rule.setSampleRate(0);
+        _filter.addRule(rule);
+        _filter.start();
+        Assert.assertFalse(_filter.isStarted());
+    }
+
+    @Test
+    public void testInvalidRuleBurst() {
+        final StenoTurboFilter.Rule rule = createRateLimitRule(0);
+        _filter.addRule(rule);
+        _filter.start();
+        Assert.assertFalse(_filter.isStarted());
+    }
+
+    @Test
+    public void testInvalidRuleInterval() {
+        final StenoTurboFilter.Rule rule = new StenoTurboFilter.Rule();
+        rule.setInterval(Duration.buildByMilliseconds(0));
+        _filter.addRule(rule);
+        _filter.start();
+        Assert.assertFalse(_filter.isStarted());
+    }
+
+    private static StenoTurboFilter.Rule createRateLimitRule(final int burst) {
+        final StenoTurboFilter.Rule rule = new StenoTurboFilter.Rule();
+        rule.setInterval(Duration.buildBySeconds(1));
+        rule.setBurst(burst);
+        return rule;
+    }
+
+    private LoggerContext _context;
+    private Logger _logger;
+    private Clock _clock;
+    private StenoTurboFilter _filter;
+
+    private static final BasicMarkerFactory MARKER_FACTORY = new BasicMarkerFactory();
+}
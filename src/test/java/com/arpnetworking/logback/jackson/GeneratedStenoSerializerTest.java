@@ -0,0 +1,142 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.jackson;
+
+import com.arpnetworking.logback.StenoEncoder;
+import com.arpnetworking.logback.annotations.Loggable;
+import com.arpnetworking.logback.widgets.WidgetWithGeneratedSerializer;
+import com.arpnetworking.logback.widgets.WidgetWithLoggable;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+
+/**
+ * Tests for <code>GeneratedStenoSerializer</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class GeneratedStenoSerializerTest {
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.doReturn(Boolean.TRUE).when(_encoder).isSafe();
+        Mockito.doReturn(Boolean.TRUE).when(_encoder).isRedactEnabled();
+        Mockito.doReturn(Boolean.FALSE).when(_encoder).isRedactNull();
+        Mockito.doReturn(Boolean.FALSE).when(_encoder).isInjectBeanIdentifier();
+        _objectMapper = new ObjectMapper();
+        _objectMapper.setAnnotationIntrospector(new StenoAnnotationIntrospector(_objectMapper));
+        final SimpleFilterProvider simpleFilterProvider = new SimpleFilterProvider();
+        simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID, new RedactionFilter(true));
+        _objectMapper.setFilterProvider(simpleFilterProvider);
+        final SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new StenoBeanSerializerModifier(_encoder));
+        _objectMapper.registerModule(module);
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        Assert.assertEquals(
+                "{\"value\":\"foo\",\"secret\":\"<REDACTED>\",\"count\":1,\"size\":2,\"ratio\":0.5,\"enabled\":true}",
+                _objectMapper.writeValueAsString(new WidgetWithGeneratedSerializer("foo", "bar", 1, 2L, 0.5, true)));
+    }
+
+    @Test
+    public void testSerializeRedactionDisabled() throws Exception {
+        Mockito.doReturn(Boolean.FALSE).when(_encoder).isRedactEnabled();
+        Assert.assertEquals(
+                "{\"value\":\"foo\",\"secret\":\"bar\",\"count\":1,\"size\":2,\"ratio\":0.5,\"enabled\":false}",
+                _objectMapper.writeValueAsString(new WidgetWithGeneratedSerializer("foo", "bar", 1, 2L, 0.5, false)));
+    }
+
+    @Test
+    public void testSerializeRedactNull() throws Exception {
+        final WidgetWithGeneratedSerializer widget = new WidgetWithGeneratedSerializer(null, null, 1, 2L, 0.5, true);
+        Assert.assertEquals(
+                "{\"value\":null,\"secret\":null,\"count\":1,\"size\":2,\"ratio\":0.5,\"enabled\":true}",
+                _objectMapper.writeValueAsString(widget));
+        Mockito.doReturn(Boolean.TRUE).when(_encoder).isRedactNull();
+        Assert.assertEquals(
+                "{\"value\":null,\"secret\":\"<REDACTED>\",\"count\":1,\"size\":2,\"ratio\":0.5,\"enabled\":true}",
+                _objectMapper.writeValueAsString(widget));
+    }
+
+    @Test
+    public void testSerializeWithBeanIdentifier() throws Exception {
+        Mockito.doReturn(Boolean.TRUE).when(_encoder).isInjectBeanIdentifier();
+        final WidgetWithGeneratedSerializer widget = new WidgetWithGeneratedSerializer("foo", "bar", 1, 2L, 0.5, true);
+        final JsonNode node = _objectMapper.readTree(_objectMapper.writeValueAsString(widget));
+        Assert.assertEquals(Integer.toHexString(System.identityHashCode(widget)), node.get("_id").asText());
+        Assert.assertEquals(WidgetWithGeneratedSerializer.class.getName(), node.get("_class").asText());
+        Assert.assertEquals("foo", node.get("value").asText());
+        Assert.assertEquals("<REDACTED>", node.get("secret").asText());
+    }
+
+    @Test
+    public void testSerializeWithType() throws Exception {
+        final JsonNode node = _objectMapper.readTree(_objectMapper.writeValueAsString(
+                new TypedHolder(new WidgetWithGeneratedSerializer("foo", "bar", 1, 2L, 0.5, true))));
+        Assert.assertEquals(WidgetWithGeneratedSerializer.class.getName(), node.get("widget").get("@class").asText());
+        Assert.assertEquals("foo", node.get("widget").get("value").asText());
+        Assert.assertEquals("<REDACTED>", node.get("widget").get("secret").asText());
+    }
+
+    @Test
+    public void testLoggableWithoutGeneratedSerializer() throws Exception {
+        Assert.assertEquals(
+                "{\"value\":\"foo\"}",
+                _objectMapper.writeValueAsString(new WidgetWithLoggable("foo")));
+    }
+
+    @Test
+    public void testGetSerializerClassName() {
+        Assert.assertEquals(
+                "com.arpnetworking.logback.widgets.WidgetWithGeneratedSerializer_StenoSerializer",
+                GeneratedStenoSerializer.getSerializerClassName(WidgetWithGeneratedSerializer.class));
+        Assert.assertEquals(
+                "java.util.Map_Entry_StenoSerializer",
+                GeneratedStenoSerializer.getSerializerClassName(Map.Entry.class));
+    }
+
+    private ObjectMapper _objectMapper;
+    @Mock
+    private StenoEncoder _encoder;
+
+    @Loggable
+    private static final class TypedHolder {
+
+        private TypedHolder(final WidgetWithGeneratedSerializer widget) {
+            _widget = widget;
+        }
+
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY)
+        public Object getWidget() {
+            return _widget;
+        }
+
+        private final Object _widget;
+    }
+}
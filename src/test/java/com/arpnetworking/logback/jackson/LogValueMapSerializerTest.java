@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.jackson;
+
+import com.arpnetworking.logback.StenoEncoder;
+import com.arpnetworking.logback.widgets.Widget;
+import com.arpnetworking.logback.widgets.WidgetWithLogValue;
+import com.arpnetworking.steno.LogValueMapFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+
+/**
+ * Tests for <code>LogValueMapSerializer</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class LogValueMapSerializerTest {
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.doReturn(Boolean.FALSE).when(_encoder).isInjectBeanIdentifier();
+        _objectMapper = new ObjectMapper();
+        _objectMapper.setAnnotationIntrospector(new StenoAnnotationIntrospector(_objectMapper));
+        final SimpleFilterProvider simpleFilterProvider = new SimpleFilterProvider();
+        simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID, new RedactionFilter(false));
+        _objectMapper.setFilterProvider(simpleFilterProvider);
+        final SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new StenoBeanSerializerModifier(_encoder));
+        module.addSerializer(new LogValueMapSerializer(_encoder));
+        _objectMapper.registerModule(module);
+    }
+
+    @Test
+    public void testSerialize() throws JsonProcessingException {
+        final String asString = _objectMapper.writeValueAsString(
+                LogValueMapFactory.of(
+                        "k1", "v1",
+                        "k2", 2,
+                        "k3", new WidgetWithLogValue("foo"),
+                        "k4", Collections.singletonList("a")));
+        Assert.assertEquals("{\"k1\":\"v1\",\"k2\":2,\"k3\":{\"logValue\":\"foo\"},\"k4\":[\"a\"]}", asString);
+    }
+
+    @Test
+    public void testSerializeEmpty() throws JsonProcessingException {
+        // CHECKSTYLE.OFF: RegexpSingleline - Allow construction for testing purposes
+        final String asString = _objectMapper.writeValueAsString(LogValueMapFactory.builder().build());
+        // CHECKSTYLE.ON: RegexpSingleline
+        Assert.assertEquals("{}", asString);
+    }
+
+    @Test
+    public void testSerializeNullKeysAndValues() throws JsonProcessingException {
+        final String asString = _objectMapper.writeValueAsString(
+                LogValueMapFactory.of(
+                        null, "v1",
+                        "k2", null,
+                        "k3", "v3"));
+        Assert.assertEquals("{\"k3\":\"v3\",\"_nullKeys\":true,\"_nullValues\":true}", asString);
+    }
+
+    @Test
+    public void testSerializeWithInjectBeanIdentifier() throws JsonProcessingException {
+        Mockito.doReturn(Boolean.TRUE).when(_encoder).isInjectBeanIdentifier();
+        final Widget widget = new Widget("foo");
+        final String asString = _objectMapper.writeValueAsString(
+                LogValueMapFactory.builder(widget)
+                        .put("k1", "v1")
+                        .build());
+        Assert.assertEquals(
+                "{\"_id\":\"" + Integer.toHexString(System.identityHashCode(widget)) + "\","
+                        + "\"_class\":\"com.arpnetworking.logback.widgets.Widget\",\"k1\":\"v1\"}",
+                asString);
+    }
+
+    @Test
+    public void testSerializeWithInjectBeanIdentifierWithoutTarget() throws JsonProcessingException {
+        Mockito.doReturn(Boolean.TRUE).when(_encoder).isInjectBeanIdentifier();
+        // CHECKSTYLE.OFF: RegexpSingleline - Allow construction for testing purposes
+        final String asString = _objectMapper.writeValueAsString(LogValueMapFactory.of("k1", "v1"));
+        // CHECKSTYLE.ON: RegexpSingleline
+        Assert.assertEquals("{\"_id\":null,\"_class\":null,\"k1\":\"v1\"}", asString);
+    }
+
+    private ObjectMapper _objectMapper;
+    @Mock
+    private StenoEncoder _encoder;
+}
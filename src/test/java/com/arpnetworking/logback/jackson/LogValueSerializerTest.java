@@ -0,0 +1,259 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.jackson;
+
+import com.arpnetworking.logback.StenoEncoder;
+import com.arpnetworking.logback.annotations.LogValue;
+import com.arpnetworking.logback.widgets.WidgetWithJsonValue;
+import com.arpnetworking.logback.widgets.WidgetWithLogValue;
+import com.arpnetworking.logback.widgets.WidgetWithPrivateLogValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+/**
+ * Tests for <code>LogValueSerializer</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class LogValueSerializerTest {
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.doReturn(Boolean.FALSE).when(_encoder).isInjectBeanIdentifier();
+        Mockito.doReturn(Boolean.TRUE).when(_encoder).isCompileLogValue();
+        _objectMapper = createObjectMapper(_encoder);
+    }
+
+    @Test
+    public void testCompiled() throws Exception {
+        Assert.assertTrue(LogValueSerializer.create(
+                WidgetWithLogValue.class.getMethod("toLogValue"),
+                _fallback) instanceof LogValueSerializer);
+        final String asString = _objectMapper.writeValueAsString(new WidgetWithLogValue("foo"));
+        Assert.assertEquals("{\"logValue\":\"foo\"}", asString);
+    }
+
+    @Test
+    public void testCompileDisabled() throws Exception {
+        Mockito.doReturn(Boolean.FALSE).when(_encoder).isCompileLogValue();
+        final String asString = createObjectMapper(_encoder).writeValueAsString(new WidgetWithLogValue("foo"));
+        Assert.assertEquals("{\"logValue\":\"foo\"}", asString);
+    }
+
+    @Test
+    public void testJsonValueNotCompiled() throws Exception {
+        final String asString = _objectMapper.writeValueAsString(new WidgetWithJsonValue("foo"));
+        Assert.assertEquals("{\"jsonValue\":\"foo\"}", asString);
+    }
+
+    @Test
+    public void testNotAccessible() throws Exception {
+        Assert.assertSame(
+                _fallback,
+                LogValueSerializer.create(WidgetWithPrivateLogValue.class.getDeclaredMethod("toLogValue"), _fallback));
+        final String asString = _objectMapper.writeValueAsString(new WidgetWithPrivateLogValue("foo"));
+        Assert.assertEquals("{\"logValue\":\"foo\"}", asString);
+    }
+
+    @Test
+    public void testNotVisible() throws Exception {
+        final Class<?> clazz = new DefiningClassLoader(getClass().getClassLoader()).define(InvisibleWidget.class);
+        Assert.assertNotSame(InvisibleWidget.class, clazz);
+        Assert.assertFalse(LogValueSerializer.isVisible(clazz));
+        Assert.assertTrue(LogValueSerializer.create(clazz.getMethod("toLogValue"), _fallback) instanceof LogValueSerializer);
+        final String asString = _objectMapper.writeValueAsString(clazz.newInstance());
+        Assert.assertEquals("\"invisible\"", asString);
+    }
+
+    @Test
+    public void testVisible() {
+        Assert.assertTrue(LogValueSerializer.isVisible(InvisibleWidget.class));
+        Assert.assertTrue(LogValueSerializer.isVisible(String.class));
+    }
+
+    @Test
+    public void testNullValue() throws Exception {
+        final String asString = _objectMapper.writeValueAsString(new ValueWidget(null));
+        Assert.assertEquals("null", asString);
+    }
+
+    @Test
+    public void testValueTypeChanges() throws Exception {
+        Assert.assertEquals("\"foo\"", _objectMapper.writeValueAsString(new ValueWidget("foo")));
+        Assert.assertEquals("\"bar\"", _objectMapper.writeValueAsString(new ValueWidget("bar")));
+        Assert.assertEquals("[1]", _objectMapper.writeValueAsString(new ValueWidget(Collections.singletonList(1))));
+        Assert.assertEquals("\"foo\"", _objectMapper.writeValueAsString(new ValueWidget("foo")));
+    }
+
+    @Test
+    public void testThrows() throws Exception {
+        try {
+            _objectMapper.writeValueAsString(new ThrowingWidget());
+            Assert.fail("Expected exception not thrown");
+        } catch (final JsonMappingException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testThrowsError() throws Exception {
+        _objectMapper.writeValueAsString(new ErrorWidget());
+    }
+
+    @Test
+    public void testSerializeWithType() throws Exception {
+        final JsonSerializer<?> serializer = LogValueSerializer.create(
+                WidgetWithLogValue.class.getMethod("toLogValue"),
+                _fallback);
+        final WidgetWithLogValue widget = new WidgetWithLogValue("foo");
+        final JsonGenerator generator = Mockito.mock(JsonGenerator.class);
+        final SerializerProvider provider = Mockito.mock(SerializerProvider.class);
+        final TypeSerializer typeSerializer = Mockito.mock(TypeSerializer.class);
+        ((LogValueSerializer) serializer).serializeWithType(widget, generator, provider, typeSerializer);
+        Mockito.verify(_fallback).serializeWithType(widget, generator, provider, typeSerializer);
+    }
+
+    private static ObjectMapper createObjectMapper(final StenoEncoder encoder) {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setAnnotationIntrospector(new StenoAnnotationIntrospector(objectMapper));
+        final SimpleFilterProvider simpleFilterProvider = new SimpleFilterProvider();
+        simpleFilterProvider.addFilter(RedactionFilter.REDACTION_FILTER_ID, new RedactionFilter(false));
+        objectMapper.setFilterProvider(simpleFilterProvider);
+        final SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new StenoBeanSerializerModifier(encoder));
+        objectMapper.registerModule(module);
+        return objectMapper;
+    }
+
+    private ObjectMapper _objectMapper;
+    @Mock
+    private StenoEncoder _encoder;
+    @Mock
+    private JsonSerializer<Object> _fallback;
+
+    /**
+     * Widget whose log value is provided at construction.
+     */
+    public static final class ValueWidget {
+
+        /**
+         * Public constructor.
+         *
+         * @param value The log value.
+         */
+        public ValueWidget(final Object value) {
+            _value = value;
+        }
+
+        /**
+         * Create log representation.
+         *
+         * @return Log representation.
+         */
+        @LogValue
+        public Object toLogValue() {
+            return _value;
+        }
+
+        private final Object _value;
+    }
+
+    /**
+     * Widget whose log value method throws.
+     */
+    public static final class ThrowingWidget {
+
+        /**
+         * Create log representation.
+         *
+         * @return Log representation.
+         */
+        @LogValue
+        public Object toLogValue() {
+            throw new IllegalStateException("Failure");
+        }
+    }
+
+    /**
+     * Widget whose log value method throws an error.
+     */
+    public static final class ErrorWidget {
+
+        /**
+         * Create log representation.
+         *
+         * @return Log representation.
+         */
+        @LogValue
+        public Object toLogValue() {
+            throw new AssertionError("Failure");
+        }
+    }
+
+    /**
+     * Widget loaded by a class loader other than the library's.
+     */
+    public static final class InvisibleWidget {
+
+        /**
+         * Create log representation.
+         *
+         * @return Log representation.
+         */
+        @LogValue
+        public Object toLogValue() {
+            return "invisible";
+        }
+    }
+
+    private static final class DefiningClassLoader extends ClassLoader {
+
+        private DefiningClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(final Class<?> clazz) throws IOException {
+            try (InputStream stream = getParent().getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                final byte[] chunk = new byte[4096];
+                int read;
+                while ((read = stream.read(chunk)) != -1) {
+                    buffer.write(chunk, 0, read);
+                }
+                final byte[] bytes = buffer.toByteArray();
+                return defineClass(clazz.getName(), bytes, 0, bytes.length);
+            }
+        }
+    }
+}
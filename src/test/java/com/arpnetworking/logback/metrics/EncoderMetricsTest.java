@@ -0,0 +1,161 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * Tests for <code>EncoderMetrics</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class EncoderMetricsTest {
+
+    @Test
+    public void testDefaults() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        Assert.assertEquals(EncoderMetrics.DEFAULT_LATENCY_SAMPLE_RATE, metrics.getLatencySampleRate());
+        Assert.assertEquals(0, metrics.getEventsEncoded());
+        Assert.assertTrue(metrics.getEventsEncodedByStrategy().isEmpty());
+        Assert.assertEquals(0, metrics.getBytesWritten());
+        Assert.assertEquals(0, metrics.getEncodingFailures());
+        Assert.assertTrue(metrics.getEncodingFailuresByCause().isEmpty());
+        Assert.assertEquals(0, metrics.getReferenceOnlySubstitutions());
+        Assert.assertEquals(0, metrics.getEncodeLatencySamples());
+        Assert.assertEquals(0.0, metrics.getEncodeLatencyMeanNanos(), 0.001);
+        Assert.assertTrue(metrics.getEncodeLatencyHistogram().isEmpty());
+    }
+
+    @Test
+    public void testRecordEncoded() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.recordEncoded("array", 10);
+        metrics.recordEncoded("array", 20);
+        metrics.recordEncoded("map", 5);
+
+        Assert.assertEquals(3, metrics.getEventsEncoded());
+        Assert.assertEquals(35, metrics.getBytesWritten());
+        final Map<String, Long> byStrategy = metrics.getEventsEncodedByStrategy();
+        Assert.assertEquals(2, byStrategy.size());
+        Assert.assertEquals(Long.valueOf(2), byStrategy.get("array"));
+        Assert.assertEquals(Long.valueOf(1), byStrategy.get("map"));
+    }
+
+    @Test
+    public void testRecordEncodingFailure() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.recordEncodingFailure(new IllegalStateException());
+        metrics.recordEncodingFailure(new IllegalStateException());
+        metrics.recordEncodingFailure(null);
+
+        Assert.assertEquals(3, metrics.getEncodingFailures());
+        final Map<String, Long> byCause = metrics.getEncodingFailuresByCause();
+        Assert.assertEquals(Long.valueOf(2), byCause.get(IllegalStateException.class.getName()));
+        Assert.assertEquals(Long.valueOf(1), byCause.get("<UNKNOWN>"));
+    }
+
+    @Test
+    public void testRecordReferenceOnlySubstitution() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.recordReferenceOnlySubstitution();
+        metrics.recordReferenceOnlySubstitution();
+        Assert.assertEquals(2, metrics.getReferenceOnlySubstitutions());
+    }
+
+    @Test
+    public void testRecordLatency() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.recordLatency(-1);
+        metrics.recordLatency(0);
+        metrics.recordLatency(1);
+        metrics.recordLatency(1000);
+        metrics.recordLatency(1023);
+        metrics.recordLatency(Long.MAX_VALUE);
+
+        Assert.assertEquals(6, metrics.getEncodeLatencySamples());
+        final Map<String, Long> histogram = metrics.getEncodeLatencyHistogram();
+        Assert.assertEquals(4, histogram.size());
+        Assert.assertEquals(Long.valueOf(2), histogram.get("1"));
+        Assert.assertEquals(Long.valueOf(1), histogram.get("2"));
+        Assert.assertEquals(Long.valueOf(2), histogram.get("1024"));
+        Assert.assertEquals(Long.valueOf(1), histogram.get("+Inf"));
+    }
+
+    @Test
+    public void testLatencyMean() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.recordLatency(100);
+        metrics.recordLatency(300);
+        Assert.assertEquals(200.0, metrics.getEncodeLatencyMeanNanos(), 0.001);
+    }
+
+    @Test
+    public void testShouldSampleLatency() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.setLatencySampleRate(0);
+        Assert.assertFalse(metrics.shouldSampleLatency());
+        metrics.setLatencySampleRate(1);
+        Assert.assertTrue(metrics.shouldSampleLatency());
+        metrics.setLatencySampleRate(2);
+        boolean sampled = false;
+        boolean skipped = false;
+        for (int i = 0; i < 1000 && !(sampled && skipped); ++i) {
+            if (metrics.shouldSampleLatency()) {
+                sampled = true;
+            } else {
+                skipped = true;
+            }
+        }
+        Assert.assertTrue(sampled);
+        Assert.assertTrue(skipped);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLatencySampleRate() {
+        new EncoderMetrics().setLatencySampleRate(-1);
+    }
+
+    @Test
+    public void testReset() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.recordEncoded("array", 10);
+        metrics.recordEncodingFailure(new IllegalStateException());
+        metrics.recordReferenceOnlySubstitution();
+        metrics.recordLatency(100);
+
+        metrics.reset();
+
+        Assert.assertEquals(0, metrics.getEventsEncoded());
+        Assert.assertEquals(0, metrics.getBytesWritten());
+        Assert.assertEquals(0, metrics.getEncodingFailures());
+        Assert.assertEquals(0, metrics.getReferenceOnlySubstitutions());
+        Assert.assertEquals(0, metrics.getEncodeLatencySamples());
+        Assert.assertTrue(metrics.getEncodeLatencyHistogram().isEmpty());
+    }
+
+    @Test
+    public void testToString() {
+        final EncoderMetrics metrics = new EncoderMetrics();
+        metrics.recordEncoded("array", 10);
+        final String asString = metrics.toString();
+        Assert.assertNotNull(asString);
+        Assert.assertTrue(asString.contains("array=1"));
+        Assert.assertTrue(asString.contains("BytesWritten=10"));
+    }
+}
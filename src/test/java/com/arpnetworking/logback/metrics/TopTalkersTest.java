@@ -0,0 +1,237 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for <code>TopTalkers</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class TopTalkersTest {
+
+    @Test
+    public void testRecord() {
+        final TopTalkers topTalkers = new TopTalkers(10, 2);
+        Assert.assertEquals(10, topTalkers.getCapacity());
+        Assert.assertEquals(2, topTalkers.getSize());
+
+        topTalkers.record("a", "event1", "INFO", 100);
+        topTalkers.record("a", "event1", "INFO", 100);
+        topTalkers.record("a", "event2", "INFO", 50);
+        topTalkers.record("b", "event1", "WARN", 500);
+        topTalkers.record("a", "event1", "DEBUG", 10);
+
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        Assert.assertEquals(2, top.size());
+        assertTalker(top.get(0), "b", "event1", "WARN", 1, 500, 0);
+        assertTalker(top.get(1), "a", "event1", "INFO", 2, 200, 0);
+    }
+
+    @Test
+    public void testEviction() {
+        final TopTalkers topTalkers = new TopTalkers(2, 2);
+        topTalkers.record("a", "event", "INFO", 100);
+        topTalkers.record("b", "event", "INFO", 10);
+        topTalkers.record("c", "event", "INFO", 5);
+
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        Assert.assertEquals(2, top.size());
+        assertTalker(top.get(0), "a", "event", "INFO", 1, 100, 0);
+        // The new entry inherits the evicted minimum
+        assertTalker(top.get(1), "c", "event", "INFO", 2, 15, 10);
+    }
+
+    @Test
+    public void testHeavyHitterRetained() {
+        final TopTalkers topTalkers = new TopTalkers(4, 1);
+        for (int i = 0; i < 1000; ++i) {
+            topTalkers.record("noisy", "event", "INFO", 100);
+            topTalkers.record("quiet" + i, "event", "INFO", 10);
+        }
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        Assert.assertEquals(1, top.size());
+        Assert.assertEquals("noisy", top.get(0).getLogger());
+        Assert.assertTrue(top.get(0).getBytes() >= 100000);
+    }
+
+    @Test
+    public void testNullKeys() {
+        final TopTalkers topTalkers = new TopTalkers(2, 2);
+        topTalkers.record(null, null, null, 1);
+        topTalkers.record(null, null, null, 1);
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        Assert.assertEquals(1, top.size());
+        assertTalker(top.get(0), null, null, null, 2, 2, 0);
+    }
+
+    @Test
+    public void testGetTopTalkersAndReset() {
+        final TopTalkers topTalkers = new TopTalkers(2, 2);
+        topTalkers.record("a", "event", "INFO", 100);
+        Assert.assertEquals(1, topTalkers.getTopTalkersAndReset().size());
+        Assert.assertTrue(topTalkers.getTopTalkers().isEmpty());
+    }
+
+    @Test
+    public void testReset() {
+        final TopTalkers topTalkers = new TopTalkers(2, 2);
+        topTalkers.record("a", "event", "INFO", 100);
+        topTalkers.reset();
+        Assert.assertTrue(topTalkers.getTopTalkers().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new TopTalkers(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new TopTalkers(1, 0);
+    }
+
+    @Test
+    public void testHashCollisions() {
+        // "Aa" and "BB" have the same hash code
+        final TopTalkers topTalkers = new TopTalkers(8, 8);
+        for (int i = 0; i < 2; ++i) {
+            topTalkers.record("Aa", "event", "INFO", 1);
+            topTalkers.record("BB", "event", "INFO", 2);
+            topTalkers.record("a", "Aa", "INFO", 4);
+            topTalkers.record("a", "BB", "INFO", 8);
+            topTalkers.record("a", "event", "Aa", 16);
+            topTalkers.record("a", "event", "BB", 32);
+        }
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        Assert.assertEquals(6, top.size());
+        assertTalker(top.get(0), "a", "event", "BB", 2, 64, 0);
+        assertTalker(top.get(1), "a", "event", "Aa", 2, 32, 0);
+        assertTalker(top.get(2), "a", "BB", "INFO", 2, 16, 0);
+        assertTalker(top.get(3), "a", "Aa", "INFO", 2, 8, 0);
+        assertTalker(top.get(4), "BB", "event", "INFO", 2, 4, 0);
+        assertTalker(top.get(5), "Aa", "event", "INFO", 2, 2, 0);
+    }
+
+    @Test
+    public void testEvictionPreservesTotals() {
+        final TopTalkers topTalkers = new TopTalkers(16, 16);
+        final Random random = new Random(42);
+        long count = 0;
+        long bytes = 0;
+        for (int i = 0; i < 100000; ++i) {
+            final int talker = random.nextInt(8) == 0 ? random.nextInt(1000) : random.nextInt(4);
+            final long eventBytes = 1 + random.nextInt(100);
+            topTalkers.record("logger" + talker, "event", "INFO", eventBytes);
+            ++count;
+            bytes += eventBytes;
+        }
+
+        // Space-Saving preserves the total count and bytes across replacements
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        Assert.assertEquals(16, top.size());
+        long actualCount = 0;
+        long actualBytes = 0;
+        for (int i = 0; i < top.size(); ++i) {
+            actualCount += top.get(i).getCount();
+            actualBytes += top.get(i).getBytes();
+            if (i > 0) {
+                Assert.assertTrue(top.get(i - 1).getBytes() >= top.get(i).getBytes());
+            }
+        }
+        Assert.assertEquals(count, actualCount);
+        Assert.assertEquals(bytes, actualBytes);
+
+        // The frequent talkers are tracked
+        for (int i = 0; i < 4; ++i) {
+            final String logger = "logger" + i;
+            Assert.assertTrue(logger, top.stream().limit(4).anyMatch(t -> logger.equals(t.getLogger())));
+        }
+    }
+
+    @Test
+    public void testIntervalTopTalkers() {
+        final TopTalkers topTalkers = new TopTalkers(2, 2);
+        topTalkers.record("a", "event", "INFO", 100);
+        topTalkers.record("b", "event", "INFO", 10);
+
+        List<TopTalker> interval = topTalkers.getIntervalTopTalkers();
+        Assert.assertEquals(2, interval.size());
+        assertTalker(interval.get(0), "a", "event", "INFO", 1, 100, 0);
+        assertTalker(interval.get(1), "b", "event", "INFO", 1, 10, 0);
+
+        // Only changes since the previous interval are reported
+        topTalkers.record("b", "event", "INFO", 20);
+        interval = topTalkers.getIntervalTopTalkers();
+        Assert.assertEquals(1, interval.size());
+        assertTalker(interval.get(0), "b", "event", "INFO", 1, 20, 0);
+
+        // A replacement reports its inherited totals as error
+        topTalkers.record("c", "event", "INFO", 5);
+        interval = topTalkers.getIntervalTopTalkers();
+        Assert.assertEquals(1, interval.size());
+        assertTalker(interval.get(0), "c", "event", "INFO", 3, 35, 30);
+        Assert.assertTrue(topTalkers.getIntervalTopTalkers().isEmpty());
+
+        // The cumulative accounting is unaffected
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        assertTalker(top.get(0), "a", "event", "INFO", 1, 100, 0);
+        assertTalker(top.get(1), "c", "event", "INFO", 3, 35, 30);
+    }
+
+    @Test
+    public void testRecordAfterReset() {
+        final TopTalkers topTalkers = new TopTalkers(2, 2);
+        topTalkers.record("a", "event", "INFO", 100);
+        topTalkers.record("b", "event", "INFO", 10);
+        topTalkers.reset();
+        topTalkers.record("b", "event", "INFO", 20);
+        topTalkers.record("c", "event", "INFO", 30);
+        topTalkers.record("c", "event", "INFO", 30);
+
+        final List<TopTalker> top = topTalkers.getTopTalkers();
+        Assert.assertEquals(2, top.size());
+        assertTalker(top.get(0), "c", "event", "INFO", 2, 60, 0);
+        assertTalker(top.get(1), "b", "event", "INFO", 1, 20, 0);
+    }
+
+    @Test
+    public void testTopTalkerToString() {
+        final String asString = new TopTalker("a", "event", "INFO", 1, 2, 3).toString();
+        Assert.assertEquals("TopTalker{Logger=a, EventName=event, Level=INFO, Count=1, Bytes=2, Error=3}", asString);
+    }
+
+    private static void assertTalker(
+            final TopTalker talker,
+            final String logger,
+            final String eventName,
+            final String level,
+            final long count,
+            final long bytes,
+            final long error) {
+        Assert.assertEquals(logger, talker.getLogger());
+        Assert.assertEquals(eventName, talker.getEventName());
+        Assert.assertEquals(level, talker.getLevel());
+        Assert.assertEquals(count, talker.getCount());
+        Assert.assertEquals(bytes, talker.getBytes());
+        Assert.assertEquals(error, talker.getError());
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.widgets;
+
+import com.arpnetworking.logback.annotations.LogRedact;
+import com.arpnetworking.logback.annotations.Loggable;
+
+/**
+ * Class to test object serialization with a generated serializer.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@Loggable
+public final class WidgetWithGeneratedSerializer {
+
+    /**
+     * Public constructor.
+     *
+     * @param value The value of the widget.
+     * @param secret The secret of the widget.
+     * @param count The count of the widget.
+     * @param size The size of the widget.
+     * @param ratio The ratio of the widget.
+     * @param enabled Whether the widget is enabled.
+     */
+    public WidgetWithGeneratedSerializer(
+            final String value,
+            final String secret,
+            final int count,
+            final long size,
+            final double ratio,
+            final boolean enabled) {
+        _value = value;
+        _secret = secret;
+        _count = count;
+        _size = size;
+        _ratio = ratio;
+        _enabled = enabled;
+    }
+
+    public String getValue() {
+        return _value;
+    }
+
+    @LogRedact
+    public String getSecret() {
+        return _secret;
+    }
+
+    public int getCount() {
+        return _count;
+    }
+
+    public long getSize() {
+        return _size;
+    }
+
+    public double getRatio() {
+        return _ratio;
+    }
+
+    public boolean isEnabled() {
+        return _enabled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Value=" + _value;
+    }
+
+    private final String _value;
+    private final String _secret;
+    private final int _count;
+    private final long _size;
+    private final double _ratio;
+    private final boolean _enabled;
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.logback.widgets;
+
+import com.arpnetworking.logback.StenoEncoder;
+import com.arpnetworking.logback.jackson.GeneratedStenoSerializer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Serializer for <code>WidgetWithGeneratedSerializer</code> in the form
+ * generated by <code>StenoSerializerProcessor</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public final class WidgetWithGeneratedSerializer_StenoSerializer
+        extends GeneratedStenoSerializer<WidgetWithGeneratedSerializer> {
+
+    /**
+     * Public constructor.
+     *
+     * @param stenoEncoder The instance of <code>StenoEncoder</code>.
+     */
+    public WidgetWithGeneratedSerializer_StenoSerializer(final StenoEncoder stenoEncoder) {
+        super(WidgetWithGeneratedSerializer.class, stenoEncoder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void serializeProperties(
+            final WidgetWithGeneratedSerializer bean,
+            final JsonGenerator jsonGenerator,
+            final SerializerProvider provider)
+            throws IOException {
+        writeProperty("value", bean.getValue(), jsonGenerator, provider);
+        writeRedactedProperty("secret", bean.getSecret(), jsonGenerator, provider);
+        writeProperty("count", bean.getCount(), jsonGenerator, provider);
+        writeProperty("size", bean.getSize(), jsonGenerator, provider);
+        writeProperty("ratio", bean.getRatio(), jsonGenerator, provider);
+        writeProperty("enabled", bean.isEnabled(), jsonGenerator, provider);
+    }
+
+    private static final long serialVersionUID = 1L;
+}
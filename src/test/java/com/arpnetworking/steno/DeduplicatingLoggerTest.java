@@ -0,0 +1,414 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import com.arpnetworking.logback.StenoMarker;
+import com.arpnetworking.logback.StenoPayload;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for <code>DeduplicatingLogger</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class DeduplicatingLoggerTest {
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.doReturn(Boolean.TRUE).when(_slf4jLogger).isInfoEnabled();
+        Mockito.doReturn(Boolean.TRUE).when(_slf4jLogger).isWarnEnabled();
+        Mockito.doReturn(START).when(_clock).millis();
+        _logger = new DeduplicatingLogger(_slf4jLogger, Duration.ofSeconds(1), _clock, null);
+    }
+
+    @Test
+    public void testRepeatsSuppressed() {
+        _logger.info("e", "m");
+        Mockito.doReturn(START + 10).when(_clock).millis();
+        _logger.info("e", "m");
+        Mockito.doReturn(START + 20).when(_clock).millis();
+        _logger.info("e", "m");
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message"},
+                new Object[]{"m"});
+
+        // The next event after the window logs the summary and starts a new window
+        Mockito.doReturn(START + 1000).when(_clock).millis();
+        _logger.info("e", "m");
+        final InOrder inOrder = Mockito.inOrder(_slf4jLogger);
+        inOrder.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "_count", "_firstSeen", "_lastSeen"},
+                new Object[]{"m", 3L, Instant.ofEpochMilli(START), Instant.ofEpochMilli(START + 20)});
+        inOrder.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message"},
+                new Object[]{"m"});
+        _logger.info("e", "m");
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message"},
+                new Object[]{"m"});
+    }
+
+    @Test
+    public void testDistinctFingerprints() {
+        _logger.info("e", "m1");
+        _logger.info("e", "m2");
+        _logger.info("e2", "m1");
+        _logger.warn("e", "m1");
+        _logger.info("e", "m1", new IllegalStateException());
+        _logger.info("e", "m1", new IllegalArgumentException());
+        _logger.info("e", "m1", new IllegalArgumentException());
+        Mockito.verify(_slf4jLogger, Mockito.times(3)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any(),
+                Mockito.any(Throwable.class));
+        Mockito.verify(_slf4jLogger).warn(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message"},
+                new Object[]{"m1"});
+    }
+
+    @Test
+    public void testSummaryWithThrowable() {
+        final Throwable throwable = new IllegalStateException();
+        _logger.info("e", "m", throwable);
+        _logger.info("e", "m", new IllegalStateException());
+        Mockito.doReturn(START + 1000).when(_clock).millis();
+        _logger.sweep();
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message"},
+                new Object[]{"m"},
+                throwable);
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "_count", "_firstSeen", "_lastSeen", "_throwableClass"},
+                new Object[]{"m", 2L, Instant.ofEpochMilli(START), Instant.ofEpochMilli(START), "java.lang.IllegalStateException"});
+    }
+
+    @Test
+    public void testSweep() {
+        _logger.info("e1", "m");
+        _logger.info("e1", "m");
+        _logger.info("e2", "m");
+
+        // Nothing expires within the window
+        Mockito.doReturn(START + 999).when(_clock).millis();
+        _logger.sweep();
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+
+        // Only fingerprints with repeats are summarized
+        Mockito.doReturn(START + 1000).when(_clock).millis();
+        _logger.sweep();
+        _logger.sweep();
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e1",
+                new String[]{"message", "_count", "_firstSeen", "_lastSeen"},
+                new Object[]{"m", 2L, Instant.ofEpochMilli(START), Instant.ofEpochMilli(START)});
+        Mockito.verify(_slf4jLogger, Mockito.times(3)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+
+        // Swept fingerprints are logged again
+        _logger.info("e1", "m");
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                StenoMarker.ARRAY_MARKER,
+                "e1",
+                new String[]{"message"},
+                new Object[]{"m"});
+    }
+
+    @Test
+    public void testRepeatAfterConcurrentRetire() {
+        // Retire the entry after it was read for the repeat but before it is counted
+        final Object message = new RetireOnSecondEquals(() -> {
+            Mockito.doReturn(START + 1000).when(_clock).millis();
+            _logger.sweep();
+        });
+        _logger.log(LogLevel.INFO, "e", new String[]{"message"}, new Object[]{message}, null);
+        Mockito.doReturn(START + 10).when(_clock).millis();
+        _logger.log(LogLevel.INFO, "e", new String[]{"message"}, new Object[]{new RetireOnSecondEquals(null)}, null);
+
+        // The repeat was not counted against the retired entry so it starts a new window
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.eq("e"),
+                Mockito.eq(new String[]{"message"}),
+                Mockito.<Object>any());
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+    }
+
+    @Test
+    public void testMessageFoundAfterOtherKeys() {
+        _logger.log(LogLevel.INFO, "e", new String[]{"k", "message"}, new Object[]{"v1", "m"}, null);
+        _logger.log(LogLevel.INFO, "e", new String[]{"k", "message"}, new Object[]{"v2", "m"}, null);
+        _logger.log(LogLevel.INFO, "e", new String[]{"k"}, new Object[]{"v3"}, null);
+        _logger.log(LogLevel.INFO, "e", new String[]{"k"}, new Object[]{"v4"}, null);
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"k", "message"},
+                new Object[]{"v1", "m"});
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"k"},
+                new Object[]{"v3"});
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+    }
+
+    @Test
+    public void testLogBuilder() {
+        _logger.info().setEvent("e").setMessage("m").addData("k", "v1").log();
+        _logger.info().setEvent("e").setMessage("m").addData("k", "v2").log();
+        _logger.info().setEvent("e").addData("k", "v3").log();
+        _logger.info().setEvent("e").addData("k", "v4").log();
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.PAYLOAD_MARKER,
+                "e",
+                new StenoPayload(
+                        new StenoPayload.Fields.Builder()
+                                .putObject("message", "m")
+                                .putObject("k", "v1")
+                                .build(),
+                        StenoPayload.Fields.EMPTY));
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.PAYLOAD_MARKER,
+                "e",
+                new StenoPayload(
+                        new StenoPayload.Fields.Builder()
+                                .putObject("k", "v3")
+                                .build(),
+                        StenoPayload.Fields.EMPTY));
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    @Test
+    public void testSlotCollisions() {
+        final int slot = slot(LogLevel.INFO, "a", "m", null);
+        _logger.info("a", "m");
+
+        // Each fingerprint differs from the first by one component but probes the same slot
+        _logger.warn(collidingEvent(slot, LogLevel.WARN, "m", null), "m");
+        _logger.info(collidingEvent(slot, LogLevel.INFO, "m", IllegalStateException.class), "m", new IllegalStateException());
+        _logger.info(collidingEvent(slot, LogLevel.INFO, "m", null), "m");
+        _logger.info("a", collidingMessage(slot, LogLevel.INFO, "a", null));
+        Mockito.verify(_slf4jLogger, Mockito.times(3)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+        Mockito.verify(_slf4jLogger).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any(),
+                Mockito.any(Throwable.class));
+        Mockito.verify(_slf4jLogger).warn(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+    }
+
+    @Test
+    public void testFullProbeSequence() {
+        final int slot = slot(LogLevel.INFO, "a", "m", null);
+        _logger.info("a", "m");
+        String event = "a";
+        for (int i = 0; i < 8; ++i) {
+            event = collidingEvent(slot, LogLevel.INFO, "m", null, event);
+            _logger.info(event, "m");
+        }
+        // The last fingerprint could not be stored so it is not deduplicated
+        _logger.info(event, "m");
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                StenoMarker.ARRAY_MARKER,
+                event,
+                new String[]{"message"},
+                new Object[]{"m"});
+    }
+
+    @Test
+    public void testSweeper() {
+        final DeduplicatingLogger.Sweeper sweeper = new DeduplicatingLogger.Sweeper(new WeakReference<>(_logger));
+        _logger.info("e", "m");
+        _logger.info("e", "m");
+        Mockito.doReturn(START + 1000).when(_clock).millis();
+        sweeper.run();
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "_count", "_firstSeen", "_lastSeen"},
+                new Object[]{"m", 2L, Instant.ofEpochMilli(START), Instant.ofEpochMilli(START)});
+    }
+
+    @Test
+    public void testSweeperCancelledAfterCollection() {
+        final WeakReference<DeduplicatingLogger> reference = new WeakReference<>(_logger);
+        final DeduplicatingLogger.Sweeper sweeper = new DeduplicatingLogger.Sweeper(reference);
+        final Future<?> future = Mockito.mock(Future.class);
+        sweeper.setFuture(future);
+        reference.clear();
+        sweeper.run();
+        Mockito.verify(future).cancel(false);
+    }
+
+    @Test
+    public void testScheduledSweep() {
+        final Logger logger = new DeduplicatingLogger(_slf4jLogger, Duration.ofMillis(10));
+        logger.info("e", "m");
+        logger.info("e", "m");
+        Mockito.verify(_slf4jLogger, Mockito.timeout(5000)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.eq("e"),
+                Mockito.eq(new String[]{"message", "_count", "_firstSeen", "_lastSeen"}),
+                Mockito.<Object>any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroWindow() {
+        new DeduplicatingLogger(_slf4jLogger, Duration.ZERO, _clock, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWindow() {
+        new DeduplicatingLogger(_slf4jLogger, Duration.ofSeconds(-1), _clock, null);
+    }
+
+    @Test
+    public void testSubMillisecondWindow() {
+        final Logger logger = new DeduplicatingLogger(_slf4jLogger, Duration.ofNanos(1), _clock, null);
+        logger.info("e", "m");
+        logger.info("e", "m");
+        Mockito.doReturn(START + 1).when(_clock).millis();
+        logger.info("e", "m");
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message"},
+                new Object[]{"m"});
+    }
+
+    private static int slot(final LogLevel level, final String event, final Object message, final Class<?> throwableClass) {
+        return DeduplicatingLogger.hash(level, event, message, throwableClass) & (DeduplicatingLogger.TABLE_SIZE - 1);
+    }
+
+    private static String collidingEvent(
+            final int slot,
+            final LogLevel level,
+            final Object message,
+            final Class<?> throwableClass) {
+        return collidingEvent(slot, level, message, throwableClass, "a");
+    }
+
+    private static String collidingEvent(
+            final int slot,
+            final LogLevel level,
+            final Object message,
+            final Class<?> throwableClass,
+            final String after) {
+        int i = after.equals("a") ? 0 : Integer.parseInt(after.substring(1)) + 1;
+        while (slot(level, "e" + i, message, throwableClass) != slot) {
+            ++i;
+        }
+        return "e" + i;
+    }
+
+    private static String collidingMessage(final int slot, final LogLevel level, final String event, final Class<?> throwableClass) {
+        int i = 0;
+        while (slot(level, event, "m" + i, throwableClass) != slot) {
+            ++i;
+        }
+        return "m" + i;
+    }
+
+    private static final class RetireOnSecondEquals {
+
+        @Override
+        public boolean equals(final Object other) {
+            if (++_equalsCount == 2 && _onSecondEquals != null) {
+                _onSecondEquals.run();
+            }
+            return other instanceof RetireOnSecondEquals;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+
+        private RetireOnSecondEquals(final Runnable onSecondEquals) {
+            _onSecondEquals = onSecondEquals;
+        }
+
+        private final Runnable _onSecondEquals;
+        private int _equalsCount;
+    }
+
+    @Mock
+    private org.slf4j.Logger _slf4jLogger;
+    @Mock
+    private Clock _clock;
+    private DeduplicatingLogger _logger;
+
+    private static final long START = 1478000000000L;
+}
@@ -15,13 +15,18 @@
  */
 package com.arpnetworking.steno;
 
+import com.arpnetworking.logback.StenoPayload;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Tests for <code>DefaultLogBuilder</code>.
@@ -40,7 +45,8 @@ public class DefaultLogBuilderTest {
                 .setMessage("MyMessage")
                 .setThrowable(EXCEPTION)
                 .log();
-        Mockito.verify(logger).log(
+        verifyLog(
+                logger,
                 LogLevel.DEBUG,
                 "MyEvent",
                 dataKeys,
@@ -57,7 +63,8 @@ public class DefaultLogBuilderTest {
                 .setEvent("MyEvent")
                 .setThrowable(EXCEPTION)
                 .log();
-        Mockito.verify(logger).log(
+        verifyLog(
+                logger,
                 LogLevel.DEBUG,
                 "MyEvent",
                 null,
@@ -79,7 +86,8 @@ public class DefaultLogBuilderTest {
                 .addData("KEY1", "VALUE1")
                 .addData("KEY2", "VALUE2")
                 .log();
-        Mockito.verify(logger).log(
+        verifyLog(
+                logger,
                 LogLevel.DEBUG,
                 "MyEvent",
                 dataKeys,
@@ -103,7 +111,8 @@ public class DefaultLogBuilderTest {
                 .addContext("KEY1", "VALUE1")
                 .addContext("KEY2", "VALUE2")
                 .log();
-        Mockito.verify(logger).log(
+        verifyLog(
+                logger,
                 LogLevel.DEBUG,
                 "MyEvent",
                 dataKeys,
@@ -133,7 +142,8 @@ public class DefaultLogBuilderTest {
                 .addData("D-KEY2", "D-VALUE2B")
                 .addContext("C-KEY2", "C-VALUE2B")
                 .log();
-        Mockito.verify(logger).log(
+        verifyLog(
+                logger,
                 LogLevel.DEBUG,
                 "MyEvent",
                 dataKeys,
@@ -143,6 +153,139 @@ public class DefaultLogBuilderTest {
                 EXCEPTION);
     }
 
+    @Test
+    public void testBuilderWithPrimitives() {
+        final Logger logger = Mockito.mock(Logger.class);
+        final List<String> keys = Arrays.asList("LONG", "INT", "DOUBLE", "FLOAT", "BOOLEAN", "CHAR", "OBJECT");
+        final List<Object> values = Arrays.asList(1L, 2, 3.5d, 4.5f, Boolean.TRUE, 'c', "VALUE");
+        new DefaultLogBuilder(logger, LogLevel.INFO)
+                .setEvent("MyEvent")
+                .addData("LONG", 1L)
+                .addData("INT", 2)
+                .addData("DOUBLE", 3.5d)
+                .addData("FLOAT", 4.5f)
+                .addData("BOOLEAN", true)
+                .addData("CHAR", 'c')
+                .addData("OBJECT", "VALUE")
+                .addContext("LONG", 1L)
+                .addContext("INT", 2)
+                .addContext("DOUBLE", 3.5d)
+                .addContext("FLOAT", 4.5f)
+                .addContext("BOOLEAN", true)
+                .addContext("CHAR", 'c')
+                .addContext("OBJECT", "VALUE")
+                .log();
+        verifyLog(
+                logger,
+                LogLevel.INFO,
+                "MyEvent",
+                keys,
+                values,
+                keys,
+                values,
+                null);
+    }
+
+    @Test
+    public void testBuilderWithDuplicateKeysChangingType() {
+        final Logger logger = Mockito.mock(Logger.class);
+        final List<String> dataKeys = Arrays.asList("KEY1", "KEY2");
+        final List<Object> dataValues = Arrays.asList(Boolean.FALSE, "VALUE2");
+        new DefaultLogBuilder(logger, LogLevel.INFO)
+                .setEvent("MyEvent")
+                .addData("KEY1", "VALUE1")
+                .addData("KEY2", 2L)
+                .addData("KEY1", false)
+                .addData("KEY2", "VALUE2")
+                .log();
+        verifyLog(
+                logger,
+                LogLevel.INFO,
+                "MyEvent",
+                dataKeys,
+                dataValues,
+                null,
+                null,
+                null);
+    }
+
+    @Test
+    public void testBuilderWithSuppliers() {
+        final Logger logger = Mockito.mock(Logger.class);
+        final AtomicInteger invocations = new AtomicInteger();
+        final Supplier<String> dataSupplier = () -> "DATA" + invocations.incrementAndGet();
+        final Supplier<String> contextSupplier = () -> "CONTEXT" + invocations.incrementAndGet();
+        new DefaultLogBuilder(logger, LogLevel.INFO)
+                .setEvent("MyEvent")
+                .addData("KEY1", dataSupplier)
+                .addContext("KEY2", contextSupplier)
+                .log();
+        verifyLog(
+                logger,
+                LogLevel.INFO,
+                "MyEvent",
+                Collections.singletonList("KEY1"),
+                Collections.singletonList(dataSupplier),
+                Collections.singletonList("KEY2"),
+                Collections.singletonList(contextSupplier),
+                null);
+        // Suppliers are resolved by the encoder not the builder
+        Assert.assertEquals(0, invocations.get());
+    }
+
+    @Test
+    public void testBuilderGrowth() {
+        final Logger logger = Mockito.mock(Logger.class);
+        final List<String> dataKeys = new ArrayList<>();
+        final List<Object> dataValues = new ArrayList<>();
+        final DefaultLogBuilder builder = new DefaultLogBuilder(logger, LogLevel.INFO);
+        for (int i = 0; i < 20; ++i) {
+            builder.addData("KEY" + i, i);
+            dataKeys.add("KEY" + i);
+            dataValues.add(i);
+        }
+        builder.setEvent("MyEvent").log();
+        verifyLog(
+                logger,
+                LogLevel.INFO,
+                "MyEvent",
+                dataKeys,
+                dataValues,
+                null,
+                null,
+                null);
+    }
+
+    @Test
+    public void testBuilderReuseAfterLog() {
+        final Logger logger = Mockito.mock(Logger.class);
+        final DefaultLogBuilder builder = new DefaultLogBuilder(logger, LogLevel.INFO)
+                .addData("KEY1", "VALUE1");
+        builder.log();
+        final ArgumentCaptor<StenoPayload> payload = ArgumentCaptor.forClass(StenoPayload.class);
+        Mockito.verify(logger).log(
+                Mockito.eq(LogLevel.INFO),
+                Mockito.isNull(String.class),
+                payload.capture(),
+                Mockito.isNull(Throwable.class));
+
+        builder.addData("KEY1", "VALUE2").addData("KEY2", 2);
+        Assert.assertEquals(Collections.singletonList("KEY1"), payload.getValue().getData().getKeys());
+        Assert.assertEquals(Collections.singletonList("VALUE1"), payload.getValue().getData().getValues());
+    }
+
+    @Test
+    public void testToStringValues() {
+        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
+        final String asString = new DefaultLogBuilder(new Logger(slf4jLogger), LogLevel.DEBUG)
+                .setEvent("MyEvent")
+                .addData("Foo", "Bar")
+                .addData("Count", 3)
+                .toString();
+        Assert.assertTrue(asString.contains("Data={Foo=Bar, Count=3}"));
+        Assert.assertTrue(asString.contains("Context=null"));
+    }
+
     @Test
     public void testToString() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
@@ -156,5 +299,30 @@ public class DefaultLogBuilderTest {
         Assert.assertFalse(asString.isEmpty());
     }
 
+    private static void verifyLog(
+            final Logger logger,
+            final LogLevel level,
+            final String event,
+            final List<String> dataKeys,
+            final List<Object> dataValues,
+            final List<String> contextKeys,
+            final List<Object> contextValues,
+            final Throwable throwable) {
+        final ArgumentCaptor<StenoPayload> payload = ArgumentCaptor.forClass(StenoPayload.class);
+        Mockito.verify(logger).log(
+                Mockito.eq(level),
+                Mockito.eq(event),
+                payload.capture(),
+                Mockito.eq(throwable));
+        Assert.assertEquals(orEmpty(dataKeys), payload.getValue().getData().getKeys());
+        Assert.assertEquals(orEmpty(dataValues), payload.getValue().getData().getValues());
+        Assert.assertEquals(orEmpty(contextKeys), payload.getValue().getContext().getKeys());
+        Assert.assertEquals(orEmpty(contextValues), payload.getValue().getContext().getValues());
+    }
+
+    private static <T> List<T> orEmpty(final List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
     private static final Throwable EXCEPTION = new NullPointerException("NPE!");
 }
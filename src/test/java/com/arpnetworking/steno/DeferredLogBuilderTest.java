@@ -0,0 +1,104 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Tests for the default methods of <code>DeferredLogBuilder</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class DeferredLogBuilderTest {
+
+    @Test
+    public void testPrimitivesAreBoxed() {
+        final RecordingDeferredLogBuilder logBuilder = new RecordingDeferredLogBuilder();
+        final Supplier<String> supplier = () -> "value";
+        Assert.assertSame(logBuilder, logBuilder.addData("d-long", 1L));
+        Assert.assertSame(logBuilder, logBuilder.addData("d-int", 2));
+        Assert.assertSame(logBuilder, logBuilder.addData("d-double", 3.0d));
+        Assert.assertSame(logBuilder, logBuilder.addData("d-float", 4.0f));
+        Assert.assertSame(logBuilder, logBuilder.addData("d-boolean", true));
+        Assert.assertSame(logBuilder, logBuilder.addData("d-char", 'c'));
+        Assert.assertSame(logBuilder, logBuilder.addData("d-supplier", supplier));
+        Assert.assertSame(logBuilder, logBuilder.addContext("c-long", 1L));
+        Assert.assertSame(logBuilder, logBuilder.addContext("c-int", 2));
+        Assert.assertSame(logBuilder, logBuilder.addContext("c-double", 3.0d));
+        Assert.assertSame(logBuilder, logBuilder.addContext("c-float", 4.0f));
+        Assert.assertSame(logBuilder, logBuilder.addContext("c-boolean", true));
+        Assert.assertSame(logBuilder, logBuilder.addContext("c-char", 'c'));
+        Assert.assertSame(logBuilder, logBuilder.addContext("c-supplier", supplier));
+
+        final Map<String, Object> expectedData = new LinkedHashMap<>();
+        expectedData.put("d-long", 1L);
+        expectedData.put("d-int", 2);
+        expectedData.put("d-double", 3.0d);
+        expectedData.put("d-float", 4.0f);
+        expectedData.put("d-boolean", true);
+        expectedData.put("d-char", 'c');
+        expectedData.put("d-supplier", supplier);
+        Assert.assertEquals(expectedData, logBuilder._data);
+
+        final Map<String, Object> expectedContext = new LinkedHashMap<>();
+        expectedContext.put("c-long", 1L);
+        expectedContext.put("c-int", 2);
+        expectedContext.put("c-double", 3.0d);
+        expectedContext.put("c-float", 4.0f);
+        expectedContext.put("c-boolean", true);
+        expectedContext.put("c-char", 'c');
+        expectedContext.put("c-supplier", supplier);
+        Assert.assertEquals(expectedContext, logBuilder._context);
+    }
+
+    private static final class RecordingDeferredLogBuilder implements DeferredLogBuilder {
+
+        @Override
+        public DeferredLogBuilder setEvent(final String value) {
+            return this;
+        }
+
+        @Override
+        public DeferredLogBuilder setMessage(final String value) {
+            return this;
+        }
+
+        @Override
+        public DeferredLogBuilder setThrowable(final Throwable value) {
+            return this;
+        }
+
+        @Override
+        public DeferredLogBuilder addData(final String name, final Object value) {
+            _data.put(name, value);
+            return this;
+        }
+
+        @Override
+        public DeferredLogBuilder addContext(final String name, final Object value) {
+            _context.put(name, value);
+            return this;
+        }
+
+        private final Map<String, Object> _data = new LinkedHashMap<>();
+        private final Map<String, Object> _context = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Marker;
+
+/**
+ * Tests for <code>LevelCache</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class LevelCacheTest {
+
+    @Before
+    public void setUp() {
+        _loggerContext = new LoggerContext();
+        _logger = _loggerContext.getLogger("LevelCacheTest");
+        _logger.setLevel(Level.INFO);
+    }
+
+    @Test
+    public void testIsEnabled() {
+        final LevelCache levelCache = new LevelCache(_logger);
+        Assert.assertFalse(levelCache.isCached());
+        Assert.assertFalse(levelCache.isEnabled(LogLevel.TRACE));
+        Assert.assertTrue(levelCache.isCached());
+        Assert.assertFalse(levelCache.isEnabled(LogLevel.DEBUG));
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.INFO));
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.WARN));
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.ERROR));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final LevelCache levelCache = new LevelCache(_logger);
+        Assert.assertFalse(levelCache.isEnabled(LogLevel.DEBUG));
+
+        // Without invalidation the cached level is used
+        _logger.setLevel(Level.DEBUG);
+        Assert.assertFalse(levelCache.isEnabled(LogLevel.DEBUG));
+
+        levelCache.invalidate();
+        Assert.assertFalse(levelCache.isCached());
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.DEBUG));
+        Assert.assertFalse(levelCache.isEnabled(LogLevel.TRACE));
+    }
+
+    @Test
+    public void testTurboFilter() {
+        final LevelCache levelCache = new LevelCache(_logger);
+        Assert.assertFalse(levelCache.isEnabled(LogLevel.TRACE));
+
+        final TurboFilter turboFilter = new AcceptTurboFilter();
+        turboFilter.start();
+        _loggerContext.addTurboFilter(turboFilter);
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.TRACE));
+
+        levelCache.invalidate();
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.TRACE));
+        Assert.assertFalse(levelCache.isCached());
+
+        _loggerContext.resetTurboFilterList();
+        Assert.assertFalse(levelCache.isEnabled(LogLevel.TRACE));
+    }
+
+    private LoggerContext _loggerContext;
+    private ch.qos.logback.classic.Logger _logger;
+
+    private static final class AcceptTurboFilter extends TurboFilter {
+
+        @Override
+        public FilterReply decide(
+                final Marker marker,
+                final ch.qos.logback.classic.Logger logger,
+                final Level level,
+                final String format,
+                final Object[] params,
+                final Throwable t) {
+            return FilterReply.ACCEPT;
+        }
+    }
+}
@@ -15,10 +15,17 @@
  */
 package com.arpnetworking.steno;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.arpnetworking.logback.CallSite;
 import com.arpnetworking.logback.StenoMarker;
+import com.arpnetworking.logback.StenoPayload;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.slf4j.Marker;
 
 import java.util.Collections;
 
@@ -29,10 +36,93 @@ import java.util.Collections;
  */
 public class LogLevelTest {
 
+    @Test
+    public void testLogWithCallSite() {
+        final LoggerContext context = new LoggerContext();
+        final ch.qos.logback.classic.Logger logger = context.getLogger(LogLevelTest.class);
+        logger.setLevel(Level.TRACE);
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+
+        final CallSite callSite = new CallSite("com.example.Foo", "bar", "Foo.java", 42);
+        final String[] keys = new String[]{"key"};
+        final Object[] values = new Object[]{"value"};
+        final StenoPayload payload = new StenoPayload(StenoPayload.Fields.EMPTY, StenoPayload.Fields.EMPTY);
+        final Throwable throwable = new IllegalStateException();
+        CallSite.enter(callSite);
+        try {
+            for (final LogLevel level : LogLevel.values()) {
+                for (final Throwable eventThrowable : new Throwable[]{null, throwable}) {
+                    level.log(logger, "EVENT", keys, values, eventThrowable);
+                    level.log(
+                            logger,
+                            "EVENT",
+                            Collections.emptyList(),
+                            Collections.emptyList(),
+                            Collections.emptyList(),
+                            Collections.emptyList(),
+                            eventThrowable);
+                    level.log(logger, "EVENT", payload, eventThrowable);
+                }
+            }
+        } finally {
+            CallSite.exit();
+        }
+
+        Assert.assertEquals(LogLevel.values().length * 6, appender.list.size());
+        for (int i = 0; i < appender.list.size(); ++i) {
+            final ILoggingEvent event = appender.list.get(i);
+            Assert.assertEquals(LogLevel.values()[i / 6].getLevelInt(), event.getLevel().toInt());
+            // The marker is not replaced and the call site precedes the throwable
+            Assert.assertSame(new Marker[]{StenoMarker.ARRAY_MARKER, StenoMarker.LISTS_MARKER, StenoMarker.PAYLOAD_MARKER}[i % 3],
+                    event.getMarker());
+            Assert.assertSame(callSite, CallSite.fromEvent(event));
+            Assert.assertEquals(new int[]{3, 5, 2}[i % 3], event.getArgumentArray().length);
+            Assert.assertEquals(i % 6 >= 3, event.getThrowableProxy() != null);
+        }
+    }
+
+    @Test
+    public void testLogWithThrowable() {
+        final LoggerContext context = new LoggerContext();
+        final ch.qos.logback.classic.Logger logger = context.getLogger(LogLevelTest.class);
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+
+        final String[] keys = new String[]{"key"};
+        final Object[] values = new Object[]{"value"};
+        final Throwable throwable = new IllegalStateException();
+        for (final Level loggerLevel : new Level[]{Level.OFF, Level.TRACE}) {
+            logger.setLevel(loggerLevel);
+            for (final LogLevel level : LogLevel.values()) {
+                level.log(logger, "EVENT", keys, values, throwable);
+                level.log(
+                        logger,
+                        "EVENT",
+                        Collections.emptyList(),
+                        Collections.emptyList(),
+                        Collections.emptyList(),
+                        Collections.emptyList(),
+                        throwable);
+            }
+        }
+
+        Assert.assertEquals(LogLevel.values().length * 2, appender.list.size());
+        for (int i = 0; i < appender.list.size(); ++i) {
+            final ILoggingEvent event = appender.list.get(i);
+            Assert.assertEquals(LogLevel.values()[i / 2].getLevelInt(), event.getLevel().toInt());
+            Assert.assertSame(new Marker[]{StenoMarker.ARRAY_MARKER, StenoMarker.LISTS_MARKER}[i % 2], event.getMarker());
+            Assert.assertEquals(IllegalStateException.class.getName(), event.getThrowableProxy().getClassName());
+        }
+    }
+
     @Test
     public void testLogTrace() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.TRUE).when(slf4jLogger).isTraceEnabled();
         LogLevel.TRACE.log(
                 slf4jLogger,
                 "EVENT",
@@ -41,7 +131,6 @@ public class LogLevelTest {
                 Collections.emptyList(),
                 Collections.emptyList(),
                 null);
-        Mockito.verify(slf4jLogger).isTraceEnabled();
         Mockito.verify(slf4jLogger).trace(
                 StenoMarker.LISTS_MARKER,
                 "EVENT",
@@ -52,26 +141,9 @@ public class LogLevelTest {
         Mockito.verifyNoMoreInteractions(slf4jLogger);
     }
 
-    @Test
-    public void testLogTraceDisabled() {
-        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.FALSE).when(slf4jLogger).isTraceEnabled();
-        LogLevel.TRACE.log(
-                slf4jLogger,
-                "EVENT",
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                null);
-        Mockito.verify(slf4jLogger).isTraceEnabled();
-        Mockito.verifyNoMoreInteractions(slf4jLogger);
-    }
-
     @Test
     public void testLogDebug() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.TRUE).when(slf4jLogger).isDebugEnabled();
         LogLevel.DEBUG.log(
                 slf4jLogger,
                 "EVENT",
@@ -80,7 +152,6 @@ public class LogLevelTest {
                 Collections.emptyList(),
                 Collections.emptyList(),
                 null);
-        Mockito.verify(slf4jLogger).isDebugEnabled();
         Mockito.verify(slf4jLogger).debug(
                 StenoMarker.LISTS_MARKER,
                 "EVENT",
@@ -91,26 +162,9 @@ public class LogLevelTest {
         Mockito.verifyNoMoreInteractions(slf4jLogger);
     }
 
-    @Test
-    public void testLogDebugDisabled() {
-        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.FALSE).when(slf4jLogger).isDebugEnabled();
-        LogLevel.DEBUG.log(
-                slf4jLogger,
-                "EVENT",
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                null);
-        Mockito.verify(slf4jLogger).isDebugEnabled();
-        Mockito.verifyNoMoreInteractions(slf4jLogger);
-    }
-
     @Test
     public void testLogInfo() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.TRUE).when(slf4jLogger).isInfoEnabled();
         LogLevel.INFO.log(
                 slf4jLogger,
                 "EVENT",
@@ -119,7 +173,6 @@ public class LogLevelTest {
                 Collections.emptyList(),
                 Collections.emptyList(),
                 null);
-        Mockito.verify(slf4jLogger).isInfoEnabled();
         Mockito.verify(slf4jLogger).info(
                 StenoMarker.LISTS_MARKER,
                 "EVENT",
@@ -130,26 +183,9 @@ public class LogLevelTest {
         Mockito.verifyNoMoreInteractions(slf4jLogger);
     }
 
-    @Test
-    public void testLogInfoDisabled() {
-        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.FALSE).when(slf4jLogger).isInfoEnabled();
-        LogLevel.INFO.log(
-                slf4jLogger,
-                "EVENT",
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                null);
-        Mockito.verify(slf4jLogger).isInfoEnabled();
-        Mockito.verifyNoMoreInteractions(slf4jLogger);
-    }
-
     @Test
     public void testLogWarn() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.TRUE).when(slf4jLogger).isWarnEnabled();
         LogLevel.WARN.log(
                 slf4jLogger,
                 "EVENT",
@@ -158,7 +194,6 @@ public class LogLevelTest {
                 Collections.emptyList(),
                 Collections.emptyList(),
                 null);
-        Mockito.verify(slf4jLogger).isWarnEnabled();
         Mockito.verify(slf4jLogger).warn(
                 StenoMarker.LISTS_MARKER,
                 "EVENT",
@@ -169,26 +204,9 @@ public class LogLevelTest {
         Mockito.verifyNoMoreInteractions(slf4jLogger);
     }
 
-    @Test
-    public void testLogWarnDisabled() {
-        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.FALSE).when(slf4jLogger).isWarnEnabled();
-        LogLevel.WARN.log(
-                slf4jLogger,
-                "EVENT",
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                null);
-        Mockito.verify(slf4jLogger).isWarnEnabled();
-        Mockito.verifyNoMoreInteractions(slf4jLogger);
-    }
-
     @Test
     public void testLogError() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.TRUE).when(slf4jLogger).isErrorEnabled();
         LogLevel.ERROR.log(
                 slf4jLogger,
                 "EVENT",
@@ -197,7 +215,6 @@ public class LogLevelTest {
                 Collections.emptyList(),
                 Collections.emptyList(),
                 null);
-        Mockito.verify(slf4jLogger).isErrorEnabled();
         Mockito.verify(slf4jLogger).error(
                 StenoMarker.LISTS_MARKER,
                 "EVENT",
@@ -209,18 +226,42 @@ public class LogLevelTest {
     }
 
     @Test
-    public void testLogErrorDisabled() {
+    public void testLogPayloadTrace() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
-        Mockito.doReturn(Boolean.FALSE).when(slf4jLogger).isErrorEnabled();
-        LogLevel.ERROR.log(
-                slf4jLogger,
-                "EVENT",
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                Collections.emptyList(),
-                null);
-        Mockito.verify(slf4jLogger).isErrorEnabled();
+        LogLevel.TRACE.log(slf4jLogger, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verify(slf4jLogger).trace(StenoMarker.PAYLOAD_MARKER, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verifyNoMoreInteractions(slf4jLogger);
+    }
+
+    @Test
+    public void testLogPayloadDebug() {
+        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
+        LogLevel.DEBUG.log(slf4jLogger, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verify(slf4jLogger).debug(StenoMarker.PAYLOAD_MARKER, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verifyNoMoreInteractions(slf4jLogger);
+    }
+
+    @Test
+    public void testLogPayloadInfo() {
+        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
+        LogLevel.INFO.log(slf4jLogger, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verify(slf4jLogger).info(StenoMarker.PAYLOAD_MARKER, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verifyNoMoreInteractions(slf4jLogger);
+    }
+
+    @Test
+    public void testLogPayloadWarn() {
+        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
+        LogLevel.WARN.log(slf4jLogger, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verify(slf4jLogger).warn(StenoMarker.PAYLOAD_MARKER, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verifyNoMoreInteractions(slf4jLogger);
+    }
+
+    @Test
+    public void testLogPayloadError() {
+        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
+        LogLevel.ERROR.log(slf4jLogger, "EVENT", PAYLOAD, THROWABLE);
+        Mockito.verify(slf4jLogger).error(StenoMarker.PAYLOAD_MARKER, "EVENT", PAYLOAD, THROWABLE);
         Mockito.verifyNoMoreInteractions(slf4jLogger);
     }
 
@@ -266,4 +307,9 @@ public class LogLevelTest {
             Assert.assertSame(expectedLevel, actualLevel);
         }
     }
+
+    private static final StenoPayload PAYLOAD = new StenoPayload(
+            new StenoPayload.Fields.Builder().putObject("KEY", "VALUE").build(),
+            StenoPayload.Fields.EMPTY);
+    private static final Throwable THROWABLE = new NullPointerException("NPE!");
 }
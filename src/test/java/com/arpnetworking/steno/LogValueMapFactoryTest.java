@@ -21,8 +21,11 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.lang.reflect.Constructor;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Tests for <code>LogValueMapFactory</code>.
@@ -170,6 +173,83 @@ public class LogValueMapFactoryTest {
         Assert.assertEquals(expectedValue, actualValue);
     }
 
+    @Test
+    public void testBuilderWithDuplicateKey() {
+        // CHECKSTYLE.OFF: RegexpSingleline - Allow suboptimal construction for testing purposes.
+        final LogValueMapFactory.LogValueMap logValueMap = LogValueMapFactory.builder()
+                .put("k1", "v1")
+                .put("k2", "v2")
+                .put("k1", "v3")
+                .build();
+        // CHECKSTYLE.ON: RegexpSingleline
+        Assert.assertEquals(2, logValueMap.size());
+        Assert.assertEquals("k1", logValueMap.getKey(0));
+        Assert.assertEquals("v3", logValueMap.getValue(0));
+        Assert.assertEquals("k2", logValueMap.getKey(1));
+        Assert.assertEquals("v2", logValueMap.getValue(1));
+    }
+
+    @Test
+    public void testBuilderGrowth() {
+        final LogValueMapFactory.Builder builder = LogValueMapFactory.builder();
+        // CHECKSTYLE.OFF: IllegalInstantiation - No Guava dependency here.
+        final Map<String, Object> expectedValue = new LinkedHashMap<>();
+        // CHECKSTYLE.ON: IllegalInstantiation
+        for (int i = 0; i < 20; ++i) {
+            builder.put("k" + i, i);
+            expectedValue.put("k" + i, i);
+        }
+        final LogValueMapFactory.LogValueMap logValueMap = builder.build();
+        Assert.assertEquals(20, logValueMap.size());
+        Assert.assertEquals(expectedValue, logValueMap.getData());
+        Assert.assertEquals("k19", logValueMap.getKey(19));
+        Assert.assertEquals(19, logValueMap.getValue(19));
+    }
+
+    @Test
+    public void testBuilderReuse() {
+        // CHECKSTYLE.OFF: RegexpSingleline - Allow suboptimal construction for testing purposes.
+        final LogValueMapFactory.Builder builder = LogValueMapFactory.builder()
+                .put("k1", "v1");
+        // CHECKSTYLE.ON: RegexpSingleline
+        final LogValueMapFactory.LogValueMap first = builder.build();
+        builder.put("k1", "v2");
+        builder.put("k2", "v2");
+        final LogValueMapFactory.LogValueMap second = builder.build();
+        Assert.assertEquals(Collections.singletonMap("k1", "v1"), first.getData());
+        Assert.assertEquals(2, second.size());
+        Assert.assertEquals("v2", second.getValue(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetKeyOutOfBounds() {
+        // CHECKSTYLE.OFF: RegexpSingleline - Allow suboptimal construction for testing purposes.
+        LogValueMapFactory.of("k1", "v1").getKey(1);
+        // CHECKSTYLE.ON: RegexpSingleline
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetValueOutOfBounds() {
+        // CHECKSTYLE.OFF: RegexpSingleline - Allow suboptimal construction for testing purposes.
+        LogValueMapFactory.of("k1", "v1").getValue(1);
+        // CHECKSTYLE.ON: RegexpSingleline
+    }
+
+    @Test
+    public void testConstructFromMap() {
+        // CHECKSTYLE.OFF: IllegalInstantiation - No Guava dependency here.
+        final Map<String, Object> data = new LinkedHashMap<>();
+        // CHECKSTYLE.ON: IllegalInstantiation
+        data.put("k1", "v1");
+        data.put("k2", "v2");
+        final LogValueMapFactory.LogValueMap logValueMap = new LogValueMapFactory.LogValueMap(Optional.empty(), data);
+        Assert.assertEquals(2, logValueMap.size());
+        Assert.assertEquals("k2", logValueMap.getKey(1));
+        Assert.assertEquals("v2", logValueMap.getValue(1));
+        Assert.assertEquals(data, logValueMap.getData());
+        Assert.assertEquals("{k1=v1 k2=v2}", logValueMap.toString());
+    }
+
     @Test
     public void testSerialization() {
         final Widget w = new Widget("foo");
@@ -188,14 +268,13 @@ public class LogValueMapFactoryTest {
         // CHECKSTYLE.OFF: RegexpSingleline - Allow suboptimal construction for testing purposes.
         final String asString = LogValueMapFactory.builder().build().toString();
         // CHECKSTYLE.ON: RegexpSingleline
-        Assert.assertNotNull(asString);
-        Assert.assertFalse(asString.isEmpty());
+        Assert.assertEquals("{}", asString);
 
         final String asStringWithReference = LogValueMapFactory.builder(new Widget("foo")).build().toString();
         Assert.assertNotNull(asStringWithReference);
         Assert.assertFalse(asStringWithReference.isEmpty());
         Assert.assertTrue(asStringWithReference.contains("_id="));
-        Assert.assertTrue(asStringWithReference.contains("_class=com.arpnetworking.logback.widgets.Widget"));
+        Assert.assertTrue(asStringWithReference.endsWith("_class=com.arpnetworking.logback.widgets.Widget}"));
     }
 
     @Test
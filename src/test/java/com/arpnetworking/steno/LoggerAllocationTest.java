@@ -0,0 +1,141 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.arpnetworking.AllocationBudget;
+import com.arpnetworking.logback.StenoEncoder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Allocation budget tests for the <code>Logger</code> entry points including
+ * encoding into a discarding stream.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class LoggerAllocationTest {
+
+    @Before
+    public void setUp() {
+        _loggerContext = new LoggerContext();
+        final StenoEncoder encoder = new StenoEncoder();
+        encoder.setContext(_loggerContext);
+        encoder.start();
+        final OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(_loggerContext);
+        appender.setName("ALLOCATION");
+        appender.setEncoder(encoder);
+        appender.setOutputStream(NULL_OUTPUT_STREAM);
+        appender.start();
+        final ch.qos.logback.classic.Logger rootLogger = _loggerContext.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(appender);
+        _logger = new Logger(_loggerContext.getLogger(LoggerAllocationTest.class));
+    }
+
+    @After
+    public void tearDown() {
+        _loggerContext.stop();
+    }
+
+    @Test
+    public void testInfoMessage() throws Exception {
+        AllocationBudget.assertWithinBudget(
+                "logger.info.message",
+                () -> _logger.info("allocation_event", "This is a message"));
+    }
+
+    @Test
+    public void testInfoVarargs() throws Exception {
+        AllocationBudget.assertWithinBudget(
+                "logger.info.varargs",
+                () -> _logger.info("allocation_event", "This is a message", DATA_KEYS, USER_ID, COUNT));
+    }
+
+    @Test
+    public void testInfoMap() throws Exception {
+        final Map<String, Object> data = new LinkedHashMap<>();
+        data.put("userId", USER_ID);
+        data.put("count", COUNT);
+        AllocationBudget.assertWithinBudget(
+                "logger.info.map",
+                () -> _logger.info("allocation_event", "This is a message", data));
+    }
+
+    @Test
+    public void testDefaultLogBuilderLog() throws Exception {
+        AllocationBudget.assertWithinBudget(
+                "logger.info.builder",
+                () -> _logger.info()
+                        .setEvent("allocation_event")
+                        .setMessage("This is a message")
+                        .addContext("requestId", REQUEST_ID)
+                        .addData("userId", USER_ID)
+                        .addData("count", COUNT)
+                        .log());
+    }
+
+    @Test
+    public void testDisabledLogBuilderLog() throws Exception {
+        AllocationBudget.assertWithinBudget(
+                "logger.debug.builder.disabled",
+                () -> _logger.debug()
+                        .setEvent("allocation_event")
+                        .setMessage("This is a message")
+                        .addData("userId", USER_ID)
+                        .log());
+    }
+
+    @Test
+    public void testInfoRateLimited() throws Exception {
+        final Logger rateLimitLogger = new RateLimitLogger(
+                _loggerContext.getLogger(LoggerAllocationTest.class),
+                Duration.ofDays(1));
+        rateLimitLogger.info("allocation_event", "This is a message");
+        AllocationBudget.assertWithinBudget(
+                "logger.info.rateLimited",
+                () -> rateLimitLogger.info("allocation_event", "This is a message"));
+    }
+
+    private LoggerContext _loggerContext;
+    private Logger _logger;
+
+    private static final String REQUEST_ID = "c8b3b9f4-7a5e-4b9b-9d5c-3f1e2a7d6b10";
+    private static final String USER_ID = "user-1234";
+    private static final Integer COUNT = Integer.valueOf(42);
+    private static final String[] DATA_KEYS = new String[]{"userId", "count"};
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(final int b) {
+            // Discard
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            // Discard
+        }
+    };
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.arpnetworking.logback.StenoEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of each <code>Logger</code> entry point from the call site
+ * through encoding by <code>StenoEncoder</code> into a discarding stream.
+ *
+ * Execute this using the command:
+ * <pre>
+ *     mvn -Pjmh -Djmh.include=LoggerBenchmark test
+ * </pre>
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoggerBenchmark {
+
+    /**
+     * Create the logger context, appender and encoder.
+     */
+    @Setup
+    public void setUp() {
+        _loggerContext = new LoggerContext();
+        final StenoEncoder encoder = new StenoEncoder();
+        encoder.setContext(_loggerContext);
+        encoder.start();
+        final OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(_loggerContext);
+        appender.setName("BENCHMARK");
+        appender.setEncoder(encoder);
+        appender.setOutputStream(NULL_OUTPUT_STREAM);
+        appender.start();
+        final ch.qos.logback.classic.Logger rootLogger = _loggerContext.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(appender);
+        _logger = new Logger(_loggerContext.getLogger(LoggerBenchmark.class));
+        _data = new LinkedHashMap<>();
+        _data.put("userId", USER_ID);
+        _data.put("count", COUNT);
+    }
+
+    /**
+     * Stop the logger context.
+     */
+    @TearDown
+    public void tearDown() {
+        _loggerContext.stop();
+    }
+
+    /**
+     * Log through the fluent builder.
+     */
+    @Benchmark
+    public void fluent() {
+        _logger.info()
+                .setEvent("benchmark_event")
+                .setMessage("This is a message from the steno logger")
+                .addContext("requestId", REQUEST_ID)
+                .addData("userId", USER_ID)
+                .addData("count", COUNT)
+                .log();
+    }
+
+    /**
+     * Log through the fluent builder with a throwable.
+     */
+    @Benchmark
+    public void fluentWithThrowable() {
+        _logger.info()
+                .setEvent("benchmark_event")
+                .setMessage("This is a message from the steno logger")
+                .setThrowable(THROWABLE)
+                .addContext("requestId", REQUEST_ID)
+                .addData("userId", USER_ID)
+                .addData("count", COUNT)
+                .log();
+    }
+
+    /**
+     * Log through the <code>Consumer</code> based builder.
+     */
+    @Benchmark
+    public void consumer() {
+        _logger.info(b -> b
+                .setEvent("benchmark_event")
+                .setMessage("This is a message from the steno logger")
+                .addContext("requestId", REQUEST_ID)
+                .addData("userId", USER_ID)
+                .addData("count", COUNT));
+    }
+
+    /**
+     * Log through the varargs entry point.
+     */
+    @Benchmark
+    public void varargs() {
+        _logger.info(
+                "benchmark_event",
+                "This is a message from the steno logger",
+                DATA_KEYS,
+                USER_ID,
+                COUNT);
+    }
+
+    /**
+     * Log through the map entry point.
+     */
+    @Benchmark
+    public void map() {
+        _logger.info(
+                "benchmark_event",
+                "This is a message from the steno logger",
+                _data);
+    }
+
+    /**
+     * Log through the fluent builder at a disabled level.
+     */
+    @Benchmark
+    public void fluentDisabled() {
+        _logger.debug()
+                .setEvent("benchmark_event")
+                .setMessage("This is a message from the steno logger")
+                .addData("userId", USER_ID)
+                .log();
+    }
+
+    private LoggerContext _loggerContext;
+    private Logger _logger;
+    private Map<String, Object> _data;
+
+    private static final String REQUEST_ID = "c8b3b9f4-7a5e-4b9b-9d5c-3f1e2a7d6b10";
+    private static final String USER_ID = "user-1234";
+    private static final Integer COUNT = Integer.valueOf(42);
+    private static final String[] DATA_KEYS = new String[]{"userId", "count"};
+    private static final Throwable THROWABLE = new IllegalStateException("outer", new IllegalArgumentException("inner"));
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(final int b) {
+            // Discard
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            // Discard
+        }
+    };
+}
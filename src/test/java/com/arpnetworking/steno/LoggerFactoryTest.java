@@ -85,6 +85,69 @@ public class LoggerFactoryTest {
         Assert.assertEquals(slf4jLogger, actualSlf4jLogger);
     }
 
+    @Test
+    public void testGetRateLimitLoggerWithKey() {
+        final Logger classLogger = LoggerFactory.getRateLimitLogger(
+                LoggerFactoryTest.class,
+                Duration.ofSeconds(1),
+                RateLimitKey.EVENT);
+        Assert.assertTrue(classLogger instanceof RateLimitLogger);
+        Assert.assertEquals("com.arpnetworking.steno.LoggerFactoryTest", classLogger.getSlf4jLogger().getName());
+
+        final Logger nameLogger = LoggerFactory.getRateLimitLogger("MyLogger", Duration.ofSeconds(1), RateLimitKey.EVENT);
+        Assert.assertTrue(nameLogger instanceof RateLimitLogger);
+        Assert.assertEquals("MyLogger", nameLogger.getSlf4jLogger().getName());
+
+        final org.slf4j.Logger slf4jLogger = org.slf4j.LoggerFactory.getLogger("MySlf4jLogger");
+        final Logger instanceLogger = LoggerFactory.getRateLimitLogger(slf4jLogger, Duration.ofSeconds(1), RateLimitKey.EVENT);
+        Assert.assertTrue(instanceLogger instanceof RateLimitLogger);
+        Assert.assertSame(slf4jLogger, instanceLogger.getSlf4jLogger());
+    }
+
+    @Test
+    public void testGetSamplingLogger() {
+        final Logger classLogger = LoggerFactory.getSamplingLogger(LoggerFactoryTest.class, 10);
+        Assert.assertTrue(classLogger instanceof SamplingLogger);
+        Assert.assertEquals("com.arpnetworking.steno.LoggerFactoryTest", classLogger.getSlf4jLogger().getName());
+        Assert.assertTrue(LoggerFactory.getSamplingLogger(LoggerFactoryTest.class, 10, "requestId") instanceof SamplingLogger);
+
+        final Logger nameLogger = LoggerFactory.getSamplingLogger("MyLogger", 10);
+        Assert.assertTrue(nameLogger instanceof SamplingLogger);
+        Assert.assertEquals("MyLogger", nameLogger.getSlf4jLogger().getName());
+        Assert.assertTrue(LoggerFactory.getSamplingLogger("MyLogger", 10, "requestId") instanceof SamplingLogger);
+
+        final org.slf4j.Logger slf4jLogger = org.slf4j.LoggerFactory.getLogger("MySlf4jLogger");
+        final Logger instanceLogger = LoggerFactory.getSamplingLogger(slf4jLogger, 10);
+        Assert.assertTrue(instanceLogger instanceof SamplingLogger);
+        Assert.assertSame(slf4jLogger, instanceLogger.getSlf4jLogger());
+        Assert.assertTrue(LoggerFactory.getSamplingLogger(slf4jLogger, 10, "requestId") instanceof SamplingLogger);
+    }
+
+    @Test
+    public void testGetDeduplicatingLogger() {
+        final Logger classLogger = LoggerFactory.getDeduplicatingLogger(LoggerFactoryTest.class, Duration.ofSeconds(1));
+        Assert.assertTrue(classLogger instanceof DeduplicatingLogger);
+        Assert.assertEquals("com.arpnetworking.steno.LoggerFactoryTest", classLogger.getSlf4jLogger().getName());
+
+        final Logger nameLogger = LoggerFactory.getDeduplicatingLogger("MyLogger", Duration.ofSeconds(1));
+        Assert.assertTrue(nameLogger instanceof DeduplicatingLogger);
+        Assert.assertEquals("MyLogger", nameLogger.getSlf4jLogger().getName());
+
+        final org.slf4j.Logger slf4jLogger = org.slf4j.LoggerFactory.getLogger("MySlf4jLogger");
+        final Logger instanceLogger = LoggerFactory.getDeduplicatingLogger(slf4jLogger, Duration.ofSeconds(1));
+        Assert.assertTrue(instanceLogger instanceof DeduplicatingLogger);
+        Assert.assertSame(slf4jLogger, instanceLogger.getSlf4jLogger());
+    }
+
+    @Test
+    public void testGetLoggerCanonical() {
+        Assert.assertSame(LoggerFactory.getLogger("MyLogger"), LoggerFactory.getLogger("MyLogger"));
+        Assert.assertSame(LoggerFactory.getLogger(LoggerFactoryTest.class), LoggerFactory.getLogger(LoggerFactoryTest.class));
+        Assert.assertSame(
+                LoggerFactory.getLogger("MyLogger"),
+                LoggerFactory.getLogger(org.slf4j.LoggerFactory.getLogger("MyLogger")));
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     // CHECKSTYLE.OFF: IllegalThrows - InvocationTargetException target is Throwable
     public void testPrivateConstructor() throws Throwable {
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+
+/**
+ * Tests for <code>LoggerRegistry</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class LoggerRegistryTest {
+
+    @Before
+    public void setUp() {
+        _loggerContext = new LoggerContext();
+        _logger = _loggerContext.getLogger("LoggerRegistryTest");
+    }
+
+    @Test
+    public void testGetInstance() {
+        final LoggerRegistry registry = LoggerRegistry.getInstance(_loggerContext);
+        Assert.assertSame(registry, LoggerRegistry.getInstance(_loggerContext));
+        Assert.assertTrue(_loggerContext.getCopyOfListenerList().contains(registry));
+        Assert.assertTrue(registry.isResetResistant());
+        Assert.assertNotSame(registry, LoggerRegistry.getInstance(new LoggerContext()));
+    }
+
+    @Test
+    public void testGetInstanceAfterReset() {
+        final LoggerRegistry registry = LoggerRegistry.getInstance(_loggerContext);
+        _loggerContext.reset();
+        Assert.assertSame(registry, LoggerRegistry.getInstance(_loggerContext));
+        Assert.assertEquals(1, _loggerContext.getCopyOfListenerList().size());
+    }
+
+    @Test
+    public void testGetInstanceObjectMapCleared() {
+        final LoggerRegistry registry = LoggerRegistry.getInstance(_loggerContext);
+        _loggerContext.putObject(LoggerRegistry.class.getName(), "NotARegistry");
+        Assert.assertSame(registry, LoggerRegistry.getInstance(_loggerContext));
+        Assert.assertEquals(1, _loggerContext.getCopyOfListenerList().size());
+    }
+
+    @Test
+    public void testGetInstanceWithOtherListeners() {
+        _loggerContext.addListener(Mockito.mock(LoggerContextListener.class));
+        final LoggerRegistry registry = LoggerRegistry.getInstance(_loggerContext);
+        _loggerContext.putObject(LoggerRegistry.class.getName(), "NotARegistry");
+        Assert.assertSame(registry, LoggerRegistry.getInstance(_loggerContext));
+        Assert.assertEquals(2, _loggerContext.getCopyOfListenerList().size());
+    }
+
+    @Test
+    public void testCanonicalLogger() {
+        final Logger logger = LoggerRegistry.getLogger(_logger);
+        Assert.assertSame(logger, LoggerRegistry.getLogger(_logger));
+        Assert.assertSame(logger, LoggerRegistry.getLogger(_loggerContext.getLogger("LoggerRegistryTest")));
+        Assert.assertSame(_logger, logger.getSlf4jLogger());
+        Assert.assertNotSame(logger, LoggerRegistry.getLogger(_loggerContext.getLogger("Other")));
+    }
+
+    @Test
+    public void testNonLogbackLogger() {
+        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
+        Assert.assertNull(LoggerRegistry.getLevelCache(slf4jLogger));
+        final Logger logger = LoggerRegistry.getLogger(slf4jLogger);
+        Assert.assertSame(slf4jLogger, logger.getSlf4jLogger());
+        Assert.assertNotSame(logger, LoggerRegistry.getLogger(slf4jLogger));
+    }
+
+    @Test
+    public void testSharedLevelCache() {
+        final LevelCache levelCache = LoggerRegistry.getLevelCache(_logger);
+        Assert.assertSame(levelCache, LoggerRegistry.getLevelCache(_logger));
+
+        _logger.setLevel(Level.INFO);
+        final Logger logger = LoggerRegistry.getLogger(_logger);
+        final Logger rateLimitLogger = new RateLimitLogger(_logger, Duration.ofSeconds(1));
+        Assert.assertFalse(logger.isDebugEnabled());
+        Assert.assertFalse(rateLimitLogger.isDebugEnabled());
+        Assert.assertTrue(levelCache.isCached());
+    }
+
+    @Test
+    public void testLevelChangeInvalidates() {
+        final Logger logger = LoggerRegistry.getLogger(_logger);
+        _logger.setLevel(Level.INFO);
+        Assert.assertFalse(logger.isDebugEnabled());
+        Assert.assertTrue(logger.isInfoEnabled());
+
+        _loggerContext.getLogger("LoggerRegistryTest").setLevel(Level.DEBUG);
+        Assert.assertTrue(logger.isDebugEnabled());
+
+        // Changes to ancestors affect the effective level
+        _logger.setLevel(null);
+        _loggerContext.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME).setLevel(Level.ERROR);
+        Assert.assertFalse(logger.isWarnEnabled());
+        Assert.assertTrue(logger.isErrorEnabled());
+    }
+
+    @Test
+    public void testLifecycleInvalidates() {
+        final LoggerRegistry registry = LoggerRegistry.getInstance(_loggerContext);
+        final LevelCache levelCache = registry.levelCacheFor(_logger);
+
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.DEBUG));
+        registry.onStart(_loggerContext);
+        Assert.assertFalse(levelCache.isCached());
+
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.DEBUG));
+        registry.onStop(_loggerContext);
+        Assert.assertFalse(levelCache.isCached());
+
+        Assert.assertTrue(levelCache.isEnabled(LogLevel.DEBUG));
+        _loggerContext.reset();
+        Assert.assertFalse(levelCache.isCached());
+    }
+
+    private LoggerContext _loggerContext;
+    private ch.qos.logback.classic.Logger _logger;
+}
@@ -16,6 +16,7 @@
 package com.arpnetworking.steno;
 
 import com.arpnetworking.logback.StenoMarker;
+import com.arpnetworking.logback.StenoPayload;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -55,12 +56,9 @@ public class LoggerTest {
             .addContext(KEY2, VALUE2)
             .log();
         Mockito.verify(slf4jLogger).trace(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -74,12 +72,9 @@ public class LoggerTest {
                     .addContext(KEY2, VALUE2);
         });
         Mockito.verify(slf4jLogger).trace(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -106,12 +101,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).trace(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2),
+                createExpectedPayload(),
                 TEST_EXCEPTION);
     }
 
@@ -125,6 +117,17 @@ public class LoggerTest {
         Mockito.verifyNoMoreInteractions(slf4jLogger);
     }
 
+    @Test
+    public void testLogDisabledAfterCreate() {
+        final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
+        Mockito.doReturn(Boolean.FALSE).when(slf4jLogger).isTraceEnabled();
+        final Logger logger = new Logger(slf4jLogger);
+        logger.log(LogLevel.TRACE, TEST_EVENT, null, null, null, null, null);
+        logger.log(LogLevel.TRACE, TEST_EVENT, createExpectedPayload(), null);
+        Mockito.verify(slf4jLogger, Mockito.times(2)).isTraceEnabled();
+        Mockito.verifyNoMoreInteractions(slf4jLogger);
+    }
+
     @Test
     public void testTrace() {
         final org.slf4j.Logger slf4jLogger = Mockito.mock(org.slf4j.Logger.class);
@@ -311,12 +314,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).debug(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -330,12 +330,9 @@ public class LoggerTest {
                     .addContext(KEY2, VALUE2);
         });
         Mockito.verify(slf4jLogger).debug(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -362,12 +359,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).debug(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2),
+                createExpectedPayload(),
                 TEST_EXCEPTION);
     }
 
@@ -567,12 +561,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).info(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -586,12 +577,9 @@ public class LoggerTest {
                     .addContext(KEY2, VALUE2);
         });
         Mockito.verify(slf4jLogger).info(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -618,12 +606,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).info(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2),
+                createExpectedPayload(),
                 TEST_EXCEPTION);
     }
 
@@ -823,12 +808,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).warn(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -842,12 +824,9 @@ public class LoggerTest {
                     .addContext(KEY2, VALUE2);
         });
         Mockito.verify(slf4jLogger).warn(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -874,12 +853,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).warn(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2),
+                createExpectedPayload(),
                 TEST_EXCEPTION);
     }
 
@@ -1079,12 +1055,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).error(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -1098,12 +1071,9 @@ public class LoggerTest {
                     .addContext(KEY2, VALUE2);
         });
         Mockito.verify(slf4jLogger).error(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2));
+                createExpectedPayload());
     }
 
     @Test
@@ -1130,12 +1100,9 @@ public class LoggerTest {
                 .addContext(KEY2, VALUE2)
                 .log();
         Mockito.verify(slf4jLogger).error(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 TEST_EVENT,
-                Arrays.asList(MESSAGE_KEY, KEY1),
-                Arrays.asList(TEST_MESSAGE, VALUE1),
-                Collections.singletonList(KEY2),
-                Collections.singletonList(VALUE2),
+                createExpectedPayload(),
                 TEST_EXCEPTION);
     }
 
@@ -2082,6 +2049,17 @@ public class LoggerTest {
         Assert.assertEquals(TEST_EXCEPTION, Logger.extractThrowable(new String[]{KEY1}, new Object[]{VALUE1, TEST_EXCEPTION}));
     }
 
+    private static StenoPayload createExpectedPayload() {
+        return new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putObject(MESSAGE_KEY, TEST_MESSAGE)
+                        .putObject(KEY1, VALUE1)
+                        .build(),
+                new StenoPayload.Fields.Builder()
+                        .putObject(KEY2, VALUE2)
+                        .build());
+    }
+
     private static final String TEST_MESSAGE = "test message";
     private static final String TEST_EVENT = "test_event";
     private static final Exception TEST_EXCEPTION = new NullPointerException("NPE!");
@@ -30,6 +30,20 @@ public class NoOpLogBuilderTest {
         final LogBuilder logBuilder = new NoOpLogBuilder();
         Assert.assertSame(logBuilder, logBuilder.addData("key", "value"));
         Assert.assertSame(logBuilder, logBuilder.addContext("key", "value"));
+        Assert.assertSame(logBuilder, logBuilder.addData("key", 1L));
+        Assert.assertSame(logBuilder, logBuilder.addData("key", 1));
+        Assert.assertSame(logBuilder, logBuilder.addData("key", 1.0d));
+        Assert.assertSame(logBuilder, logBuilder.addData("key", 1.0f));
+        Assert.assertSame(logBuilder, logBuilder.addData("key", true));
+        Assert.assertSame(logBuilder, logBuilder.addData("key", 'c'));
+        Assert.assertSame(logBuilder, logBuilder.addContext("key", 1L));
+        Assert.assertSame(logBuilder, logBuilder.addContext("key", 1));
+        Assert.assertSame(logBuilder, logBuilder.addContext("key", 1.0d));
+        Assert.assertSame(logBuilder, logBuilder.addContext("key", 1.0f));
+        Assert.assertSame(logBuilder, logBuilder.addContext("key", true));
+        Assert.assertSame(logBuilder, logBuilder.addContext("key", 'c'));
+        Assert.assertSame(logBuilder, logBuilder.addData("key", () -> "value"));
+        Assert.assertSame(logBuilder, logBuilder.addContext("key", () -> "value"));
         Assert.assertSame(logBuilder, logBuilder.setEvent("event"));
         Assert.assertSame(logBuilder, logBuilder.setMessage("message"));
         Assert.assertSame(logBuilder, logBuilder.setThrowable(new NullPointerException("NPE!")));
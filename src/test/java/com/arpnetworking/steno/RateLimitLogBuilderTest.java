@@ -27,6 +27,7 @@ import org.mockito.MockitoAnnotations;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Tests for <code>RateLimitLogBuilder</code>.
@@ -52,6 +53,36 @@ public class RateLimitLogBuilderTest {
         Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("hello", "world"));
         Mockito.verify(_logBuilder).addData("hello", "world");
 
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addContext("c-long", 1L));
+        Mockito.verify(_logBuilder).addContext("c-long", 1L);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addContext("c-int", 2));
+        Mockito.verify(_logBuilder).addContext("c-int", 2);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addContext("c-double", 3.0d));
+        Mockito.verify(_logBuilder).addContext("c-double", 3.0d);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addContext("c-float", 4.0f));
+        Mockito.verify(_logBuilder).addContext("c-float", 4.0f);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addContext("c-boolean", true));
+        Mockito.verify(_logBuilder).addContext("c-boolean", true);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addContext("c-char", 'c'));
+        Mockito.verify(_logBuilder).addContext("c-char", 'c');
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addContext("c-supplier", SUPPLIER));
+        Mockito.verify(_logBuilder).addContext("c-supplier", SUPPLIER);
+
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("d-long", 1L));
+        Mockito.verify(_logBuilder).addData("d-long", 1L);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("d-int", 2));
+        Mockito.verify(_logBuilder).addData("d-int", 2);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("d-double", 3.0d));
+        Mockito.verify(_logBuilder).addData("d-double", 3.0d);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("d-float", 4.0f));
+        Mockito.verify(_logBuilder).addData("d-float", 4.0f);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("d-boolean", true));
+        Mockito.verify(_logBuilder).addData("d-boolean", true);
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("d-char", 'c'));
+        Mockito.verify(_logBuilder).addData("d-char", 'c');
+        Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.addData("d-supplier", SUPPLIER));
+        Mockito.verify(_logBuilder).addData("d-supplier", SUPPLIER);
+
         Assert.assertSame(rateLimitLogBuilder, rateLimitLogBuilder.setEvent("e"));
         Mockito.verify(_logBuilder).setEvent("e");
 
@@ -130,8 +161,9 @@ public class RateLimitLogBuilderTest {
     }
 
     private static void setupLogBuilder(final LogBuilder logBuilder) {
-        Mockito.doReturn(logBuilder).when(logBuilder).addContext(Mockito.any(), Mockito.any());
-        Mockito.doReturn(logBuilder).when(logBuilder).addData(Mockito.any(), Mockito.any());
+        Mockito.doReturn(logBuilder).when(logBuilder).addContext(Mockito.any(), Mockito.<Object>any());
+        Mockito.doReturn(logBuilder).when(logBuilder).addData(Mockito.any(), Mockito.<Object>any());
+        Mockito.doReturn(logBuilder).when(logBuilder).addData(Mockito.any(), Mockito.anyInt());
         Mockito.doReturn(logBuilder).when(logBuilder).setEvent(Mockito.any());
         Mockito.doReturn(logBuilder).when(logBuilder).setMessage(Mockito.any());
         Mockito.doReturn(logBuilder).when(logBuilder).setThrowable(Mockito.any());
@@ -141,4 +173,6 @@ public class RateLimitLogBuilderTest {
     private LogBuilder _logBuilder;
     @Captor
     private ArgumentCaptor<Optional<Instant>> _dataArgument;
+
+    private static final Supplier<String> SUPPLIER = () -> "value";
 }
@@ -16,10 +16,12 @@
 package com.arpnetworking.steno;
 
 import com.arpnetworking.logback.StenoMarker;
+import com.arpnetworking.logback.StenoPayload;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.hamcrest.TypeSafeMatcher;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -31,7 +33,9 @@ import org.mockito.MockitoAnnotations;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -53,12 +57,9 @@ public class RateLimitLoggerTest {
         final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
         rateLimitLogger.info().setMessage("m").log();
         Mockito.verify(_slf4jLogger).info(
-                StenoMarker.LISTS_MARKER,
-                null,
-                Arrays.asList("message", "_skipped", "_lastLogTime"),
-                Arrays.asList("m", 0, null),
+                StenoMarker.PAYLOAD_MARKER,
                 null,
-                null);
+                createPayload("m", 0));
     }
 
     @Test
@@ -66,12 +67,9 @@ public class RateLimitLoggerTest {
         final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
         rateLimitLogger.info().setMessage("m1").log();
         Mockito.verify(_slf4jLogger).info(
-                StenoMarker.LISTS_MARKER,
-                null,
-                Arrays.asList("message", "_skipped", "_lastLogTime"),
-                Arrays.asList("m1", 0, null),
+                StenoMarker.PAYLOAD_MARKER,
                 null,
-                null);
+                createPayload("m1", 0));
 
         rateLimitLogger.info().setMessage("m2").log();
         Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
@@ -86,12 +84,9 @@ public class RateLimitLoggerTest {
         final Instant afterLastLog = Instant.now();
         Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
         Mockito.verify(_slf4jLogger).info(
-                StenoMarker.LISTS_MARKER,
+                StenoMarker.PAYLOAD_MARKER,
                 null,
-                Arrays.asList("message", "_skipped", "_lastLogTime"),
-                Arrays.asList("m1", 0, null),
-                null,
-                null);
+                createPayload("m1", 0));
 
         Mockito.verifyNoMoreInteractions(_slf4jLogger);
         Thread.sleep(500);
@@ -104,21 +99,15 @@ public class RateLimitLoggerTest {
         rateLimitLogger.info().setMessage("m4").log();
         Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
         Mockito.verify(_slf4jLogger).info(
-                Mockito.argThat(Matchers.sameInstance(StenoMarker.LISTS_MARKER)),
-                Mockito.argThat(Matchers.nullValue(String.class)),
-                Mockito.argThat(Matchers.contains("message", "_skipped", "_lastLogTime")),
-                // This is brutal; for some reason a capture would not work here and the
-                // contains(Matcher...) was getting mapped to contains(E...) even with
-                // casting. So the matcher chain below manually asserts that the list
-                // contains the three items in question.
-                Mockito.argThat(
-                        Matchers.allOf(
-                                Matchers.iterableWithSize(3),
-                                Matchers.hasItem("m4"),
-                                Matchers.hasItem(1),
-                                Matchers.hasItem(isBetween(beforeLastLog, afterLastLog)))),
-                Mockito.argThat(Matchers.nullValue(List.class)),
-                Mockito.argThat(Matchers.nullValue(List.class)));
+                Mockito.same(StenoMarker.PAYLOAD_MARKER),
+                Mockito.isNull(String.class),
+                _payloadArgument.capture());
+        final StenoPayload.Fields data = _payloadArgument.getValue().getData();
+        Assert.assertEquals(Arrays.asList("message", "_skipped", "_lastLogTime"), data.getKeys());
+        Assert.assertEquals("m4", data.getValue(0));
+        Assert.assertEquals(1, data.getInt(1));
+        Assert.assertThat((Instant) data.getValue(2), isBetween(beforeLastLog, afterLastLog));
+        Assert.assertTrue(_payloadArgument.getValue().getContext().isEmpty());
     }
 
     @Test
@@ -182,17 +171,185 @@ public class RateLimitLoggerTest {
                                 isBetween(beforeLastLog, afterLastLog)})));
     }
 
+    @Test
+    public void testMapLogSecondTimeWithinDuration() {
+        final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
+        rateLimitLogger.info("e", "m1", Collections.singletonMap("k", "v"));
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "k", "_skipped", "_lastLogTime"},
+                new Object[]{"m1", "v", 0, null});
+
+        rateLimitLogger.info("e", "m2", Collections.singletonMap("k", "v"));
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    @Test
+    public void testKeyValueLogSecondTimeWithinDuration() {
+        final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
+        rateLimitLogger.info("e", "m1", "k", "v");
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "k", "_skipped", "_lastLogTime"},
+                new Object[]{"m1", "v", 0, null});
+
+        rateLimitLogger.info("e", "m2", "k1", "k2", "v1", "v2");
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
     @Test
     public void testLogBuilderWithEmptyData() {
         final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
         rateLimitLogger.info().setEvent("m").log();
         Mockito.verify(_slf4jLogger).info(
-            StenoMarker.LISTS_MARKER,
+            StenoMarker.PAYLOAD_MARKER,
             "m",
-            Arrays.asList("_skipped", "_lastLogTime"),
-            Arrays.asList(0, null),
-            null,
-            null);
+            new StenoPayload(
+                    new StenoPayload.Fields.Builder()
+                            .putInt("_skipped", 0)
+                            .putObject("_lastLogTime", null)
+                            .build(),
+                    StenoPayload.Fields.EMPTY));
+    }
+
+    @Test
+    public void testListsFirstTime() {
+        final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
+        rateLimitLogger.log(
+                LogLevel.INFO,
+                "e",
+                new ArrayList<>(Collections.singletonList("message")),
+                new ArrayList<>(Collections.singletonList("m")),
+                null,
+                null,
+                null);
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.LISTS_MARKER,
+                "e",
+                Arrays.asList("message", "_skipped", "_lastLogTime"),
+                Arrays.asList("m", 0, null),
+                null,
+                null);
+    }
+
+    @Test
+    public void testListsWithEmptyData() {
+        final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
+        rateLimitLogger.log(LogLevel.INFO, "e", null, null, null, null, null);
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.LISTS_MARKER,
+                "e",
+                Arrays.asList("_skipped", "_lastLogTime"),
+                Arrays.asList(0, null),
+                null,
+                null);
+    }
+
+    @Test
+    public void testListsRateLimited() {
+        final Logger rateLimitLogger = new RateLimitLogger(_slf4jLogger, Duration.ofMinutes(1), Clock.systemUTC());
+        rateLimitLogger.log(LogLevel.DEBUG, "e", null, null, null, null, null);
+        rateLimitLogger.log(LogLevel.INFO, "e", null, null, null, null, null);
+        rateLimitLogger.log(LogLevel.INFO, "e", null, null, null, null, null);
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.LISTS_MARKER,
+                "e",
+                Arrays.asList("_skipped", "_lastLogTime"),
+                Arrays.asList(0, null),
+                null,
+                null);
+        Mockito.verify(_slf4jLogger).isDebugEnabled();
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    @Test
+    public void testKeyedByEvent() {
+        final Logger rateLimitLogger = new RateLimitLogger(
+                _slf4jLogger,
+                Duration.ofMinutes(1),
+                RateLimitKey.EVENT,
+                Clock.systemUTC());
+        rateLimitLogger.info("e1", "m1");
+        rateLimitLogger.info("e2", "m2");
+        rateLimitLogger.info("e1", "m3");
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e1",
+                new String[]{"message", "_skipped", "_lastLogTime"},
+                new Object[]{"m1", 0, null});
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e2",
+                new String[]{"message", "_skipped", "_lastLogTime"},
+                new Object[]{"m2", 0, null});
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    @Test
+    public void testKeyedByThrowableClass() {
+        final Logger rateLimitLogger = new RateLimitLogger(
+                _slf4jLogger,
+                Duration.ofMinutes(1),
+                RateLimitKey.THROWABLE_CLASS);
+        final Throwable illegalState = new IllegalStateException();
+        final Throwable illegalArgument = new IllegalArgumentException();
+        rateLimitLogger.info("m1", illegalState);
+        rateLimitLogger.info("m2", new IllegalStateException());
+        rateLimitLogger.info("m3", illegalArgument);
+        rateLimitLogger.info("m4");
+        rateLimitLogger.info("m5");
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                null,
+                new String[]{"message", "_skipped", "_lastLogTime"},
+                new Object[]{"m1", 0, null},
+                illegalState);
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                null,
+                new String[]{"message", "_skipped", "_lastLogTime"},
+                new Object[]{"m3", 0, null},
+                illegalArgument);
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                null,
+                new String[]{"message", "_skipped", "_lastLogTime"},
+                new Object[]{"m4", 0, null});
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    @Test
+    public void testKeyedByLogger() {
+        final Logger rateLimitLogger = new RateLimitLogger(
+                _slf4jLogger,
+                Duration.ofMinutes(1),
+                RateLimitKey.LOGGER);
+        rateLimitLogger.info("e1", "m1");
+        rateLimitLogger.info("e2", "m2");
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e1",
+                new String[]{"message", "_skipped", "_lastLogTime"},
+                new Object[]{"m1", 0, null});
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    private static StenoPayload createPayload(final String message, final int skipped) {
+        return new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putObject("message", message)
+                        .putInt("_skipped", skipped)
+                        .putObject("_lastLogTime", null)
+                        .build(),
+                StenoPayload.Fields.EMPTY);
     }
 
     private static Matcher<Instant> isBetween(final Instant before, final Instant after) {
@@ -220,5 +377,7 @@ public class RateLimitLoggerTest {
     @Captor
     private ArgumentCaptor<List<Object>> _dataValuesArgument;
     @Captor
+    private ArgumentCaptor<StenoPayload> _payloadArgument;
+    @Captor
     private ArgumentCaptor<Instant> _lastLogTimeArgument;
 }
@@ -0,0 +1,194 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno;
+
+import com.arpnetworking.logback.StenoMarker;
+import com.arpnetworking.logback.StenoPayload;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.MDC;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for <code>SamplingLogger</code>.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class SamplingLoggerTest {
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.doReturn(Boolean.FALSE).when(_slf4jLogger).isDebugEnabled();
+        Mockito.doReturn(Boolean.TRUE).when(_slf4jLogger).isInfoEnabled();
+    }
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void testSamplePerEvent() {
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 3);
+        for (int i = 0; i < 6; ++i) {
+            samplingLogger.info("e1", "m");
+        }
+        samplingLogger.info("e2", "m");
+        Mockito.verify(_slf4jLogger, Mockito.times(2)).info(
+                StenoMarker.ARRAY_MARKER,
+                "e1",
+                new String[]{"message", "_sampleRate"},
+                new Object[]{"m", 3});
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e2",
+                new String[]{"message", "_sampleRate"},
+                new Object[]{"m", 3});
+    }
+
+    @Test
+    public void testSampleMap() {
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 2);
+        samplingLogger.info("e", "m1", Collections.singletonMap("k", "v"));
+        samplingLogger.info("e", "m2", Collections.singletonMap("k", "v"));
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "k", "_sampleRate"},
+                new Object[]{"m1", "v", 2});
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    @Test
+    public void testSampleLogBuilder() {
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 2);
+        Assert.assertTrue(samplingLogger.info() instanceof DefaultLogBuilder);
+        Assert.assertTrue(samplingLogger.debug() instanceof NoOpLogBuilder);
+        samplingLogger.info().setMessage("m").log();
+        samplingLogger.info(l -> l.setMessage("m"));
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.PAYLOAD_MARKER,
+                null,
+                new StenoPayload(
+                        new StenoPayload.Fields.Builder()
+                                .putObject("message", "m")
+                                .putInt("_sampleRate", 2)
+                                .build(),
+                        StenoPayload.Fields.EMPTY));
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isInfoEnabled();
+        Mockito.verify(_slf4jLogger, Mockito.atLeastOnce()).isDebugEnabled();
+        Mockito.verifyNoMoreInteractions(_slf4jLogger);
+    }
+
+    @Test
+    public void testSampleLogBuilderPerEvent() {
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 2);
+        samplingLogger.info().setEvent("e1").setMessage("m").log();
+        samplingLogger.info().setEvent("e2").setMessage("m").log();
+        samplingLogger.info(l -> l.setEvent("e1").setMessage("m"));
+        samplingLogger.info(l -> l.setEvent("e2").setMessage("m"));
+        final StenoPayload payload = new StenoPayload(
+                new StenoPayload.Fields.Builder()
+                        .putObject("message", "m")
+                        .putInt("_sampleRate", 2)
+                        .build(),
+                StenoPayload.Fields.EMPTY);
+        Mockito.verify(_slf4jLogger).info(StenoMarker.PAYLOAD_MARKER, "e1", payload);
+        Mockito.verify(_slf4jLogger).info(StenoMarker.PAYLOAD_MARKER, "e2", payload);
+    }
+
+    @Test
+    public void testDisabledNotCounted() {
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 2);
+        samplingLogger.debug("e", "m");
+        samplingLogger.info("e", "m");
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "_sampleRate"},
+                new Object[]{"m", 2});
+    }
+
+    @Test
+    public void testSampleByMdc() {
+        final AtomicInteger logged = new AtomicInteger();
+        Mockito.doAnswer(invocation -> logged.incrementAndGet()).when(_slf4jLogger).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 4, "requestId");
+        int sampled = 0;
+        for (int i = 0; i < 100; ++i) {
+            MDC.put("requestId", "request-" + i);
+            final int before = logged.get();
+            for (int j = 0; j < 3; ++j) {
+                samplingLogger.info("e", "m");
+            }
+            // Every event of a request is either logged or not
+            final int count = logged.get() - before;
+            Assert.assertTrue(count == 0 || count == 3);
+            if (count == 3) {
+                ++sampled;
+            }
+        }
+        Assert.assertTrue(sampled > 0);
+        Assert.assertTrue(sampled < 100);
+    }
+
+    @Test
+    public void testSampleByMdcMissing() {
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 2, "requestId");
+        samplingLogger.info("e", "m");
+        samplingLogger.info("e", "m");
+        Mockito.verify(_slf4jLogger).info(
+                StenoMarker.ARRAY_MARKER,
+                "e",
+                new String[]{"message", "_sampleRate"},
+                new Object[]{"m", 2});
+    }
+
+    @Test
+    public void testMaximumEvents() {
+        final Logger samplingLogger = new SamplingLogger(_slf4jLogger, 2);
+        for (int i = 0; i < 1026; ++i) {
+            samplingLogger.info("e" + i, "m");
+        }
+        // The first 1024 events are counted separately and the rest share a counter
+        Mockito.verify(_slf4jLogger, Mockito.times(1025)).info(
+                Mockito.same(StenoMarker.ARRAY_MARKER),
+                Mockito.anyString(),
+                Mockito.<Object>any(),
+                Mockito.<Object>any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSampleRate() {
+        new SamplingLogger(_slf4jLogger, 0);
+    }
+
+    @Mock
+    private org.slf4j.Logger _slf4jLogger;
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2016 Ville Koskela
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.steno.aspect;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import com.arpnetworking.logback.CallSite;
+import com.arpnetworking.logback.StenoMarker;
+import com.arpnetworking.steno.Logger;
+import com.arpnetworking.steno.LoggerFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for <code>LogBuilderAspect</code> call site capture.
+ *
+ * @author Ville Koskela (ville dot koskela at inscopemetrics dot com)
+ */
+public class LogBuilderAspectTest {
+
+    @Test
+    public void testCallSite() {
+        final LoggerContext context = new LoggerContext();
+        final ch.qos.logback.classic.Logger slf4jLogger = context.getLogger(LogBuilderAspectTest.class);
+        slf4jLogger.setLevel(Level.INFO);
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        slf4jLogger.addAppender(appender);
+        final Logger logger = LoggerFactory.getLogger(slf4jLogger);
+
+        final int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        logger.info("event", "message");
+        logger.info().setEvent("event").setMessage("message").log();
+        Assert.assertNull(CallSite.current());
+
+        Assert.assertEquals(2, appender.list.size());
+        final ILoggingEvent event = appender.list.get(0);
+        Assert.assertSame(StenoMarker.ARRAY_MARKER, event.getMarker());
+        final CallSite callSite = CallSite.fromEvent(event);
+        Assert.assertEquals(LogBuilderAspectTest.class.getName(), callSite.getClassName());
+        Assert.assertEquals("testCallSite", callSite.getMethodName());
+        Assert.assertEquals("LogBuilderAspectTest.java", callSite.getFileName());
+        Assert.assertEquals(line, callSite.getLine());
+
+        final ILoggingEvent builderEvent = appender.list.get(1);
+        Assert.assertSame(StenoMarker.PAYLOAD_MARKER, builderEvent.getMarker());
+        Assert.assertEquals(line + 1, CallSite.fromEvent(builderEvent).getLine());
+    }
+
+    @Test
+    public void testNestedCallSite() {
+        final LoggerContext context = new LoggerContext();
+        final ch.qos.logback.classic.Logger slf4jLogger = context.getLogger(LogBuilderAspectTest.class);
+        slf4jLogger.setLevel(Level.INFO);
+        final Logger logger = LoggerFactory.getLogger(slf4jLogger);
+        final List<CallSite> restored = new ArrayList<>();
+        final AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(final ILoggingEvent event) {
+                if ("outer".equals(event.getMessage())) {
+                    logger.info("inner", "message");
+                    restored.add(CallSite.current());
+                }
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        slf4jLogger.addAppender(appender);
+
+        final int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        logger.info("outer", "message");
+        Assert.assertNull(CallSite.current());
+
+        // The nested call restores the call site of the enclosing call
+        Assert.assertEquals(1, restored.size());
+        Assert.assertEquals(line, restored.get(0).getLine());
+        Assert.assertEquals("testNestedCallSite", restored.get(0).getMethodName());
+    }
+}